@@ -0,0 +1,220 @@
+package com.example.LAGO.loadtest;
+
+import com.example.LAGO.LagoApplication;
+import com.example.LAGO.realtime.KisRealTimeDataProcessor;
+import com.example.LAGO.realtime.StockRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * /ws-stock 팬아웃 부하 테스트 진입점
+ *
+ * 1) 같은 JVM 에서 앱 기동 (kis.autostart=false → KIS 미접속)
+ *    PostgreSQL/Redis 는 실제로 붙으므로 미리 띄워 둘 것 - stock_info 가 채워져 있고 realtime_schema.sql 이 적용된 DB,
+ *    접속 정보는 SPRING_DATASOURCE_URL / SPRING_REDIS_HOST 등 (loadtest/build.gradle 머리말)
+ * 2) 가상 스레드 STOMP 클라이언트 N개 연결 - mix 비율대로 종목별 토픽 / 전 종목 / 1분봉 구독
+ * 3) TickDriver 가 합성 체결 프레임을 KisRealTimeDataProcessor 로 주입 (KIS 소켓 스레드와 같은 경로)
+ * 4) warmup 후 duration 동안 tick-to-client 지연 / late / 최종 시세 누락 / 서버 CPU·할당률 측정
+ * 5) report-dir 에 report.json / report.html
+ *
+ * 실행: ./gradlew :loadtest:run --args="clients=2000 stocks=300 tps=3000 mix=70,20,10 duration=60"
+ */
+public class FanoutLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.from(args);
+        int exitCode = 0;
+        ConfigurableApplicationContext app = startApplication(config);
+        try {
+            Map<String, Object> report = run(app, config);
+            Path html = ReportWriter.write(Path.of(config.reportDir()), report);
+            System.out.println("📊 Report: " + html.toAbsolutePath());
+            System.out.println(report.get("latency"));
+            System.out.println(report.get("delivery"));
+            System.out.println(report.get("resources"));
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            app.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("server.port", config.port());
+        defaults.put("kis.autostart", "false");
+        defaults.put("spring.main.banner-mode", "off");
+        // KIS 계정 placeholder - KIS 에 접속하지 않으므로 값은 쓰이지 않음 (환경 변수가 있으면 그쪽이 우선)
+        for (String key : List.of("APP_KEY_A", "APP_SECRET_A", "APP_KEY_B", "APP_SECRET_B")) {
+            defaults.put(key, "offline");
+        }
+        return new SpringApplicationBuilder(LagoApplication.class).properties(defaults).run();
+    }
+
+    static Map<String, Object> run(ConfigurableApplicationContext app, LoadTestConfig config) throws Exception {
+        int port = Integer.parseInt(app.getEnvironment().getProperty("local.server.port", String.valueOf(config.port())));
+        StockRegistry registry = app.getBean(StockRegistry.class);
+        int stockCount = Math.min(config.stocks(), registry.size());
+        if (stockCount == 0) throw new IllegalStateException("StockRegistry is empty - stock_info 테이블을 먼저 채워야 함");
+
+        String[] codes = new String[stockCount];
+        int[] stockIds = new int[stockCount];
+        for (int i = 0; i < stockCount; i++) {
+            codes[i] = registry.codeAt(i);
+            stockIds[i] = registry.stockIdAt(i);
+        }
+        TickDriver driver = new TickDriver(app.getBean(KisRealTimeDataProcessor.class), codes, stockIds, config.tps());
+        LoadStats stats = new LoadStats();
+        List<StompLoadClient> clients = createClients(config, driver, stats);
+
+        ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient http = HttpClient.newBuilder().executor(virtualThreads).build();
+        try {
+            connectAll(clients, http, URI.create("ws://localhost:" + port + "/ws-stock/websocket"), config, stats);
+
+            ResourceSampler sampler = new ResourceSampler(driver, stats);
+            Thread samplerThread = Thread.ofPlatform().name("loadtest-sampler").daemon().start(sampler);
+            Thread driverThread = Thread.ofPlatform().name("loadtest-driver").start(driver);
+
+            String startedAt = OffsetDateTime.now().toString();
+            TimeUnit.SECONDS.sleep(config.warmupSeconds());
+            driver.startMeasuring();
+            sampler.startMeasuring();
+            TimeUnit.SECONDS.sleep(config.durationSeconds());
+            sampler.stopMeasuring();
+            driver.stop();
+            driverThread.join();
+            TimeUnit.MILLISECONDS.sleep(config.drainMillis());
+            sampler.stop();
+            samplerThread.interrupt();
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("startedAt", startedAt);
+            report.put("config", config.toMap());
+            report.put("latency", latency(stats));
+            report.put("delivery", delivery(clients, driver, stats));
+            report.put("resources", sampler.summary());
+            report.put("counters", stats.counters());
+            report.put("timeline", sampler.timeline());
+            return report;
+        } finally {
+            clients.forEach(StompLoadClient::close);
+            virtualThreads.shutdownNow();
+        }
+    }
+
+    static List<StompLoadClient> createClients(LoadTestConfig config, TickDriver driver, LoadStats stats) {
+        Random random = new Random(config.seed());
+        int total = Math.max(1, config.mixCode() + config.mixAll() + config.mixCandle());
+        int perClient = Math.min(config.codesPerClient(), driver.stockCount());
+        long lateMicros = config.lateMillis() * 1000L;
+
+        List<StompLoadClient> clients = new ArrayList<>(config.clients());
+        for (int i = 0; i < config.clients(); i++) {
+            int r = random.nextInt(total);
+            StompLoadClient.Kind kind = r < config.mixCode() ? StompLoadClient.Kind.STOCK
+                    : r < config.mixCode() + config.mixAll() ? StompLoadClient.Kind.ALL
+                    : StompLoadClient.Kind.CANDLE;
+            int[] stocks = kind == StompLoadClient.Kind.STOCK
+                    ? random.ints(0, driver.stockCount()).distinct().limit(perClient).toArray()
+                    : new int[0];
+            clients.add(new StompLoadClient(kind, stocks, driver, stats, lateMicros));
+        }
+        return clients;
+    }
+
+    /**
+     * connect-rate 속도로 연결 후 전원 SUBSCRIBE 완료(또는 실패)까지 대기
+     */
+    private static void connectAll(List<StompLoadClient> clients, HttpClient http, URI uri,
+                                   LoadTestConfig config, LoadStats stats) throws InterruptedException {
+        long intervalNanos = 1_000_000_000L / Math.max(1, config.connectRate());
+        List<CompletableFuture<Void>> futures = new ArrayList<>(clients.size());
+        long next = System.nanoTime();
+        for (StompLoadClient client : clients) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            futures.add(client.connect(http, uri).whenComplete((v, e) -> {
+                if (e == null) stats.connected.incrementAndGet();
+                else stats.connectFailures.incrementAndGet();
+            }));
+            next += intervalNanos;
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // 실패 건수는 stats 로 집계 - 연결된 클라이언트만으로 계속 진행
+        }
+        // 구독 직후 스냅샷 전송이 측정에 섞이지 않도록 잠시 대기
+        TimeUnit.MILLISECONDS.sleep(500);
+        System.out.printf("🔌 connected=%d failed=%d%n", stats.connected.get(), stats.connectFailures.get());
+    }
+
+    private static Map<String, Object> latency(LoadStats stats) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("stockTopic", stats.stockTopicLatency.summary());
+        latency.put("allTopic", stats.allTopicLatency.summary());
+        return latency;
+    }
+
+    /**
+     * - late: late-ms 보다 늦게 도착한 시세 프레임
+     * - staleAtEnd (dropped): drain 후에도 마지막으로 주입한 시세를 못 받은 (클라이언트, 종목) 쌍
+     *   conflation 은 중간 틱을 건너뛰어도 최신값은 반드시 보내야 하므로 0 이 아니면 유실
+     * - conflatedPct: 구독 기준 전체 틱 대비 건너뛴 비율 (정상 동작, 참고용)
+     */
+    static Map<String, Object> delivery(List<StompLoadClient> clients, TickDriver driver, LoadStats stats) {
+        int[] stockSubscribers = new int[driver.stockCount()];
+        int allSubscribers = 0;
+        AtomicInteger stale = new AtomicInteger();
+        long subscriptions = 0;
+        for (StompLoadClient client : clients) {
+            switch (client.kind()) {
+                case STOCK -> {
+                    for (int stock : client.stocks()) stockSubscribers[stock]++;
+                    subscriptions += client.stocks().length;
+                }
+                case ALL -> {
+                    allSubscribers++;
+                    subscriptions += driver.stockCount();
+                }
+                case CANDLE -> { }
+            }
+            stale.addAndGet(client.staleStocks());
+        }
+        final int all = allSubscribers;
+        long fanout = IntStream.range(0, driver.stockCount())
+                .mapToLong(s -> (long) (driver.lastPrice(s) - TickDriver.BASE_PRICE) * (stockSubscribers[s] + all))
+                .sum();
+
+        Map<String, Object> delivery = new LinkedHashMap<>();
+        delivery.put("ticksInjected", driver.injected());
+        delivery.put("quoteSubscriptions", subscriptions);
+        delivery.put("quoteUpdatesReceived", stats.quoteUpdates.get());
+        delivery.put("conflatedPct", fanout == 0 ? 0 : Math.round((1 - (double) stats.quoteUpdates.get() / fanout) * 1000) / 10.0);
+        delivery.put("late", stats.late.get());
+        delivery.put("staleAtEnd", stale.get());
+        delivery.put("outOfOrder", stats.outOfOrder.get());
+        delivery.put("candleFrames", stats.candleFrames.get());
+        return delivery;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.LAGO.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 마이크로초 단위 로그-선형 히스토그램 (상대 오차 ~3%, 락 없음)
+ *
+ * - 0 ~ 63µs 는 1µs 단위 그대로
+ * - 그 이상은 2의 거듭제곱 구간마다 32칸 (상위 6비트만 유지)
+ * 클라이언트 수천 개가 동시에 기록하므로 샘플을 모으지 않고 버킷 카운트만 올림
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB_COUNT * 60;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long micros) {
+        long v = Math.max(0, micros);
+        buckets.incrementAndGet(indexOf(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    static int indexOf(long v) {
+        if (v < 2 * SUB_COUNT) return (int) v;
+        int exp = (63 - Long.numberOfLeadingZeros(v)) - SUB_BITS;
+        int index = SUB_COUNT * exp + (int) (v >>> exp);
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    /** 버킷 하한값 (µs) */
+    static long valueOf(int index) {
+        if (index < 2 * SUB_COUNT) return index;
+        int exp = index / SUB_COUNT - 1;
+        return (long) (index - SUB_COUNT * exp) << exp;
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * @param quantile 0.0 ~ 1.0
+     * @return 해당 분위수가 속한 버킷 하한값 (µs), 기록이 없으면 0
+     */
+    public long percentile(double quantile) {
+        long n = count.get();
+        if (n == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) return Math.min(valueOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count());
+        summary.put("meanMicros", Math.round(mean()));
+        summary.put("p50Micros", percentile(0.50));
+        summary.put("p99Micros", percentile(0.99));
+        summary.put("p999Micros", percentile(0.999));
+        summary.put("maxMicros", max());
+        return summary;
+    }
+}
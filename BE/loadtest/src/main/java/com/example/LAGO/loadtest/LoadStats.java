@@ -0,0 +1,49 @@
+package com.example.LAGO.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 전 클라이언트 공용 집계 (카운터는 원자 변수, 지연은 토픽 종류별 히스토그램)
+ */
+public class LoadStats {
+
+    final LatencyHistogram stockTopicLatency = new LatencyHistogram();
+    final LatencyHistogram allTopicLatency = new LatencyHistogram();
+
+    final AtomicLong connected = new AtomicLong();
+    final AtomicLong connectFailures = new AtomicLong();
+    final AtomicLong disconnects = new AtomicLong();
+    final AtomicLong stompErrors = new AtomicLong();
+    final AtomicLong frames = new AtomicLong();
+    final AtomicLong bytes = new AtomicLong();
+    final AtomicLong quoteUpdates = new AtomicLong();
+    final AtomicLong snapshotUpdates = new AtomicLong();
+    final AtomicLong candleFrames = new AtomicLong();
+    final AtomicLong late = new AtomicLong();
+    final AtomicLong outOfOrder = new AtomicLong();
+    final AtomicLong parseErrors = new AtomicLong();
+
+    void recordLatency(boolean allTopic, long micros, long lateMicros) {
+        (allTopic ? allTopicLatency : stockTopicLatency).record(micros);
+        if (micros > lateMicros) late.incrementAndGet();
+    }
+
+    Map<String, Object> counters() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("connected", connected.get());
+        map.put("connectFailures", connectFailures.get());
+        map.put("disconnects", disconnects.get());
+        map.put("stompErrors", stompErrors.get());
+        map.put("frames", frames.get());
+        map.put("bytes", bytes.get());
+        map.put("quoteUpdates", quoteUpdates.get());
+        map.put("snapshotUpdates", snapshotUpdates.get());
+        map.put("candleFrames", candleFrames.get());
+        map.put("late", late.get());
+        map.put("outOfOrder", outOfOrder.get());
+        map.put("parseErrors", parseErrors.get());
+        return map;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.LAGO.loadtest;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 하네스 설정 - 인자 key=value 또는 -Dloadtest.key=value (인자가 우선)
+ *
+ * @param clients       STOMP 클라이언트 수
+ * @param stocks        틱을 흘릴 종목 수 (StockRegistry 앞에서부터)
+ * @param codesPerClient /topic/stocks/{code} 클라이언트 1개가 구독하는 종목 수
+ * @param mixCode       클라이언트 구성 비율: 종목별 토픽
+ * @param mixAll        클라이언트 구성 비율: /topic/stocks/all
+ * @param mixCandle     클라이언트 구성 비율: /topic/realtime-1m/*
+ * @param tps           초당 주입 틱 수 (전 종목 합)
+ * @param warmupSeconds 이 구간의 지연은 집계에서 제외
+ * @param durationSeconds 측정 구간
+ * @param drainMillis   주입 종료 후 마지막 시세 도착 대기
+ * @param lateMillis    이보다 늦게 도착한 프레임은 late 로 집계
+ * @param port          앱 포트 (0 이면 임의 포트)
+ * @param connectRate   초당 신규 연결 수 (연결 폭주로 측정이 흐려지지 않도록)
+ * @param seed          구독 종목 선택 시드
+ * @param reportDir     report.json / report.html 출력 위치
+ */
+public record LoadTestConfig(int clients, int stocks, int codesPerClient,
+                             int mixCode, int mixAll, int mixCandle,
+                             int tps, int warmupSeconds, int durationSeconds, int drainMillis, int lateMillis,
+                             int port, int connectRate, long seed, String reportDir) {
+
+    static LoadTestConfig from(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        System.getProperties().forEach((k, v) -> {
+            String key = k.toString();
+            if (key.startsWith("loadtest.")) values.put(key.substring("loadtest.".length()), v.toString());
+        });
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("expected key=value: " + arg);
+            values.put(arg.substring(arg.startsWith("--") ? 2 : 0, eq), arg.substring(eq + 1));
+        }
+
+        String[] mix = values.getOrDefault("mix", "70,20,10").split(",");
+        if (mix.length != 3) throw new IllegalArgumentException("mix=code,all,candle (e.g. 70,20,10)");
+
+        return new LoadTestConfig(
+                intOf(values, "clients", 1000),
+                intOf(values, "stocks", 200),
+                intOf(values, "codes-per-client", 5),
+                Integer.parseInt(mix[0].trim()), Integer.parseInt(mix[1].trim()), Integer.parseInt(mix[2].trim()),
+                intOf(values, "tps", 2000),
+                intOf(values, "warmup", 10),
+                intOf(values, "duration", 60),
+                intOf(values, "drain-ms", 3000),
+                intOf(values, "late-ms", 500),
+                intOf(values, "port", 0),
+                intOf(values, "connect-rate", 500),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("report-dir", "build/loadtest-report"));
+    }
+
+    private static int intOf(Map<String, String> values, String key, int defaultValue) {
+        String v = values.get(key);
+        return v == null ? defaultValue : Integer.parseInt(v.trim());
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("clients", clients);
+        map.put("stocks", stocks);
+        map.put("codesPerClient", codesPerClient);
+        map.put("mix", mixCode + "/" + mixAll + "/" + mixCandle + " (code/all/candle)");
+        map.put("tps", tps);
+        map.put("warmupSeconds", warmupSeconds);
+        map.put("durationSeconds", durationSeconds);
+        map.put("drainMillis", drainMillis);
+        map.put("lateMillis", lateMillis);
+        map.put("connectRate", connectRate);
+        map.put("seed", seed);
+        return map;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.LAGO.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * report.json (원본 그대로) + report.html (요약 표 + 초당 타임라인, 외부 리소스 없이 단일 파일)
+ */
+public class ReportWriter {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    static Path write(Path dir, Map<String, Object> report) throws IOException {
+        Files.createDirectories(dir);
+        Files.writeString(dir.resolve("report.json"), MAPPER.writeValueAsString(report), StandardCharsets.UTF_8);
+        Path html = dir.resolve("report.html");
+        Files.writeString(html, html(report), StandardCharsets.UTF_8);
+        return html;
+    }
+
+    @SuppressWarnings("unchecked")
+    static String html(Map<String, Object> report) {
+        StringBuilder sb = new StringBuilder(16 * 1024);
+        sb.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>/ws-stock fan-out load test</title>")
+                .append("<style>body{font-family:sans-serif;margin:24px}table{border-collapse:collapse;margin-bottom:24px}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}th{background:#f3f3f3}")
+                .append("td:first-child,th:first-child{text-align:left}.warmup{color:#999}</style></head><body>")
+                .append("<h1>/ws-stock fan-out load test</h1><p>").append(report.get("startedAt")).append("</p>");
+
+        for (Map.Entry<String, Object> section : report.entrySet()) {
+            if (section.getValue() instanceof Map<?, ?> map) {
+                sb.append("<h2>").append(section.getKey()).append("</h2>");
+                table(sb, (Map<String, Object>) map);
+            }
+        }
+
+        List<Map<String, Object>> timeline = (List<Map<String, Object>>) report.get("timeline");
+        if (timeline != null && !timeline.isEmpty()) {
+            sb.append("<h2>timeline</h2><table><tr>");
+            for (String column : timeline.get(0).keySet()) sb.append("<th>").append(column).append("</th>");
+            sb.append("</tr>");
+            for (Map<String, Object> point : timeline) {
+                sb.append(Boolean.TRUE.equals(point.get("measuring")) ? "<tr>" : "<tr class=\"warmup\">");
+                for (Object v : point.values()) sb.append("<td>").append(v).append("</td>");
+                sb.append("</tr>");
+            }
+            sb.append("</table>");
+        }
+        return sb.append("</body></html>").toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void table(StringBuilder sb, Map<String, Object> map) {
+        sb.append("<table>");
+        for (Map.Entry<String, Object> row : map.entrySet()) {
+            sb.append("<tr><th>").append(row.getKey()).append("</th><td>");
+            if (row.getValue() instanceof Map<?, ?> nested) {
+                table(sb, (Map<String, Object>) nested);
+            } else {
+                sb.append(row.getValue());
+            }
+            sb.append("</td></tr>");
+        }
+        sb.append("</table>");
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.LAGO.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 1초마다 CPU/할당률 샘플링 (loadtest-sampler 스레드)
+ *
+ * 앱과 클라이언트가 같은 JVM 이므로 스레드 이름으로 나눠 "서버" 몫만 따로 집계:
+ * 가상 스레드 캐리어(ForkJoinPool-*), HttpClient-*, loadtest-* 를 제외한 플랫폼 스레드
+ * (KIS 파이프라인, clientOutboundChannel, 브로커, 팬아웃/스냅샷 스케줄러 등)
+ * 주입 스레드(loadtest-driver) 도 제외 - 프레임 문자열 생성은 KIS 소켓 수신 비용이 아님
+ */
+public class ResourceSampler implements Runnable {
+
+    private static final String[] CLIENT_THREAD_PREFIXES = {"ForkJoinPool", "HttpClient-", "loadtest-"};
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final TickDriver driver;
+    private final LoadStats stats;
+    private final int cpus = Runtime.getRuntime().availableProcessors();
+
+    // sampler 스레드 전용
+    private final Map<Long, long[]> previous = new HashMap<>();
+    private long lastNanos;
+    private long lastProcessCpu;
+    private long lastInjected;
+    private long lastUpdates;
+    private long lastFrames;
+    private long second;
+
+    private final List<Map<String, Object>> timeline = new ArrayList<>();
+    private volatile boolean measuring;
+    private long windowNanos;
+    private long windowServerCpu;
+    private long windowServerAlloc;
+    private long windowProcessCpu;
+    private long windowInjected;
+    private volatile boolean running = true;
+
+    public ResourceSampler(TickDriver driver, LoadStats stats) {
+        this.driver = driver;
+        this.stats = stats;
+        threads.setThreadCpuTimeEnabled(true);
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Override
+    public void run() {
+        sample(false);
+        while (running) {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            sample(true);
+        }
+    }
+
+    private synchronized void sample(boolean record) {
+        long now = System.nanoTime();
+        long processCpu = os.getProcessCpuTime();
+        long serverCpu = 0;
+        long serverAlloc = 0;
+
+        long[] ids = threads.getAllThreadIds();
+        ThreadInfo[] infos = threads.getThreadInfo(ids);
+        long[] cpu = threads.getThreadCpuTime(ids);
+        long[] alloc = threads.getThreadAllocatedBytes(ids);
+        Map<Long, long[]> current = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (infos[i] == null || isClientThread(infos[i].getThreadName()) || cpu[i] < 0 || alloc[i] < 0) continue;
+            long[] prev = previous.getOrDefault(ids[i], new long[2]);
+            serverCpu += cpu[i] - prev[0];
+            serverAlloc += alloc[i] - prev[1];
+            current.put(ids[i], new long[]{cpu[i], alloc[i]});
+        }
+        previous.clear();
+        previous.putAll(current);
+
+        if (record && lastNanos > 0) {
+            double elapsed = now - lastNanos;
+            long injected = driver.injected();
+            long updates = stats.quoteUpdates.get();
+            long frames = stats.frames.get();
+
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("second", ++second);
+            point.put("measuring", measuring);
+            point.put("ticksPerSec", Math.round((injected - lastInjected) * 1e9 / elapsed));
+            point.put("framesPerSec", Math.round((frames - lastFrames) * 1e9 / elapsed));
+            point.put("quoteUpdatesPerSec", Math.round((updates - lastUpdates) * 1e9 / elapsed));
+            point.put("processCpuPct", round1((processCpu - lastProcessCpu) * 100.0 / elapsed / cpus));
+            point.put("serverCpuPct", round1(serverCpu * 100.0 / elapsed / cpus));
+            point.put("serverAllocMBps", round1(serverAlloc * 1e9 / elapsed / (1 << 20)));
+            point.put("heapUsedMB", memory.getHeapMemoryUsage().getUsed() >> 20);
+            timeline.add(point);
+
+            if (measuring) {
+                windowNanos += now - lastNanos;
+                windowServerCpu += serverCpu;
+                windowServerAlloc += serverAlloc;
+                windowProcessCpu += processCpu - lastProcessCpu;
+                windowInjected += injected - lastInjected;
+            }
+            lastInjected = injected;
+            lastUpdates = updates;
+            lastFrames = frames;
+        }
+        lastNanos = now;
+        lastProcessCpu = processCpu;
+    }
+
+    private static boolean isClientThread(String name) {
+        for (String prefix : CLIENT_THREAD_PREFIXES) if (name.startsWith(prefix)) return true;
+        return false;
+    }
+
+    private static double round1(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+
+    void startMeasuring() {
+        measuring = true;
+    }
+
+    void stopMeasuring() {
+        measuring = false;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    synchronized List<Map<String, Object>> timeline() {
+        return new ArrayList<>(timeline);
+    }
+
+    /**
+     * 측정 구간 평균
+     */
+    synchronized Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        double elapsed = Math.max(1, windowNanos);
+        summary.put("cpus", cpus);
+        summary.put("processCpuPct", round1(windowProcessCpu * 100.0 / elapsed / cpus));
+        summary.put("serverCpuPct", round1(windowServerCpu * 100.0 / elapsed / cpus));
+        summary.put("serverCpuMicrosPerTick", round1(windowServerCpu / 1e3 / Math.max(1, windowInjected)));
+        summary.put("serverAllocMBps", round1(windowServerAlloc * 1e9 / elapsed / (1 << 20)));
+        summary.put("serverThreadsNote", "platform threads excluding ForkJoinPool-*, HttpClient-*, loadtest-*");
+        return summary;
+    }
+}
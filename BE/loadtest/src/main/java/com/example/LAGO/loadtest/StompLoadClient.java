@@ -0,0 +1,241 @@
+package com.example.LAGO.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 최소 STOMP 1.2 클라이언트 (java.net.http.WebSocket, SockJS 원시 WebSocket 경로 /ws-stock/websocket)
+ *
+ * 콜백은 HttpClient executor(가상 스레드)에서 실행되고 request(1) 로 한 번에 메시지 1개만 처리.
+ * 종목별로 마지막으로 본 현재가를 기억해 두었다가 종료 시 최종 시세 누락(dropped) 판정
+ */
+public class StompLoadClient implements WebSocket.Listener {
+
+    enum Kind { STOCK, ALL, CANDLE }
+
+    static final String STOCK_TOPIC_PREFIX = "/topic/stocks/";
+    static final String ALL_TOPIC = "/topic/stocks/all";
+    static final String CANDLE_TOPIC_PATTERN = "/topic/realtime-1m/*";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Kind kind;
+    private final int[] stocks; // STOCK: 구독 종목 (driver 인덱스)
+    private final TickDriver driver;
+    private final LoadStats stats;
+    private final long lateMicros;
+    private final int[] lastSeen;
+
+    private final StringBuilder partial = new StringBuilder();
+    private final CompletableFuture<Void> subscribed = new CompletableFuture<>();
+    private WebSocket webSocket;
+
+    StompLoadClient(Kind kind, int[] stocks, TickDriver driver, LoadStats stats, long lateMicros) {
+        this.kind = kind;
+        this.stocks = stocks;
+        this.driver = driver;
+        this.stats = stats;
+        this.lateMicros = lateMicros;
+        this.lastSeen = new int[driver.stockCount()];
+    }
+
+    /**
+     * 연결 + CONNECT + SUBSCRIBE 까지 완료되면 끝나는 future
+     */
+    CompletableFuture<Void> connect(HttpClient http, URI uri) {
+        http.newWebSocketBuilder().buildAsync(uri, this).whenComplete((ws, e) -> {
+            if (e != null) subscribed.completeExceptionally(e);
+        });
+        return subscribed;
+    }
+
+    List<String> destinations() {
+        List<String> destinations = new ArrayList<>();
+        switch (kind) {
+            case STOCK -> {
+                for (int stock : stocks) destinations.add(STOCK_TOPIC_PREFIX + driver.codeAt(stock));
+            }
+            case ALL -> destinations.add(ALL_TOPIC);
+            case CANDLE -> destinations.add(CANDLE_TOPIC_PATTERN);
+        }
+        return destinations;
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        this.webSocket = webSocket;
+        webSocket.sendText("CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:0,0\n\n\0", true);
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        long nowNanos = System.nanoTime();
+        partial.append(data);
+        if (last) {
+            String message = partial.toString();
+            partial.setLength(0);
+            stats.bytes.addAndGet(message.length());
+            for (String frame : message.split("\0")) {
+                if (!frame.isBlank()) onFrame(frame, nowNanos);
+            }
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    private void onFrame(String frame, long nowNanos) {
+        int lineEnd = frame.indexOf('\n');
+        String command = (lineEnd < 0 ? frame : frame.substring(0, lineEnd)).trim();
+        switch (command) {
+            case "CONNECTED" -> subscribe();
+            case "MESSAGE" -> {
+                stats.frames.incrementAndGet();
+                int bodyStart = frame.indexOf("\n\n");
+                String destination = header(frame, "destination");
+                if (bodyStart < 0 || destination == null) {
+                    stats.parseErrors.incrementAndGet();
+                    return;
+                }
+                onMessage(destination, frame.substring(bodyStart + 2), nowNanos);
+            }
+            case "ERROR" -> {
+                stats.stompErrors.incrementAndGet();
+                subscribed.completeExceptionally(new IllegalStateException(frame));
+            }
+            default -> { }
+        }
+    }
+
+    private void subscribe() {
+        List<String> destinations = destinations();
+        StringBuilder frames = new StringBuilder();
+        for (int i = 0; i < destinations.size(); i++) {
+            frames.append("SUBSCRIBE\nid:sub-").append(i).append("\ndestination:").append(destinations.get(i))
+                    .append("\n\n\0");
+        }
+        // Spring StompDecoder 는 한 WebSocket 메시지 안의 여러 프레임을 순서대로 디코딩
+        webSocket.sendText(frames, true).whenComplete((ws, e) -> {
+            if (e != null) subscribed.completeExceptionally(e);
+            else subscribed.complete(null);
+        });
+    }
+
+    void onMessage(String destination, String body, long nowNanos) {
+        try {
+            if (destination.equals(ALL_TOPIC)) {
+                JsonNode frame = MAPPER.readTree(body);
+                boolean keyframe = "key".equals(frame.path("type").asText());
+                for (JsonNode row : frame.path("rows")) {
+                    if (row.size() < 2 || row.get(1).isNull()) continue;
+                    onQuote(true, driver.indexOfStockId(row.get(0).asInt()), row.get(1).asInt(), keyframe, nowNanos);
+                }
+            } else if (destination.startsWith(STOCK_TOPIC_PREFIX)) {
+                String code = destination.substring(STOCK_TOPIC_PREFIX.length());
+                int price = intField(body, "closePrice");
+                onQuote(false, driver.indexOfCode(code), price, body.contains("\"snapshot\":true"), nowNanos);
+            } else {
+                stats.candleFrames.incrementAndGet();
+            }
+        } catch (Exception e) {
+            stats.parseErrors.incrementAndGet();
+        }
+    }
+
+    private void onQuote(boolean allTopic, int stock, int price, boolean snapshot, long nowNanos) {
+        if (stock < 0 || price <= 0) return;
+        if (price < lastSeen[stock]) {
+            stats.outOfOrder.incrementAndGet();
+            return;
+        }
+        lastSeen[stock] = price;
+        if (snapshot) {
+            stats.snapshotUpdates.incrementAndGet();
+            return;
+        }
+        stats.quoteUpdates.incrementAndGet();
+        long sent = driver.sentNanosOf(stock, price);
+        if (sent > 0) stats.recordLatency(allTopic, (nowNanos - sent) / 1000, lateMicros);
+    }
+
+    /**
+     * 종료 시 호출 - 구독 중인 종목 중 마지막으로 주입한 시세를 끝내 받지 못한 수
+     */
+    int staleStocks() {
+        int stale = 0;
+        switch (kind) {
+            case STOCK -> {
+                for (int stock : stocks) if (lastSeen[stock] != driver.lastPrice(stock)) stale++;
+            }
+            case ALL -> {
+                for (int stock = 0; stock < driver.stockCount(); stock++) {
+                    if (lastSeen[stock] != driver.lastPrice(stock)) stale++;
+                }
+            }
+            case CANDLE -> { }
+        }
+        return stale;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    int[] stocks() {
+        return stocks;
+    }
+
+    void close() {
+        if (webSocket != null) webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        stats.disconnects.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        stats.disconnects.incrementAndGet();
+        subscribed.completeExceptionally(error);
+    }
+
+    static String header(String frame, String name) {
+        String prefix = "\n" + name + ":";
+        int start = frame.indexOf(prefix);
+        int headersEnd = frame.indexOf("\n\n");
+        if (start < 0 || (headersEnd >= 0 && start > headersEnd)) return null;
+        start += prefix.length();
+        int end = frame.indexOf('\n', start);
+        return frame.substring(start, end < 0 ? frame.length() : end);
+    }
+
+    /**
+     * JSON 본문에서 정수 필드 하나만 추출 (메시지마다 트리를 만들지 않도록), 없거나 null 이면 -1
+     */
+    static int intField(String json, String name) {
+        String key = "\"" + name + "\":";
+        int i = json.indexOf(key);
+        if (i < 0) return -1;
+        i += key.length();
+        while (i < json.length() && json.charAt(i) == ' ') i++;
+        int value = 0;
+        boolean any = false;
+        for (; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (c < '0' || c > '9') break;
+            value = value * 10 + (c - '0');
+            any = true;
+        }
+        return any ? value : -1;
+    }
+}
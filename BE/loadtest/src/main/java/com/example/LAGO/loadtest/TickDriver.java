@@ -0,0 +1,154 @@
+package com.example.LAGO.loadtest;
+
+import com.example.LAGO.realtime.KisRealTimeDataProcessor;
+
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 합성 H0STCNT0 프레임을 일정 속도로 KisRealTimeDataProcessor 에 주입 (KIS 소켓 스레드 역할)
+ *
+ * 종목마다 현재가를 1씩 올려 가격 자체를 틱 식별자로 사용:
+ * 클라이언트가 받은 (종목, 현재가) → 주입 시각 조회 → tick-to-client 지연
+ * 종목당 RING 틱 안에 도착한 프레임만 정확히 매칭됨 (그보다 늦으면 어차피 late)
+ */
+public class TickDriver implements Runnable {
+
+    static final int BASE_PRICE = 10_000;
+    static final int PREVIOUS_CLOSE = BASE_PRICE - 100;
+    private static final int RING = 4096;
+    private static final int FIELD_COUNT = 22; // 체결구분(21)까지
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final DateTimeFormatter HHMMSS = DateTimeFormatter.ofPattern("HHmmss");
+
+    private final KisRealTimeDataProcessor processor;
+    private final String[] codes;
+    private final int[] stockIds;
+    private final Map<String, Integer> byCode = new HashMap<>();
+    private final Map<Integer, Integer> byStockId = new HashMap<>();
+    private final int tps;
+
+    // 주입 스레드만 씀
+    private final int[] counters;
+    private final long[] cumVolumes;
+    private long lastSecond = -1;
+    private String hhmmss;
+
+    private final AtomicLongArray sentNanos;
+    private final AtomicLongArray lastPrices;
+    private final AtomicLong injected = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+
+    public TickDriver(KisRealTimeDataProcessor processor, String[] codes, int[] stockIds, int tps) {
+        this.processor = processor;
+        this.codes = codes;
+        this.stockIds = stockIds;
+        this.tps = tps;
+        this.counters = new int[codes.length];
+        this.cumVolumes = new long[codes.length];
+        this.sentNanos = new AtomicLongArray(codes.length * RING);
+        this.lastPrices = new AtomicLongArray(codes.length);
+        for (int i = 0; i < codes.length; i++) {
+            byCode.put(codes[i], i);
+            byStockId.put(stockIds[i], i);
+        }
+    }
+
+    @Override
+    public void run() {
+        long intervalNanos = 1_000_000_000L / Math.max(1, tps);
+        long next = System.nanoTime();
+        int stock = 0;
+        while (running) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            inject(stock);
+            stock = stock + 1 == codes.length ? 0 : stock + 1;
+            next += intervalNanos;
+        }
+    }
+
+    private void inject(int stock) {
+        int counter = ++counters[stock];
+        int price = BASE_PRICE + counter;
+        cumVolumes[stock] += 10;
+        String frame = frame(codes[stock], price, cumVolumes[stock]);
+        sentNanos.set(stock * RING + (counter & (RING - 1)), System.nanoTime());
+        lastPrices.set(stock, price);
+        processor.processStockData(frame);
+        injected.incrementAndGet();
+    }
+
+    private String frame(String code, int price, long cumVolume) {
+        long second = System.currentTimeMillis() / 1000;
+        if (second != lastSecond) {
+            lastSecond = second;
+            hhmmss = LocalTime.now(KST).format(HHMMSS);
+        }
+        int change = price - PREVIOUS_CLOSE;
+        String rate = String.format(Locale.ROOT, "%.2f", change * 100.0 / PREVIOUS_CLOSE);
+        StringBuilder sb = new StringBuilder(128).append("0|H0STCNT0|001|");
+        sb.append(code).append('^').append(hhmmss).append('^').append(price).append("^2^")
+                .append(change).append('^').append(rate).append('^').append(price).append('^')
+                .append(BASE_PRICE).append('^').append(price).append('^').append(BASE_PRICE).append('^')
+                .append(price + 1).append('^').append(price).append("^10^").append(cumVolume);
+        for (int f = 14; f < FIELD_COUNT - 1; f++) sb.append("^0");
+        return sb.append("^1").toString();
+    }
+
+    /**
+     * @return 해당 (종목, 현재가) 틱의 주입 시각, 측정 구간 이전이거나 모르는 틱이면 -1
+     */
+    long sentNanosOf(int stock, int price) {
+        int counter = price - BASE_PRICE;
+        if (stock < 0 || counter <= 0) return -1;
+        long sent = sentNanos.get(stock * RING + (counter & (RING - 1)));
+        return sent >= measureFromNanos ? sent : -1;
+    }
+
+    int indexOfCode(String code) {
+        Integer i = byCode.get(code);
+        return i == null ? -1 : i;
+    }
+
+    int indexOfStockId(int stockId) {
+        Integer i = byStockId.get(stockId);
+        return i == null ? -1 : i;
+    }
+
+    int lastPrice(int stock) {
+        return (int) lastPrices.get(stock);
+    }
+
+    int stockCount() {
+        return codes.length;
+    }
+
+    String codeAt(int stock) {
+        return codes[stock];
+    }
+
+    int stockIdAt(int stock) {
+        return stockIds[stock];
+    }
+
+    long injected() {
+        return injected.get();
+    }
+
+    void startMeasuring() {
+        measureFromNanos = System.nanoTime();
+    }
+
+    void stop() {
+        running = false;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.LAGO.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 히스토그램 정밀도 / STOMP 프레임 파싱 / 틱 ↔ 수신 매칭
+ */
+public class LoadTestHarnessTest {
+
+    @Test
+    public void histogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 100_000; v++) histogram.record(v);
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000, histogram.percentile(0.50), 50_000 * 0.035);
+        assertEquals(99_000, histogram.percentile(0.99), 99_000 * 0.035);
+        assertEquals(99_900, histogram.percentile(0.999), 99_900 * 0.035);
+        for (long v : new long[]{0, 1, 63, 64, 65, 1_000, 123_456_789L}) {
+            long lower = LatencyHistogram.valueOf(LatencyHistogram.indexOf(v));
+            assertTrue(lower <= v && v - lower <= Math.max(1, v / 32), "v=" + v + " lower=" + lower);
+        }
+    }
+
+    @Test
+    public void matchesReceivedQuotesToInjectedTicks() {
+        LoadStats stats = new LoadStats();
+        TickDriver driver = new TickDriver(null, new String[]{"005930", "000660"}, new int[]{1, 2}, 1);
+        driver.startMeasuring();
+        StompLoadClient stock = new StompLoadClient(StompLoadClient.Kind.STOCK, new int[]{0}, driver, stats, 1_000_000);
+        StompLoadClient all = new StompLoadClient(StompLoadClient.Kind.ALL, new int[0], driver, stats, 1_000_000);
+        assertEquals(List.of("/topic/stocks/005930"), stock.destinations());
+
+        // 아직 주입 안 된 가격 → 지연 기록 없음, 최종 시세도 아직 0 이라 stale 아님
+        stock.onMessage("/topic/stocks/005930", "{\"code\":\"005930\",\"closePrice\":10001,\"seq\":3}", System.nanoTime());
+        assertEquals(1, stats.quoteUpdates.get());
+        assertEquals(0, stats.stockTopicLatency.count());
+
+        all.onMessage("/topic/stocks/all",
+                "{\"type\":\"delta\",\"seq\":1,\"ts\":0,\"rows\":[[2,10003,153,203,30,90000],[99,1,0,0,0,0]]}",
+                System.nanoTime());
+        all.onMessage("/topic/stocks/all",
+                "{\"type\":\"key\",\"seq\":2,\"ts\":0,\"rows\":[[2,10002,152,202,20,90000]]}", System.nanoTime());
+        assertEquals(1, stats.outOfOrder.get());
+        assertEquals(0, stats.parseErrors.get());
+
+        stock.onMessage("/topic/stocks/005930", "{\"code\":\"005930\",\"closePrice\":10000,\"snapshot\":true}",
+                System.nanoTime());
+        assertEquals(2, stats.outOfOrder.get());
+        assertEquals(0, stats.snapshotUpdates.get());
+    }
+
+    @Test
+    public void parsesStompHeadersAndJsonFields() {
+        String frame = "MESSAGE\ndestination:/topic/stocks/005930\nsubscription:sub-0\n\n{\"closePrice\": 71900}";
+        assertEquals("/topic/stocks/005930", StompLoadClient.header(frame, "destination"));
+        assertNull(StompLoadClient.header(frame, "content-type"));
+        assertEquals(71900, StompLoadClient.intField("{\"closePrice\": 71900}", "closePrice"));
+        assertEquals(-1, StompLoadClient.intField("{\"closePrice\":null}", "closePrice"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.dto.StockInfoDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 종목 조회: 기존 StockIdMapper(ConcurrentHashMap String↔Integer) vs StockRegistry(직접 배열)
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=StockRegistry  (결과: build/results/jmh)
+ * - codeToId*: 틱마다 하는 코드 → stock_info_id 조회 (KIS 프레임에서 파싱한 값 기준)
+ * - idToCode*: 로그/브로드캐스트용 역조회
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StockRegistryBenchmark {
+
+    private static final int STOCKS = 2_500; // KOSPI + KOSDAQ 규모
+    private static final int LOOKUPS = 1_024;
+
+    private final Map<String, Integer> codeToIdMap = new ConcurrentHashMap<>();
+    private final Map<Integer, String> idToCodeMap = new ConcurrentHashMap<>();
+    private StockRegistry registry;
+
+    // 조회 대상 (프레임에서 파싱된 형태: char[] → 기존 경로는 String 생성, 신규 경로는 숫자 코드)
+    private char[][] codeChars;
+    private int[] numericCodes;
+    private int[] stockIds;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<StockInfoDto> stocks = new ArrayList<>();
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < STOCKS; i++) {
+            String code;
+            do {
+                code = String.format("%06d", random.nextInt(1_000_000));
+            } while (codeToIdMap.containsKey(code));
+            int id = 1 + i;
+            codeToIdMap.put(code, id);
+            idToCodeMap.put(id, code);
+            codes.add(code);
+            StockInfoDto dto = new StockInfoDto();
+            dto.setStockInfoId(id);
+            dto.setCode(code);
+            dto.setMarket(i % 2 == 0 ? "KOSPI" : "KOSDAQ");
+            stocks.add(dto);
+        }
+        registry = new StockRegistry(null);
+        registry.load(stocks);
+
+        codeChars = new char[LOOKUPS][];
+        numericCodes = new int[LOOKUPS];
+        stockIds = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String code = codes.get(random.nextInt(STOCKS));
+            codeChars[i] = code.toCharArray();
+            numericCodes[i] = Integer.parseInt(code);
+            stockIds[i] = codeToIdMap.get(code);
+        }
+    }
+
+    @Benchmark
+    public void codeToIdMap(Blackhole bh) {
+        for (char[] code : codeChars) {
+            bh.consume(codeToIdMap.get(new String(code)));
+        }
+    }
+
+    @Benchmark
+    public void codeToIdRegistry(Blackhole bh) {
+        for (int code : numericCodes) {
+            int idx = registry.indexOfNumericCode(code);
+            bh.consume(registry.stockIdAt(idx));
+        }
+    }
+
+    @Benchmark
+    public void idToCodeMap(Blackhole bh) {
+        for (int id : stockIds) {
+            bh.consume(idToCodeMap.get(id));
+        }
+    }
+
+    @Benchmark
+    public void idToCodeRegistry(Blackhole bh) {
+        for (int id : stockIds) {
+            bh.consume(registry.codeAt(registry.indexOfStockId(id)));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.LAGO.config;
+
+import com.example.LAGO.realtime.wire.BinaryQuoteHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+/**
+ * 바이너리 시세 전용 네이티브 WebSocket (/ws-quote, SockJS 없음)
+ * STOMP(/ws-stock, WebSocketConfig)와 별도 엔드포인트
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class BinaryQuoteWebSocketConfig implements WebSocketConfigurer {
+
+    private final BinaryQuoteHandler binaryQuoteHandler;
+
+    // permessage-deflate 협상 허용 여부 (컨테이너가 지원할 때)
+    @Value("${realtime.wire.deflate:true}")
+    private boolean deflate;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(binaryQuoteHandler, "/ws-quote")
+                .setHandshakeHandler(new DefaultHandshakeHandler() {
+                    @Override
+                    protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                            List<WebSocketExtension> requested, List<WebSocketExtension> supported) {
+                        List<WebSocketExtension> filtered = super.filterRequestedExtensions(request, requested, supported);
+                        return deflate ? filtered
+                                : filtered.stream().filter(e -> !"permessage-deflate".equals(e.getName())).toList();
+                    }
+                })
+                .setAllowedOriginPatterns("*");
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.LAGO.config;
 
+import com.example.LAGO.realtime.fanout.StompAuthInterceptor;
+import com.example.LAGO.realtime.fanout.SubscribeSnapshotInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -9,7 +13,14 @@ import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    // 구독 직후 현재 시세/분봉 1회 전송
+    private final SubscribeSnapshotInterceptor subscribeSnapshotInterceptor;
+    // CONNECT 토큰 → 세션 Principal (유저별 스트림은 이 Principal 기준)
+    private final StompAuthInterceptor stompAuthInterceptor;
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // WebSocketKing 테스트용 : 연결되는건 확인
@@ -20,8 +31,13 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic");
+        // /queue: 유저별 스트림 (/user/queue/watchlist)
+        registry.enableSimpleBroker("/topic", "/queue");
         registry.setApplicationDestinationPrefixes("/app");
     }
-}
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthInterceptor, subscribeSnapshotInterceptor);
+    }
+}
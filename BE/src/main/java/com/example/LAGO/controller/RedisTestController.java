@@ -1,18 +1,28 @@
 package com.example.LAGO.controller;
 
 import com.example.LAGO.dto.StockInfoDto;
-import com.example.LAGO.realtime.dto.TickData;
+import com.example.LAGO.realtime.ChunkAutoIngestor;
 import com.example.LAGO.realtime.RealtimeDataService;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.TickChunkDictionaries;
+import com.example.LAGO.realtime.TickChunkStore;
+import com.example.LAGO.realtime.candle.ChartCandleCache;
+import com.example.LAGO.realtime.candle.MinuteCandleEngine;
+import com.example.LAGO.realtime.candle.StockMinuteBatchWriter;
+import com.example.LAGO.realtime.pipeline.TickPipeline;
 import com.example.LAGO.service.StockInfoService;
+import com.example.LAGO.service.TickChunkReaderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,7 +42,16 @@ import java.util.Random;
 public class RedisTestController {
 
     private final RealtimeDataService realtimeDataService;
+    private final TickPipeline tickPipeline;
     private final StockInfoService stockInfoService;
+    private final TickChunkStore tickChunkStore;
+    private final TickChunkDictionaries tickChunkDictionaries;
+    private final TickChunkReaderService tickChunkReaderService;
+    private final StockRegistry stockRegistry;
+    private final ChunkAutoIngestor chunkAutoIngestor;
+    private final ObjectProvider<MinuteCandleEngine> minuteCandleEngineProvider;
+    private final ObjectProvider<StockMinuteBatchWriter> stockMinuteBatchWriterProvider;
+    private final ObjectProvider<ChartCandleCache> chartCandleCacheProvider;
     private final Random random = new Random();
 
     /**
@@ -51,9 +70,10 @@ public class RedisTestController {
             // 각 종목별로 Mock 데이터 생성
             for (String stockCode : request.getStockCodes()) {
                 for (int i = 0; i < request.getCount(); i++) {
-                    TickData mockTick = generateMockTickData(stockCode);
-                    realtimeDataService.saveTickData(mockTick);
-                    totalGenerated++;
+                    // KIS 소켓과 같은 경로 (파이프라인 → 청크/최신 시세/전송)
+                    if (tickPipeline.publishFrame(generateMockFrame(stockCode))) {
+                        totalGenerated++;
+                    }
                     
                     // 시간 간격 시뮬레이션
                     if (request.getIntervalMs() > 0) {
@@ -242,10 +262,139 @@ public class RedisTestController {
         }
     }
 
+    /**
+     * 레거시 압축 배치(tick_batch:*) → v2 청크 인덱스 이관
+     */
+    @PostMapping("/migrate-legacy-chunks")
+    @Operation(summary = "레거시 배치 이관", description = "tick_batch:* 레거시 배치를 ticks:chunk:* 인덱스로 이관하고 레거시 키 삭제")
+    public ResponseEntity<Map<String, Object>> migrateLegacyChunks(
+            @RequestParam(defaultValue = "false") boolean enqueueIngest) {
+        try {
+            int migrated = tickChunkStore.migrateLegacyBatches(enqueueIngest);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("migrated", migrated);
+            result.put("enqueueIngest", enqueueIngest);
+            result.put("timestamp", LocalDateTime.now());
+
+            return ResponseEntity.ok(result);
+
+        } catch (Exception e) {
+            log.error("❌ Failed to migrate legacy chunks: {}", e.getMessage(), e);
+
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+
+    /**
+     * 최근 v2 청크로 시장 구분별 zstd 사전 학습 (장 마감 후 수동 실행)
+     */
+    @PostMapping("/train-chunk-dictionary")
+    @Operation(summary = "청크 압축 사전 학습", description = "최근 v2 청크를 샘플로 시장 구분(segment)별 zstd 사전 학습 후 저장/등록")
+    public ResponseEntity<Map<String, Object>> trainChunkDictionary(
+            @RequestParam String segment,
+            @RequestParam(defaultValue = "2000") int maxSamples,
+            @RequestParam(defaultValue = "16384") int dictSize) {
+        try {
+            List<byte[]> samples = new ArrayList<>();
+            for (String chunkId : realtimeDataService.latestChunkIds(maxSamples * 4)) {
+                if (samples.size() >= maxSamples) break;
+                Map<Object, Object> meta = realtimeDataService.getChunkMeta(chunkId);
+                Object stockId = meta.get("stockId");
+                if (stockId == null || !segment.equals(stockRegistry.getMarket(Integer.valueOf(stockId.toString())))) {
+                    continue;
+                }
+                byte[] raw = tickChunkReaderService.readRawV2(chunkId);
+                if (raw != null) samples.add(raw);
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            if (samples.isEmpty()) {
+                result.put("success", false);
+                result.put("error", "No v2 chunk samples for segment " + segment);
+                return ResponseEntity.badRequest().body(result);
+            }
+
+            int dictId = tickChunkDictionaries.train(segment, samples, dictSize);
+            result.put("success", true);
+            result.put("segment", segment);
+            result.put("samples", samples.size());
+            result.put("dictId", dictId);
+            result.put("timestamp", LocalDateTime.now());
+
+            return ResponseEntity.ok(result);
+
+        } catch (Exception e) {
+            log.error("❌ Failed to train chunk dictionary: {}", e.getMessage(), e);
+
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+
+    /**
+     * 청크 DB 적재기 상태 (워커/배치 크기/보유 리스)
+     */
+    @GetMapping("/ingest-stats")
+    @Operation(summary = "청크 적재 통계", description = "ChunkAutoIngestor 워커 풀, 현재 배치 크기, 보유 리스 수 조회")
+    public ResponseEntity<Map<String, Object>> getIngestStatistics() {
+        try {
+            Map<String, Object> stats = chunkAutoIngestor.getStats();
+            stats.put("timestamp", LocalDateTime.now());
+            return ResponseEntity.ok(stats);
+
+        } catch (Exception e) {
+            log.error("❌ Failed to get ingest statistics: {}", e.getMessage(), e);
+
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+
+    /**
+     * 1분봉 엔진 상태 (마감/정정/늦은 틱, 저장 대기)
+     */
+    @GetMapping("/candle-stats")
+    @Operation(summary = "1분봉 집계 통계", description = "MinuteCandleEngine 마감/정정 건수, stock_minute 배치 저장, 차트 캔들 캐시 상태 조회")
+    public ResponseEntity<Map<String, Object>> getCandleStatistics() {
+        try {
+            Map<String, Object> stats = new HashMap<>();
+            MinuteCandleEngine engine = minuteCandleEngineProvider.getIfAvailable();
+            StockMinuteBatchWriter writer = stockMinuteBatchWriterProvider.getIfAvailable();
+            stats.put("enabled", engine != null);
+            if (engine != null) stats.put("engine", engine.getStats());
+            if (writer != null) stats.put("writer", writer.getStats());
+            ChartCandleCache chartCache = chartCandleCacheProvider.getIfAvailable();
+            if (chartCache != null) stats.put("chartCache", chartCache.getStats());
+            stats.put("timestamp", LocalDateTime.now());
+            return ResponseEntity.ok(stats);
+
+        } catch (Exception e) {
+            log.error("❌ Failed to get candle statistics: {}", e.getMessage(), e);
+
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("error", e.getMessage());
+
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+
     /**
      * Mock 틱 데이터 생성
      */
-    private TickData generateMockTickData(String stockCode) {
+    private String generateMockFrame(String stockCode) {
         // 현실적인 주가 범위 (50,000 ~ 100,000원)
         int basePrice = 50000 + random.nextInt(50000);
         int variation = 1000; // ±1000원 변동
@@ -261,15 +410,11 @@ public class RedisTestController {
         // 현재 시간 기준 HHMMSS
         String timeString = LocalDateTime.now().format(DateTimeFormatter.ofPattern("HHmmss"));
         
-        return TickData.builder()
-                .code(stockCode)
-                .date(timeString)
-                .openPrice(openPrice)
-                .closePrice(closePrice)
-                .highPrice(highPrice)
-                .lowPrice(lowPrice)
-                .volume(volume)
-                .build();
+        // H0STCNT0 체결 프레임 (종목코드^체결시간^현재가^부호^대비^등락률^가중평균^시가^고가^저가^매도호가^매수호가^거래량)
+        return String.join("^", "0|H0STCNT0|001|" + stockCode, timeString, String.valueOf(closePrice), "2",
+                String.valueOf(closePrice - openPrice), "0.00", String.valueOf(closePrice),
+                String.valueOf(openPrice), String.valueOf(highPrice), String.valueOf(lowPrice),
+                String.valueOf(closePrice), String.valueOf(closePrice), String.valueOf(volume));
     }
 
     /**
@@ -6,12 +6,11 @@ import com.example.LAGO.domain.User;
 import com.example.LAGO.domain.Account;
 import com.example.LAGO.domain.StockInfo;
 import com.example.LAGO.domain.StockHolding;
-import com.example.LAGO.domain.MockTrade;
 import com.example.LAGO.repository.UserRepository;
 import com.example.LAGO.repository.AccountRepository;
 import com.example.LAGO.repository.StockInfoRepository;
 import com.example.LAGO.repository.StockHoldingRepository;
-import com.example.LAGO.repository.MockTradeRepository;
+import com.example.LAGO.service.OrderExecutionEngine;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -24,7 +23,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
@@ -49,7 +47,7 @@ public class StockController {
     private final AccountRepository accountRepository;
     private final StockInfoRepository stockInfoRepository;
     private final StockHoldingRepository stockHoldingRepository;
-    private final MockTradeRepository mockTradeRepository;
+    private final OrderExecutionEngine orderExecutionEngine;
 
     // ========== 상수 정의 ==========
     private static final Set<Integer> VALID_ACCOUNT_TYPES = Set.of(0, 1, 2);
@@ -96,7 +94,6 @@ public class StockController {
             @ApiResponse(responseCode = "400", description = "잘못된 요청"),
             @ApiResponse(responseCode = "500", description = "서버 내부 오류")
     })
-    @Transactional
     public ResponseEntity<?> submitOrder(
             @Parameter(description = "매매 요청 정보", required = true)
             @RequestBody @Valid TradeRequest request
@@ -133,7 +130,6 @@ public class StockController {
      */
     @PostMapping("/buy")
     @Operation(summary = "주식 매수", description = "주식을 즉시 매수합니다")
-    @Transactional
     public ResponseEntity<?> buyStock(@RequestBody @Valid TradeRequest request) {
         request.setTradeType(TradeType.BUY);
         return submitOrder(request);
@@ -144,7 +140,6 @@ public class StockController {
      */
     @PostMapping("/sell")
     @Operation(summary = "주식 매도", description = "주식을 즉시 매도합니다")
-    @Transactional
     public ResponseEntity<?> sellStock(@RequestBody @Valid TradeRequest request) {
         request.setTradeType(TradeType.SELL);
         return submitOrder(request);
@@ -219,110 +214,15 @@ public class StockController {
         StockInfo stockInfo = validation.stockInfo;
         int tradeAmount = request.getPrice() * request.getQuantity();
 
-        if (TradeType.BUY.equals(request.getTradeType())) {
-            // 매수 처리
-            return processBuy(account, stockInfo, request, tradeAmount);
-        } else {
-            // 매도 처리
-            return processSell(account, stockInfo, request, tradeAmount);
-        }
-    }
-
-    private TradeResult processBuy(Account account, StockInfo stockInfo,
-                                   TradeRequest request, int tradeAmount) {
-        // 1. 계좌 잔고 차감
-        account.setBalance(account.getBalance() - tradeAmount);
-        accountRepository.save(account);
-
-        // 2. 보유 주식 업데이트 또는 생성 - 실제 Repository 메서드 사용
-        Optional<StockHolding> existingHolding = stockHoldingRepository
-                .findByAccountIdAndStockCode(account.getAccountId(), stockInfo.getCode());
-
-        StockHolding holding;
-        if (existingHolding.isPresent()) {
-            holding = existingHolding.get();
-            holding.setQuantity(holding.getQuantity() + request.getQuantity());
-            holding.setTotalPrice(holding.getTotalPrice() + tradeAmount);
-        } else {
-            holding = new StockHolding();
-            // StockHolding 엔티티의 실제 필드 구조에 맞게 설정
-            holding.setAccountId(account.getAccountId());
-            holding.setStockInfoId(stockInfo.getStockInfoId());
-            holding.setQuantity(request.getQuantity());
-            holding.setTotalPrice(tradeAmount);
-        }
-        stockHoldingRepository.save(holding);
-
-        // 3. 거래 내역 저장
-        MockTrade trade = createTradeRecord(account, stockInfo, request, "BUY");
-        mockTradeRepository.save(trade);
-
-        // 4. 계좌 총 자산 업데이트
-        updateAccountTotalAsset(account);
-
-        return new TradeResult(trade.getTradeId(), account.getBalance(),
-                holding.getQuantity(), tradeAmount);
-    }
-
-    private TradeResult processSell(Account account, StockInfo stockInfo,
-                                    TradeRequest request, int tradeAmount) {
-        // 1. 보유 주식 차감 - 실제 Repository 메서드 사용
-        StockHolding holding = stockHoldingRepository
-                .findByAccountIdAndStockCode(account.getAccountId(), stockInfo.getCode())
-                .orElseThrow(() -> new StockTradingException("NO_HOLDING", "보유 주식이 없습니다"));
-
-        int remainingQuantity = holding.getQuantity() - request.getQuantity();
-        holding.setQuantity(remainingQuantity);
-
-        // 평균 단가 계산 후 총 매입가 조정
-        if (remainingQuantity > 0) {
-            int avgPrice = holding.getTotalPrice() / (holding.getQuantity() + request.getQuantity());
-            holding.setTotalPrice(avgPrice * remainingQuantity);
-            stockHoldingRepository.save(holding);
-        } else {
-            stockHoldingRepository.delete(holding);
+        // 잔고/보유 수량 차감은 계좌 lane 에서 조건부 UPDATE 로 처리 (위 검증 이후 동시 주문이 끼어들어도 음수 불가)
+        try {
+            OrderExecutionEngine.Fill fill = orderExecutionEngine.execute(new OrderExecutionEngine.OrderCommand(
+                    account.getAccountId(), stockInfo.getStockInfoId(), request.getTradeType(),
+                    request.getQuantity(), request.getPrice(), tradeAmount, true));
+            return new TradeResult(fill.tradeId(), fill.balance(), fill.holdingQuantity(), tradeAmount);
+        } catch (OrderExecutionEngine.OrderRejectedException e) {
+            throw new StockTradingException(e.getErrorCode(), e.getMessage());
         }
-
-        // 2. 계좌 잔고 증가
-        account.setBalance(account.getBalance() + tradeAmount);
-        accountRepository.save(account);
-
-        // 3. 거래 내역 저장
-        MockTrade trade = createTradeRecord(account, stockInfo, request, "SELL");
-        mockTradeRepository.save(trade);
-
-        // 4. 계좌 총 자산 및 수익률 업데이트
-        updateAccountTotalAsset(account);
-
-        return new TradeResult(trade.getTradeId(), account.getBalance(),
-                remainingQuantity, tradeAmount);
-    }
-
-    private MockTrade createTradeRecord(Account account, StockInfo stockInfo,
-                                        TradeRequest request, String buySell) {
-        MockTrade trade = new MockTrade();
-        // MockTrade 엔티티의 실제 필드 구조에 맞게 설정
-        trade.setAccountId(account.getAccountId());
-        trade.setStockId(stockInfo.getStockInfoId());
-        trade.setTradeType("BUY".equals(buySell) ? TradeType.BUY : TradeType.SELL);
-        trade.setQuantity(request.getQuantity());
-        trade.setPrice(request.getPrice());
-        trade.setTradeAt(LocalDateTime.now());
-        trade.setIsQuiz(false);
-        return trade;
-    }
-
-    private void updateAccountTotalAsset(Account account) {
-        // 보유 주식의 현재 가치 계산 (실제로는 현재가를 조회해야 함)
-        // 여기서는 간단히 매입가 기준으로 계산
-        int totalStockValue = stockHoldingRepository
-                .findByAccountId(account.getAccountId())
-                .stream()
-                .mapToInt(StockHolding::getTotalPrice)
-                .sum();
-
-        account.setTotalAsset(account.getBalance() + totalStockValue);
-        accountRepository.save(account);
     }
 
     // ========== 응답 생성 ==========
@@ -0,0 +1,91 @@
+package com.example.LAGO.controller;
+
+import com.example.LAGO.dto.response.StockSnapshotResponse;
+import com.example.LAGO.realtime.QuoteSnapshotStore;
+import com.example.LAGO.realtime.dto.TickData;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/stocks/snapshot")
+@Tag(name = "시세 스냅샷", description = "시장 전체 / 여러 종목 최신 시세 일괄 조회 API")
+public class StockSnapshotController {
+
+    private static final int MAX_CODES = 500;
+
+    private final QuoteSnapshotStore quoteSnapshotStore;
+
+    /**
+     * 최신 시세 스냅샷
+     * 예) GET /api/stocks/snapshot, GET /api/stocks/snapshot?codes=005930,000660
+     * If-None-Match 가 현재 버전과 같으면 본문 없이 304
+     */
+    @GetMapping
+    @Operation(
+            summary = "시세 스냅샷 조회",
+            description = "전 종목(또는 codes 로 지정한 종목)의 최신 시세를 한 번에 조회합니다. "
+                    + "응답 ETag 를 If-None-Match 로 보내면 바뀐 것이 없을 때 304 를 반환합니다."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "조회 성공"),
+            @ApiResponse(responseCode = "304", description = "마지막 조회 이후 변경 없음"),
+            @ApiResponse(responseCode = "400", description = "종목 코드가 너무 많음")
+    })
+    public ResponseEntity<StockSnapshotResponse> getSnapshot(
+            @Parameter(description = "종목 코드 목록 (쉼표 구분, 생략 시 전 종목)", example = "005930,000660")
+            @RequestParam(required = false) List<String> codes,
+            WebRequest webRequest
+    ) {
+        QuoteSnapshotStore.Snapshot snapshot;
+        String etag;
+        if (codes == null || codes.isEmpty()) {
+            snapshot = quoteSnapshotStore.snapshot();
+            etag = "\"" + snapshot.etag() + "\"";
+        } else {
+            Set<String> requested = new LinkedHashSet<>(codes);
+            if (requested.size() > MAX_CODES) {
+                return ResponseEntity.badRequest().build();
+            }
+            snapshot = quoteSnapshotStore.lookup(requested);
+            // 같은 버전이라도 종목 목록이 다르면 다른 응답
+            etag = "\"" + snapshot.etag() + "-" + Integer.toHexString(requested.hashCode()) + "\"";
+        }
+
+        if (snapshot.version() > 0 && webRequest.checkNotModified(etag)) {
+            return null; // 304 는 checkNotModified 가 처리
+        }
+
+        List<StockSnapshotResponse.Quote> quotes = snapshot.quotes().values().stream()
+                .map(StockSnapshotController::toQuote)
+                .toList();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(StockSnapshotResponse.builder()
+                        .version(snapshot.version())
+                        .count(quotes.size())
+                        .quotes(quotes)
+                        .build());
+    }
+
+    private static StockSnapshotResponse.Quote toQuote(TickData data) {
+        return new StockSnapshotResponse.Quote(data.getCode(), data.getClosePrice(), data.getOpenPrice(),
+                data.getHighPrice(), data.getLowPrice(), data.getVolume(), data.getDate());
+    }
+}
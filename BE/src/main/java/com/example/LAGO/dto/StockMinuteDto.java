@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.example.LAGO.domain.StockInfo;
 
 import java.time.LocalDateTime;
@@ -22,6 +23,12 @@ public class StockMinuteDto {
     private Integer closePrice;
     private Integer volume;
 
+    // 실시간 push 전용 (REST 응답에서는 null → 생략)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long seq;             // 분봉 순번 (이보다 작은 이벤트는 오래된 것)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean snapshot;     // 구독 직후 1회 전송되는 현재 분봉이면 true
+
     // Entity -> DTO 변환
     public static StockMinuteDto fromEntity(StockMinute entity) {
         return StockMinuteDto.builder()
@@ -56,6 +56,20 @@ public class HistoryChallengeDataResponse {
         this.fluctuationRate = this.getFluctuationPrice().floatValue() / this.getOpenPrice() * 100;
     }
 
+    public HistoryChallengeDataResponse(long rowId, LocalDateTime originDateTime, LocalDateTime eventDateTime,
+                                        int openPrice, int highPrice, int lowPrice, int closePrice, long volume) {
+        this.rowId = rowId;
+        this.eventDateTime = eventDateTime;
+        this.originDateTime = originDateTime;
+        this.openPrice = openPrice;
+        this.highPrice = highPrice;
+        this.lowPrice = lowPrice;
+        this.closePrice = closePrice;
+        this.volume = volume;
+        this.fluctuationPrice = this.getClosePrice() - this.getOpenPrice();
+        this.fluctuationRate = this.getFluctuationPrice().floatValue() / this.getOpenPrice() * 100;
+    }
+
     public HistoryChallengeDataResponse(Object[] aggregatedData) {
         this.rowId = ((Long) aggregatedData[0]);
         this.eventDateTime = ((Timestamp) aggregatedData[2]).toLocalDateTime();
@@ -0,0 +1,54 @@
+package com.example.LAGO.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 시장 시세 스냅샷 응답 DTO
+ * 종목 리스트 화면 폴링용 (ETag 가 같으면 304)
+ */
+@Data
+@Builder
+@Schema(description = "시장 시세 스냅샷")
+public class StockSnapshotResponse {
+
+    @Schema(description = "스냅샷 버전 (시세 반영마다 증가, ETag 와 동일)", example = "1532")
+    private Long version;
+
+    @Schema(description = "종목 수", example = "2")
+    private Integer count;
+
+    @Schema(description = "종목별 최신 시세")
+    private List<Quote> quotes;
+
+    @Data
+    @AllArgsConstructor
+    @Schema(description = "종목 최신 시세")
+    public static class Quote {
+
+        @Schema(description = "종목 코드", example = "005930")
+        private String code;
+
+        @Schema(description = "현재가", example = "71900")
+        private Integer closePrice;
+
+        @Schema(description = "시가", example = "71000")
+        private Integer openPrice;
+
+        @Schema(description = "고가", example = "72300")
+        private Integer highPrice;
+
+        @Schema(description = "저가", example = "70800")
+        private Integer lowPrice;
+
+        @Schema(description = "누적 거래량", example = "1234567")
+        private Integer volume;
+
+        @Schema(description = "체결 시각 (HHmmss)", example = "093015")
+        private String time;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
@@ -16,6 +17,9 @@ import java.util.Set;
 @RequiredArgsConstructor
 // 서버 시작과 함께 KIS 웹소켓 연결(아래는 조건부 사항이라 일단 주석처리)
 //@ConditionalOnProperty(name = "kis.autostart", havingValue = "true", matchIfMissing = false)
+// 릴레이 구독 노드(realtime.relay.mode=subscribe)는 KIS 에 붙지 않고 수집 노드가 Redis 로 보내주는 시세만 재전송
+// kis.autostart=false: 부하 테스트 하네스(loadtest) 등 오프라인 실행 - 틱은 KisRealTimeDataProcessor 로 직접 주입
+@ConditionalOnExpression("'${realtime.relay.mode:off}' != 'subscribe' and '${kis.autostart:true}' == 'true'")
 public class KisRealtimeBootstrap {
 
     private final KisWebSocketService kisWebSocketService;
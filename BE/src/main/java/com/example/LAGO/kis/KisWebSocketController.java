@@ -1,5 +1,6 @@
 package com.example.LAGO.kis;
 
+import com.example.LAGO.realtime.pipeline.TickPipeline;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -10,9 +11,11 @@ import java.util.*;
 public class KisWebSocketController {
     
     private final KisWebSocketService kisWebSocketService;
+    private final TickPipeline tickPipeline;
     
-    public KisWebSocketController(KisWebSocketService kisWebSocketService) {
+    public KisWebSocketController(KisWebSocketService kisWebSocketService, TickPipeline tickPipeline) {
         this.kisWebSocketService = kisWebSocketService;
+        this.tickPipeline = tickPipeline;
     }
 
     // 웹소켓 연결
@@ -154,5 +157,15 @@ public class KisWebSocketController {
             return ResponseEntity.internalServerError().body(response);
         }
     }
-    
-}
\ No newline at end of file
+
+    /**
+     * 틱 파이프라인 스테이지별 lag/처리량 조회
+     */
+    @GetMapping("/pipeline")
+    public ResponseEntity<Map<String, Object>> getPipelineStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("pipeline", tickPipeline.getStats());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,84 +1,359 @@
 package com.example.LAGO.realtime;
 
+import com.example.LAGO.realtime.TickChunkStore.ChunkRef;
+import com.example.LAGO.realtime.ingest.AdaptiveBatchSizer;
+import com.example.LAGO.realtime.ingest.ChunkIngestLedger;
+import com.example.LAGO.realtime.ingest.ChunkLeaseManager;
+import com.example.LAGO.realtime.ingest.ChunkLeaseManager.Lease;
+import com.example.LAGO.realtime.ingest.CopyOhlcIngestService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Duration;
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 적재 대기열(ticks:ingest:pending) → "TICKS" 1초 OHLCV 적재
+ *
+ * - 고정 크기 워커 풀이 대기 청크를 배치로 나눠 병렬 처리 (배치 = 트랜잭션 1개 / COPY 1회)
+ * - 병렬은 종목 사이에서만: 한 종목의 청크는 같은 워커가 청크 순번(커밋 순서)대로 적재
+ *   ("TICKS" 병합 규칙이 open = 먼저 들어간 값, close = 나중 값이라 청크 경계에 걸친 1초봉은 순서가 바뀌면 틀어짐)
+ * - 배치 크기는 관측한 DB 지연으로 조절 (AdaptiveBatchSizer)
+ * - 종목마다 짧은 TTL 리스를 잡고 백그라운드로 연장 (ChunkLeaseManager) → 인스턴스가 여럿이어도 종목당 하나만 적재
+ * - 청크 ID를 같은 트랜잭션에서 원장에 기록 → 재시도해도 거래량 이중 집계 없음 (ChunkIngestLedger)
+ * - 커밋 후 대기열 제거 + blob/meta 정리, 실패 배치의 종목은 backoff 동안 hold (그 종목의 뒤 청크도 함께 대기)
+ * Redis/DB 장애 후 쌓인 대기열은 청크 수가 아니라 워커 수에 비례해 빠진다.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChunkAutoIngestor {
 
+    private static final String STATS_HASH = "ticks:ingest:stats";
+    // 적재 실패 종목의 재시도 대기 (값 = 재시도 시각, TTL = retry-backoff-ms)
+    static final String HOLD_PREFIX = "ticks:ingest:hold:";
+    static final String STOCK_LEASE_PREFIX = "stock:";
+
     private final StringRedisTemplate redis;
+    private final TickChunkStore chunkStore;
     private final TimescaleOhlcIngestService ingestService;
+    private final CopyOhlcIngestService copyIngestService;
+    private final ChunkIngestLedger ledger;
+    private final ChunkLeaseManager leases;
+    private final TransactionTemplate transactionTemplate;
+
+    // copy = COPY 스테이징 + 단일 병합(기본), upsert = 기존 batchUpdate UPSERT
+    @Value("${realtime.ingest.engine:copy}")
+    private String ingestEngine;
+
+    // 0이면 코어 수 기준 (2~8)
+    @Value("${realtime.ingest.workers:0}")
+    private int workerCount;
+
+    @Value("${realtime.ingest.batch.min:1}")
+    private int minBatch;
+
+    @Value("${realtime.ingest.batch.max:64}")
+    private int maxBatch;
+
+    // 배치 하나(트랜잭션) 목표 지연
+    @Value("${realtime.ingest.batch.target-ms:750}")
+    private long targetBatchMs;
+
+    @Value("${realtime.ingest.retry-backoff-ms:15000}")
+    private long retryBackoffMs;
 
-    private static final String PENDING_ZSET = "ticks:ingest:pending";
-    private static final String STATS_HASH   = "ticks:ingest:stats";
-    private static final String LOCK_PREFIX  = "ticks:ingest:lock:";
+    // 적재 완료 청크의 blob/meta 즉시 삭제 (false면 TTL 만료까지 보관)
+    @Value("${realtime.ingest.gc-blobs:true}")
+    private boolean gcBlobs;
+
+    private ThreadPoolExecutor workers;
+    private AdaptiveBatchSizer batchSizer;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        int n = workerCount > 0 ? workerCount : Math.clamp(Runtime.getRuntime().availableProcessors(), 2, 8);
+        AtomicInteger threadSeq = new AtomicInteger();
+        workers = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(n * 2),
+                r -> {
+                    Thread t = new Thread(r, "chunk-ingest-" + threadSeq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        batchSizer = new AdaptiveBatchSizer(minBatch, maxBatch, Math.max(minBatch, 8), targetBatchMs);
+        log.info("🚀 ChunkAutoIngestor started: engine={}, workers={}, batch={}..{}, target={}ms, gcBlobs={}",
+                ingestEngine, n, minBatch, maxBatch, targetBatchMs, gcBlobs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-    // 2초마다 due 아이템 처리 (고정 딜레이)
+    // 2초마다 due 아이템 처리 (고정 딜레이 - 이전 drain이 끝나야 다음 drain)
     @Scheduled(fixedDelay = 2_000L, initialDelay = 5_000L)
     public void drain() {
-        var sysNow = java.time.ZonedDateTime.now();                // 시스템 기본 TZ
-        var kstNow = java.time.ZonedDateTime.now(ZoneId.of("Asia/Seoul"));
-        log.debug("drain tick: sysNow={} kstNow={}", sysNow, kstNow);
-
-        LocalTime currentTime = kstNow.toLocalTime();
+        LocalTime currentTime = java.time.ZonedDateTime.now(ZoneId.of("Asia/Seoul")).toLocalTime();
         if (currentTime.isBefore(LocalTime.of(9, 0)) || currentTime.isAfter(LocalTime.of(15, 30))) {
             return; // 장시간 외에는 실행 안함
         }
 
-        long now = System.currentTimeMillis();
-
+        // 한 라운드 = 워커 수 × 배치 크기만큼 가져와서 병렬 처리, 꽉 찬 라운드가 진전이 있으면 계속
+        while (true) {
+            int limit = workers.getCorePoolSize() * batchSizer.current();
+            int[] due = {0};
+            int completed = drainRound(limit, due);
+            if (completed <= 0 || due[0] < limit) return;
+        }
+    }
 
-        // score(=예약시각) <= now 인 항목만 가져오기
-        Set<String> ids = redis.opsForZSet()
-                .rangeByScore(PENDING_ZSET, Double.NEGATIVE_INFINITY, now);
-        if (ids == null || ids.isEmpty()) return;
+    /**
+     * 라운드 1회: due 청크를 종목별로 묶어 순번 순으로 정렬하고, 한 종목의 청크는 모두 같은 워커에 배정
+     * (병합 규칙 open = 기존 값 유지, close = 나중 값 이 순서에 의존 → 같은 종목 청크는 커밋 순서대로 하나씩)
+     * @param due [0]에 가져온 due 청크 수를 기록
+     * @return 대기열에서 정리된 청크 수, 중단됐으면 -1
+     */
+    int drainRound(int limit, int[] due) {
+        List<String> ids = chunkStore.duePending(System.currentTimeMillis(), limit);
+        due[0] = ids.size();
+        if (ids.isEmpty()) return 0;
 
+        Map<Integer, List<ChunkRef>> byStock = new LinkedHashMap<>();
+        List<ChunkRef> expired = new ArrayList<>();
         for (String id : ids) {
-            String lockKey = LOCK_PREFIX + id;
+            ChunkRef ref = chunkStore.resolve(id);
+            if (ref == null) {
+                expired.add(new ChunkRef(id, -1L, -1)); // meta TTL 만료 → 적재 불가, 대기열에서만 제거
+            } else {
+                byStock.computeIfAbsent(ref.stockId(), k -> new ArrayList<>()).add(ref);
+            }
+        }
+        if (!expired.isEmpty()) {
+            chunkStore.completeIngested(expired, false);
+            log.warn("⚠️ Dropped {} expired chunks from ingest queue: {}", expired.size(), expired);
+        }
+        dropHeldStocks(byStock);
+        if (byStock.isEmpty()) return expired.size();
 
-            // SETNX + TTL(예: 5분) 로 락 획득
-            Boolean locked = redis.opsForValue().setIfAbsent(lockKey, "1", Duration.ofMinutes(5));
-            if (Boolean.FALSE.equals(locked)) {
-                // 다른 인스턴스가 처리 중
-                continue;
+        // 종목 묶음 단위로 청크 수가 가장 적은 워커에 배정 (묶음은 쪼개지 않음)
+        int n = Math.min(workers.getCorePoolSize(), byStock.size());
+        List<List<List<ChunkRef>>> assignments = new ArrayList<>(n);
+        int[] load = new int[n];
+        for (int i = 0; i < n; i++) assignments.add(new ArrayList<>());
+        for (List<ChunkRef> group : byStock.values()) {
+            group.sort(Comparator.comparingLong(ChunkRef::seq));
+            int target = 0;
+            for (int i = 1; i < n; i++) if (load[i] < load[target]) target = i;
+            assignments.get(target).add(group);
+            load[target] += group.size();
+        }
+
+        List<Future<Integer>> futures = new ArrayList<>(n);
+        for (List<List<ChunkRef>> groups : assignments) {
+            futures.add(workers.submit(() -> ingestGroups(groups)));
+        }
+        int completed = expired.size();
+        for (Future<Integer> f : futures) {
+            try {
+                completed += f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            } catch (Exception e) {
+                log.error("❌ Ingest worker failed", e);
             }
+        }
+        return completed;
+    }
 
+    // 재시도 대기(hold) 중인 종목은 이번 라운드에서 제외 - 실패한 앞 청크보다 뒤 청크가 먼저 병합되지 않도록
+    private void dropHeldStocks(Map<Integer, List<ChunkRef>> byStock) {
+        List<Integer> stocks = new ArrayList<>(byStock.keySet());
+        List<String> holds;
+        try {
+            holds = redis.opsForValue().multiGet(stocks.stream().map(id -> HOLD_PREFIX + id).toList());
+        } catch (Exception e) {
+            log.warn("Ingest hold lookup failed, skipping round: {}", e.getMessage());
+            byStock.clear();
+            return;
+        }
+        if (holds == null) return;
+        for (int i = 0; i < stocks.size() && i < holds.size(); i++) {
+            if (holds.get(i) != null) byStock.remove(stocks.get(i));
+        }
+    }
+
+    /**
+     * 워커 1개가 맡은 종목 묶음들을 배치 크기로 잘라 차례로 적재 (워커 스레드)
+     * 배치가 실패하면 그 배치의 종목은 hold, 이 워커의 남은 배치는 다음 라운드로 미룸
+     * @return 대기열에서 정리된 청크 수
+     */
+    int ingestGroups(List<List<ChunkRef>> groups) {
+        Map<Integer, Lease> held = new LinkedHashMap<>();
+        inFlight.incrementAndGet();
+        try {
+            List<ChunkRef> ordered = new ArrayList<>();
+            for (List<ChunkRef> group : groups) {
+                int stockId = group.get(0).stockId();
+                Lease lease = leases.tryAcquire(STOCK_LEASE_PREFIX + stockId);
+                if (lease == null) continue; // 다른 인스턴스가 이 종목을 적재 중
+                held.put(stockId, lease);
+                ordered.addAll(group);
+            }
+            int batchSize = batchSizer.current();
+            int completed = 0;
+            for (int from = 0; from < ordered.size(); from += batchSize) {
+                List<ChunkRef> batch = ordered.subList(from, Math.min(ordered.size(), from + batchSize));
+                int done = ingestResolved(batch, held.values());
+                if (done == 0) break;
+                completed += done;
+            }
+            return completed;
+        } finally {
+            held.values().forEach(leases::release);
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private int ingestResolved(List<ChunkRef> refs, Collection<Lease> held) {
+        long start = System.nanoTime();
+        int[] counts = new int[2]; // [적재한 청크, 이미 적재돼 건너뛴 청크]
+        try {
+            Integer rows = transactionTemplate.execute(status -> {
+                Set<String> claimed = ledger.claim(refs);
+                List<String> toIngest = new ArrayList<>(claimed.size());
+                for (ChunkRef ref : refs) {
+                    if (claimed.contains(ref.chunkId())) toIngest.add(ref.chunkId());
+                }
+                counts[0] = toIngest.size();
+                counts[1] = refs.size() - toIngest.size();
+
+                int affected = ingest(toIngest);
+
+                // 커밋 직전 리스 확인: 만료됐으면 다른 인스턴스가 같은 종목을 잡았을 수 있으므로 롤백
+                for (Lease lease : held) {
+                    if (lease.isLost()) {
+                        throw new IllegalStateException("ingest lease lost before commit: " + lease.key());
+                    }
+                }
+                return affected;
+            });
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            batchSizer.onSuccess(refs.size(), elapsedMs);
+
+            chunkStore.completeIngested(refs, gcBlobs);
+            recordSuccess(counts[0], counts[1], refs.get(refs.size() - 1).chunkId());
+            log.info("✅ Auto-ingested chunks={} skipped={} rows={} in {}ms (next batch={})",
+                    counts[0], counts[1], rows, elapsedMs, batchSizer.current());
+            return refs.size();
+        } catch (Exception ex) {
+            batchSizer.onFailure();
+            List<String> ids = refs.stream().map(ChunkRef::chunkId).toList();
             try {
-                int rows = ingestService.ingestChunkAs1sOHLC(id);
-
-                // 성공 시에만 pending에서 제거
-                redis.opsForZSet().remove(PENDING_ZSET, id);
-                redis.opsForHash().increment(STATS_HASH, "okChunks", 1);
-                redis.opsForHash().put(STATS_HASH, "lastOkChunk", id);
-
-                log.info("✅ Auto-ingested chunk {} (rows={})", id, rows);
-
-                // (선택) blob/meta 정리
-                // redis.delete("ticks:chunk:" + id + ":blob");
-                // redis.delete("ticks:chunk:" + id + ":meta");
-
-            } catch (Exception ex) {
-                // 실패: pending은 남겨둬서 다음 턴에 재시도되게 함
-                // (옵션) 재시도 backoff: 다음 처리시각을 +15초로 밀기
-                // redis.opsForZSet().add(PENDING_ZSET, id, now + 15_000);
-
-                redis.opsForHash().increment(STATS_HASH, "failChunks", 1);
-                redis.opsForHash().put(STATS_HASH, "lastErr", ex.toString());
-                log.error("❌ Auto-ingest failed for chunk {}", id, ex);
-            } finally {
-                // 락 해제
-                redis.delete(lockKey);
+                // 대기열 점수는 그대로 두고 종목 단위로 hold → backoff 뒤 같은 종목의 뒤 청크와 함께 순번대로 재시도
+                hold(refs);
+                recordFailure(ids.size(), ex);
+            } catch (Exception redisEx) {
+                // Redis도 실패: hold 없이 다음 drain에서 (순서는 그대로) 재시도됨
+                log.warn("Ingest hold failed for {}: {}", ids, redisEx.getMessage());
             }
+            log.error("❌ Auto-ingest failed for chunks {}", ids, ex);
+            return 0;
         }
     }
+
+    private void hold(List<ChunkRef> refs) {
+        Set<Integer> stocks = new LinkedHashSet<>();
+        for (ChunkRef ref : refs) stocks.add(ref.stockId());
+        String until = String.valueOf(System.currentTimeMillis() + retryBackoffMs);
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Integer stockId : stocks) {
+                conn.set(HOLD_PREFIX + stockId, until, Expiration.milliseconds(retryBackoffMs),
+                        RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+    }
+
+    private int ingest(List<String> chunkIds) {
+        if (chunkIds.isEmpty()) return 0;
+        if ("upsert".equalsIgnoreCase(ingestEngine)) {
+            int rows = 0;
+            for (String id : chunkIds) {
+                rows += ingestService.ingestChunkAs1sOHLC(id); // 바깥 트랜잭션에 참여
+            }
+            return rows;
+        }
+        return copyIngestService.ingestChunks(chunkIds);
+    }
+
+    private void recordSuccess(int ingested, int skipped, String lastChunk) {
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.hIncrBy(STATS_HASH, "okChunks", ingested);
+            if (skipped > 0) conn.hIncrBy(STATS_HASH, "dupChunks", skipped);
+            conn.hIncrBy(STATS_HASH, "okBatches", 1);
+            conn.hSet(STATS_HASH, "lastOkChunk", lastChunk);
+            conn.hSet(STATS_HASH, "batchSize", String.valueOf(batchSizer.current()));
+            return null;
+        });
+    }
+
+    private void recordFailure(int chunks, Exception ex) {
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.hIncrBy(STATS_HASH, "failChunks", chunks);
+            conn.hSet(STATS_HASH, "lastErr", ex.toString());
+            return null;
+        });
+    }
+
+    /**
+     * 적재기 상태 (모니터링용)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("engine", ingestEngine);
+        stats.put("workers", workers.getCorePoolSize());
+        stats.put("activeWorkers", workers.getActiveCount());
+        stats.put("queuedBatches", workers.getQueue().size());
+        stats.put("inFlightBatches", inFlight.get());
+        stats.put("batchSize", batchSizer.current());
+        stats.put("heldLeases", leases.heldCount());
+        stats.put("gcBlobs", gcBlobs);
+        return stats;
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.dto.TickData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+// 청크 내용 미리보기 (기존 MinuteCandleService 내부 클래스에서 분리)
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/redis/chunks")
+public class ChunkDebugController {
+    private final TickData.TickChunkReaderService reader;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<List<Map<String,Object>>> preview(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "5") int limit) {
+
+        var all = reader.readChunk(id);
+        var out = all.stream()
+                .limit(Math.max(0, limit))
+                .map(d -> Map.<String, Object>ofEntries(
+                        Map.entry("stockId", d.stockId()),
+                        Map.entry("tsKst",  d.ts().atZone(ZoneId.of("Asia/Seoul")).toString()),
+                        Map.entry("price",  d.price()),
+                        Map.entry("volume", d.volume())
+                ))
+                .toList();
+        return ResponseEntity.ok(out);
+
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.LAGO.realtime;
+
+/**
+ * KIS 실시간 프레임 단일 패스 파서
+ *
+ * 프레임 형식: {암호화여부}|{TR_ID}|{건수}|{필드^필드^...}
+ * 예) 0|H0STCNT0|004|005930^123929^73100^...
+ *
+ * String.split / 중간 String / 박싱 객체를 만들지 않고 문자를 한 번만 훑으면서
+ * 필요한 H0STCNT0 필드만 KisTickRecord에 바로 디코딩한다.
+ * 상태가 없으므로 스레드 간 공유 가능 (단, KisTickRecord 스크래치는 스레드별로 사용)
+ */
+public final class KisFrameParser {
+
+    /** 파싱된 레코드 수신 콜백 - record는 콜백 이후 재사용되므로 보관하려면 복사해야 함 */
+    @FunctionalInterface
+    public interface TickSink {
+        void onTick(KisTickRecord record);
+    }
+
+    /** parse() 반환값: 체결 데이터가 아닌 프레임(시스템 메시지, 다른 TR, 잘못된 프레임) */
+    public static final int NOT_TICK_FRAME = -1;
+
+    private static final String TR_ID_TICK = "H0STCNT0";
+    private static final String HEARTBEAT_TR_ID = "\"tr_id\":\"PINGPONG\"";
+    // 하트비트 tr_id는 헤더 앞부분에 위치 - 본문 전체를 훑지 않도록 검사 범위 제한
+    private static final int HEARTBEAT_SCAN_LIMIT = 64;
+
+    // KIS 실시간 데이터 스펙 상수
+    static final int EXPECTED_MIN_FIELDS = 13; // 최소 필요 필드 수
+
+    // KIS 실시간 데이터 컬럼 인덱스 (필수 데이터만)
+    static final int MKSC_SHRN_ISCD = 0;  // 종목코드
+    static final int STCK_CNTG_HOUR = 1;  // 체결시간
+    static final int STCK_PRPR = 2;       // 현재가
+    static final int PRDY_VRSS = 4;       // 전일 대비
+    static final int PRDY_CTRT = 5;       // 등락률
+    static final int STCK_OPRC = 7;       // 시가
+    static final int STCK_HGPR = 8;       // 고가
+    static final int STCK_LWPR = 9;       // 저가
+    static final int CNTG_VOL = 12;       // 거래량
+    // 선택 필드 (없거나 형식 오류면 NULL)
+    static final int ACML_VOL = 13;       // 누적 거래량
+    static final int CCLD_DVSN = 21;      // 체결구분
+    private static final int LAST_DECODED_FIELD = CCLD_DVSN;
+
+    private KisFrameParser() {}
+
+    /**
+     * JSON 형태 시스템 메시지 여부 (구독 응답, 하트비트 등)
+     */
+    public static boolean isJsonMessage(CharSequence frame) {
+        return frame != null && frame.length() > 0 && frame.charAt(0) == '{';
+    }
+
+    /**
+     * 하트비트(PINGPONG) 여부 - JSON 전체 파싱 대신 헤더 앞부분 접두 검사
+     */
+    public static boolean isHeartbeat(CharSequence frame) {
+        if (!isJsonMessage(frame)) return false;
+        int limit = Math.min(frame.length(), HEARTBEAT_SCAN_LIMIT) - HEARTBEAT_TR_ID.length();
+        for (int i = 1; i <= limit; i++) {
+            if (regionEquals(frame, i, HEARTBEAT_TR_ID)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 프레임을 파싱하여 레코드마다 sink를 호출
+     * @param frame 원시 메시지
+     * @param scratch 재사용 레코드 (호출 스레드 전용)
+     * @param sink 레코드 수신 콜백 (유효성 검사는 호출측 책임)
+     * @return 전달한 레코드 수, 체결 프레임이 아니면 NOT_TICK_FRAME
+     */
+    public static int parse(CharSequence frame, KisTickRecord scratch, TickSink sink) {
+        if (frame == null || frame.length() == 0 || isJsonMessage(frame)) {
+            return NOT_TICK_FRAME;
+        }
+        final int len = frame.length();
+
+        // 1. 헤더 구간 (|로 구분된 앞 3개)
+        int p1 = indexOf(frame, '|', 0, len);
+        if (p1 < 0) return NOT_TICK_FRAME;
+        int p2 = indexOf(frame, '|', p1 + 1, len);
+        if (p2 < 0) return NOT_TICK_FRAME;
+        int p3 = indexOf(frame, '|', p2 + 1, len);
+        if (p3 < 0) return NOT_TICK_FRAME;
+
+        // 2. 실시간 체결가 데이터 여부 (암호화 안 됨 + H0STCNT0)
+        if (p1 != 1 || frame.charAt(0) != '0') return NOT_TICK_FRAME;
+        if (p2 - p1 - 1 != TR_ID_TICK.length() || !regionEquals(frame, p1 + 1, TR_ID_TICK)) {
+            return NOT_TICK_FRAME;
+        }
+
+        // 3. 데이터 건수 (파싱 실패 시 1건으로 간주)
+        int dataCount = parseUnsigned(frame, p2 + 1, p3);
+        if (dataCount < 0) dataCount = 1;
+
+        // 4. 본문 구간: 다음 | 전까지
+        int bodyStart = p3 + 1;
+        int bodyEnd = indexOf(frame, '|', bodyStart, len);
+        if (bodyEnd < 0) bodyEnd = len;
+
+        int totalFields = 1;
+        for (int i = bodyStart; i < bodyEnd; i++) {
+            if (frame.charAt(i) == '^') totalFields++;
+        }
+        if (totalFields < EXPECTED_MIN_FIELDS || dataCount == 0) {
+            return totalFields < EXPECTED_MIN_FIELDS ? NOT_TICK_FRAME : 0;
+        }
+
+        // 5. 레코드당 고정 필드 수로 분할
+        int fieldsPerRecord = totalFields / dataCount;
+        int emitted = 0;
+        int pos = bodyStart;
+        for (int r = 0; r < dataCount; r++) {
+            if ((r + 1) * fieldsPerRecord > totalFields) break;
+            scratch.clear();
+            for (int f = 0; f < fieldsPerRecord; f++) {
+                int end = indexOf(frame, '^', pos, bodyEnd);
+                if (end < 0) end = bodyEnd;
+                if (f <= LAST_DECODED_FIELD) {
+                    decodeField(frame, pos, end, f, scratch);
+                }
+                pos = end + 1;
+            }
+            if (fieldsPerRecord >= EXPECTED_MIN_FIELDS) {
+                sink.onTick(scratch);
+                emitted++;
+            }
+        }
+        return emitted;
+    }
+
+    private static void decodeField(CharSequence s, int start, int end, int field, KisTickRecord rec) {
+        // 앞뒤 공백 제거 (기존 String.trim 동작과 동일)
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+
+        switch (field) {
+            case MKSC_SHRN_ISCD -> decodeCode(s, start, end, rec);
+            case STCK_CNTG_HOUR -> rec.msOfDay = parseHhmmss(s, start, end);
+            case STCK_PRPR -> rec.closePrice = parseInt(s, start, end);
+            case PRDY_VRSS -> rec.previousDay = parseInt(s, start, end);
+            case PRDY_CTRT -> rec.rateScaled = parseScaled2(s, start, end);
+            case STCK_OPRC -> rec.openPrice = parseInt(s, start, end);
+            case STCK_HGPR -> rec.highPrice = parseInt(s, start, end);
+            case STCK_LWPR -> rec.lowPrice = parseInt(s, start, end);
+            case CNTG_VOL -> rec.volume = parseInt(s, start, end);
+            case ACML_VOL -> rec.cumVolume = parseInt(s, start, end);
+            case CCLD_DVSN -> rec.side = parseInt(s, start, end);
+            default -> { }
+        }
+    }
+
+    static void decodeCode(CharSequence s, int start, int end, KisTickRecord rec) {
+        int n = Math.min(end - start, KisTickRecord.MAX_CODE_LENGTH);
+        int numeric = n == 6 ? 0 : -1;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(start + i);
+            rec.code[i] = c;
+            if (numeric >= 0) {
+                numeric = (c >= '0' && c <= '9') ? numeric * 10 + (c - '0') : -1;
+            }
+        }
+        rec.codeLength = n;
+        rec.codeNumeric = numeric;
+    }
+
+    /**
+     * HHmmss → ms-of-day, 형식/범위 오류는 NULL
+     */
+    static int parseHhmmss(CharSequence s, int start, int end) {
+        if (end - start != 6) return KisTickRecord.NULL;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return KisTickRecord.NULL;
+        }
+        int hh = (s.charAt(start) - '0') * 10 + (s.charAt(start + 1) - '0');
+        int mm = (s.charAt(start + 2) - '0') * 10 + (s.charAt(start + 3) - '0');
+        int ss = (s.charAt(start + 4) - '0') * 10 + (s.charAt(start + 5) - '0');
+        if (hh > 23 || mm > 59 || ss > 59) return KisTickRecord.NULL;
+        return ((hh * 60 + mm) * 60 + ss) * 1000;
+    }
+
+    /**
+     * 부호 있는 정수 파싱 (Integer.parseInt와 동일한 허용 범위), 실패 시 NULL
+     */
+    static int parseInt(CharSequence s, int start, int end) {
+        if (start >= end) return KisTickRecord.NULL;
+        boolean negative = false;
+        char first = s.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+            if (start == end) return KisTickRecord.NULL;
+        }
+        long v = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return KisTickRecord.NULL;
+            v = v * 10 + (c - '0');
+            if (v > (long) Integer.MAX_VALUE + 1) return KisTickRecord.NULL;
+        }
+        long signed = negative ? -v : v;
+        if (signed > Integer.MAX_VALUE || signed <= Integer.MIN_VALUE) return KisTickRecord.NULL;
+        return (int) signed;
+    }
+
+    /**
+     * 소수 → 100배 스케일 정수 (등락률). 소수 셋째 자리에서 반올림(HALF_UP, 0 에서 먼 쪽), 실패 시 NULL
+     */
+    static int parseScaled2(CharSequence s, int start, int end) {
+        if (start >= end) return KisTickRecord.NULL;
+        boolean negative = false;
+        char first = s.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+        long intPart = 0;
+        int frac = 0;
+        int fracDigits = 0;
+        boolean roundUp = false;
+        boolean seenDot = false;
+        boolean seenDigit = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (seenDot) return KisTickRecord.NULL;
+                seenDot = true;
+            } else if (c >= '0' && c <= '9') {
+                seenDigit = true;
+                if (!seenDot) {
+                    intPart = intPart * 10 + (c - '0');
+                    if (intPart > Integer.MAX_VALUE / KisTickRecord.RATE_SCALE) return KisTickRecord.NULL;
+                } else if (fracDigits < 2) {
+                    frac = frac * 10 + (c - '0');
+                    fracDigits++;
+                } else if (fracDigits == 2) {
+                    roundUp = c >= '5'; // 넷째 자리 이하는 HALF_UP 결과에 영향 없음
+                    fracDigits++;
+                }
+            } else {
+                return KisTickRecord.NULL;
+            }
+        }
+        if (!seenDigit) return KisTickRecord.NULL;
+        if (fracDigits == 1) frac *= 10;
+        long scaled = intPart * KisTickRecord.RATE_SCALE + frac + (roundUp ? 1 : 0);
+        return (int) (negative ? -scaled : scaled);
+    }
+
+    /**
+     * 음이 아닌 정수 (공백 허용), 실패 시 -1
+     */
+    private static int parseUnsigned(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        int v = parseInt(s, start, end);
+        return v == KisTickRecord.NULL || v < 0 ? -1 : v;
+    }
+
+    private static int indexOf(CharSequence s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static boolean regionEquals(CharSequence s, int offset, String expected) {
+        int n = expected.length();
+        if (offset + n > s.length()) return false;
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(offset + i) != expected.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.dto.TickData;
+
+import java.math.BigDecimal;
+
+/**
+ * H0STCNT0 체결 레코드 1건을 담는 재사용 가능한 primitive 컨테이너
+ * KisFrameParser가 문자열/박싱 객체 없이 직접 채워 넣고, 소비자는 값을 복사해서 사용한다.
+ *
+ * - 가격: 원 단위 int
+ * - 등락률: RATE_SCALE(100) 배 스케일 int (예: -1.23% → -123)
+ * - 체결시각: KST 자정 기준 ms-of-day
+ * - 값이 없거나 파싱 실패한 필드는 NULL(Integer.MIN_VALUE)
+ */
+public final class KisTickRecord {
+
+    public static final int NULL = Integer.MIN_VALUE;
+    public static final int RATE_SCALE = 100;
+    public static final int MAX_CODE_LENGTH = 12;
+
+    // 종목코드 원문 (대부분 6자리 숫자지만 영문 포함 코드도 존재)
+    final char[] code = new char[MAX_CODE_LENGTH];
+    int codeLength;
+    // 6자리 숫자 코드면 정수값, 아니면 -1
+    int codeNumeric = -1;
+
+    int msOfDay = NULL;
+    int closePrice = NULL;
+    int openPrice = NULL;
+    int highPrice = NULL;
+    int lowPrice = NULL;
+    int volume = NULL;
+    int rateScaled = NULL;
+    int previousDay = NULL;
+    // 선택 필드 (청크 v2 인코딩에 보존, 유효성 판정에는 사용하지 않음)
+    int cumVolume = NULL;  // 누적 거래량
+    int side = NULL;       // 체결구분 (1 매수, 3 장전, 5 매도)
+
+    /**
+     * 다음 레코드 파싱 전 초기화
+     */
+    public void clear() {
+        codeLength = 0;
+        codeNumeric = -1;
+        msOfDay = NULL;
+        closePrice = NULL;
+        openPrice = NULL;
+        highPrice = NULL;
+        lowPrice = NULL;
+        volume = NULL;
+        rateScaled = NULL;
+        previousDay = NULL;
+        cumVolume = NULL;
+        side = NULL;
+    }
+
+    /**
+     * 다른 레코드 값을 그대로 복사 (링버퍼 슬롯 등 사전할당 객체로 옮길 때 사용)
+     */
+    public void copyFrom(KisTickRecord src) {
+        System.arraycopy(src.code, 0, code, 0, src.codeLength);
+        codeLength = src.codeLength;
+        codeNumeric = src.codeNumeric;
+        msOfDay = src.msOfDay;
+        closePrice = src.closePrice;
+        openPrice = src.openPrice;
+        highPrice = src.highPrice;
+        lowPrice = src.lowPrice;
+        volume = src.volume;
+        rateScaled = src.rateScaled;
+        previousDay = src.previousDay;
+        cumVolume = src.cumVolume;
+        side = src.side;
+    }
+
+    /**
+     * 파싱 외 경로(노드 간 릴레이 등)에서 시세 값 채우기 - 체결구분(side)은 NULL
+     */
+    public void setQuote(CharSequence code, int msOfDay, int openPrice, int highPrice, int lowPrice, int closePrice,
+                         int volume, int rateScaled, int previousDay, int cumVolume) {
+        clear();
+        KisFrameParser.decodeCode(code, 0, code.length(), this);
+        this.msOfDay = msOfDay;
+        this.openPrice = openPrice;
+        this.highPrice = highPrice;
+        this.lowPrice = lowPrice;
+        this.closePrice = closePrice;
+        this.volume = volume;
+        this.rateScaled = rateScaled;
+        this.previousDay = previousDay;
+        this.cumVolume = cumVolume;
+    }
+
+    public int codeLength() { return codeLength; }
+    public char codeCharAt(int i) { return code[i]; }
+    public int codeNumeric() { return codeNumeric; }
+    public int msOfDay() { return msOfDay; }
+    public int closePrice() { return closePrice; }
+    public int openPrice() { return openPrice; }
+    public int highPrice() { return highPrice; }
+    public int lowPrice() { return lowPrice; }
+    public int volume() { return volume; }
+    public int rateScaled() { return rateScaled; }
+    public int previousDay() { return previousDay; }
+    public int cumVolume() { return cumVolume; }
+    public int side() { return side; }
+
+    /**
+     * 종목코드 문자열 (호출 시마다 String 할당 - 경계 지점에서만 사용)
+     */
+    public String code() {
+        return codeLength == 0 ? null : new String(code, 0, codeLength);
+    }
+
+    /**
+     * 종목코드 비교 (할당 없음)
+     */
+    public boolean codeEquals(CharSequence other) {
+        if (other == null || other.length() != codeLength) return false;
+        for (int i = 0; i < codeLength; i++) {
+            if (code[i] != other.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * TickData.isValid()와 동일한 규칙을 primitive 값으로 검사
+     */
+    public boolean isValid() {
+        return codeLength > 0
+                && msOfDay != NULL
+                && closePrice != NULL && closePrice >= 0
+                && openPrice != NULL && openPrice >= 0
+                && highPrice != NULL && highPrice >= 0
+                && lowPrice != NULL && lowPrice >= 0
+                && volume != NULL && volume > 0
+                && rateScaled != NULL
+                && rateScaled >= -100 * RATE_SCALE
+                && rateScaled <= 100 * RATE_SCALE
+                && previousDay != NULL;
+    }
+
+    /**
+     * HHmmss 형식 체결시각 (TickData.date 호환)
+     */
+    public String hhmmss() {
+        if (msOfDay == NULL) return null;
+        int sec = msOfDay / 1000;
+        char[] out = new char[6];
+        twoDigits(out, 0, sec / 3600);
+        twoDigits(out, 2, (sec / 60) % 60);
+        twoDigits(out, 4, sec % 60);
+        return new String(out);
+    }
+
+    /**
+     * 기존 다운스트림(TickData 기반) 호환용 변환
+     * 파싱 경로에서는 호출하지 않고, TickData가 필요한 소비자 경계에서만 사용
+     */
+    public TickData toTickData() {
+        return TickData.builder()
+                .code(code())
+                .date(hhmmss())
+                .closePrice(boxed(closePrice))
+                .openPrice(boxed(openPrice))
+                .highPrice(boxed(highPrice))
+                .lowPrice(boxed(lowPrice))
+                .volume(boxed(volume))
+                .fluctuationRate(rateScaled == NULL ? null : BigDecimal.valueOf(rateScaled, 2))
+                .previousDay(boxed(previousDay))
+                .build();
+    }
+
+    private static Integer boxed(int v) {
+        return v == NULL ? null : v;
+    }
+
+    private static void twoDigits(char[] out, int off, int v) {
+        out[off] = (char) ('0' + v / 10);
+        out[off + 1] = (char) ('0' + v % 10);
+    }
+
+    @Override
+    public String toString() {
+        return "KisTickRecord[code=" + code() + ", msOfDay=" + msOfDay + ", close=" + closePrice
+                + ", volume=" + volume + ", rate=" + rateScaled + "]";
+    }
+}
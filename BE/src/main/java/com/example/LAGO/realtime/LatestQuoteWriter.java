@@ -0,0 +1,315 @@
+package com.example.LAGO.realtime;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 실시간 조회용 최신 시세(realtime:stock:{code}) write-behind 병합 저장기
+ *
+ * - 틱마다 Redis에 쓰지 않고 종목별 최신값만 메모리에 덮어씀 (dirty 표시)
+ * - flush 주기마다 dirty 종목들을 Lettuce 파이프라인 한 번으로 HSET + EXPIRE
+ * - realtime:latest_update(핫키)는 flush당 1회만 SET
+ * → Redis 명령 수: 틱 수 비례 → flush 구간 내 변경 종목 수 비례
+ *
+ * 메모리 사본이 항상 최신이므로 getLatestPrice 등 조회는 여기서 먼저 읽음 (read-your-writes)
+ * flush 한 시세는 같은 파이프라인에서 PUBLISH → 다른 노드의 QuotePriceCache 갱신
+ * 같은 파이프라인에서 realtime:snapshot 해시(packed 값)와 version 도 갱신 → QuoteSnapshotStore
+ */
+@Slf4j
+@Component
+public class LatestQuoteWriter {
+
+    static final String REALTIME_KEY_PREFIX = "realtime:stock:";
+    static final String LATEST_UPDATE_KEY = "realtime:latest_update";
+    private static final long KEY_TTL_SECONDS = 3600; // 1시간
+    // 기존 저장 형식과 동일하게 서버 기본 타임존의 LocalDateTime 문자열 사용
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final QuotePriceCache quotePriceCache;
+
+    @Value("${realtime.quote-cache.publish:true}")
+    private boolean publishUpdates = true;
+
+    @Value("${realtime.quote.flush-interval-ms:100}")
+    private long flushIntervalMs;
+
+    @Value("${realtime.quote.max-batch-size:256}")
+    private int maxBatchSize;
+
+    // dirty 시세가 Redis에 반영되지 않은 채 머무를 수 있는 최대 시간
+    @Value("${realtime.quote.max-staleness-ms:1000}")
+    private long maxStalenessMs;
+
+    private final Map<String, Quote> quotes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Quote> dirtyQueue = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService flusher;
+
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong flushedQuotes = new AtomicLong();
+    private final AtomicLong flushRoundTrips = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong staleQuotes = new AtomicLong();
+
+    public LatestQuoteWriter(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                             QuotePriceCache quotePriceCache) {
+        this.redisTemplate = redisTemplate;
+        this.quotePriceCache = quotePriceCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "latest-quote-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("🚀 LatestQuoteWriter started: interval={}ms, maxBatch={}, maxStaleness={}ms",
+                flushIntervalMs, maxBatchSize, maxStalenessMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 남은 dirty 시세 모두 반영
+        while (!dirtyQueue.isEmpty()) {
+            if (!flushBatch()) break;
+        }
+    }
+
+    /**
+     * 파싱 레코드로 최신 시세 갱신 (메모리만, Redis는 flush 때)
+     */
+    public void update(KisTickRecord tick) {
+        update(tick.code(), tick.msOfDay(), tick.closePrice(), tick.openPrice(), tick.highPrice(),
+                tick.lowPrice(), tick.volume(), System.currentTimeMillis());
+    }
+
+    /**
+     * 최신 시세 갱신 (메모리만, Redis는 flush 때)
+     * @param msOfDay 체결시각 (KST ms-of-day)
+     * @param receivedAtMillis 수신 시각 (epoch ms)
+     */
+    public void update(String code, int msOfDay, int closePrice, int openPrice, int highPrice,
+                       int lowPrice, int volume, long receivedAtMillis) {
+        Quote q = quotes.computeIfAbsent(code, Quote::new);
+        boolean enqueue;
+        synchronized (q) {
+            q.msOfDay = msOfDay;
+            q.closePrice = closePrice;
+            q.openPrice = openPrice;
+            q.highPrice = highPrice;
+            q.lowPrice = lowPrice;
+            q.volume = volume;
+            q.receivedAtMillis = receivedAtMillis;
+            enqueue = !q.dirty;
+            if (enqueue) {
+                q.dirty = true;
+                q.dirtySinceNanos = System.nanoTime();
+            }
+        }
+        if (enqueue) dirtyQueue.offer(q);
+        updates.incrementAndGet();
+    }
+
+    /**
+     * 메모리 사본의 최신 체결가 (없으면 null → 호출측에서 Redis 조회)
+     */
+    public Integer getLatestPrice(String code) {
+        Quote q = code == null ? null : quotes.get(code);
+        if (q == null) return null;
+        synchronized (q) {
+            return q.closePrice;
+        }
+    }
+
+    /**
+     * 메모리 사본을 Redis 해시와 같은 필드 구성으로 반환 (없으면 null)
+     */
+    public Map<String, String> getQuoteFields(String code) {
+        Quote q = code == null ? null : quotes.get(code);
+        if (q == null) return null;
+        synchronized (q) {
+            return q.toHash(LocalDateTime.now(ZONE));
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            // 한 배치는 항상 처리, 이후 staleness 한도를 넘은 시세가 남아 있으면 이어서 처리
+            if (!flushBatch()) return;
+            Quote head;
+            while ((head = dirtyQueue.peek()) != null && isStale(head)) {
+                staleQuotes.incrementAndGet();
+                if (!flushBatch()) return;
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush latest quotes: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean isStale(Quote q) {
+        return System.nanoTime() - q.dirtySinceNanos > TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+    }
+
+    /**
+     * dirty 시세 최대 maxBatchSize개를 파이프라인 1회로 반영
+     * @return 성공 여부 (실패 시 다음 주기에 재시도)
+     */
+    private boolean flushBatch() {
+        List<Quote> batch = new ArrayList<>(Math.min(maxBatchSize, 64));
+        List<Map<String, String>> hashes = new ArrayList<>(batch.size());
+        Map<byte[], byte[]> packed = new HashMap<>();
+        List<String> codes = new ArrayList<>(batch.size());
+        int[] prices = new int[maxBatchSize];
+        LocalDateTime now = LocalDateTime.now(ZONE);
+        Quote q;
+        while (batch.size() < maxBatchSize && (q = dirtyQueue.poll()) != null) {
+            synchronized (q) {
+                hashes.add(q.toHash(now));
+                packed.put(bytes(q.code), bytes(q.packed()));
+                prices[batch.size()] = q.closePrice;
+                q.dirty = false;
+            }
+            codes.add(q.code);
+            batch.add(q);
+        }
+        if (batch.isEmpty()) return true;
+
+        byte[] latestUpdateKey = bytes(LATEST_UPDATE_KEY);
+        byte[] snapshotKey = bytes(QuoteSnapshotStore.SNAPSHOT_KEY);
+        byte[] snapshotVersionKey = bytes(QuoteSnapshotStore.VERSION_KEY);
+        byte[] nowValue = bytes(now.toString());
+        byte[] updateChannel = publishUpdates ? bytes(quotePriceCache.channel()) : null;
+        byte[] updateMessage = publishUpdates ? bytes(quotePriceCache.updateMessage(codes, prices)) : null;
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < batch.size(); i++) {
+                    byte[] key = bytes(REALTIME_KEY_PREFIX + batch.get(i).code);
+                    Map<byte[], byte[]> fields = new HashMap<>();
+                    hashes.get(i).forEach((k, v) -> fields.put(bytes(k), bytes(v)));
+                    connection.hashCommands().hMSet(key, fields);
+                    connection.keyCommands().expire(key, KEY_TTL_SECONDS);
+                }
+                connection.stringCommands().set(latestUpdateKey, nowValue,
+                        Expiration.seconds(KEY_TTL_SECONDS), RedisStringCommands.SetOption.upsert());
+                // 전 종목 스냅샷: 해시 1개에 배치 전체를 HSET 1회, version 은 데이터 뒤에 증가
+                // (해시 TTL 은 전체가 멈췄을 때만 의미 있음, 종목별 만료는 QuoteSnapshotStore 가 receivedAt 으로 처리)
+                connection.hashCommands().hMSet(snapshotKey, packed);
+                connection.keyCommands().expire(snapshotKey, KEY_TTL_SECONDS);
+                connection.stringCommands().incr(snapshotVersionKey);
+                // HSET 과 같은 파이프라인 → 다른 노드가 메시지를 받을 때 해시도 이미 반영됨
+                if (updateMessage != null) connection.publish(updateChannel, updateMessage);
+                return null;
+            });
+            flushedQuotes.addAndGet(batch.size());
+            flushRoundTrips.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            flushFailures.incrementAndGet();
+            log.warn("Latest quote flush failed ({} quotes), will retry: {}", batch.size(), e.getMessage());
+            // 그 사이 새 틱으로 다시 dirty가 된 시세는 이미 큐에 들어가 있음
+            for (Quote failed : batch) {
+                boolean enqueue;
+                synchronized (failed) {
+                    enqueue = !failed.dirty;
+                    failed.dirty = true;
+                }
+                if (enqueue) dirtyQueue.offer(failed);
+            }
+            return false;
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedStocks", quotes.size());
+        stats.put("dirtyStocks", dirtyQueue.size());
+        stats.put("updates", updates.get());
+        stats.put("flushedQuotes", flushedQuotes.get());
+        stats.put("flushRoundTrips", flushRoundTrips.get());
+        stats.put("flushFailures", flushFailures.get());
+        stats.put("staleQuotes", staleQuotes.get());
+        return stats;
+    }
+
+    /**
+     * 종목별 최신 시세 (가변, 자기 자신으로 동기화)
+     */
+    private static final class Quote {
+        final String code;
+        int msOfDay;
+        int closePrice;
+        int openPrice;
+        int highPrice;
+        int lowPrice;
+        int volume;
+        long receivedAtMillis;
+        boolean dirty;
+        long dirtySinceNanos;
+
+        Quote(String code) {
+            this.code = code;
+        }
+
+        Map<String, String> toHash(LocalDateTime lastUpdated) {
+            Map<String, String> dataMap = new HashMap<>();
+            dataMap.put("code", code);
+            dataMap.put("date", hhmmss(msOfDay));
+            dataMap.put("closePrice", String.valueOf(closePrice));
+            dataMap.put("openPrice", String.valueOf(openPrice));
+            dataMap.put("highPrice", String.valueOf(highPrice));
+            dataMap.put("lowPrice", String.valueOf(lowPrice));
+            dataMap.put("volume", String.valueOf(volume));
+            dataMap.put("receivedAt", LocalDateTime.ofInstant(Instant.ofEpochMilli(receivedAtMillis), ZONE).toString());
+            dataMap.put("lastUpdated", lastUpdated.toString());
+            return dataMap;
+        }
+
+        String packed() {
+            return QuoteSnapshotStore.encode(closePrice, openPrice, highPrice, lowPrice, volume,
+                    hhmmss(msOfDay), receivedAtMillis);
+        }
+
+        private static String hhmmss(int msOfDay) {
+            int sec = msOfDay / 1000;
+            return String.format("%02d%02d%02d", sec / 3600, (sec / 60) % 60, sec % 60);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.dto.TickData;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 종목별 최신 시세 (last-value store) - 파이프라인 fanout 스테이지가 갱신
+ *
+ * - StockRegistry 인덱스 배열, 종목당 int[FIELD_COUNT] (값 없음 = KisTickRecord.NULL)
+ * - 갱신마다 전역 단조 증가 version 부여 → 소비자는 "내가 마지막으로 본 version 이후 바뀌었나"만 비교
+ * - 쓰기/읽기는 종목 엔트리 단위 synchronized (읽기는 호출측 배열로 복사)
+ */
+@Component
+public class QuoteBook {
+
+    public static final int PRICE = 0;
+    public static final int OPEN = 1;
+    public static final int HIGH = 2;
+    public static final int LOW = 3;
+    /** 등락률 × 100 */
+    public static final int RATE = 4;
+    /** 전일대비 */
+    public static final int CHANGE = 5;
+    /** 누적 거래량 */
+    public static final int VOLUME = 6;
+    /** 체결 시각 (ms of day, KST) */
+    public static final int TIME = 7;
+    public static final int FIELD_COUNT = 8;
+
+    private static final int NULL = KisTickRecord.NULL;
+
+    private static final class Entry {
+        final int[] values = new int[FIELD_COUNT];
+        long version;
+
+        Entry() {
+            Arrays.fill(values, NULL);
+        }
+    }
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Entry[] entries = new Entry[0];
+
+    /**
+     * @return 부여된 version, 인덱스가 없으면 0
+     */
+    public long update(int index, KisTickRecord tick) {
+        if (index < 0) return 0;
+        Entry e = entryFor(index);
+        synchronized (e) {
+            int[] v = e.values;
+            v[PRICE] = tick.closePrice();
+            v[OPEN] = tick.openPrice();
+            v[HIGH] = tick.highPrice();
+            v[LOW] = tick.lowPrice();
+            v[RATE] = tick.rateScaled();
+            v[CHANGE] = tick.previousDay();
+            v[VOLUME] = tick.cumVolume();
+            v[TIME] = tick.msOfDay();
+            return e.version = versions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 기존 TickData 경로 (누적 거래량 없음)
+     */
+    public long update(int index, TickData tick) {
+        if (index < 0) return 0;
+        Entry e = entryFor(index);
+        synchronized (e) {
+            int[] v = e.values;
+            v[PRICE] = unboxed(tick.getClosePrice());
+            v[OPEN] = unboxed(tick.getOpenPrice());
+            v[HIGH] = unboxed(tick.getHighPrice());
+            v[LOW] = unboxed(tick.getLowPrice());
+            v[RATE] = rateScaled(tick.getFluctuationRate());
+            v[CHANGE] = unboxed(tick.getPreviousDay());
+            v[TIME] = parseHhmmss(tick.getDate());
+            return e.version = versions.incrementAndGet();
+        }
+    }
+
+    /**
+     * 최신 값 복사
+     * @param out 길이 FIELD_COUNT 이상
+     * @return 값의 version, 아직 시세가 없으면 0
+     */
+    public long read(int index, int[] out) {
+        Entry[] current = entries;
+        if (index < 0 || index >= current.length || current[index] == null) return 0;
+        Entry e = current[index];
+        synchronized (e) {
+            System.arraycopy(e.values, 0, out, 0, FIELD_COUNT);
+            return e.version;
+        }
+    }
+
+    /**
+     * 최신 값의 version 만 (변경 여부 확인용)
+     */
+    public long versionOf(int index) {
+        Entry[] current = entries;
+        if (index < 0 || index >= current.length || current[index] == null) return 0;
+        Entry e = current[index];
+        synchronized (e) {
+            return e.version;
+        }
+    }
+
+    /** 지금까지 부여된 마지막 version */
+    public long currentVersion() {
+        return versions.get();
+    }
+
+    private Entry entryFor(int index) {
+        Entry[] current = entries;
+        if (index < current.length && current[index] != null) return current[index];
+        synchronized (this) {
+            current = entries;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(index + 1, Math.max(16, current.length * 2)));
+            }
+            if (current[index] == null) current[index] = new Entry();
+            entries = current;
+            return current[index];
+        }
+    }
+
+    static int rateScaled(BigDecimal rate) {
+        return rate == null ? NULL : rate.movePointRight(2).intValue();
+    }
+
+    static int parseHhmmss(String date) {
+        if (date == null || date.length() != 6) return NULL;
+        try {
+            int v = Integer.parseInt(date);
+            return ((v / 10000) * 3600 + (v / 100 % 100) * 60 + v % 100) * 1000;
+        } catch (NumberFormatException e) {
+            return NULL;
+        }
+    }
+
+    private static int unboxed(Integer v) {
+        return v == null ? NULL : v;
+    }
+}
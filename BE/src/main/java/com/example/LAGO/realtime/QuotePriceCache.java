@@ -0,0 +1,222 @@
+package com.example.LAGO.realtime;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 현재가 L1 캐시 (StockRegistry 인덱스 배열, 매매/랭킹의 getLatestPrice 용)
+ *
+ * - 이 노드에서 틱을 받으면 RealTimeDataBroadcaster 가 바로 갱신 (수집 노드, 릴레이 구독 노드)
+ * - 틱이 다른 노드에만 들어오면 LatestQuoteWriter flush 때 발행되는 메시지로 갱신
+ *   (realtime:quote:invalidate, "origin|005930:71900,000660:120000" - 무효화 대신 값을 실어 보내 재조회가 필요 없음)
+ * - 마지막 확인 후 max-age-ms 가 지난 값은 miss → 호출측이 기존 경로(메모리 사본/Redis)로 읽고 fill
+ *   (pub/sub 메시지를 놓쳐도 이 시간 이상 오래된 가격은 쓰지 않음)
+ */
+@Slf4j
+@Component
+public class QuotePriceCache implements MessageListener {
+
+    private final StockRegistry stockRegistry;
+    private final RedisConnectionFactory connectionFactory;
+
+    @Value("${realtime.quote-cache.max-age-ms:5000}")
+    private long maxAgeMs = 5000;
+
+    @Value("${realtime.quote-cache.channel:realtime:quote:invalidate}")
+    private String channel = "realtime:quote:invalidate";
+
+    @Value("${realtime.quote-cache.subscribe:true}")
+    private boolean subscribe = true;
+
+    private final String origin = UUID.randomUUID().toString().substring(0, 8);
+    private volatile Slots slots = new Slots(0);
+    private RedisMessageListenerContainer container;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleMisses = new AtomicLong();
+    private final AtomicLong localUpdates = new AtomicLong();
+    private final AtomicLong remoteUpdates = new AtomicLong();
+    private final AtomicLong fills = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public QuotePriceCache(StockRegistry stockRegistry, RedisConnectionFactory connectionFactory) {
+        this.stockRegistry = stockRegistry;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!subscribe) return;
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(this, new ChannelTopic(channel));
+        container.afterPropertiesSet();
+        container.start();
+        log.info("🚀 QuotePriceCache started: channel={}, maxAge={}ms, origin={}", channel, maxAgeMs, origin);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (container != null) container.destroy();
+    }
+
+    /**
+     * 이 노드에서 받은 틱 (RealTimeDataBroadcaster)
+     */
+    public void put(int index, int price) {
+        if (store(index, price)) localUpdates.incrementAndGet();
+    }
+
+    /**
+     * 캐시 miss 후 메모리 사본/Redis 에서 읽은 값
+     */
+    public void fill(String code, int price) {
+        if (store(stockRegistry.indexOf(code), price)) fills.incrementAndGet();
+    }
+
+    public void fill(int index, int price) {
+        if (store(index, price)) fills.incrementAndGet();
+    }
+
+    /**
+     * @return max-age 이내에 확인된 현재가, 없거나 오래됐으면 0
+     */
+    public int get(int index) {
+        Slots s = slots;
+        if (index < 0 || index >= s.capacity()) {
+            misses.incrementAndGet();
+            return 0;
+        }
+        int price = s.prices.get(index);
+        if (price <= 0) {
+            misses.incrementAndGet();
+            return 0;
+        }
+        if (System.currentTimeMillis() - s.updatedAt.get(index) > maxAgeMs) {
+            staleMisses.incrementAndGet();
+            return 0;
+        }
+        hits.incrementAndGet();
+        return price;
+    }
+
+    public int get(String code) {
+        return get(code == null ? StockRegistry.NOT_FOUND : stockRegistry.indexOf(code));
+    }
+
+    private boolean store(int index, int price) {
+        if (index < 0 || price <= 0) return false;
+        Slots s = slots;
+        if (index >= s.capacity()) s = grow(index);
+        s.updatedAt.set(index, System.currentTimeMillis());
+        s.prices.set(index, price);
+        return true;
+    }
+
+    // 종목 마스터 갱신으로 인덱스가 늘어난 경우만 (드묾)
+    private synchronized Slots grow(int index) {
+        Slots s = slots;
+        if (index < s.capacity()) return s;
+        Slots grown = new Slots(Math.max(index + 1, stockRegistry.size()));
+        for (int i = 0; i < s.capacity(); i++) {
+            grown.updatedAt.set(i, s.updatedAt.get(i));
+            grown.prices.set(i, s.prices.get(i));
+        }
+        slots = grown;
+        return grown;
+    }
+
+    /**
+     * LatestQuoteWriter flush 배치 → 다른 노드용 메시지
+     */
+    public String updateMessage(List<String> codes, int[] prices) {
+        StringBuilder sb = new StringBuilder(origin.length() + 1 + codes.size() * 14).append(origin).append('|');
+        for (int i = 0; i < codes.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(codes.get(i)).append(':').append(prices[i]);
+        }
+        return sb.toString();
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        messages.incrementAndGet();
+        try {
+            apply(new String(message.getBody(), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            log.warn("⚠️ Quote cache message ignored: {}", e.getMessage());
+        }
+    }
+
+    void apply(String body) {
+        int bar = body.indexOf('|');
+        // 자기 flush 메시지는 무시 (발행 시점 이후 로컬 틱으로 더 새 값이 들어와 있을 수 있음)
+        if (bar < 0 || body.regionMatches(0, origin, 0, bar) && bar == origin.length()) return;
+        int pos = bar + 1;
+        while (pos < body.length()) {
+            int colon = body.indexOf(':', pos);
+            int comma = body.indexOf(',', pos);
+            if (comma < 0) comma = body.length();
+            if (colon < 0 || colon > comma) break;
+            int index = stockRegistry.indexOf(body.subSequence(pos, colon));
+            if (store(index, Integer.parseInt(body, colon + 1, comma, 10))) remoteUpdates.incrementAndGet();
+            pos = comma + 1;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.get();
+        long total = h + misses.get() + staleMisses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("capacity", slots.capacity());
+        stats.put("maxAgeMs", maxAgeMs);
+        stats.put("hits", h);
+        stats.put("misses", misses.get());
+        stats.put("staleMisses", staleMisses.get());
+        stats.put("hitRate", total == 0 ? 0.0 : Math.round(h * 1000.0 / total) / 10.0);
+        stats.put("localUpdates", localUpdates.get());
+        stats.put("remoteUpdates", remoteUpdates.get());
+        stats.put("fills", fills.get());
+        stats.put("messages", messages.get());
+        stats.put("errors", errors.get());
+        return stats;
+    }
+
+    private static final class Slots {
+        final AtomicIntegerArray prices;
+        final AtomicLongArray updatedAt;
+
+        Slots(int capacity) {
+            prices = new AtomicIntegerArray(capacity);
+            updatedAt = new AtomicLongArray(capacity);
+        }
+
+        int capacity() {
+            return prices.length();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.dto.TickData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 시장 전체 최신 시세 스냅샷 (KEYS realtime:stock:* + 종목별 HGETALL 대체)
+ *
+ * - LatestQuoteWriter flush 파이프라인에서 realtime:snapshot 해시 1개에 종목별 packed 값을 HSET,
+ *   realtime:snapshot:version 을 INCR
+ *   packed = "close,open,high,low,volume,HHmmss,receivedAtEpochMs"
+ * - 전체 조회: version GET 1회로 바뀐 경우에만 HGETALL 1회 (refresh-ms 안에서는 Redis 조회 없음)
+ * - 종목 여러 개 조회: HMGET 1회
+ * version 은 /api/stocks/snapshot ETag 의 기준 → clear() 에서도 0으로 되돌리지 않고 증가만 시킴
+ * (같은 version 이라도 읽을 때 만료로 빠진 종목이 있으면 내용이 다르므로 ETag 는 Snapshot.etag() 사용)
+ *
+ * 해시 TTL 은 flush 마다 갱신되므로 종목별 만료 역할을 못 함 → 값의 receivedAtEpochMs 로 판단
+ * - 읽을 때 max-age-ms 보다 오래된 종목은 결과에서 제외
+ * - prune-interval 마다 오래된 필드를 HDEL (스크립트에서 다시 확인 후 삭제 → 그 사이 갱신된 종목은 유지), 지웠으면 version 증가
+ */
+@Slf4j
+@Component
+public class QuoteSnapshotStore {
+
+    static final String SNAPSHOT_KEY = "realtime:snapshot";
+    static final String VERSION_KEY = "realtime:snapshot:version";
+    // LatestQuoteWriter 저장 형식과 동일한 서버 기본 타임존
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    // KEYS[1]=스냅샷 해시, KEYS[2]=version, ARGV[1]=cutoff(epoch ms), ARGV[2..]=후보 종목
+    private static final RedisScript<Long> PRUNE_SCRIPT = new DefaultRedisScript<>("""
+            local cutoff = tonumber(ARGV[1])
+            local removed = 0
+            for i = 2, #ARGV do
+              local v = redis.call('HGET', KEYS[1], ARGV[i])
+              if v then
+                local ts = tonumber(string.match(v, '([^,]+)$'))
+                if ts and ts < cutoff then
+                  redis.call('HDEL', KEYS[1], ARGV[i])
+                  removed = removed + 1
+                end
+              end
+            end
+            if removed > 0 then redis.call('INCR', KEYS[2]) end
+            return removed
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    // 이 시간보다 오래 갱신되지 않은 종목은 스냅샷에서 제외 (예전 종목별 키 TTL 1시간과 동일, 0이면 끔)
+    @Value("${realtime.quote-snapshot.max-age-ms:3600000}")
+    private long maxAgeMs = 3_600_000;
+
+    // 이 간격 안의 전체 조회는 version 확인 없이 메모리 사본 반환
+    @Value("${realtime.quote-snapshot.refresh-ms:200}")
+    private long refreshMs = 200;
+
+    private volatile Snapshot cached = Snapshot.EMPTY;
+    private volatile long checkedAtMs;
+    // cached 안에서 가장 오래된 receivedAt (읽을 때 만료 검사 생략용)
+    private volatile long cachedOldestMs = Long.MAX_VALUE;
+
+    private final AtomicLong versionChecks = new AtomicLong();
+    private final AtomicLong fullLoads = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong prunedQuotes = new AtomicLong();
+
+    public QuoteSnapshotStore(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 전 종목 스냅샷 (Redis 실패 시 마지막으로 읽은 스냅샷)
+     */
+    public Snapshot snapshot() {
+        long now = System.currentTimeMillis();
+        Snapshot s = cached;
+        if (now - checkedAtMs < refreshMs) return s;
+
+        synchronized (this) {
+            s = cached;
+            if (now - checkedAtMs < refreshMs) return s;
+            try {
+                versionChecks.incrementAndGet();
+                long version = parseVersion(redisTemplate.opsForValue().get(VERSION_KEY));
+                if (version != s.version() || s == Snapshot.EMPTY) {
+                    s = load(now);
+                    cached = s;
+                } else if (cachedOldestMs < cutoff(now)) {
+                    // 버전은 그대로지만 그 사이 만료된 종목이 생김 (prune 이 지우면 버전도 바뀜)
+                    s = withoutStale(s, now);
+                    cached = s;
+                }
+            } catch (Exception e) {
+                errors.incrementAndGet();
+                log.warn("Quote snapshot refresh failed, serving version {}: {}", s.version(), e.getMessage());
+            }
+            checkedAtMs = now;
+            return s;
+        }
+    }
+
+    // version 과 해시를 같은 파이프라인에서 읽음 (version 이 데이터보다 앞서지 않음)
+    private Snapshot load(long now) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(bytes(VERSION_KEY));
+            connection.hashCommands().hGetAll(bytes(SNAPSHOT_KEY));
+            return null;
+        });
+        fullLoads.incrementAndGet();
+        Map<String, TickData> quotes = new TreeMap<>();
+        long cutoff = cutoff(now);
+        long oldest = Long.MAX_VALUE;
+        if (results.get(1) instanceof Map<?, ?> entries) {
+            for (Map.Entry<?, ?> e : entries.entrySet()) {
+                String packed = e.getValue().toString();
+                long receivedAt = receivedAt(packed);
+                if (receivedAt < cutoff) continue;
+                TickData data = decode(e.getKey().toString(), packed);
+                if (data == null) continue;
+                quotes.put(e.getKey().toString(), data);
+                oldest = Math.min(oldest, receivedAt);
+            }
+        }
+        cachedOldestMs = oldest;
+        return new Snapshot(parseVersion(results.get(0)), Collections.unmodifiableMap(quotes));
+    }
+
+    private Snapshot withoutStale(Snapshot s, long now) {
+        long cutoff = cutoff(now);
+        long oldest = Long.MAX_VALUE;
+        Map<String, TickData> quotes = new TreeMap<>();
+        for (Map.Entry<String, TickData> e : s.quotes().entrySet()) {
+            long receivedAt = e.getValue().getReceivedAt().atZone(ZONE).toInstant().toEpochMilli();
+            if (receivedAt < cutoff) continue;
+            quotes.put(e.getKey(), e.getValue());
+            oldest = Math.min(oldest, receivedAt);
+        }
+        cachedOldestMs = oldest;
+        return new Snapshot(s.version(), Collections.unmodifiableMap(quotes));
+    }
+
+    /**
+     * 종목 여러 개를 Redis 1회 왕복으로 조회 (없는 종목은 결과에서 빠짐)
+     */
+    public Snapshot lookup(Collection<String> codes) {
+        if (codes.isEmpty()) return new Snapshot(cached.version(), Map.of());
+        Snapshot s = cached;
+        long now = System.currentTimeMillis();
+        if (now - checkedAtMs < refreshMs && cachedOldestMs >= cutoff(now)) return s.subset(codes);
+
+        lookups.incrementAndGet();
+        List<String> keys = List.copyOf(codes);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(bytes(VERSION_KEY));
+            byte[][] fields = new byte[keys.size()][];
+            for (int i = 0; i < fields.length; i++) fields[i] = bytes(keys.get(i));
+            connection.hashCommands().hMGet(bytes(SNAPSHOT_KEY), fields);
+            return null;
+        });
+        Map<String, TickData> quotes = new LinkedHashMap<>();
+        long cutoff = cutoff(System.currentTimeMillis());
+        if (results.get(1) instanceof List<?> values) {
+            for (int i = 0; i < keys.size() && i < values.size(); i++) {
+                Object packed = values.get(i);
+                TickData data = packed == null || receivedAt(packed.toString()) < cutoff
+                        ? null : decode(keys.get(i), packed.toString());
+                if (data != null) quotes.put(keys.get(i), data);
+            }
+        }
+        return new Snapshot(parseVersion(results.get(0)), quotes);
+    }
+
+    /**
+     * 현재가만 HMGET 1회로 조회
+     * @return 입력과 같은 순서의 가격, 없거나 만료됐으면 0
+     */
+    public int[] getPrices(List<String> codes) {
+        int[] prices = new int[codes.size()];
+        if (codes.isEmpty()) return prices;
+        List<Object> values = redisTemplate.opsForHash().multiGet(SNAPSHOT_KEY, List.copyOf(codes));
+        long cutoff = cutoff(System.currentTimeMillis());
+        for (int i = 0; i < prices.length && i < values.size(); i++) {
+            Object packed = values.get(i);
+            if (packed != null && receivedAt(packed.toString()) >= cutoff) prices[i] = closePrice(packed.toString());
+        }
+        return prices;
+    }
+
+    /**
+     * 오래 갱신되지 않은 종목 HDEL (스크립트 안에서 receivedAt 을 다시 확인 → 그 사이 들어온 시세는 지우지 않음)
+     * @return 지운 종목 수
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public long pruneStale() {
+        if (maxAgeMs <= 0) return 0;
+        try {
+            long cutoff = cutoff(System.currentTimeMillis());
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(cutoff));
+            redisTemplate.<String, String>opsForHash().entries(SNAPSHOT_KEY).forEach((code, packed) -> {
+                if (receivedAt(packed) < cutoff) args.add(code);
+            });
+            if (args.size() == 1) return 0;
+            Long removed = redisTemplate.execute(PRUNE_SCRIPT, List.of(SNAPSHOT_KEY, VERSION_KEY), args.toArray());
+            long n = removed == null ? 0 : removed;
+            if (n > 0) {
+                prunedQuotes.addAndGet(n);
+                log.info("🧹 Pruned {} stale quotes from snapshot (older than {}ms)", n, maxAgeMs);
+            }
+            return n;
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            log.warn("Quote snapshot prune failed: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 스냅샷에 기록된 종목 코드 (realtime:stock:{code} 정리용, KEYS 대신)
+     */
+    public Collection<String> codes() {
+        return redisTemplate.<String, String>opsForHash().keys(SNAPSHOT_KEY);
+    }
+
+    /**
+     * 스냅샷 해시 삭제 - version 은 지우지 않고 증가 (0부터 다시 세면 예전 ETag 를 가진 클라이언트가 잘못된 304 를 받음)
+     */
+    public void clear() {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.keyCommands().del(bytes(SNAPSHOT_KEY));
+            connection.stringCommands().incr(bytes(VERSION_KEY));
+            return null;
+        });
+        synchronized (this) {
+            cached = Snapshot.EMPTY;
+            cachedOldestMs = Long.MAX_VALUE;
+            checkedAtMs = 0;
+        }
+    }
+
+    static String encode(int closePrice, int openPrice, int highPrice, int lowPrice, int volume,
+                         String hhmmss, long receivedAtMillis) {
+        return new StringBuilder(64)
+                .append(closePrice).append(',').append(openPrice).append(',')
+                .append(highPrice).append(',').append(lowPrice).append(',')
+                .append(volume).append(',').append(hhmmss).append(',').append(receivedAtMillis)
+                .toString();
+    }
+
+    static TickData decode(String code, String packed) {
+        String[] f = packed.split(",");
+        if (f.length < 7) return null;
+        try {
+            return TickData.builder()
+                    .code(code)
+                    .closePrice(Integer.parseInt(f[0]))
+                    .openPrice(Integer.parseInt(f[1]))
+                    .highPrice(Integer.parseInt(f[2]))
+                    .lowPrice(Integer.parseInt(f[3]))
+                    .volume(Integer.parseInt(f[4]))
+                    .date(f[5])
+                    .receivedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(f[6])), ZONE))
+                    .build();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * packed 마지막 필드(receivedAtEpochMs), 형식이 깨졌으면 0 (= 만료 취급)
+     */
+    static long receivedAt(String packed) {
+        int comma = packed.lastIndexOf(',');
+        try {
+            return Long.parseLong(packed, comma + 1, packed.length(), 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private long cutoff(long now) {
+        return maxAgeMs > 0 ? now - maxAgeMs : Long.MIN_VALUE;
+    }
+
+    private static int closePrice(String packed) {
+        int comma = packed.indexOf(',');
+        try {
+            return Integer.parseInt(packed, 0, comma < 0 ? packed.length() : comma, 10);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long parseVersion(Object value) {
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot s = cached;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("version", s.version());
+        stats.put("cachedQuotes", s.quotes().size());
+        stats.put("versionChecks", versionChecks.get());
+        stats.put("fullLoads", fullLoads.get());
+        stats.put("lookups", lookups.get());
+        stats.put("errors", errors.get());
+        stats.put("prunedQuotes", prunedQuotes.get());
+        stats.put("maxAgeMs", maxAgeMs);
+        return stats;
+    }
+
+    /**
+     * @param version realtime:snapshot:version (flush 마다 증가, 0 = 아직 기록 없음)
+     * @param quotes 종목코드 → 최신 시세
+     */
+    public record Snapshot(long version, Map<String, TickData> quotes) {
+
+        static final Snapshot EMPTY = new Snapshot(0, Map.of());
+
+        /**
+         * 응답 ETag 값 (따옴표 제외) - version + 종목 수
+         * 같은 version 의 데이터는 고정이고 시간이 지나며 만료로 빠지기만 하므로,
+         * 종목 수까지 같으면 내용도 같음 (prune 전에 만료된 종목이 빠진 응답이 304 로 가려지지 않도록)
+         */
+        public String etag() {
+            return version + "." + quotes.size();
+        }
+
+        Snapshot subset(Collection<String> codes) {
+            Map<String, TickData> picked = new LinkedHashMap<>();
+            for (String code : codes) {
+                TickData data = quotes.get(code);
+                if (data != null) picked.put(code, data);
+            }
+            return new Snapshot(version, picked);
+        }
+    }
+}
@@ -1,55 +1,37 @@
 package com.example.LAGO.realtime;
 
 
-import com.example.LAGO.realtime.dto.TickData;
-import com.example.LAGO.realtime.dto.TickPushDto;
+import com.example.LAGO.realtime.fanout.QuoteFanout;
+import com.example.LAGO.realtime.fanout.WatchlistStream;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-// 실시간 틱 데이터 바로 전송
+// 실시간 틱 데이터 전송
+// 최신 시세는 QuoteBook에 기록 (바이너리 /ws-quote 가 여기서 읽음)
+// STOMP 구독 여부 확인/종목별 conflation/1회 직렬화는 QuoteFanout에서 처리
+// 관심 종목 묶음 스트림(/user/queue/watchlist)은 WatchlistStream이 QuoteBook에서 읽어 전송
+// 매매/랭킹용 현재가 L1 캐시(QuotePriceCache)도 여기서 갱신 (수집 노드, 릴레이 구독 노드 공통 경로)
 @Service
 @RequiredArgsConstructor
 public class RealTimeDataBroadcaster {
 
-    private final SimpMessagingTemplate messagingTemplate;
-
-    public void sendRealTimeData(TickData tickData) {
-        // WebSocket으로 프론트엔드에 즉시 전송
-        // TickData -> TickPushDto 변환
-        TickPushDto pushDto = convertToTickPushDto(tickData);
-
-        /**
-         * 특정 종목 구독
-         * /topic/stocks/{종목코드}
-         */
-        messagingTemplate.convertAndSend(
-                "/topic/stocks/" + tickData.getCode(),
-                pushDto
-        );
-
-        /**
-         * 전체 종목 구독
-         */
-        messagingTemplate.convertAndSend("/topic/stocks/all", tickData);
-    }
+    private final StockRegistry stockRegistry;
+    private final QuoteBook quoteBook;
+    private final QuoteFanout quoteFanout;
+    private final WatchlistStream watchlistStream;
+    private final QuotePriceCache quotePriceCache;
 
     /**
-     * TickData를 TickPushDto로 변환
+     * 파이프라인 fanout 스테이지 (파싱 레코드 그대로, 구독자 없는 종목은 변환 없이 건너뜀)
      */
-    private TickPushDto convertToTickPushDto(TickData tickData) {
-        return TickPushDto.builder()
-                .code(tickData.getCode())
-                .date(tickData.getDate())
-                .openPrice(tickData.getOpenPrice())
-                .highPrice(tickData.getHighPrice())
-                .lowPrice(tickData.getLowPrice())
-                .closePrice(tickData.getClosePrice())
-                .volume(tickData.getVolume())
-                .fluctuationRate(tickData.getFluctuationRate())  // 등락율 포함
-                .previousDay(tickData.getPreviousDay())          // 전일대비 추가
-                .build();
+    public void sendRealTimeData(KisTickRecord tick) {
+        int index = tick.codeNumeric() >= 0
+                ? stockRegistry.indexOfNumericCode(tick.codeNumeric())
+                : stockRegistry.indexOf(tick.code());
+        long seq = quoteBook.update(index, tick);
+        quotePriceCache.put(index, tick.closePrice());
+        quoteFanout.onTick(index, seq, tick);
+        watchlistStream.onTick(index);
     }
 
 }
@@ -1,19 +1,26 @@
 package com.example.LAGO.realtime;
 
 import com.example.LAGO.realtime.dto.TickData;
+import com.example.LAGO.realtime.wal.TickWal;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * KIS WebSocket으로부터 받은 실시간 틱 데이터를 압축 배치 저장하고 관리하는 서비스
@@ -26,9 +33,22 @@ public class RealtimeDataService {
     private final RedisTemplate<String, String> redisTemplate;
     private final RedisTemplate<String, byte[]> binaryRedisTemplate;
     private final ObjectMapper objectMapper;
-    private final StockIdMapper stockIdMapper;
+    private final StockRegistry stockRegistry;
     private static final ZoneId KST = ZoneId.of("Asia/Seoul"); // [NEW]
-    private final RealTimeDataBroadcaster broadcaster;
+    private final LatestQuoteWriter latestQuoteWriter;
+    private final QuotePriceCache quotePriceCache;
+    private final QuoteSnapshotStore quoteSnapshotStore;
+    private final TickChunkStore tickChunkStore;
+    private final TickChunkDictionaries tickChunkDictionaries;
+    private final TickWal tickWal;
+
+    // 청크 커밋 방식: 2 = 단일 스크립트 원자 커밋(기본), 1 = 레거시 이중 저장
+    @Value("${realtime.chunk.commit-version:2}")
+    private int chunkCommitVersion;
+
+    // 청크 인코딩: 2 = 컬럼 delta/varint + 시장별 zstd 사전(기본), 1 = 16B 행
+    @Value("${realtime.chunk.format-version:2}")
+    private int chunkFormatVersion;
 
     // (선택) 인덱스 키 상수
     private static final String CHUNK_BLOB_KEY  = "ticks:chunk:%s:blob"; // [NEW]
@@ -41,14 +61,87 @@ public class RealtimeDataService {
             @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
             @Qualifier("binaryRedisTemplate") RedisTemplate<String, byte[]> binaryRedisTemplate,
             ObjectMapper objectMapper,
-            StockIdMapper stockIdMapper,
-            RealTimeDataBroadcaster broadcaster // 추가
+            StockRegistry stockRegistry,
+            LatestQuoteWriter latestQuoteWriter,
+            QuotePriceCache quotePriceCache,
+            QuoteSnapshotStore quoteSnapshotStore,
+            TickChunkStore tickChunkStore,
+            TickChunkDictionaries tickChunkDictionaries,
+            TickWal tickWal
     ) {
         this.redisTemplate = redisTemplate;
         this.binaryRedisTemplate = binaryRedisTemplate;
         this.objectMapper = objectMapper;
-        this.stockIdMapper = stockIdMapper;
-        this.broadcaster = broadcaster; // 추가
+        this.stockRegistry = stockRegistry;
+        this.latestQuoteWriter = latestQuoteWriter;
+        this.quotePriceCache = quotePriceCache;
+        this.quoteSnapshotStore = quoteSnapshotStore;
+        this.tickChunkStore = tickChunkStore;
+        this.tickChunkDictionaries = tickChunkDictionaries;
+        this.tickWal = tickWal;
+    }
+
+    /**
+     * 기동 시 이전 실행에서 커밋하지 못한 WAL 틱을 재생해 청크로 커밋
+     * (실시간 수신 시작 전에 실행, 거래일별로 따로 묶음)
+     */
+    @PostConstruct
+    public void replayWal() {
+        if (!tickWal.isEnabled()) return;
+        Map<Integer, TickChunk> replayChunks = new HashMap<>();
+        LocalDate[] day = {null};
+        long replayed = tickWal.replay(new TickWal.ReplayHandler() {
+            @Override
+            public void onTick(LocalDate tradingDay, long lsn, int stockId, int msOfDay, int price, int volume,
+                               int side, int cumVolume) {
+                if (!tradingDay.equals(day[0])) {
+                    if (day[0] != null) flushReplayChunks(replayChunks, day[0]);
+                    day[0] = tradingDay;
+                }
+                TickChunk chunk = replayChunks.computeIfAbsent(stockId, k -> new TickChunk(CHUNK_SIZE));
+                if (!chunk.add(stockId, msOfDay, price, volume, side, cumVolume)) {
+                    saveBatchToRedis(stockId, chunk, tradingDay);
+                    chunk.reset();
+                    chunk.add(stockId, msOfDay, price, volume, side, cumVolume);
+                }
+                chunk.markWal(lsn);
+            }
+
+            @Override
+            public void onPreparedBoundary(LocalDate tradingDay, int stockId) {
+                // Redis 커밋 후 COMMIT 기록 전에 죽은 청크: 원래 구간 그대로 끊어 같은 청크 ID로 다시 커밋
+                TickChunk chunk = replayChunks.get(stockId);
+                if (chunk == null || chunk.isEmpty()) return;
+                saveBatchToRedis(stockId, chunk, day[0] != null ? day[0] : tradingDay);
+                chunk.reset();
+            }
+        });
+        if (day[0] != null) flushReplayChunks(replayChunks, day[0]);
+        if (replayed > 0) {
+            log.info("🔁 Replayed {} uncommitted ticks from WAL (failedCommits={}, spilledCommits={})",
+                    replayed, failedCommits.size(), spilledCommits.size());
+        }
+        checkpointWal();
+    }
+
+    private void flushReplayChunks(Map<Integer, TickChunk> chunks, LocalDate tradingDay) {
+        chunks.forEach((stockId, chunk) -> {
+            if (!chunk.isEmpty()) saveBatchToRedis(stockId, chunk, tradingDay);
+        });
+        chunks.clear();
+    }
+
+    /**
+     * 정상 종료: 메모리 청크 전부 커밋 + 실패분 재시도 후 WAL 체크포인트
+     * (Redis가 내려가 있으면 남은 틱은 WAL에 남아 다음 기동 때 재생됨)
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushPendingChunks();
+        retryFailedCommits();
+        checkpointWal();
+        log.info("🛑 RealtimeDataService stopped: failedCommits={}, spilledCommits={}",
+                failedCommits.size(), spilledCommits.size());
     }
 
     
@@ -58,6 +151,28 @@ public class RealtimeDataService {
     
     // 종목별 청크 관리 (메모리 캐시)
     private final Map<Integer, TickChunk> stockChunks = new ConcurrentHashMap<>();
+
+    // Redis 커밋에 실패한 청크 (인코딩 결과 보관, 순서대로 재시도 - WAL 세그먼트도 이 동안 유지)
+    private final Deque<EncodedChunk> failedCommits = new ConcurrentLinkedDeque<>();
+
+    // failedCommits 상한을 넘은 청크는 WAL 구간만 보관 → 재시도 때 WAL에서 다시 읽어 인코딩
+    private final Deque<WalRange> spilledCommits = new ConcurrentLinkedDeque<>();
+    private final AtomicLong droppedCommits = new AtomicLong();
+
+    // 장애 동안 메모리에 들고 있을 인코딩 청크 수 상한
+    @Value("${realtime.wal.failed-commit-max:512}")
+    private int failedCommitMax;
+
+    /**
+     * WAL 위치만 남긴 커밋 대기 청크
+     */
+    private record WalRange(int stockId, long fromLsn, long toLsn) {}
+
+    /**
+     * 인코딩/압축이 끝난 커밋 대기 청크
+     */
+    private record EncodedChunk(int stockId, byte[] blob, Map<String, String> meta, int count, double ratio,
+                                long firstWalLsn, long lastWalLsn) {}
     
     // Redis Key 패턴
     private static final String REALTIME_KEY_PREFIX = "realtime:stock:";  // 실시간 조회용
@@ -66,93 +181,53 @@ public class RealtimeDataService {
     private static final String LATEST_UPDATE_KEY = "realtime:latest_update";
     
     /**
-     * KIS WebSocket에서 받은 틱 데이터를 압축 배치 저장 + 실시간 조회용 저장
-     * 
-     * @param tickData KIS 틱 데이터
+     * 파이프라인 persist 스테이지: 파싱 레코드를 종목별 청크에 바로 적재
+     * @param tick 파싱된 체결 레코드 (유효성 검사 완료)
      */
-    public void saveTickData(TickData tickData) {
-        try {
-            if (!tickData.isValid()) {
-                log.warn("Invalid tick data, skipping save: {}", tickData);
-                return;
-            }
-            
-            // 1. 압축 배치 저장 처리
-            saveToCompressedBatch(tickData);
-            
-            // 2. 실시간 조회용 최신 데이터 저장 (기존 방식 유지)
-            saveLatestForQuery(tickData);
-
-            // 여기서 실시간 전송
-            broadcaster.sendRealTimeData(tickData);
-            
-            log.debug("Processed tick data: {} - {}", tickData.getCode(), tickData.getClosePrice());
-            
-        } catch (Exception e) {
-            log.error("Failed to save tick data: {}", e.getMessage(), e);
+    public void appendTick(KisTickRecord tick) {
+        int stockId = stockRegistry.stockIdOf(tick); // 숫자 코드는 할당 없이 배열 조회
+        if (stockId == StockRegistry.NOT_FOUND) {
+            return; // StockRegistry에서 이미 경고 로그 (빈도 제한)
         }
+        appendToChunk(stockId, tick.msOfDay(), tick.closePrice(), tick.volume(), tick.side(), tick.cumVolume());
     }
-    
+
     /**
-     * 압축 배치 저장 처리
-     * @param tickData 틱 데이터
+     * 파이프라인 quote 스테이지: 실시간 조회용 최신 데이터 저장
+     * @param tick 파싱된 체결 레코드 (유효성 검사 완료)
      */
-    private void saveToCompressedBatch(TickData tickData) {
-        // 종목코드를 ID로 변환
-        Integer stockId = stockIdMapper.getStockId(tickData.getCode());
-        if (stockId == null) {
-            log.warn("Unknown stock code, skipping batch save: {}", tickData.getCode());
-            return;
-        }
-        
-        // 종목별 청크 가져오기 (없으면 생성)
-        TickChunk chunk = stockChunks.computeIfAbsent(stockId, 
-            k -> new TickChunk(CHUNK_SIZE));
-        
-        // 청크에 데이터 추가
-        if (!chunk.add16B(tickData, stockId)) {
-            // 청크가 가득 참 → Redis에 저장하고 새 청크 생성
-            saveBatchToRedis(stockId, chunk);
-            
-            // 새 청크 생성 후 데이터 추가
-            chunk = new TickChunk(CHUNK_SIZE);
-            chunk.add16B(tickData, stockId);
-            stockChunks.put(stockId, chunk);
-        }
+    public void saveLatestQuote(KisTickRecord tick) {
+        latestQuoteWriter.update(tick);
     }
-    
+
     /**
-     * 실시간 조회용 최신 데이터 저장 (기존 방식)
-     * @param tickData 틱 데이터
+     * 종목별 청크에 추가, 가득 차면 Redis에 저장 후 재사용
+     * 청크 단위로 동기화 (스케줄 flush와 동시 접근 방지)
      */
-    private void saveLatestForQuery(TickData tickData) {
-        String key = REALTIME_KEY_PREFIX + tickData.getCode();
-        
-        // 데이터를 Hash 형태로 저장
-        Map<String, String> dataMap = new HashMap<>();
-        dataMap.put("code", tickData.getCode());
-        dataMap.put("date", tickData.getDate());
-        dataMap.put("closePrice", tickData.getClosePrice().toString());
-        dataMap.put("openPrice", tickData.getOpenPrice().toString());
-        dataMap.put("highPrice", tickData.getHighPrice().toString());
-        dataMap.put("lowPrice", tickData.getLowPrice().toString());
-        dataMap.put("volume", tickData.getVolume().toString());
-        dataMap.put("receivedAt", tickData.getReceivedAt().toString());
-        dataMap.put("lastUpdated", LocalDateTime.now().toString());
-        
-        // Redis Hash에 저장 (TTL: 1시간)
-        redisTemplate.opsForHash().putAll(key, dataMap);
-        redisTemplate.expire(key, Duration.ofHours(1));
-        
-        // 최신 업데이트 시간 기록
-        redisTemplate.opsForValue().set(LATEST_UPDATE_KEY, 
-            LocalDateTime.now().toString(), Duration.ofHours(1));
+    private void appendToChunk(int stockId, int msOfDay, int price, int volume, int side, int cumVolume) {
+        // 종목별 청크 가져오기 (없으면 생성)
+        TickChunk chunk = stockChunks.computeIfAbsent(stockId,
+            k -> new TickChunk(CHUNK_SIZE));
+
+        synchronized (chunk) {
+            // WAL 먼저 기록 (청크 안의 종목별 순서 = LSN 순서)
+            long lsn = tickWal.appendTick(stockId, msOfDay, price, volume, side, cumVolume);
+            // 청크에 데이터 추가
+            if (!chunk.add(stockId, msOfDay, price, volume, side, cumVolume)) {
+                // 청크가 가득 참 → Redis에 저장하고 청크 재사용
+                saveBatchToRedis(stockId, chunk, LocalDate.now(KST));
+                chunk.reset();
+                chunk.add(stockId, msOfDay, price, volume, side, cumVolume);
+            }
+            chunk.markWal(lsn);
+        }
     }
-    
+
     /**
      * 청크를 압축하여 Redis에 저장
      * @param stockId 종목 ID
      * @param chunk 저장할 청크
+     * @param baseDate 틱 거래일 (WAL 재생 시 원래 거래일)
      */
 //    private void saveBatchToRedis(Integer stockId, TickChunk chunk) {
 //        try {
@@ -188,72 +263,220 @@ public class RealtimeDataService {
 //            log.error("Failed to save compressed batch: {}", e.getMessage(), e);
 //        }
 //    }
-    private void saveBatchToRedis(Integer stockId, TickChunk chunk) {
+    private void saveBatchToRedis(Integer stockId, TickChunk chunk, LocalDate baseDate) {
+        if (chunk.isEmpty()) return;
+
+        EncodedChunk encoded;
         try {
-            if (chunk.isEmpty()) return;
-
-            // 1) 압축 + 기본 메타 계산
-            byte[] compressed = chunk.toCompressedBlob(ZSTD_LEVEL);
-            int count = chunk.count();
-            int rawBytes = count * 16;
-
-            // 2) (기존) 레거시 키에도 저장
-            String legacyKey = String.format("%s%d:%d", BATCH_KEY_PREFIX, stockId, System.currentTimeMillis());
-            binaryRedisTemplate.opsForValue().set(legacyKey, compressed, Duration.ofHours(24));
-
-            // 3) (기존) 종목별 메타 해시 업데이트
-            String metaKeyPerStock = META_KEY_PREFIX + stockId;
-            String metaValue = String.format("count=%d,size=%d,ratio=%.2f%%,key=%s",
-                    count, compressed.length, chunk.getCompressionRatio(compressed.length), legacyKey);
-            redisTemplate.opsForHash().put(metaKeyPerStock, legacyKey, metaValue);
-            redisTemplate.expire(metaKeyPerStock, Duration.ofHours(24));
-
-            // ---------------------------
-            // [NEW] per-chunk 저장 + 인덱스
-            // ---------------------------
-            // 4) 청크 ID
-            String chunkId = java.util.UUID.randomUUID().toString();
-
-            // 5) blob 저장 (ticks:chunk:{id}:blob)
-            String chunkBlobKey = "ticks:chunk:" + chunkId + ":blob";
-            binaryRedisTemplate.opsForValue().set(chunkBlobKey, compressed, Duration.ofDays(1));
-
-            // 6) meta 저장 (ticks:chunk:{id}:meta)
-            String chunkMetaKey = "ticks:chunk:" + chunkId + ":meta";
-            Map<String, String> meta = new HashMap<>();
-            meta.put("count", String.valueOf(count));
-            meta.put("rawBytes", String.valueOf(rawBytes));                         // = count * 16
-            meta.put("baseDate", java.time.LocalDate.now(java.time.ZoneId.of("Asia/Seoul")).toString()); // KST
-            meta.put("zstdLevel", String.valueOf(ZSTD_LEVEL));
-            meta.put("ver", "1");
+            encoded = encodeChunk(stockId, chunk, baseDate);
+        } catch (Exception e) {
+            log.error("Failed to encode compressed batch: {}", e.getMessage(), e);
+            return;
+        }
+
+        try {
+            commitEncoded(encoded);
+        } catch (Exception e) {
+            // Redis 장애: 버리지 않고 보관 → retryFailedCommits에서 순서대로 재시도
+            queueFailedCommit(encoded);
+            log.error("Failed to save compressed batch (queued for retry, pending={}, spilled={}): {}",
+                    failedCommits.size(), spilledCommits.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 인코딩/압축 + 기본 메타 계산
+     */
+    private EncodedChunk encodeChunk(int stockId, TickChunk chunk, LocalDate baseDate) {
+        int count = chunk.count();
+        Map<String, String> meta = new HashMap<>();
+        byte[] compressed;
+        if (chunkFormatVersion >= TickChunkCodec.FORMAT_V2 && chunkCommitVersion >= 2) {
+            byte[] raw = chunk.toRawV2();
+            TickChunkDictionaries.Compressed c =
+                    tickChunkDictionaries.compress(raw, ZSTD_LEVEL, stockRegistry.getMarket(stockId));
+            compressed = c.blob();
+            meta.put("rawBytes", String.valueOf(raw.length));
+            meta.put("ver", String.valueOf(TickChunkCodec.FORMAT_V2));
+            meta.put("format", TickChunkCodec.FORMAT_V2_NAME);
+            meta.put("dictId", String.valueOf(c.dictId()));
+        } else {
+            // 레거시 이중 저장(commit-version=1)은 tick_batch:* 독자를 위해 v1 형식 유지
+            compressed = chunk.toCompressedBlob(ZSTD_LEVEL);
+            meta.put("rawBytes", String.valueOf(count * 16));                   // = count * 16
+            meta.put("ver", String.valueOf(TickChunkCodec.FORMAT_V1));
             meta.put("endian", "LE");
-            meta.put("stockId", String.valueOf(stockId));
-            meta.put("createdAt", java.time.LocalDateTime.now().toString());
-            redisTemplate.opsForHash().putAll(chunkMetaKey, meta);
-            redisTemplate.expire(chunkMetaKey, Duration.ofDays(1));
+        }
+        meta.put("count", String.valueOf(count));
+        meta.put("baseDate", baseDate.toString()); // KST
+        meta.put("zstdLevel", String.valueOf(ZSTD_LEVEL));
+        meta.put("stockId", String.valueOf(stockId));
+        meta.put("createdAt", java.time.LocalDateTime.now().toString());
+        return new EncodedChunk(stockId, compressed, meta, count, chunk.getCompressionRatio(compressed.length),
+                chunk.firstWalLsn(), chunk.lastWalLsn());
+    }
 
-            // 7) 인덱스(ZSET)
-            long createdAt = System.currentTimeMillis();
+    /**
+     * 실패 청크 보관: 상한 안이면 인코딩 결과째, 넘으면 WAL 구간만 (순서 유지를 위해 한 번 넘친 뒤로는 계속 구간만)
+     * WAL이 꺼져 있으면 다시 읽을 곳이 없어 상한을 넘은 청크는 버림
+     */
+    private void queueFailedCommit(EncodedChunk encoded) {
+        if (spilledCommits.isEmpty() && failedCommits.size() < failedCommitMax) {
+            failedCommits.addLast(encoded);
+        } else if (encoded.firstWalLsn() >= 0) {
+            spilledCommits.addLast(new WalRange(encoded.stockId(), encoded.firstWalLsn(), encoded.lastWalLsn()));
+        } else {
+            droppedCommits.incrementAndGet();
+            log.error("Dropped chunk of {} ticks for stock {} - retry queue full and WAL disabled",
+                    encoded.count(), encoded.stockId());
+        }
+    }
 
-            // 조회/리스트 인덱스는 생성시각 그대로
-            redisTemplate.opsForZSet().add("ticks:chunks", chunkId, createdAt);
-            redisTemplate.opsForZSet().add("ticks:chunks:byStock:" + stockId, chunkId, createdAt);
+    /**
+     * 저장 + 인덱스 등록, 성공하면 WAL에 커밋 구간 기록
+     * WAL 구간이 있으면 청크 ID를 구간에서 만들고 커밋 전에 PREPARE를 남김
+     * → Redis 커밋 후 COMMIT 기록 전에 죽어도 재생이 같은 청크를 덮어쓸 뿐 거래량이 두 번 잡히지 않음
+     */
+    private void commitEncoded(EncodedChunk encoded) {
+        String chunkId = tickWal.chunkIdOf(encoded.stockId(), encoded.firstWalLsn(), encoded.lastWalLsn());
+        tickWal.appendPrepare(encoded.stockId(), encoded.firstWalLsn(), encoded.lastWalLsn());
+        if (chunkCommitVersion >= 2) {
+            encoded.meta().put("commitVer", "2");
+            chunkId = chunkId == null
+                    ? tickChunkStore.commit(encoded.stockId(), encoded.blob(), encoded.meta())
+                    : tickChunkStore.commit(chunkId, encoded.stockId(), encoded.blob(), encoded.meta());
+        } else {
+            chunkId = saveBatchLegacy(encoded, chunkId);
+        }
+        tickWal.appendCommit(encoded.stockId(), encoded.firstWalLsn(), encoded.lastWalLsn());
 
-            // DB 적재 대기열은 +10초로 스케줄
-            redisTemplate.opsForZSet().add("ticks:ingest:pending", chunkId, createdAt + 10_000);
+        String stockCode = stockRegistry.getStockCode(encoded.stockId());
+        log.info("📦 Compressed batch saved: {} ({}) - ticks={}, blob={}B, ratio={}%, chunkId={}",
+                stockCode, encoded.stockId(), encoded.count(), encoded.blob().length,
+                String.format("%.1f", encoded.ratio()), chunkId);
+    }
 
+    /**
+     * 커밋 실패 청크 재시도 (오래된 순, 하나라도 실패하면 Redis가 아직 불안정하다고 보고 중단)
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void retryFailedCommits() {
+        int retried = 0;
+        EncodedChunk next;
+        while ((next = failedCommits.peekFirst()) != null) {
+            try {
+                commitEncoded(next);
+            } catch (Exception e) {
+                log.warn("Retry of failed chunk commits paused (pending={}, spilled={}): {}",
+                        failedCommits.size(), spilledCommits.size(), e.getMessage());
+                return;
+            }
+            failedCommits.pollFirst();
+            retried++;
+        }
+        WalRange range;
+        while ((range = spilledCommits.peekFirst()) != null) {
+            try {
+                EncodedChunk reread = rereadFromWal(range);
+                if (reread != null) {
+                    commitEncoded(reread);
+                    retried++;
+                }
+            } catch (Exception e) {
+                log.warn("Retry of spilled chunk commits paused (spilled={}): {}", spilledCommits.size(), e.getMessage());
+                break;
+            }
+            spilledCommits.pollFirst();
+        }
+        if (retried > 0) {
+            log.info("🔄 Recommitted {} chunks after Redis recovery (pending={}, spilled={})",
+                    retried, failedCommits.size(), spilledCommits.size());
+        }
+    }
 
-            // 8) 로그
-            String stockCode = stockIdMapper.getStockCode(stockId);
-            double ratio = chunk.getCompressionRatio(compressed.length);
-            log.info("📦 Compressed batch saved: {} ({}) - ticks={}, blob={}B, ratio={}%, chunkId={}",
-                    stockCode, stockId, count, compressed.length, String.format("%.1f", ratio), chunkId);
+    /**
+     * WAL 구간만 남긴 청크를 다시 읽어 인코딩 (같은 구간 → 같은 청크 ID)
+     * @return 구간 틱을 하나도 못 읽으면 null
+     */
+    private EncodedChunk rereadFromWal(WalRange range) {
+        TickChunk chunk = new TickChunk(CHUNK_SIZE);
+        LocalDate[] day = {null};
+        tickWal.readRange(range.stockId(), range.fromLsn(), range.toLsn(),
+                (tradingDay, lsn, stockId, msOfDay, price, volume, side, cumVolume) -> {
+                    day[0] = tradingDay;
+                    chunk.add(stockId, msOfDay, price, volume, side, cumVolume);
+                    chunk.markWal(lsn);
+                });
+        if (chunk.isEmpty()) {
+            log.warn("⚠️ Spilled chunk not found in WAL: stock={}, lsn=[{}, {}]",
+                    range.stockId(), range.fromLsn(), range.toLsn());
+            return null;
+        }
+        return encodeChunk(range.stockId(), chunk, day[0]);
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to save compressed batch: {}", e.getMessage(), e);
+    /**
+     * WAL 체크포인트: 아직 커밋되지 않은 틱(메모리 청크 + 실패 큐 + WAL 구간만 남긴 청크)이 남은 가장 오래된 세그먼트 이전을 삭제
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void checkpointWal() {
+        if (!tickWal.isEnabled()) return;
+        long oldest = Long.MAX_VALUE;
+        for (TickChunk chunk : stockChunks.values()) {
+            synchronized (chunk) {
+                if (chunk.firstWalLsn() >= 0) oldest = Math.min(oldest, chunk.firstWalLsn());
+            }
+        }
+        for (EncodedChunk pending : failedCommits) {
+            if (pending.firstWalLsn() >= 0) oldest = Math.min(oldest, pending.firstWalLsn());
+        }
+        for (WalRange spilled : spilledCommits) {
+            oldest = Math.min(oldest, spilled.fromLsn());
+        }
+        long keepFrom = oldest == Long.MAX_VALUE ? tickWal.activeSegment() : TickWal.segmentOf(oldest);
+        int released = tickWal.releaseBefore(keepFrom);
+        if (released > 0) {
+            log.debug("WAL checkpoint: released {} segments (keepFrom={})", released, keepFrom);
         }
     }
 
+    /**
+     * v1 커밋: 레거시 키 + 청크 키 이중 저장, 명령별 개별 왕복
+     * (realtime.chunk.commit-version=1 일 때만 사용, 중간 실패 시 반쪽 청크가 남을 수 있음)
+     */
+    private String saveBatchLegacy(EncodedChunk encoded, String walChunkId) {
+        int stockId = encoded.stockId();
+        byte[] compressed = encoded.blob();
+        Map<String, String> meta = encoded.meta();
+
+        // (기존) 레거시 키에도 저장
+        String legacyKey = String.format("%s%d:%d", BATCH_KEY_PREFIX, stockId, System.currentTimeMillis());
+        binaryRedisTemplate.opsForValue().set(legacyKey, compressed, Duration.ofHours(24));
+
+        // (기존) 종목별 메타 해시 업데이트
+        String metaKeyPerStock = META_KEY_PREFIX + stockId;
+        String metaValue = String.format("count=%d,size=%d,ratio=%.2f%%,key=%s",
+                encoded.count(), compressed.length, encoded.ratio(), legacyKey);
+        redisTemplate.opsForHash().put(metaKeyPerStock, legacyKey, metaValue);
+        redisTemplate.expire(metaKeyPerStock, Duration.ofHours(24));
+
+        // per-chunk 저장 + 인덱스
+        String chunkId = walChunkId != null ? walChunkId : java.util.UUID.randomUUID().toString();
+        binaryRedisTemplate.opsForValue().set(String.format(CHUNK_BLOB_KEY, chunkId), compressed, Duration.ofDays(1));
+
+        String chunkMetaKey = String.format(CHUNK_META_KEY, chunkId);
+        redisTemplate.opsForHash().putAll(chunkMetaKey, meta);
+        redisTemplate.expire(chunkMetaKey, Duration.ofDays(1));
+
+        long createdAt = System.currentTimeMillis();
+        // 조회/리스트 인덱스는 생성시각 그대로
+        redisTemplate.opsForZSet().add(CHUNKS_ZSET_ALL, chunkId, createdAt);
+        redisTemplate.opsForZSet().add(String.format(CHUNKS_ZSET_BY_STOCK, stockId), chunkId, createdAt);
+        // DB 적재 대기열은 +10초로 스케줄
+        redisTemplate.opsForZSet().add(TickChunkStore.PENDING_ZSET, chunkId, createdAt + 10_000);
+        return chunkId;
+    }
+
 
     /**
      * Redis에서 특정 종목의 최신 틱 데이터 조회
@@ -263,6 +486,12 @@ public class RealtimeDataService {
      */
     public TickData getTickData(String stockCode) {
         try {
+            // 1. 메모리 사본 우선 (아직 flush 전인 최신값 포함)
+            Map<String, String> local = latestQuoteWriter.getQuoteFields(stockCode);
+            if (local != null) {
+                return convertMapToTickData(new HashMap<>(local));
+            }
+
             String key = REALTIME_KEY_PREFIX + stockCode;
             Map<Object, Object> dataMap = redisTemplate.opsForHash().entries(key);
             
@@ -280,34 +509,27 @@ public class RealtimeDataService {
     }
     
     /**
-     * Redis에서 모든 틱 데이터 조회
-     * 
-     * @return 종목코드별 틱 데이터 Map
+     * 여러 종목의 최신 틱 데이터를 Redis 1회 왕복으로 조회 (realtime:snapshot HMGET)
+     *
+     * @return 종목코드별 틱 데이터 Map (데이터 없는 종목 제외)
      */
-    public Map<String, TickData> getAllTickData() {
+    public Map<String, TickData> getTickData(Collection<String> stockCodes) {
         try {
-            Set<String> keys = redisTemplate.keys(REALTIME_KEY_PREFIX + "*");
-            Map<String, TickData> result = new HashMap<>();
-            
-            for (String key : keys) {
-                String stockCode = key.replace(REALTIME_KEY_PREFIX, "");
-                Map<Object, Object> dataMap = redisTemplate.opsForHash().entries(key);
-                
-                if (!dataMap.isEmpty()) {
-                    TickData data = convertMapToTickData(dataMap);
-                    if (data != null) {
-                        result.put(stockCode, data);
-                    }
-                }
-            }
-            
-            return result;
-            
+            return quoteSnapshotStore.lookup(stockCodes).quotes();
         } catch (Exception e) {
-            System.err.println("Failed to get all tick data from Redis: " + e.getMessage());
+            log.warn("Failed to look up tick data ({} codes): {}", stockCodes.size(), e.getMessage());
             return new HashMap<>();
         }
     }
+
+    /**
+     * Redis에서 모든 틱 데이터 조회 (KEYS 대신 스냅샷 해시 1개, 버전이 바뀐 경우만 다시 읽음)
+     * 
+     * @return 종목코드별 틱 데이터 Map
+     */
+    public Map<String, TickData> getAllTickData() {
+        return new HashMap<>(quoteSnapshotStore.snapshot().quotes());
+    }
     
     /**
      * Redis에서 특정 종목 데이터 삭제
@@ -318,6 +540,7 @@ public class RealtimeDataService {
         try {
             String key = REALTIME_KEY_PREFIX + stockCode;
             redisTemplate.delete(key);
+            redisTemplate.opsForHash().delete(QuoteSnapshotStore.SNAPSHOT_KEY, stockCode);
             System.out.println("Deleted realtime data from Redis: " + stockCode);
         } catch (Exception e) {
             System.err.println("Failed to delete realtime data from Redis: " + e.getMessage());
@@ -325,15 +548,18 @@ public class RealtimeDataService {
     }
     
     /**
-     * 모든 실시간 데이터 삭제
+     * 모든 실시간 데이터 삭제 (스냅샷 해시에 기록된 종목 기준, KEYS 미사용)
      */
     public void clearAllRealtimeData() {
         try {
-            Set<String> keys = redisTemplate.keys(REALTIME_KEY_PREFIX + "*");
+            List<String> keys = quoteSnapshotStore.codes().stream()
+                    .map(code -> REALTIME_KEY_PREFIX + code)
+                    .toList();
             if (!keys.isEmpty()) {
                 redisTemplate.delete(keys);
-                System.out.println("Cleared all realtime data from Redis");
             }
+            quoteSnapshotStore.clear();
+            System.out.println("Cleared all realtime data from Redis");
         } catch (Exception e) {
             System.err.println("Failed to clear realtime data from Redis: " + e.getMessage());
         }
@@ -368,11 +594,25 @@ public class RealtimeDataService {
      */
     public Integer getLatestPrice(String stockCode) {
         try {
+            // L1 캐시 (max-age 이내에 확인된 값, 네트워크 없음)
+            int cached = quotePriceCache.get(stockCode);
+            if (cached > 0) {
+                return cached;
+            }
+
+            // 메모리 사본 우선 (flush 전 값까지 read-your-writes)
+            Integer localPrice = latestQuoteWriter.getLatestPrice(stockCode);
+            if (localPrice != null) {
+                quotePriceCache.fill(stockCode, localPrice);
+                return localPrice;
+            }
+
             String key = REALTIME_KEY_PREFIX + stockCode; // "realtime:stock:005930"
             String priceStr = (String) redisTemplate.opsForHash().get(key, "closePrice");
             
             if (priceStr != null) {
                 Integer price = Integer.parseInt(priceStr);
+                quotePriceCache.fill(stockCode, price);
                 log.debug("Redis에서 종목 {} 실시간 가격 조회: {}원", stockCode, price);
                 return price;
             } else {
@@ -385,6 +625,53 @@ public class RealtimeDataService {
         }
     }
 
+    /**
+     * 여러 종목의 최신 실시간 가격 일괄 조회 (랭킹 재계산 등)
+     * L1 캐시 → 메모리 사본 → 남은 종목만 스냅샷 해시 HMGET 1회
+     *
+     * @param stockIds 종목 ID (stock_info_id)
+     * @return 입력과 같은 순서의 가격, 알 수 없으면 0
+     */
+    public int[] getLatestPrices(int[] stockIds) {
+        int[] prices = new int[stockIds.length];
+        int[] missIndexes = new int[stockIds.length];
+        int misses = 0;
+        for (int i = 0; i < stockIds.length; i++) {
+            int index = stockRegistry.indexOfStockId(stockIds[i]);
+            if (index < 0) continue;
+            int price = quotePriceCache.get(index);
+            if (price > 0) {
+                prices[i] = price;
+                continue;
+            }
+            Integer local = latestQuoteWriter.getLatestPrice(stockRegistry.codeAt(index));
+            if (local != null && local > 0) {
+                prices[i] = local;
+                quotePriceCache.fill(index, local);
+                continue;
+            }
+            missIndexes[misses++] = i;
+        }
+        if (misses == 0) return prices;
+
+        try {
+            List<String> codes = new ArrayList<>(misses);
+            for (int m = 0; m < misses; m++) {
+                codes.add(stockRegistry.codeAt(stockRegistry.indexOfStockId(stockIds[missIndexes[m]])));
+            }
+            int[] fetched = quoteSnapshotStore.getPrices(codes);
+            for (int m = 0; m < misses; m++) {
+                if (fetched[m] <= 0) continue;
+                int i = missIndexes[m];
+                prices[i] = fetched[m];
+                quotePriceCache.fill(stockRegistry.indexOfStockId(stockIds[i]), fetched[m]);
+            }
+        } catch (Exception e) {
+            log.error("실시간 가격 일괄 조회 실패 ({}종목)", misses, e);
+        }
+        return prices;
+    }
+
     /**
      * Redis 연결 상태 확인
      * 
@@ -413,10 +700,12 @@ public class RealtimeDataService {
                 Integer stockId = entry.getKey();
                 TickChunk chunk = entry.getValue();
                 
-                if (!chunk.isEmpty()) {
-                    saveBatchToRedis(stockId, chunk);
-                    chunk.reset();  // 청크 재사용을 위해 리셋
-                    flushedCount++;
+                synchronized (chunk) {
+                    if (!chunk.isEmpty()) {
+                        saveBatchToRedis(stockId, chunk, LocalDate.now(KST));
+                        chunk.reset();  // 청크 재사용을 위해 리셋
+                        flushedCount++;
+                    }
                 }
             }
             
@@ -446,7 +735,16 @@ public class RealtimeDataService {
             stats.put("pendingTicks", totalTicks);
             stats.put("chunkSize", CHUNK_SIZE);
             stats.put("compressionLevel", ZSTD_LEVEL);
+            stats.put("chunkFormatVersion", chunkFormatVersion);
+            stats.put("dictionaries", tickChunkDictionaries.getStats());
             stats.put("lastUpdate", getLastUpdateTime());
+            stats.put("latestQuoteWriter", latestQuoteWriter.getStats());
+            stats.put("quotePriceCache", quotePriceCache.getStats());
+            stats.put("quoteSnapshotStore", quoteSnapshotStore.getStats());
+            stats.put("failedCommits", failedCommits.size());
+            stats.put("spilledCommits", spilledCommits.size());
+            stats.put("droppedCommits", droppedCommits.get());
+            stats.put("wal", tickWal.getStats());
             
         } catch (Exception e) {
             log.error("Failed to get batch statistics: {}", e.getMessage());
@@ -462,13 +760,26 @@ public class RealtimeDataService {
      */
     public Map<Object, Object> getBatchMetadata(String stockCode) {
         try {
-            Integer stockId = stockIdMapper.getStockId(stockCode);
+            Integer stockId = stockRegistry.getStockId(stockCode);
             if (stockId == null) {
                 return new HashMap<>();
             }
             
             String metaKey = META_KEY_PREFIX + stockId;
-            return redisTemplate.opsForHash().entries(metaKey);
+            Map<Object, Object> legacy = redisTemplate.opsForHash().entries(metaKey);
+            if (!legacy.isEmpty()) {
+                return legacy;
+            }
+
+            // v2 커밋은 레거시 메타를 쓰지 않으므로 종목별 청크 메타로 대체
+            Map<Object, Object> result = new LinkedHashMap<>();
+            for (String chunkId : latestChunkIdsByStock(stockId, 100)) {
+                Map<Object, Object> meta = redisTemplate.opsForHash().entries(String.format(CHUNK_META_KEY, chunkId));
+                if (!meta.isEmpty()) {
+                    result.put(chunkId, meta);
+                }
+            }
+            return result;
             
         } catch (Exception e) {
             log.error("Failed to get batch metadata for {}: {}", stockCode, e.getMessage());
@@ -511,6 +822,11 @@ public class RealtimeDataService {
         return ids == null ? java.util.List.of() : ids.stream().toList();
     }
 
+    // 청크 메타 조회
+    public Map<Object, Object> getChunkMeta(String chunkId) {
+        return redisTemplate.opsForHash().entries(String.format(CHUNK_META_KEY, chunkId));
+    }
+
     // [NEW] 종목별 최신 청크 ID 목록
     public java.util.List<String> latestChunkIdsByStock(int stockId, int limit) {
         var key = String.format(CHUNKS_ZSET_BY_STOCK, stockId);
@@ -0,0 +1,31 @@
+package com.example.LAGO.realtime;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 실시간 파이프라인 테이블/인덱스 존재 확인
+ *
+ * 생성/이관은 저장소 루트의 realtime_schema.sql 로만 한다 (운영은 ddl-auto=validate, 앱은 DDL/데이터 정리를 실행하지 않음).
+ * 각 컴포넌트는 첫 사용 전에 require 로 확인하고, 없으면 스크립트 이름을 담아 실패한다.
+ */
+public final class RealtimeSchema {
+
+    public static final String SCRIPT = "realtime_schema.sql";
+
+    private static final String RELATION_EXISTS_SQL = "SELECT to_regclass(?) IS NOT NULL";
+
+    private RealtimeSchema() {
+    }
+
+    /**
+     * 테이블/인덱스 확인
+     * @param relation to_regclass 이름 (대문자 테이블은 따옴표 포함, 예: "\"TICKS_STAGE\"")
+     * @throws IllegalStateException 없으면
+     */
+    public static void require(JdbcTemplate jdbc, String relation) {
+        Boolean exists = jdbc.queryForObject(RELATION_EXISTS_SQL, Boolean.class, relation);
+        if (!Boolean.TRUE.equals(exists)) {
+            throw new IllegalStateException(relation + " 이(가) 없습니다 - " + SCRIPT + " 를 먼저 적용해야 합니다");
+        }
+    }
+}
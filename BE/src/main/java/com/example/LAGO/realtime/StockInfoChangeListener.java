@@ -0,0 +1,126 @@
+package com.example.LAGO.realtime;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * stock_info 변경 감지 (PostgreSQL LISTEN/NOTIFY) → StockRegistry.refresh()
+ *
+ * - 트리거는 realtime_schema.sql 로 설치 - 첫 연결 때 없으면 경고만 남기고 10분 주기 폴백 갱신에 맡김
+ * - 풀 커넥션 하나를 LISTEN 전용으로 계속 점유, 알림이 몰려도 debounce-ms 동안 모아서 한 번만 갱신
+ * - 커넥션이 끊기면 backoff 후 재연결하고, 재연결 직후 놓친 변경을 위해 한 번 갱신
+ */
+@Slf4j
+@Component
+public class StockInfoChangeListener {
+
+    public static final String CHANNEL = "stock_info_changed";
+
+    private static final String TRIGGER = "stock_info_changed_notify";
+
+    private static final String TRIGGER_EXISTS_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = '" + TRIGGER + "' AND NOT tgisinternal)";
+
+    private final DataSource dataSource;
+    private final StockRegistry stockRegistry;
+
+    @Value("${realtime.stock-registry.listen:true}")
+    private boolean enabled;
+
+    @Value("${realtime.stock-registry.debounce-ms:500}")
+    private long debounceMs;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public StockInfoChangeListener(DataSource dataSource, StockRegistry stockRegistry) {
+        this.dataSource = dataSource;
+        this.stockRegistry = stockRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "stock-info-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) listenerThread.interrupt();
+    }
+
+    private void listenLoop() {
+        long backoffMs = 1_000;
+        boolean first = true;
+        while (running) {
+            try (Connection con = dataSource.getConnection()) {
+                con.setAutoCommit(true);
+                if (first) checkTrigger(con);
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                log.info("👂 Listening for stock_info changes on '{}'", CHANNEL);
+                if (!first) refreshSafely(); // 끊겨 있던 동안의 변경 반영
+                first = false;
+                backoffMs = 1_000;
+
+                PGConnection pg = con.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(10_000);
+                    if (notifications == null || notifications.length == 0) continue;
+                    // 대량 변경은 문장마다 알림이 오므로 잠깐 더 모은 뒤 한 번만 갱신
+                    Thread.sleep(debounceMs);
+                    pg.getNotifications(1);
+                    refreshSafely();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                if (!running) return;
+                log.warn("stock_info listener disconnected ({}), retrying in {}ms", e.getMessage(), backoffMs);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, 60_000);
+            }
+        }
+    }
+
+    private void checkTrigger(Connection con) {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(TRIGGER_EXISTS_SQL)) {
+            if (rs.next() && rs.getBoolean(1)) return;
+            log.warn("⚠️ stock_info notify trigger '{}' 가 없습니다 - {} 적용 전까지 10분 주기 갱신만 동작",
+                    TRIGGER, RealtimeSchema.SCRIPT);
+        } catch (SQLException e) {
+            log.warn("⚠️ Could not check stock_info notify trigger ({}); relying on periodic refresh", e.getMessage());
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            stockRegistry.refresh();
+        } catch (Exception e) {
+            log.warn("Stock registry refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.ingest.LongOhlcMap;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 종목별 마지막 체결가 (stock_last_price, PK = stock_info_id)
+ *
+ * 실시간 시세(Redis)가 없을 때의 주문/랭킹 가격 fallback.
+ * 기존에는 ticks 하이퍼테이블을 ORDER BY ts DESC / DISTINCT ON 으로 훑었으나
+ * - 청크 적재 트랜잭션에서 배치마다 종목별 마지막 초 1행씩 upsert (unnest 배열 1문장)
+ *   행 잠금 순서가 인스턴스마다 같도록 stock_info_id 순으로 정렬해 보냄 (동시 적재 간 교착 방지)
+ *   메모리 반영은 트랜잭션 커밋 후 (롤백된 가격이 max-age-ms 동안 조회되지 않도록)
+ * - 기동 시 전체를 메모리로 적재, 조회는 메모리 → 오래된 값만 PK 조회
+ * 테이블 생성과 최근 "TICKS" 에서의 초기 채움은 realtime_schema.sql 에서 (여기서는 존재만 확인)
+ */
+@Slf4j
+@Component
+public class StockLastPriceStore {
+
+    // 늦게 적재된 과거 청크가 더 새 가격을 덮어쓰지 않도록 ts 비교
+    private static final String UPSERT_SQL = """
+        INSERT INTO stock_last_price (stock_info_id, close_price, ts)
+        SELECT * FROM unnest(?::int[], ?::int[], ?::timestamptz[])
+        ON CONFLICT (stock_info_id) DO UPDATE SET
+            close_price = EXCLUDED.close_price,
+            ts          = EXCLUDED.ts,
+            updated_at  = now()
+        WHERE stock_last_price.ts <= EXCLUDED.ts
+        """;
+
+    private static final String SELECT_ALL_SQL = "SELECT stock_info_id, close_price, ts FROM stock_last_price";
+    private static final String SELECT_SQL =
+            "SELECT stock_info_id, close_price, ts FROM stock_last_price WHERE stock_info_id = ANY(?)";
+
+    private final JdbcTemplate jdbc;
+
+    // 다른 인스턴스의 적재로 바뀌었을 수 있으므로 이 시간이 지난 메모리 값은 PK로 다시 읽음
+    @Value("${realtime.last-price.max-age-ms:60000}")
+    private long maxAgeMs = 60_000;
+
+    private final Map<Integer, LastPrice> prices = new ConcurrentHashMap<>();
+    private volatile boolean tableReady;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong dbReads = new AtomicLong();
+    private final AtomicLong upsertedRows = new AtomicLong();
+    private final AtomicLong upsertBatches = new AtomicLong();
+
+    public StockLastPriceStore(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * 기동 시 메모리 적재 (DB 장애여도 기동은 계속 - 조회 시 다시 시도)
+     */
+    @PostConstruct
+    public void warm() {
+        try {
+            requireTable();
+            jdbc.query(SELECT_ALL_SQL, (rs, i) -> row(rs)).forEach(this::remember);
+            log.info("🚀 StockLastPriceStore warmed: {} stocks", prices.size());
+        } catch (Exception e) {
+            log.warn("StockLastPriceStore warm-up failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 적재 배치(1초 OHLCV)에서 종목별 마지막 초의 종가만 골라 upsert
+     * @return upsert된 행 수
+     */
+    public int upsertLatest(LongOhlcMap buckets) {
+        Latest latest = new Latest();
+        try {
+            buckets.forEach(latest);
+        } catch (Exception e) {
+            throw new IllegalStateException("last price scan failed", e); // Latest 는 예외를 던지지 않음
+        }
+        return upsert(latest.ids, latest.closes, latest.seconds, latest.size);
+    }
+
+    /**
+     * 종목별 마지막 초 가격 upsert (호출측 적재 트랜잭션 안에서 호출, 메모리는 커밋 후 반영)
+     * @param stockIds 배치 안에서 중복 없는 종목 ID
+     * @param epochSeconds 체결 초 (epoch)
+     */
+    public int upsert(int[] stockIds, int[] closePrices, long[] epochSeconds, int count) {
+        if (count == 0) return 0;
+        requireTable();
+        // stock_info_id 순 → 행 잠금도 같은 순서
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt(i -> stockIds[i]));
+        Integer[] ids = new Integer[count];
+        Integer[] closes = new Integer[count];
+        Timestamp[] times = new Timestamp[count];
+        List<LastPrice> written = new ArrayList<>(count);
+        for (int k = 0; k < count; k++) {
+            int i = order[k];
+            ids[k] = stockIds[i];
+            closes[k] = closePrices[i];
+            times[k] = new Timestamp(epochSeconds[i] * 1000L);
+            written.add(new LastPrice(stockIds[i], closePrices[i], epochSeconds[i] * 1000L, 0));
+        }
+
+        Integer rows = jdbc.execute((ConnectionCallback<Integer>) con -> {
+            Array idArray = con.createArrayOf("integer", ids);
+            Array priceArray = con.createArrayOf("integer", closes);
+            Array tsArray = con.createArrayOf("timestamptz", times);
+            try (PreparedStatement ps = con.prepareStatement(UPSERT_SQL)) {
+                ps.setArray(1, idArray);
+                ps.setArray(2, priceArray);
+                ps.setArray(3, tsArray);
+                return ps.executeUpdate();
+            } finally {
+                idArray.free();
+                priceArray.free();
+                tsArray.free();
+            }
+        });
+        afterCommit(written);
+        upsertBatches.incrementAndGet();
+        upsertedRows.addAndGet(rows == null ? 0 : rows);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * @return 마지막 체결가, 기록이 없으면 null
+     */
+    public Integer getPrice(Integer stockInfoId) {
+        if (stockInfoId == null) return null;
+        LastPrice p = prices.get(stockInfoId);
+        if (p != null && System.currentTimeMillis() - p.checkedAtMs() <= maxAgeMs) {
+            memoryHits.incrementAndGet();
+            return p.closePrice();
+        }
+        Map<Integer, Integer> loaded = load(List.of(stockInfoId));
+        Integer price = loaded.get(stockInfoId);
+        return price != null ? price : p == null ? null : p.closePrice();
+    }
+
+    /**
+     * 여러 종목 조회 (메모리 → 오래됐거나 없는 종목만 PK 조회 1회)
+     * @return stock_info_id → 마지막 체결가 (기록 없는 종목 제외)
+     */
+    public Map<Integer, Integer> getPrices(Collection<Integer> stockInfoIds) {
+        Map<Integer, Integer> result = new HashMap<>();
+        List<Integer> stale = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Integer id : stockInfoIds) {
+            LastPrice p = prices.get(id);
+            if (p != null && now - p.checkedAtMs() <= maxAgeMs) {
+                memoryHits.incrementAndGet();
+                result.put(id, p.closePrice());
+            } else {
+                stale.add(id);
+            }
+        }
+        if (!stale.isEmpty()) {
+            result.putAll(load(stale));
+            for (Integer id : stale) {
+                LastPrice p = prices.get(id);
+                if (p != null) result.putIfAbsent(id, p.closePrice());
+            }
+        }
+        return result;
+    }
+
+    private Map<Integer, Integer> load(List<Integer> stockInfoIds) {
+        Map<Integer, Integer> loaded = new HashMap<>();
+        try {
+            requireTable();
+            dbReads.incrementAndGet();
+            List<LastPrice> rows = jdbc.execute((ConnectionCallback<List<LastPrice>>) con -> {
+                Array idArray = con.createArrayOf("integer", stockInfoIds.toArray(Integer[]::new));
+                try (PreparedStatement ps = con.prepareStatement(SELECT_SQL)) {
+                    ps.setArray(1, idArray);
+                    List<LastPrice> found = new ArrayList<>();
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) found.add(row(rs));
+                    }
+                    return found;
+                } finally {
+                    idArray.free();
+                }
+            });
+            if (rows != null) {
+                for (LastPrice p : rows) {
+                    remember(p);
+                    loaded.put(p.stockInfoId(), prices.get(p.stockInfoId()).closePrice());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("stock_last_price 조회 실패 ({}종목): {}", stockInfoIds.size(), e.getMessage());
+        }
+        return loaded;
+    }
+
+    // 트랜잭션 안이면 커밋된 뒤에만 메모리에 반영 (롤백되면 버림), 아니면 바로
+    private void afterCommit(List<LastPrice> written) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rememberAll(written);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rememberAll(written);
+            }
+        });
+    }
+
+    private void rememberAll(List<LastPrice> written) {
+        long now = System.currentTimeMillis();
+        for (LastPrice p : written) {
+            remember(new LastPrice(p.stockInfoId(), p.closePrice(), p.tsMs(), now));
+        }
+    }
+
+    // 같은 종목이면 체결 시각이 더 늦은 값 유지
+    private void remember(LastPrice p) {
+        prices.merge(p.stockInfoId(), p, (old, neu) -> neu.tsMs() >= old.tsMs() ? neu
+                : new LastPrice(old.stockInfoId(), old.closePrice(), old.tsMs(), neu.checkedAtMs()));
+    }
+
+    private static LastPrice row(ResultSet rs) throws SQLException {
+        return new LastPrice(rs.getInt(1), rs.getInt(2), rs.getTimestamp(3).getTime(), System.currentTimeMillis());
+    }
+
+    private void requireTable() {
+        if (tableReady) return;
+        RealtimeSchema.require(jdbc, "stock_last_price");
+        tableReady = true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedStocks", prices.size());
+        stats.put("maxAgeMs", maxAgeMs);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("dbReads", dbReads.get());
+        stats.put("upsertBatches", upsertBatches.get());
+        stats.put("upsertedRows", upsertedRows.get());
+        return stats;
+    }
+
+    /**
+     * 버킷 순회로 종목별 가장 늦은 초의 종가만 남김 (배치당 종목 수는 수백 이하)
+     */
+    private static final class Latest implements LongOhlcMap.BucketVisitor {
+        private final Map<Integer, Integer> slotOf = new HashMap<>();
+        int[] ids = new int[64];
+        int[] closes = new int[64];
+        long[] seconds = new long[64];
+        int size;
+
+        @Override
+        public void onBucket(int stockId, long epochSecond, int open, int high, int low, int close, long volume) {
+            Integer slot = slotOf.get(stockId);
+            if (slot == null) {
+                slot = size++;
+                slotOf.put(stockId, slot);
+                if (slot == ids.length) {
+                    ids = Arrays.copyOf(ids, slot * 2);
+                    closes = Arrays.copyOf(closes, slot * 2);
+                    seconds = Arrays.copyOf(seconds, slot * 2);
+                }
+                ids[slot] = stockId;
+            } else if (seconds[slot] > epochSecond) {
+                return;
+            }
+            closes[slot] = close;
+            seconds[slot] = epochSecond;
+        }
+    }
+
+    /**
+     * @param tsMs 체결 시각 (epoch ms)
+     * @param checkedAtMs DB 값과 마지막으로 맞춘 시각
+     */
+    private record LastPrice(int stockInfoId, int closePrice, long tsMs, long checkedAtMs) {
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.dto.StockInfoDto;
+import com.example.LAGO.service.StockInfoService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 종목 레지스트리 - 종목마다 0..N-1 고정 인덱스를 부여 (StockIdMapper 대체)
+ *
+ * - 6자리 숫자 코드 → 인덱스: int[1,000,000] 직접 배열 (박싱/해시/할당 없음)
+ * - 숫자가 아닌 코드(ETN 등)만 HashMap 폴백
+ * - stock_info_id → 인덱스: id 크기 배열, 인덱스 → 코드/ID/시장: 배열
+ * - 갱신 시 기존 종목의 인덱스는 유지하고 새 종목만 뒤에 추가 (삭제된 종목 자리는 재사용 안 함)
+ *   → 종목별 메모리 구조(시세/청크/캔들)를 인덱스 배열로 두어도 갱신 후 그대로 유효
+ * - 조회는 volatile 스냅샷 하나만 읽음, 갱신은 새 스냅샷을 만들어 교체
+ * - stock_info 변경은 StockInfoChangeListener(LISTEN/NOTIFY)가 refresh() 호출, 10분 주기 폴백 갱신
+ * - 미등록 코드 경고는 1분에 UNKNOWN_LOG_LIMIT건까지만 남기고 나머지는 요약
+ */
+@Slf4j
+@Component
+public class StockRegistry {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int NUMERIC_CODE_SPACE = 1_000_000;
+    private static final int UNKNOWN_LOG_LIMIT = 10;
+    private static final long UNKNOWN_LOG_WINDOW_MS = 60_000L;
+
+    private final StockInfoService stockInfoService;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private final Object refreshLock = new Object();
+
+    // 미등록 코드 로그 제한
+    private final AtomicLong unknownWindowStart = new AtomicLong();
+    private final AtomicInteger unknownLogged = new AtomicInteger();
+    private final AtomicLong unknownSuppressed = new AtomicLong();
+    private final AtomicLong unknownTotal = new AtomicLong();
+
+    public StockRegistry(StockInfoService stockInfoService) {
+        this.stockInfoService = stockInfoService;
+    }
+
+    /**
+     * 불변 스냅샷 (인덱스 i의 정보는 각 배열의 i번째)
+     */
+    static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, new String[0], new int[0], new String[0], new boolean[0],
+                new int[NUMERIC_CODE_SPACE], new int[0], Map.of());
+
+        final int size;
+        final String[] codes;
+        final int[] stockIds;
+        final String[] markets;
+        final boolean[] listed;       // false = stock_info에서 삭제됨 (인덱스는 유지)
+        final int[] numericIndex;     // 6자리 숫자 코드 → 인덱스+1 (0 = 없음)
+        final int[] idIndex;          // stock_info_id → 인덱스+1 (0 = 없음)
+        final Map<String, Integer> otherCodes;
+
+        Snapshot(int size, String[] codes, int[] stockIds, String[] markets, boolean[] listed,
+                 int[] numericIndex, int[] idIndex, Map<String, Integer> otherCodes) {
+            this.size = size;
+            this.codes = codes;
+            this.stockIds = stockIds;
+            this.markets = markets;
+            this.listed = listed;
+            this.numericIndex = numericIndex;
+            this.idIndex = idIndex;
+            this.otherCodes = otherCodes;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("❌ Failed to load stock registry: {}", e.getMessage(), e);
+        }
+    }
+
+    // LISTEN/NOTIFY를 놓쳤을 때(연결 끊김 등) 대비
+    @Scheduled(fixedDelay = 600_000L, initialDelay = 600_000L)
+    public void periodicRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.warn("Periodic stock registry refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * stock_info 전체를 다시 읽어 스냅샷 교체 (기존 인덱스 유지)
+     * @return 갱신 후 종목 수
+     */
+    public int refresh() {
+        List<StockInfoDto> stocks = stockInfoService.getAllStockInfo();
+        synchronized (refreshLock) {
+            Snapshot next = build(snapshot, stocks);
+            int added = next.size - snapshot.size;
+            snapshot = next;
+            log.info("✅ Stock registry refreshed: size={}, added={}", next.size, added);
+            return next.size;
+        }
+    }
+
+    static Snapshot build(Snapshot prev, List<StockInfoDto> stocks) {
+        // 기존 코드 → 인덱스 (순서 유지)
+        Map<String, Integer> indexByCode = new LinkedHashMap<>();
+        for (int i = 0; i < prev.size; i++) indexByCode.put(prev.codes[i], i);
+
+        Map<String, StockInfoDto> current = new HashMap<>();
+        for (StockInfoDto s : stocks) {
+            if (s.getCode() == null || s.getStockInfoId() == null) continue;
+            String code = s.getCode().trim();
+            current.put(code, s);
+            indexByCode.putIfAbsent(code, indexByCode.size());
+        }
+
+        int size = indexByCode.size();
+        String[] codes = new String[size];
+        int[] stockIds = new int[size];
+        String[] markets = new String[size];
+        boolean[] listed = new boolean[size];
+        int[] numericIndex = new int[NUMERIC_CODE_SPACE];
+        Map<String, Integer> otherCodes = new HashMap<>();
+        int maxId = 0;
+
+        for (Map.Entry<String, Integer> e : indexByCode.entrySet()) {
+            String code = e.getKey();
+            int idx = e.getValue();
+            StockInfoDto s = current.get(code);
+            codes[idx] = code;
+            if (s != null) {
+                stockIds[idx] = s.getStockInfoId();
+                markets[idx] = s.getMarket();
+                listed[idx] = true;
+            } else {
+                // 삭제된 종목: 이전 값 유지, 조회 대상에서만 제외
+                stockIds[idx] = prev.stockIds[idx];
+                markets[idx] = prev.markets[idx];
+                continue;
+            }
+            maxId = Math.max(maxId, stockIds[idx]);
+            int numeric = parseNumericCode(code);
+            if (numeric >= 0) {
+                numericIndex[numeric] = idx + 1;
+            } else {
+                otherCodes.put(code, idx);
+            }
+        }
+
+        int[] idIndex = new int[maxId + 1];
+        for (int i = 0; i < size; i++) {
+            if (listed[i] && stockIds[i] >= 0) idIndex[stockIds[i]] = i + 1;
+        }
+        return new Snapshot(size, codes, stockIds, markets, listed, numericIndex, idIndex, Map.copyOf(otherCodes));
+    }
+
+    // =====================================================================
+    // 인덱스 조회 (할당 없음)
+    // =====================================================================
+
+    /**
+     * 6자리 숫자 코드(예: 5930 = "005930") → 인덱스
+     */
+    public int indexOfNumericCode(int numericCode) {
+        if (numericCode < 0 || numericCode >= NUMERIC_CODE_SPACE) return NOT_FOUND;
+        return snapshot.numericIndex[numericCode] - 1;
+    }
+
+    /**
+     * 종목코드 → 인덱스 (6자리 숫자면 배열, 아니면 맵)
+     */
+    public int indexOf(CharSequence code) {
+        if (code == null) return NOT_FOUND;
+        int numeric = parseNumericCode(code);
+        Snapshot s = snapshot;
+        if (numeric >= 0) return s.numericIndex[numeric] - 1;
+        if (s.otherCodes.isEmpty()) return NOT_FOUND;
+        Integer idx = s.otherCodes.get(code.toString().trim());
+        return idx == null ? NOT_FOUND : idx;
+    }
+
+    /**
+     * stock_info_id → 인덱스
+     */
+    public int indexOfStockId(int stockId) {
+        int[] idIndex = snapshot.idIndex;
+        return stockId < 0 || stockId >= idIndex.length ? NOT_FOUND : idIndex[stockId] - 1;
+    }
+
+    /**
+     * 파싱 레코드 → stock_info_id (숫자 코드는 할당 없음), 미등록이면 로그 후 NOT_FOUND
+     */
+    public int stockIdOf(KisTickRecord tick) {
+        int idx = tick.codeNumeric() >= 0 ? indexOfNumericCode(tick.codeNumeric()) : indexOf(tick.code());
+        if (idx < 0) {
+            reportUnknown(tick);
+            return NOT_FOUND;
+        }
+        return snapshot.stockIds[idx];
+    }
+
+    // =====================================================================
+    // 인덱스 → 정보 (배열)
+    // =====================================================================
+
+    public int stockIdAt(int index) {
+        return snapshot.stockIds[index];
+    }
+
+    public String codeAt(int index) {
+        return snapshot.codes[index];
+    }
+
+    public String marketAt(int index) {
+        return snapshot.markets[index];
+    }
+
+    public boolean isListed(int index) {
+        Snapshot s = snapshot;
+        return index >= 0 && index < s.size && s.listed[index];
+    }
+
+    /**
+     * 인덱스 개수 (삭제된 종목 포함) - 종목별 배열은 이 크기 이상으로 잡으면 됨
+     */
+    public int size() {
+        return snapshot.size;
+    }
+
+    // =====================================================================
+    // StockIdMapper 호환 (경계 지점용, 박싱 있음)
+    // =====================================================================
+
+    /**
+     * 종목코드로 stock_info_id 조회
+     * @param stockCode 종목코드 (예: "005930")
+     * @return stock_info_id 또는 null (매핑 정보가 없는 경우)
+     */
+    public Integer getStockId(String stockCode) {
+        if (stockCode == null || stockCode.isBlank()) return null;
+        int idx = indexOf(stockCode);
+        if (idx < 0) {
+            reportUnknown(stockCode);
+            return null;
+        }
+        return snapshot.stockIds[idx];
+    }
+
+    /**
+     * stock_info_id로 종목코드 조회
+     * @return 종목코드 또는 null
+     */
+    public String getStockCode(Integer stockId) {
+        if (stockId == null) return null;
+        int idx = indexOfStockId(stockId);
+        return idx < 0 ? null : snapshot.codes[idx];
+    }
+
+    /**
+     * stock_info_id로 시장 구분 조회
+     * @return 시장 구분 (예: KOSPI) 또는 null
+     */
+    public String getMarket(Integer stockId) {
+        if (stockId == null) return null;
+        int idx = indexOfStockId(stockId);
+        return idx < 0 ? null : snapshot.markets[idx];
+    }
+
+    public boolean containsStockCode(String stockCode) {
+        return indexOf(stockCode) >= 0;
+    }
+
+    public Map<String, Object> getStats() {
+        Snapshot s = snapshot;
+        int listedCount = 0;
+        for (int i = 0; i < s.size; i++) if (s.listed[i]) listedCount++;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexSize", s.size);
+        stats.put("listed", listedCount);
+        stats.put("nonNumericCodes", s.otherCodes.size());
+        stats.put("maxStockId", s.idIndex.length - 1);
+        stats.put("unknownLookups", unknownTotal.get());
+        return stats;
+    }
+
+    // ---------------------------------------------------------------------
+
+    /**
+     * 6자리 숫자 코드 → int, 아니면 -1 (앞뒤 공백 허용)
+     */
+    static int parseNumericCode(CharSequence s) {
+        int start = 0, end = s.length();
+        while (start < end && s.charAt(start) == ' ') start++;
+        while (end > start && s.charAt(end - 1) == ' ') end--;
+        if (end - start != 6) return -1;
+        int v = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private void reportUnknown(Object code) {
+        unknownTotal.incrementAndGet();
+        long now = System.currentTimeMillis();
+        long windowStart = unknownWindowStart.get();
+        if (now - windowStart >= UNKNOWN_LOG_WINDOW_MS && unknownWindowStart.compareAndSet(windowStart, now)) {
+            long suppressed = unknownSuppressed.getAndSet(0);
+            unknownLogged.set(0);
+            if (suppressed > 0) {
+                log.warn("⚠️ Unknown stock code lookups suppressed in last window: {}", suppressed);
+            }
+        }
+        if (unknownLogged.incrementAndGet() <= UNKNOWN_LOG_LIMIT) {
+            // KisTickRecord는 여기서만 문자열로 변환
+            log.warn("⚠️ Unknown stock code: {}", code instanceof KisTickRecord t ? t.code() : code);
+        } else {
+            unknownSuppressed.incrementAndGet();
+        }
+    }
+
+    // 테스트/벤치마크용: DB 없이 목록으로 스냅샷 교체
+    void load(List<StockInfoDto> stocks) {
+        synchronized (refreshLock) {
+            snapshot = build(snapshot, stocks);
+        }
+    }
+}
@@ -4,16 +4,21 @@ import com.example.LAGO.realtime.dto.TickData;
 import com.github.luben.zstd.Zstd;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.time.LocalDateTime;
 
 /**
  * 틱 데이터를 배치로 수집하고 압축하는 클래스
- * 1000개의 틱 데이터를 16바이트 바이너리로 압축하여 Redis에 저장
+ * 1000개의 틱 데이터를 컬럼 단위로 모아 두었다가
+ * v1(16바이트 행) 또는 v2(컬럼 delta/varint, TickChunkCodec) 형식으로 인코딩하여 Redis에 저장
  */
 public final class TickChunk {
     private static final int TICK_BYTES = 16; // TickDataSerializer의 16B 포맷
-    private final ByteBuffer buf;
+    private final TickColumns columns;
     private final int maxTicks;
     private int count = 0;
+    // 이 청크에 담긴 틱의 WAL 위치 구간 (TickWal LSN, 없으면 -1)
+    private long firstWalLsn = -1;
+    private long lastWalLsn = -1;
 
     /**
      * TickChunk 생성자
@@ -21,7 +26,7 @@ public final class TickChunk {
      */
     public TickChunk(int maxTicks) {
         this.maxTicks = maxTicks;
-        this.buf = ByteBuffer.allocate(maxTicks * TICK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.columns = new TickColumns(maxTicks);
     }
 
     /**
@@ -36,16 +41,38 @@ public final class TickChunk {
         }
         
         try {
-            // TickDataSerializer를 사용하여 16바이트 바이너리로 변환
-            TickDataSerializer.write16B(buf, tickData, stockId);
-            count++;
-            return true;
+            LocalDateTime ldt = tickData.getParsedDateTime();
+            if (ldt == null) throw new IllegalArgumentException("invalid TickData datetime");
+            int msOfDay = ldt.toLocalTime().toSecondOfDay() * 1000 + (ldt.getNano() / 1_000_000);
+            return add16B(stockId, msOfDay, tickData.getClosePrice(), tickData.getVolume());
         } catch (Exception e) {
             System.err.println("Failed to add tick data to chunk: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * primitive 값을 청크에 추가 (TickData 변환 없이)
+     * @return 추가 성공 여부 (false: 청크가 가득참)
+     */
+    public boolean add16B(int stockId, int msOfDay, int price, int volume) {
+        return add(stockId, msOfDay, price, volume, KisTickRecord.NULL, KisTickRecord.NULL);
+    }
+
+    /**
+     * 선택 필드(체결구분, 누적거래량)까지 포함하여 추가 - v2 인코딩에서만 보존됨
+     * @return 추가 성공 여부 (false: 청크가 가득참)
+     */
+    public boolean add(int stockId, int msOfDay, int price, int volume, int side, int cumVolume) {
+        if (count >= maxTicks) {
+            return false; // 용량 초과
+        }
+        columns.stockId = stockId; // 종목별 청크이므로 헤더 값 하나
+        columns.add(msOfDay, price, volume, side, cumVolume);
+        count++;
+        return true;
+    }
+
     /**
      * 청크가 가득 찼는지 확인
      * @return 가득참 여부
@@ -72,10 +99,7 @@ public final class TickChunk {
             return new byte[0];
         }
 
-        // 실제 사용된 크기만큼 바이트 배열 생성
-        byte[] raw = new byte[count * TICK_BYTES];
-        buf.rewind();
-        buf.get(raw, 0, raw.length);
+        byte[] raw = toRaw16B();
 
         try {
             // Zstd 압축
@@ -86,12 +110,50 @@ public final class TickChunk {
         }
     }
 
+    /**
+     * v1 원본: 16B 행 (stockId, msOfDay, price, volume) LE
+     */
+    public byte[] toRaw16B() {
+        ByteBuffer buf = ByteBuffer.allocate(count * TICK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            TickDataSerializer.write16B(buf, columns.stockId, columns.msOfDay[i], columns.price[i], columns.volume[i]);
+        }
+        return buf.array();
+    }
+
+    /**
+     * v2 원본: 컬럼 delta/varint 인코딩 (압축 전)
+     */
+    public byte[] toRawV2() {
+        return TickChunkCodec.encodeV2(columns);
+    }
+
     /**
      * 청크 초기화 (재사용을 위해)
      */
     public void reset() {
-        buf.clear();
+        columns.reset();
         count = 0;
+        firstWalLsn = -1;
+        lastWalLsn = -1;
+    }
+
+    /**
+     * 방금 추가한 틱의 WAL 위치 기록
+     * @param lsn TickWal LSN (WAL을 쓰지 않으면 음수 → 무시)
+     */
+    public void markWal(long lsn) {
+        if (lsn < 0) return;
+        if (firstWalLsn < 0) firstWalLsn = lsn;
+        lastWalLsn = lsn;
+    }
+
+    public long firstWalLsn() {
+        return firstWalLsn;
+    }
+
+    public long lastWalLsn() {
+        return lastWalLsn;
     }
 
     /**
@@ -100,6 +162,7 @@ public final class TickChunk {
      * @return 압축률 (백분율)
      */
     public double getCompressionRatio(int compressedSize) {
+        // 비교 기준은 포맷과 무관하게 16B 행 크기
         if (count == 0) return 0.0;
         int originalSize = count * TICK_BYTES;
         return ((double) compressedSize / originalSize) * 100.0;
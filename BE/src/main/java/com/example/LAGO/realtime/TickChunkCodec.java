@@ -0,0 +1,156 @@
+package com.example.LAGO.realtime;
+
+import java.util.Arrays;
+
+/**
+ * 틱 청크 v2 컬럼 인코딩 (zstd 압축 전 단계)
+ *
+ * v1: 틱마다 16B 고정 행 (stockId, msOfDay, price, volume) - stockId가 청크 내내 반복됨
+ * v2: 헤더에 stockId 1회 + 컬럼별 연속 저장
+ *
+ *   byte    format (=2)
+ *   varint  stockId
+ *   varint  count
+ *   byte    flags (bit0: 체결구분 컬럼, bit1: 누적거래량 컬럼)
+ *   msOfDay   count × zigzag varint (직전 값과의 차이)
+ *   price     count × zigzag varint (직전 값과의 차이)
+ *   volume    count × varint
+ *   [side]      count × byte (0 = 값 없음)
+ *   [cumVolume] count × zigzag varint (직전 값과의 차이)
+ *
+ * 체결 간격/가격 변동이 작아 대부분 1~2바이트로 줄어들고, 남은 패턴은 zstd가 처리
+ * 차이 계산은 int 오버플로를 그대로 허용 (디코딩 시 같은 방식으로 되돌아옴)
+ */
+public final class TickChunkCodec {
+
+    public static final int FORMAT_V1 = 1;
+    public static final int FORMAT_V2 = 2;
+    public static final String FORMAT_V2_NAME = "columnar-delta-varint";
+
+    static final int FLAG_SIDE = 1;
+    static final int FLAG_CUM_VOLUME = 1 << 1;
+
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private TickChunkCodec() {}
+
+    /**
+     * 컬럼 → v2 바이트열
+     */
+    public static byte[] encodeV2(TickColumns cols) {
+        int n = cols.count;
+        // 최악의 경우 크기로 한 번에 할당
+        int columns = 3 + (cols.hasCumVolume ? 1 : 0);
+        byte[] out = new byte[2 + MAX_VARINT_BYTES * 2 + n * (MAX_VARINT_BYTES * columns + 1)];
+        int pos = 0;
+
+        out[pos++] = FORMAT_V2;
+        pos = writeVarint(out, pos, cols.stockId);
+        pos = writeVarint(out, pos, n);
+        out[pos++] = (byte) ((cols.hasSide ? FLAG_SIDE : 0) | (cols.hasCumVolume ? FLAG_CUM_VOLUME : 0));
+
+        pos = writeDeltas(out, pos, cols.msOfDay, n);
+        pos = writeDeltas(out, pos, cols.price, n);
+        for (int i = 0; i < n; i++) {
+            pos = writeVarint(out, pos, cols.volume[i]);
+        }
+        if (cols.hasSide) {
+            for (int i = 0; i < n; i++) {
+                int side = cols.side[i];
+                out[pos++] = (byte) (side == KisTickRecord.NULL ? 0 : side);
+            }
+        }
+        if (cols.hasCumVolume) {
+            pos = writeDeltas(out, pos, cols.cumVolume, n);
+        }
+        return Arrays.copyOf(out, pos);
+    }
+
+    /**
+     * v2 바이트열 → 컬럼 (out은 필요하면 확장 후 덮어씀)
+     */
+    public static void decodeV2(byte[] in, TickColumns out) {
+        int[] cursor = {0};
+        int format = in[cursor[0]++];
+        if (format != FORMAT_V2) {
+            throw new IllegalArgumentException("not a v2 tick chunk: format=" + format);
+        }
+        int stockId = readVarint(in, cursor);
+        int n = readVarint(in, cursor);
+        int flags = in[cursor[0]++];
+
+        out.reset();
+        out.ensureCapacity(n);
+        out.stockId = stockId;
+        out.count = n;
+        out.hasSide = (flags & FLAG_SIDE) != 0;
+        out.hasCumVolume = (flags & FLAG_CUM_VOLUME) != 0;
+
+        readDeltas(in, cursor, out.msOfDay, n);
+        readDeltas(in, cursor, out.price, n);
+        for (int i = 0; i < n; i++) {
+            out.volume[i] = readVarint(in, cursor);
+        }
+        if (out.hasSide) {
+            for (int i = 0; i < n; i++) {
+                int side = in[cursor[0]++];
+                out.side[i] = side == 0 ? KisTickRecord.NULL : side;
+            }
+        }
+        if (out.hasCumVolume) {
+            readDeltas(in, cursor, out.cumVolume, n);
+        }
+    }
+
+    private static int writeDeltas(byte[] out, int pos, int[] values, int n) {
+        int prev = 0;
+        for (int i = 0; i < n; i++) {
+            int v = values[i];
+            pos = writeVarint(out, pos, zigzag(v - prev));
+            prev = v;
+        }
+        return pos;
+    }
+
+    private static void readDeltas(byte[] in, int[] cursor, int[] values, int n) {
+        int prev = 0;
+        for (int i = 0; i < n; i++) {
+            prev += unzigzag(readVarint(in, cursor));
+            values[i] = prev;
+        }
+    }
+
+    static int zigzag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    static int unzigzag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * 부호 없는 32비트 LEB128
+     */
+    static int writeVarint(byte[] out, int pos, int v) {
+        while ((v & ~0x7F) != 0) {
+            out[pos++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out[pos++] = (byte) v;
+        return pos;
+    }
+
+    static int readVarint(byte[] in, int[] cursor) {
+        int pos = cursor[0];
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in[pos++];
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                cursor[0] = pos;
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint at " + cursor[0]);
+    }
+}
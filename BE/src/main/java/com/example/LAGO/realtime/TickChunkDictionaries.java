@@ -0,0 +1,153 @@
+package com.example.LAGO.realtime;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 틱 청크 zstd 압축/해제 + 시장 구분별 사전(dictionary) 관리
+ *
+ * - 사전은 운영 중이 아니라 별도로 학습해 {dictionary-dir}/{segment}.dict 로 배치 (segment = KOSPI, KOSDAQ 등)
+ * - 압축 시 종목의 시장 구분 사전이 있으면 사용, 없으면 사전 없이 압축 (dictId=0)
+ * - 해제 시 청크 메타의 dictId로 사전을 찾음 → 사전을 교체해도 과거 청크는 계속 읽힘 (파일을 지우지 않는 한)
+ * - ZstdCompressCtx/ZstdDecompressCtx는 스레드별로 재사용 (네이티브 컨텍스트 할당 비용 제거)
+ */
+@Slf4j
+@Component
+public class TickChunkDictionaries {
+
+    public static final int NO_DICT = 0;
+    private static final String DICT_SUFFIX = ".dict";
+
+    @Value("${realtime.chunk.dictionary-dir:}")
+    private String dictionaryDir;
+
+    // segment → 사전 원본, dictId → 해제용 사전
+    private final Map<String, byte[]> dictBySegment = new ConcurrentHashMap<>();
+    private final Map<String, ZstdDictCompress> compressDicts = new ConcurrentHashMap<>();
+    private final Map<Integer, ZstdDictDecompress> decompressDicts = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<ZstdCompressCtx> COMPRESS_CTX = ThreadLocal.withInitial(ZstdCompressCtx::new);
+    private static final ThreadLocal<ZstdDecompressCtx> DECOMPRESS_CTX = ThreadLocal.withInitial(ZstdDecompressCtx::new);
+
+    @PostConstruct
+    public void loadDictionaries() {
+        if (dictionaryDir == null || dictionaryDir.isBlank()) {
+            log.info("📚 Tick chunk dictionaries disabled (realtime.chunk.dictionary-dir not set)");
+            return;
+        }
+        Path dir = Path.of(dictionaryDir);
+        if (!Files.isDirectory(dir)) {
+            log.warn("⚠️ Tick chunk dictionary dir not found: {}", dir);
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + DICT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                register(name.substring(0, name.length() - DICT_SUFFIX.length()), Files.readAllBytes(file));
+            }
+        } catch (IOException e) {
+            log.error("❌ Failed to load tick chunk dictionaries: {}", e.getMessage(), e);
+        }
+        log.info("📚 Loaded {} tick chunk dictionaries: {}", dictBySegment.size(), dictBySegment.keySet());
+    }
+
+    /**
+     * 압축 결과
+     * @param blob 압축 데이터
+     * @param dictId 사용한 사전 ID (없으면 0)
+     */
+    public record Compressed(byte[] blob, int dictId) {}
+
+    /**
+     * 시장 구분 사전으로 압축 (사전 없으면 일반 압축)
+     */
+    public Compressed compress(byte[] raw, int level, String segment) {
+        ZstdCompressCtx ctx = COMPRESS_CTX.get();
+        ctx.reset();
+        byte[] dict = segment == null ? null : dictBySegment.get(segment);
+        int dictId = NO_DICT;
+        if (dict != null) {
+            // 사전 압축 파라미터(레벨)는 ZstdDictCompress 생성 시 고정되므로 segment+level 단위로 캐시
+            ctx.loadDict(compressDicts.computeIfAbsent(segment + ":" + level, k -> new ZstdDictCompress(dict, level)));
+            dictId = (int) Zstd.getDictIdFromDict(dict);
+        } else {
+            ctx.setLevel(level);
+        }
+        return new Compressed(ctx.compress(raw), dictId);
+    }
+
+    /**
+     * 청크 해제
+     * @param rawBytes 원본 크기 (청크 메타 rawBytes)
+     * @param dictId 청크 메타 dictId (0이면 사전 없음)
+     */
+    public byte[] decompress(byte[] blob, int rawBytes, int dictId) {
+        ZstdDecompressCtx ctx = DECOMPRESS_CTX.get();
+        ctx.reset();
+        if (dictId != NO_DICT) {
+            ZstdDictDecompress dict = decompressDicts.get(dictId);
+            if (dict == null) {
+                throw new IllegalStateException("zstd dictionary not loaded: dictId=" + dictId);
+            }
+            ctx.loadDict(dict);
+        }
+        return ctx.decompress(blob, rawBytes);
+    }
+
+    /**
+     * 샘플(인코딩된 v2 청크 원본)로 사전 학습 후 파일로 저장하고 즉시 등록
+     * 장 마감 후 등 운영 부하가 없는 시점에 수동으로 실행
+     * @return 학습된 사전 ID
+     */
+    public int train(String segment, List<byte[]> samples, int dictSize) throws IOException {
+        int sampleBytes = samples.stream().mapToInt(s -> s.length).sum();
+        ZstdDictTrainer trainer = new ZstdDictTrainer(sampleBytes, dictSize);
+        for (byte[] sample : samples) {
+            trainer.addSample(sample);
+        }
+        byte[] dict = trainer.trainSamples();
+
+        if (dictionaryDir != null && !dictionaryDir.isBlank()) {
+            Path dir = Files.createDirectories(Path.of(dictionaryDir));
+            Files.write(dir.resolve(segment + DICT_SUFFIX), dict);
+        }
+        int dictId = register(segment, dict);
+        log.info("📚 Trained tick chunk dictionary: segment={}, samples={}, bytes={}, dictId={}",
+                segment, samples.size(), dict.length, dictId);
+        return dictId;
+    }
+
+    private int register(String segment, byte[] dict) {
+        int dictId = (int) Zstd.getDictIdFromDict(dict);
+        dictBySegment.put(segment, dict);
+        compressDicts.keySet().removeIf(k -> k.startsWith(segment + ":"));
+        decompressDicts.put(dictId, new ZstdDictDecompress(dict));
+        return dictId;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Map<String, Integer> segments = new LinkedHashMap<>();
+        dictBySegment.forEach((segment, dict) -> segments.put(segment, (int) Zstd.getDictIdFromDict(dict)));
+        stats.put("segments", segments);
+        stats.put("loadedDictIds", decompressDicts.keySet());
+        return stats;
+    }
+}
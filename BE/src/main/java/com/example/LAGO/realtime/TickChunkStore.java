@@ -0,0 +1,353 @@
+package com.example.LAGO.realtime;
+
+import com.github.luben.zstd.Zstd;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 압축 틱 청크 Redis 저장소 (v2 커밋 프로토콜)
+ *
+ * v1: blob을 레거시 키(tick_batch:*)와 청크 키에 두 번 쓰고, 메타 2종 + ZADD 3회를 개별 명령으로 실행 (~10 RTT)
+ * v2: blob 1회 + 메타 + 인덱스 3종을 Lua 스크립트 하나로 원자 등록 (1 RTT)
+ *     → 크래시가 나도 "blob만 있고 인덱스가 없는" 반쪽 청크가 생기지 않음
+ *
+ * 키 구조 (v1/v2 공통, TickChunkReaderService가 읽는 형식)
+ * - ticks:chunk:{id}:blob          압축 blob
+ * - ticks:chunk:{id}:meta          메타 해시
+ * - ticks:chunks                   전체 청크 인덱스 (score=생성시각)
+ * - ticks:chunks:byStock:{stockId} 종목별 인덱스 (score=생성시각)
+ * - ticks:ingest:pending           DB 적재 대기열 (score=적재 예정 시각)
+ * - ticks:chunk:seq                청크 순번 발급 카운터 (메타 seq 필드, 적재 순서 참고용 - 멱등 키는 chunk_id)
+ */
+@Slf4j
+@Component
+public class TickChunkStore {
+
+    public static final String CHUNK_BLOB_KEY = "ticks:chunk:%s:blob";
+    public static final String CHUNK_META_KEY = "ticks:chunk:%s:meta";
+    public static final String CHUNKS_ZSET_ALL = "ticks:chunks";
+    public static final String CHUNKS_ZSET_BY_STOCK = "ticks:chunks:byStock:%d";
+    public static final String PENDING_ZSET = "ticks:ingest:pending";
+    // 청크 적재 순번 (적재 원장 참고용, 멱등 키는 chunk_id)
+    public static final String CHUNK_SEQ_KEY = "ticks:chunk:seq";
+
+    // 레거시(v1) 키
+    static final String LEGACY_BATCH_KEY_PREFIX = "tick_batch:";
+    static final String LEGACY_META_KEY_PREFIX = "tick_meta:";
+
+    // v1 이중 저장에서 레거시 키 시각 → 청크 생성시각 사이 최대 간격 (개별 명령 왕복 몇 번)
+    static final long V1_COUNTERPART_WINDOW_MS = 60_000L;
+
+    static final Duration CHUNK_TTL = Duration.ofDays(1);
+    // DB 적재는 생성 후 10초 뒤로 예약
+    static final long INGEST_DELAY_MS = 10_000L;
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    /**
+     * KEYS: blob, meta, ticks:chunks, ticks:chunks:byStock:{id}, ticks:ingest:pending, ticks:chunk:seq
+     * ARGV: blob, ttlSeconds, chunkId, createdAtMs, pendingScore(빈 값이면 대기열 등록 안 함), meta k/v...
+     * 반환: 발급한 청크 순번
+     */
+    private static final RedisScript<Long> COMMIT_SCRIPT = new DefaultRedisScript<>("""
+            local seq = redis.call('INCR', KEYS[6])
+            redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2])
+            redis.call('HSET', KEYS[2], 'seq', seq, unpack(ARGV, 6, #ARGV))
+            redis.call('EXPIRE', KEYS[2], ARGV[2])
+            redis.call('ZADD', KEYS[3], ARGV[4], ARGV[3])
+            redis.call('ZADD', KEYS[4], ARGV[4], ARGV[3])
+            if ARGV[5] ~= '' then
+              redis.call('ZADD', KEYS[5], ARGV[5], ARGV[3])
+            end
+            return seq
+            """, Long.class);
+
+    /**
+     * 적재 대상 청크의 순번/종목 조회 - 순번이 없는 구버전 청크는 이 시점에 한 번만 발급
+     * KEYS: meta, ticks:chunk:seq
+     * 반환: {seq, stockId} / 메타가 만료됐으면 빈 배열
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESOLVE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return {} end
+            local seq = redis.call('HGET', KEYS[1], 'seq')
+            if not seq then
+              seq = redis.call('INCR', KEYS[2])
+              redis.call('HSET', KEYS[1], 'seq', seq)
+            end
+            local stockId = redis.call('HGET', KEYS[1], 'stockId') or '-1'
+            return {tonumber(seq), tonumber(stockId)}
+            """, List.class);
+
+    private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public TickChunkStore(@Qualifier("binaryRedisTemplate") RedisTemplate<String, byte[]> binaryRedisTemplate,
+                          @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate) {
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 압축 청크를 한 번의 스크립트 실행으로 저장 + 인덱스 등록 + 적재 대기열 등록
+     * @param stockId 종목 ID
+     * @param blob 압축 blob
+     * @param meta 청크 메타 (count, rawBytes, baseDate 등)
+     * @return 새 청크 ID
+     */
+    public String commit(int stockId, byte[] blob, Map<String, String> meta) {
+        return commit(UUID.randomUUID().toString(), stockId, blob, meta);
+    }
+
+    /**
+     * 지정한 ID로 커밋 (WAL 구간에서 만든 결정적 ID - 같은 ID로 다시 커밋하면 blob/메타를 덮어쓰고
+     * 인덱스 ZSET 멤버는 그대로라 중복 청크가 생기지 않음, 적재 중복은 원장의 chunk_id 키가 막음)
+     * @return chunkId
+     */
+    public String commit(String chunkId, int stockId, byte[] blob, Map<String, String> meta) {
+        long createdAt = System.currentTimeMillis();
+        commit(chunkId, stockId, blob, meta, createdAt, createdAt + INGEST_DELAY_MS);
+        return chunkId;
+    }
+
+    private void commit(String chunkId, int stockId, byte[] blob, Map<String, String> meta,
+                        long createdAt, Long pendingScore) {
+        List<String> keys = List.of(
+                String.format(CHUNK_BLOB_KEY, chunkId),
+                String.format(CHUNK_META_KEY, chunkId),
+                CHUNKS_ZSET_ALL,
+                String.format(CHUNKS_ZSET_BY_STOCK, stockId),
+                PENDING_ZSET,
+                CHUNK_SEQ_KEY);
+
+        Object[] args = new Object[5 + meta.size() * 2];
+        args[0] = blob;
+        args[1] = bytes(String.valueOf(CHUNK_TTL.toSeconds()));
+        args[2] = bytes(chunkId);
+        args[3] = bytes(String.valueOf(createdAt));
+        args[4] = bytes(pendingScore == null ? "" : String.valueOf(pendingScore));
+        int i = 5;
+        for (Map.Entry<String, String> e : meta.entrySet()) {
+            args[i++] = bytes(e.getKey());
+            args[i++] = bytes(e.getValue());
+        }
+
+        binaryRedisTemplate.execute(COMMIT_SCRIPT, RedisSerializer.byteArray(),
+                RESULT_SERIALIZER, keys, args);
+    }
+
+    // =====================================================================
+    // DB 적재 (ChunkAutoIngestor)
+    // =====================================================================
+
+    /**
+     * 적재 대상 청크 식별 정보
+     * @param chunkId 청크 ID
+     * @param seq 청크 순번 (참고용, 적재 멱등 키는 chunkId)
+     * @param stockId 종목 ID (메타에 없으면 -1)
+     */
+    public record ChunkRef(String chunkId, long seq, int stockId) {}
+
+    /**
+     * 청크 순번/종목 조회 (순번이 없으면 발급)
+     * @return 메타가 만료된 청크면 null
+     */
+    public ChunkRef resolve(String chunkId) {
+        List<?> result = redisTemplate.execute(RESOLVE_SCRIPT,
+                List.of(String.format(CHUNK_META_KEY, chunkId), CHUNK_SEQ_KEY));
+        if (result == null || result.size() < 2) return null;
+        return new ChunkRef(chunkId, ((Number) result.get(0)).longValue(), ((Number) result.get(1)).intValue());
+    }
+
+    /**
+     * 적재 완료 청크 정리 - 대기열 제거 + (gc=true면) blob/meta/인덱스 삭제를 파이프라인 1회로
+     */
+    public void completeIngested(List<ChunkRef> chunks, boolean gc) {
+        if (chunks.isEmpty()) return;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byte[] pending = bytes(PENDING_ZSET);
+            for (ChunkRef ref : chunks) {
+                byte[] member = bytes(ref.chunkId());
+                connection.zSetCommands().zRem(pending, member);
+                if (gc) {
+                    connection.keyCommands().del(bytes(String.format(CHUNK_BLOB_KEY, ref.chunkId())),
+                            bytes(String.format(CHUNK_META_KEY, ref.chunkId())));
+                    connection.zSetCommands().zRem(bytes(CHUNKS_ZSET_ALL), member);
+                    if (ref.stockId() >= 0) {
+                        connection.zSetCommands().zRem(bytes(String.format(CHUNKS_ZSET_BY_STOCK, ref.stockId())), member);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 적재 대기열 전체 (예정 시각 무관, 오래된 순) - 아직 DB에 없을 수 있는 청크 (차트 캐시 시딩용)
+     */
+    public List<String> pendingChunkIds(int limit) {
+        var ids = redisTemplate.opsForZSet().range(PENDING_ZSET, 0, limit - 1L);
+        return ids == null ? List.of() : new ArrayList<>(ids);
+    }
+
+    /**
+     * 예약 시각이 지난 적재 대기 청크 (오래된 순)
+     */
+    public List<String> duePending(long nowMillis, int limit) {
+        var ids = redisTemplate.opsForZSet().rangeByScore(PENDING_ZSET, Double.NEGATIVE_INFINITY, nowMillis, 0, limit);
+        return ids == null ? List.of() : new ArrayList<>(ids);
+    }
+
+    // =====================================================================
+    // 레거시(tick_batch:* / tick_meta:*) 읽기 및 이관
+    // =====================================================================
+
+    /**
+     * 레거시 배치 blob 해제 + 16B 파싱
+     * @param legacyKey tick_batch:{stockId}:{epochMs}
+     * @return 복원된 틱 (blob이 만료됐으면 빈 리스트)
+     */
+    public List<TickDataSerializer.Decoded16B> readLegacyBatch(String legacyKey) {
+        byte[] blob = binaryRedisTemplate.opsForValue().get(legacyKey);
+        if (blob == null) return List.of();
+
+        LegacyKey parsed = LegacyKey.parse(legacyKey);
+        long size = Zstd.getFrameContentSize(blob);
+        byte[] raw = Zstd.decompress(blob, (int) (size > 0 ? size : blob.length * 16L));
+        ByteBuffer bb = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+        List<TickDataSerializer.Decoded16B> out = new ArrayList<>(raw.length / 16);
+        while (bb.remaining() >= 16) {
+            out.add(TickDataSerializer.read16B(bb, parsed.baseDate()));
+        }
+        return out;
+    }
+
+    /**
+     * 레거시 배치를 v2 청크 인덱스로 이관하고 레거시 키 삭제
+     *
+     * v1 커밋은 같은 blob을 자기 청크 ID로도 저장/인덱스 등록했으므로, 종목별 인덱스에서
+     * 레거시 키 시각 직후에 생성된 청크 중 blob이 같은 것이 있으면 새 청크를 만들지 않고 레거시 키만 삭제한다.
+     * (새로 만들면 인덱스 기반 조회에서 같은 틱이 두 번 보이고 blob도 두 번 저장됨)
+     * v1 짝이 없는 배치만 새 청크로 등록하며, 적재 대기열 등록 여부는 enqueueIngest로 정한다.
+     *
+     * @return 새 청크로 이관된 배치 수 (v1 짝이 있어 삭제만 한 배치는 제외)
+     */
+    public int migrateLegacyBatches(boolean enqueueIngest) {
+        int migrated = 0;
+        int deduplicated = 0;
+        List<String> metaKeys = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_META_KEY_PREFIX + "*").count(500).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            cursor.forEachRemaining(metaKeys::add);
+        }
+
+        for (String metaKey : metaKeys) {
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(metaKey);
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                String legacyKey = String.valueOf(entry.getKey());
+                try {
+                    byte[] blob = binaryRedisTemplate.opsForValue().get(legacyKey);
+                    LegacyKey parsed = blob == null ? null : LegacyKey.parse(legacyKey);
+                    if (parsed != null && findV1Counterpart(parsed, blob) != null) {
+                        // v1이 이미 같은 blob을 청크로 저장/인덱스 등록 → 레거시 사본만 제거
+                        binaryRedisTemplate.delete(legacyKey);
+                        deduplicated++;
+                    } else if (parsed != null) {
+                        int count = parseLegacyCount(String.valueOf(entry.getValue()));
+
+                        Map<String, String> meta = new LinkedHashMap<>();
+                        meta.put("count", String.valueOf(count));
+                        meta.put("rawBytes", String.valueOf(count * 16));
+                        meta.put("baseDate", parsed.baseDate().toString());
+                        meta.put("zstdLevel", "3");
+                        meta.put("ver", "1");
+                        meta.put("endian", "LE");
+                        meta.put("stockId", String.valueOf(parsed.stockId()));
+                        meta.put("createdAt", LocalDateTime.ofInstant(Instant.ofEpochMilli(parsed.epochMs()), KST).toString());
+                        meta.put("migratedFrom", legacyKey);
+
+                        commit(UUID.randomUUID().toString(), parsed.stockId(), blob, meta, parsed.epochMs(),
+                                enqueueIngest ? parsed.epochMs() + INGEST_DELAY_MS : null);
+                        binaryRedisTemplate.delete(legacyKey);
+                        migrated++;
+                    }
+                    redisTemplate.opsForHash().delete(metaKey, legacyKey);
+                } catch (Exception e) {
+                    log.warn("Failed to migrate legacy batch {}: {}", legacyKey, e.getMessage());
+                }
+            }
+        }
+        log.info("📦 Legacy tick batch migration completed: {} batches migrated, {} already indexed by v1 (deleted)",
+                migrated, deduplicated);
+        return migrated;
+    }
+
+    /**
+     * 같은 blob을 저장한 v1 청크 찾기
+     * v1은 레거시 키 시각을 먼저 찍고 청크 생성시각(score)을 나중에 찍으므로 [epochMs, epochMs + 창] 범위만 비교
+     * @return v1 청크 ID (없으면 null)
+     */
+    private String findV1Counterpart(LegacyKey legacy, byte[] blob) {
+        Set<String> candidates = redisTemplate.opsForZSet().rangeByScore(
+                String.format(CHUNKS_ZSET_BY_STOCK, legacy.stockId()),
+                legacy.epochMs(), legacy.epochMs() + V1_COUNTERPART_WINDOW_MS);
+        if (candidates == null) return null;
+        for (String chunkId : candidates) {
+            byte[] chunkBlob = binaryRedisTemplate.opsForValue().get(String.format(CHUNK_BLOB_KEY, chunkId));
+            if (Arrays.equals(blob, chunkBlob)) return chunkId;
+        }
+        return null;
+    }
+
+    private static int parseLegacyCount(String metaValue) {
+        // count=%d,size=%d,ratio=%.2f%%,key=%s
+        for (String part : metaValue.split(",")) {
+            if (part.startsWith("count=")) return Integer.parseInt(part.substring(6));
+        }
+        throw new IllegalArgumentException("count not found in legacy meta: " + metaValue);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * tick_batch:{stockId}:{epochMs}
+     */
+    private record LegacyKey(int stockId, long epochMs) {
+        static LegacyKey parse(String key) {
+            String[] parts = key.substring(LEGACY_BATCH_KEY_PREFIX.length()).split(":");
+            return new LegacyKey(Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+        }
+
+        LocalDate baseDate() {
+            return Instant.ofEpochMilli(epochMs).atZone(KST).toLocalDate();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.LAGO.realtime;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * 한 청크 분량의 틱을 컬럼(primitive 배열) 단위로 보관하는 재사용 버퍼
+ *
+ * - 청크는 종목별이므로 stockId는 헤더 값 하나만 보관
+ * - 체결구분/누적거래량은 선택 컬럼 (값이 하나라도 들어온 경우에만 인코딩)
+ * - 값이 없는 칸은 KisTickRecord.NULL
+ * - 청크를 읽을 때는 스레드별로 하나를 재사용 → 틱 단위 객체 할당 없음
+ */
+public final class TickColumns {
+
+    /** 틱 단위 순회 콜백 (primitive 인자만 사용) */
+    @FunctionalInterface
+    public interface TickVisitor {
+        /** 순회 시작 전 1회 (청크 기준일 자정 epoch ms, 틱 수) */
+        default void onChunk(int stockId, long baseEpochMillis, int count) {}
+
+        void onTick(int stockId, int msOfDay, int price, int volume);
+    }
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    int stockId = KisTickRecord.NULL;
+    int count;
+    int[] msOfDay;
+    int[] price;
+    int[] volume;
+    int[] side;       // 체결구분 (CCLD_DVSN: 1 매수, 3 장전, 5 매도)
+    int[] cumVolume;  // 누적 거래량 (ACML_VOL)
+    boolean hasSide;
+    boolean hasCumVolume;
+    // 읽기 시 청크 메타의 baseDate (KST 자정 epoch ms)
+    LocalDate baseDate;
+    long baseEpochMillis;
+    // v1(16B 행) 일괄 읽기용 스크래치
+    int[] rowScratch = new int[0];
+
+    public TickColumns(int capacity) {
+        msOfDay = new int[capacity];
+        price = new int[capacity];
+        volume = new int[capacity];
+        side = new int[capacity];
+        cumVolume = new int[capacity];
+    }
+
+    /**
+     * 한 틱 추가 (용량 확인은 호출측 책임)
+     */
+    void add(int msOfDay, int price, int volume, int side, int cumVolume) {
+        int i = count++;
+        this.msOfDay[i] = msOfDay;
+        this.price[i] = price;
+        this.volume[i] = volume;
+        this.side[i] = side;
+        this.cumVolume[i] = cumVolume;
+        hasSide |= side != KisTickRecord.NULL;
+        hasCumVolume |= cumVolume != KisTickRecord.NULL;
+    }
+
+    /**
+     * 최소 capacity 칸 확보 (기존 값은 버림)
+     */
+    public void ensureCapacity(int capacity) {
+        if (msOfDay.length >= capacity) return;
+        msOfDay = new int[capacity];
+        price = new int[capacity];
+        volume = new int[capacity];
+        side = new int[capacity];
+        cumVolume = new int[capacity];
+    }
+
+    public void reset() {
+        stockId = KisTickRecord.NULL;
+        count = 0;
+        hasSide = false;
+        hasCumVolume = false;
+        baseDate = null;
+        baseEpochMillis = 0;
+    }
+
+    /**
+     * 청크 기준일 지정 (msOfDay → epoch 변환 기준)
+     */
+    public void setBaseDate(LocalDate baseDate) {
+        this.baseDate = baseDate;
+        // KST는 일광절약시간이 없으므로 자정 epoch + msOfDay로 바로 계산 가능
+        this.baseEpochMillis = baseDate == null ? 0 : baseDate.atStartOfDay(KST).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 저장 순서대로 순회
+     */
+    public void forEach(TickVisitor visitor) {
+        final int sid = stockId;
+        final int n = count;
+        final int[] ms = msOfDay, px = price, vol = volume;
+        visitor.onChunk(sid, baseEpochMillis, n);
+        for (int i = 0; i < n; i++) {
+            visitor.onTick(sid, ms[i], px[i], vol[i]);
+        }
+    }
+
+    public int stockId() { return stockId; }
+    public int count() { return count; }
+    public int capacity() { return msOfDay.length; }
+    public LocalDate baseDate() { return baseDate; }
+    public long baseEpochMillis() { return baseEpochMillis; }
+    public long epochMillis(int i) { return baseEpochMillis + msOfDay[i]; }
+    public int msOfDay(int i) { return msOfDay[i]; }
+    public int price(int i) { return price[i]; }
+    public int volume(int i) { return volume[i]; }
+    public int side(int i) { return hasSide ? side[i] : KisTickRecord.NULL; }
+    public int cumVolume(int i) { return hasCumVolume ? cumVolume[i] : KisTickRecord.NULL; }
+    public boolean hasSide() { return hasSide; }
+    public boolean hasCumVolume() { return hasCumVolume; }
+}
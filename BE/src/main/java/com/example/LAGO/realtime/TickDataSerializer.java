@@ -25,6 +25,11 @@ public final class TickDataSerializer {
         int msOfDay = lt.toSecondOfDay() * 1000 + (ldt.getNano() / 1_000_000);
 
         // 3) 16B 레이아웃으로 쓰기
+        write16B(buf, stockId, msOfDay, price, volume);
+    }
+
+    // primitive 값 → 16B 바이너리(LE) (파싱 레코드에서 바로 쓸 때 사용)
+    public static void write16B(ByteBuffer buf, int stockId, int msOfDay, int price, int volume) {
         buf.order(ByteOrder.LITTLE_ENDIAN);
         buf.putInt(stockId);
         buf.putInt(msOfDay);
@@ -57,5 +62,31 @@ public final class TickDataSerializer {
         return new Decoded16B(stockId, ts, price, volume);
     }
 
+    // 16B 행 배열 → 컬럼 일괄 복원 (틱 단위 객체 할당 없음)
+    public static void read16BColumns(byte[] raw, int count, TickColumns out) {
+        int n = Math.min(count, raw.length / 16);
+        out.reset();
+        out.ensureCapacity(n);
+
+        // IntBuffer 뷰로 한 번에 읽은 뒤 컬럼으로 분배
+        int ints = n * 4;
+        if (out.rowScratch.length < ints) out.rowScratch = new int[ints];
+        int[] rows = out.rowScratch;
+        ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(rows, 0, ints);
+
+        int stockId = n > 0 ? rows[0] : KisTickRecord.NULL;
+        int[] ms = out.msOfDay, px = out.price, vol = out.volume;
+        for (int i = 0, r = 0; i < n; i++, r += 4) {
+            if (rows[r] != stockId) {
+                throw new IllegalStateException("mixed stockId in chunk: " + stockId + " / " + rows[r]);
+            }
+            ms[i] = rows[r + 1];
+            px[i] = rows[r + 2];
+            vol[i] = rows[r + 3];
+        }
+        out.stockId = stockId;
+        out.count = n;
+    }
+
     public record Decoded16B(int stockId, Instant ts, int price, int volume) {}
 }
@@ -1,6 +1,5 @@
 package com.example.LAGO.realtime;
 
-import com.example.LAGO.realtime.TickDataSerializer.Decoded16B;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -9,11 +8,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.example.LAGO.service.TickChunkReaderService;
 
 import java.sql.Timestamp;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 
 /**
  * Redis에 저장된 압축 청크를 언패킹하여
@@ -29,9 +24,9 @@ import java.time.ZonedDateTime;
 public class TimescaleOhlcIngestService {
 
 
-    private final TickChunkReaderService reader; // Redis에서 청크 읽기(압축해제+16B 파싱)
+    private final TickChunkReaderService reader; // Redis에서 청크 읽기(압축해제+컬럼 복원)
     private final JdbcTemplate jdbc;
-    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private final StockLastPriceStore lastPriceStore;
 
     // 대문자 테이블명은 반드시 쌍따옴표
     private static final String UPSERT_SQL = """
@@ -46,71 +41,117 @@ public class TimescaleOhlcIngestService {
             volume      = COALESCE("TICKS".volume, 0) + COALESCE(EXCLUDED.volume, 0)
         """;
 
+    // 스레드별 초 단위 집계 버퍼 (청크마다 재사용)
+    private static final ThreadLocal<SecondBuckets> BUCKETS = ThreadLocal.withInitial(SecondBuckets::new);
+
     /**
      * 한 개의 청크를 읽어 1초 단위 OHLCV로 업서트.
+     * 청크 → 컬럼 버퍼 → visitor 집계로 진행하여 틱 단위 객체를 만들지 않음
      * @param chunkId ticks:chunk:{id}:blob / :meta 형식의 {id}
      * @return upsert된 행 수
      */
     @Transactional
     public int ingestChunkAs1sOHLC(String chunkId) {
-        List<Decoded16B> ticks = reader.readChunk(chunkId);
-        if (ticks.isEmpty()) {
+        SecondBuckets buckets = BUCKETS.get();
+        buckets.reset();
+        int ticks = reader.forEachTick(chunkId, buckets);
+        if (ticks == 0) {
             log.info("No rows in chunk {}", chunkId);
             return 0;
         }
 
-        // (stockId, ts[초]) → 집계 구조
-        final class Key {
-            final int stockId;
-            final Instant tsSec;
-            Key(int stockId, Instant tsSec) { this.stockId = stockId; this.tsSec = tsSec; }
-            @Override public boolean equals(Object o){ if(this==o) return true; if(!(o instanceof Key k)) return false;
-                return stockId==k.stockId && Objects.equals(tsSec,k.tsSec); }
-            @Override public int hashCode(){ return Objects.hash(stockId, tsSec); }
-        }
-        final class Agg {
-            Integer open, high, low, close;
-            long volume = 0;
-            void accept(int price, int vol){
-                if (open == null) open = price;
-                if (high == null || price > high) high = price;
-                if (low  == null || price < low )  low  = price;
-                close = price;
-                volume += vol;
-            }
-        }
-
-        Map<Key, Agg> grouped = new LinkedHashMap<>();
-        for (var d : ticks) {
-//            // 1) Instant(절대시각) -> KST로 시각화
-//            ZonedDateTime kst = d.ts().atZone(KST);
-//
-//            // 2) KST에서 초 단위 절삭
-//            ZonedDateTime kstSec = kst.truncatedTo(ChronoUnit.SECONDS);
-
-            // 3)
-            Instant tsSec = d.ts().truncatedTo(ChronoUnit.SECONDS);
-            Key k = new Key(d.stockId(), tsSec);
-            grouped.computeIfAbsent(k, __ -> new Agg())
-                    .accept(d.price(), d.volume());
-        }
-
-        // 배치 업서트
-        List<Object[]> params = new ArrayList<>(grouped.size());
-        for (var e : grouped.entrySet()) {
-            Key k = e.getKey();
-            Agg a = e.getValue();
+        // 배치 업서트 (행 = 초 단위 버킷 수)
+        long baseEpochMillis = buckets.baseEpochMillis;
+        List<Object[]> params = new ArrayList<>(buckets.size);
+        for (int b = 0; b < buckets.size; b++) {
             params.add(new Object[]{
-                    k.stockId,
-                    Timestamp.from(k.tsSec),
-                    a.open, a.high, a.low, a.close,
-                    a.volume
+                    buckets.stockId,
+                    new Timestamp(baseEpochMillis + buckets.secOfDay[b] * 1000L),
+                    buckets.open[b], buckets.high[b], buckets.low[b], buckets.close[b],
+                    buckets.volume[b]
             });
         }
         int[] res = jdbc.batchUpdate(UPSERT_SQL, params);
         int affected = Arrays.stream(res).map(n -> Math.max(n, 0)).sum();
 
+        // 청크당 1행: 마지막 초의 종가
+        int last = 0;
+        for (int b = 1; b < buckets.size; b++) {
+            if (buckets.secOfDay[b] > buckets.secOfDay[last]) last = b;
+        }
+        lastPriceStore.upsert(new int[]{buckets.stockId}, new int[]{buckets.close[last]},
+                new long[]{baseEpochMillis / 1000 + buckets.secOfDay[last]}, 1);
+
         log.info("✅ Ingested chunk={} rows={}", chunkId, affected);
         return affected;
     }
+
+    /**
+     * 청크 하나(단일 종목)의 틱을 초 단위로 접는 primitive 집계기
+     * - secOfDay → 버킷 번호를 하루 크기 배열로 직접 조회 (해시/박싱 없음)
+     * - 버킷 순서는 처음 등장한 순서 (기존 LinkedHashMap 동작과 동일)
+     * open: 첫 틱, high: 최대, low: 최소, close: 마지막, volume: 합계
+     */
+    private static final class SecondBuckets implements TickColumns.TickVisitor {
+        private static final int SECONDS_PER_DAY = 86_400;
+
+        private final int[] bucketOfSecond = new int[SECONDS_PER_DAY];
+        int stockId;
+        long baseEpochMillis;
+        int size;
+        int[] secOfDay = new int[256];
+        int[] open = new int[256];
+        int[] high = new int[256];
+        int[] low = new int[256];
+        int[] close = new int[256];
+        long[] volume = new long[256];
+
+        SecondBuckets() {
+            Arrays.fill(bucketOfSecond, -1);
+        }
+
+        void reset() {
+            // 사용한 칸만 되돌림
+            for (int b = 0; b < size; b++) {
+                bucketOfSecond[secOfDay[b]] = -1;
+            }
+            size = 0;
+        }
+
+        @Override
+        public void onChunk(int stockId, long baseEpochMillis, int count) {
+            this.stockId = stockId;
+            this.baseEpochMillis = baseEpochMillis;
+        }
+
+        @Override
+        public void onTick(int stockId, int msOfDay, int price, int vol) {
+            int sec = msOfDay / 1000;
+            if (sec < 0 || sec >= SECONDS_PER_DAY) return;
+            int b = bucketOfSecond[sec];
+            if (b < 0) {
+                b = size++;
+                if (b == secOfDay.length) grow();
+                bucketOfSecond[sec] = b;
+                secOfDay[b] = sec;
+                open[b] = high[b] = low[b] = price;
+                volume[b] = 0;
+            } else {
+                if (price > high[b]) high[b] = price;
+                if (price < low[b]) low[b] = price;
+            }
+            close[b] = price;
+            volume[b] += vol;
+        }
+
+        private void grow() {
+            int n = secOfDay.length * 2;
+            secOfDay = Arrays.copyOf(secOfDay, n);
+            open = Arrays.copyOf(open, n);
+            high = Arrays.copyOf(high, n);
+            low = Arrays.copyOf(low, n);
+            close = Arrays.copyOf(close, n);
+            volume = Arrays.copyOf(volume, n);
+        }
+    }
 }
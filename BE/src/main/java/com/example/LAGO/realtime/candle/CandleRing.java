@@ -0,0 +1,127 @@
+package com.example.LAGO.realtime.candle;
+
+/**
+ * 한 종목 × 한 간격의 최근 N개 캔들 링버퍼
+ *
+ * - 버킷 시각은 UTC epoch 분 (time_bucket 과 같은 정렬) 을 int 로 보관
+ * - 값은 primitive 배열, 가장 새 버킷이 head
+ * - 새 버킷이 오면 가장 오래된 버킷을 덮어씀 → 링에 남은 구간은 항상 연속된 최신 구간
+ * - 동기화는 호출측 (ChartCandleCache 가 링 단위로 synchronized)
+ */
+final class CandleRing {
+
+    private final int[] bucket;
+    private final int[] open;
+    private final int[] high;
+    private final int[] low;
+    private final int[] close;
+    private final long[] volume;
+    private int head = -1;
+    private int count;
+
+    CandleRing(int capacity) {
+        bucket = new int[capacity];
+        open = new int[capacity];
+        high = new int[capacity];
+        low = new int[capacity];
+        close = new int[capacity];
+        volume = new long[capacity];
+    }
+
+    /**
+     * 틱 하나 반영 (체결가 하나로 OHLC 갱신)
+     */
+    void addTick(int bucketMin, int price, long vol) {
+        merge(bucketMin, price, price, price, price, vol);
+    }
+
+    /**
+     * 집계된 봉 반영 (시딩, 하위 간격 봉 롤업, 틱 공용)
+     * - 최신 버킷과 같으면 누적 (open 유지, close 교체)
+     * - 더 새 버킷이면 새 칸
+     * - 더 오래된 버킷은 링 안에 있으면 high/low/volume 만 반영 (늦은 틱), 없으면 무시
+     */
+    void merge(int bucketMin, int o, int h, int l, int c, long vol) {
+        if (count > 0) {
+            int latest = bucket[head];
+            if (bucketMin == latest) {
+                accumulate(head, h, l, c, vol);
+                return;
+            }
+            if (bucketMin < latest) {
+                int slot = find(bucketMin);
+                if (slot >= 0) {
+                    if (h > high[slot]) high[slot] = h;
+                    if (l < low[slot]) low[slot] = l;
+                    volume[slot] += vol;
+                }
+                return;
+            }
+        }
+        head = (head + 1) % bucket.length;
+        if (count < bucket.length) count++;
+        bucket[head] = bucketMin;
+        open[head] = o;
+        high[head] = h;
+        low[head] = l;
+        close[head] = c;
+        volume[head] = vol;
+    }
+
+    private void accumulate(int slot, int h, int l, int c, long vol) {
+        if (h > high[slot]) high[slot] = h;
+        if (l < low[slot]) low[slot] = l;
+        close[slot] = c;
+        volume[slot] += vol;
+    }
+
+    private int find(int bucketMin) {
+        for (int i = 0, slot = head; i < count; i++) {
+            if (bucket[slot] == bucketMin) return slot;
+            if (bucket[slot] < bucketMin) return -1;
+            slot = slot == 0 ? bucket.length - 1 : slot - 1;
+        }
+        return -1;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * @return 링이 덮는 가장 오래된 버킷 (UTC epoch 분), 비어 있으면 Integer.MAX_VALUE
+     */
+    int oldestBucket() {
+        if (count == 0) return Integer.MAX_VALUE;
+        return bucket[Math.floorMod(head - count + 1, bucket.length)];
+    }
+
+    /** 봉 순회 콜백 */
+    @FunctionalInterface
+    interface CandleVisitor {
+        void onCandle(int bucketMin, int open, int high, int low, int close, long volume);
+    }
+
+    /**
+     * [fromMin, toMin) 구간을 오래된 순으로 순회
+     */
+    void forEachInRange(int fromMin, int toMin, CandleVisitor visitor) {
+        for (int i = count - 1; i >= 0; i--) {
+            int slot = Math.floorMod(head - i, bucket.length);
+            int b = bucket[slot];
+            if (b < fromMin) continue;
+            if (b >= toMin) break;
+            visitor.onCandle(b, open[slot], high[slot], low[slot], close[slot], volume[slot]);
+        }
+    }
+
+    /**
+     * 최신 limit 개를 최신 순으로 순회
+     */
+    void forEachLatest(int limit, CandleVisitor visitor) {
+        for (int i = 0, slot = head; i < Math.min(limit, count); i++) {
+            visitor.onCandle(bucket[slot], open[slot], high[slot], low[slot], close[slot], volume[slot]);
+            slot = slot == 0 ? bucket.length - 1 : slot - 1;
+        }
+    }
+}
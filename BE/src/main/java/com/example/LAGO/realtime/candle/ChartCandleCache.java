@@ -0,0 +1,495 @@
+package com.example.LAGO.realtime.candle;
+
+import com.example.LAGO.constants.Interval;
+import com.example.LAGO.dto.StockChartDto;
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.TickChunkStore;
+import com.example.LAGO.realtime.TickColumns;
+import com.example.LAGO.realtime.ingest.ChunkIngestLedger;
+import com.example.LAGO.service.TickChunkReaderService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 차트용 종목별 다중 간격 최근 캔들 캐시 (1m, 3m, 5m, 10m, 15m, 30m, 60m, 1D)
+ *
+ * - 종목(StockRegistry 인덱스) × 간격마다 CandleRing (최근 capacity 개)
+ * - 라이브 틱마다 모든 간격의 현재 버킷을 O(1) 갱신 → CAGG refresh 전에도 마지막 버킷이 최신
+ * - 버킷 정렬은 time_bucket 과 동일 (UTC 기준, 1D 는 UTC 자정 = KST 09:00)
+ * - 기동 시 1회 시딩 (파이프라인이 틱을 넘기기 전):
+ *     1) 최근 raw-seed-minutes 는 "TICKS" 1초봉을 1분으로 묶어 읽고 각 간격으로 롤업
+ *     2) 그 이전은 간격별 CAGG(ticks_1m … ticks_1d) 에서 종목별 최신 capacity 개
+ *     3) 꼬리: "TICKS" 는 적재 지연만큼 Redis 청크보다 늦으므로, 적재 대기열의 청크 중 아직 적재되지 않은 것을
+ *        Redis 에서 직접 읽어 1분봉으로 더함 (청크는 DB 조회 전에 읽고, 적재 여부는 raw 조회와 같은 SQL 문에서
+ *        원장으로 판정 → 같은 스냅샷이라 같은 청크를 두 번 세거나 빠뜨리지 않음)
+ *   간격별 경계(raw 구간이 온전히 덮는 첫 버킷)를 나눠 두 소스가 같은 버킷을 겹쳐 읽지 않음
+ * - 링에 남은 구간(가장 오래된 버킷 ~ 현재)은 메모리가 기준, 그 이전은 DB 조회 (StockChartService 에서 이어 붙임)
+ * - 시딩 실패 시 캐시를 쓰지 않음 (기존 DB 조회 그대로)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "realtime.chart-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ChartCandleCache {
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    /** 캐시 대상 간격 (배열 순서 = 링 인덱스) */
+    static final Interval[] CACHED = {
+            Interval.MINUTE, Interval.MINUTE3, Interval.MINUTE5, Interval.MINUTE10,
+            Interval.MINUTE15, Interval.MINUTE30, Interval.MINUTE60, Interval.DAY
+    };
+    static final int[] MINUTES = {1, 3, 5, 10, 15, 30, 60, 1440};
+    private static final String[] VIEWS = {
+            "ticks_1m", "ticks_3m", "ticks_5m", "ticks_10m", "ticks_15m", "ticks_30m", "ticks_60m", "ticks_1d"
+    };
+
+    private static final String CAGG_SEED_SQL = """
+        SELECT stock_info_id, bucket, open_price, high_price, low_price, close_price, volume
+        FROM (
+            SELECT t.*, row_number() OVER (PARTITION BY stock_info_id ORDER BY bucket DESC) AS rn
+            FROM %s t
+            WHERE bucket >= ? AND bucket < ?
+        ) s
+        WHERE rn <= ?
+        ORDER BY stock_info_id, bucket
+        """;
+
+    private static final String RAW_SEED_SQL = """
+        SELECT stock_info_id, time_bucket('1 minute', ts) AS bucket,
+               first(open_price, ts) AS open_price, max(high_price) AS high_price,
+               min(low_price) AS low_price, last(close_price, ts) AS close_price, sum(volume) AS volume,
+               NULL::text AS ingested_chunk
+        FROM "TICKS"
+        WHERE ts >= ?
+        GROUP BY 1, 2
+        """;
+
+    // 꼬리 후보 청크 중 이미 적재된 것 (raw 조회와 한 문장 → 같은 스냅샷)
+    private static final String RAW_WITH_LEDGER_SQL = RAW_SEED_SQL + """
+        UNION ALL
+        SELECT NULL, NULL, NULL, NULL, NULL, NULL, NULL, chunk_id
+        FROM "TICKS_INGEST_LEDGER"
+        WHERE chunk_id = ANY(?)
+        """;
+
+    private final StockRegistry stockRegistry;
+    private final JdbcTemplate jdbc;
+    private final ObjectProvider<TickChunkStore> chunkStore;
+    private final ObjectProvider<TickChunkReaderService> chunkReader;
+    private final ObjectProvider<ChunkIngestLedger> ingestLedger;
+
+    @Value("${realtime.chart-cache.capacity:128}")
+    private int capacity = 128;
+
+    @Value("${realtime.chart-cache.raw-seed-minutes:120}")
+    private int rawSeedMinutes = 120;
+
+    @Value("${realtime.chart-cache.seed:true}")
+    private boolean seedOnStartup = true;
+
+    // 꼬리 시딩에 읽을 적재 대기 청크 상한 (적재가 오래 멈춰 있었으면 이보다 많을 수 있음)
+    @Value("${realtime.chart-cache.tail-max-chunks:5000}")
+    private int tailMaxChunks = 5000;
+
+    // [종목 인덱스][간격] - 링 자체는 synchronized 로 보호
+    private volatile CandleRing[][] rings = new CandleRing[0][];
+    private volatile boolean ready;
+    // KST 당일 00:00 의 UTC epoch 분
+    private volatile long todayBaseMinute = kstDayBaseMinute(LocalDate.now(KST));
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong stitched = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile int tailChunks;
+
+    public ChartCandleCache(StockRegistry stockRegistry, JdbcTemplate jdbc,
+                            ObjectProvider<TickChunkStore> chunkStore,
+                            ObjectProvider<TickChunkReaderService> chunkReader,
+                            ObjectProvider<ChunkIngestLedger> ingestLedger) {
+        this.stockRegistry = stockRegistry;
+        this.jdbc = jdbc;
+        this.chunkStore = chunkStore;
+        this.chunkReader = chunkReader;
+        this.ingestLedger = ingestLedger;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!seedOnStartup) {
+            ready = true;
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            int seeded = seed(System.currentTimeMillis() / 60_000L);
+            ready = true;
+            log.info("✅ Chart candle cache seeded: candles={}, capacity={}, took={}ms",
+                    seeded, capacity, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            rings = new CandleRing[0][];
+            log.warn("⚠️ Chart candle cache seeding failed, charts fall back to DB: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void refreshTradingDay() {
+        todayBaseMinute = kstDayBaseMinute(LocalDate.now(KST));
+    }
+
+    private static long kstDayBaseMinute(LocalDate kstDay) {
+        return kstDay.atStartOfDay(KST).toEpochSecond() / 60;
+    }
+
+    /**
+     * 파이프라인 chart 스테이지 진입점
+     */
+    public void onTick(KisTickRecord tick) {
+        if (!ready) return;
+        int index = tick.codeNumeric() >= 0
+                ? stockRegistry.indexOfNumericCode(tick.codeNumeric())
+                : stockRegistry.indexOf(tick.code());
+        if (index < 0) return;
+        onTick(index, todayBaseMinute + tick.msOfDay() / 60_000, tick.closePrice(), tick.volume());
+    }
+
+    /**
+     * @param minuteUtc 틱이 속한 UTC epoch 분
+     */
+    void onTick(int stockIndex, long minuteUtc, int price, int volume) {
+        ticks.incrementAndGet();
+        CandleRing[] perInterval = ringsFor(stockIndex);
+        for (int i = 0; i < CACHED.length; i++) {
+            CandleRing ring = perInterval[i];
+            synchronized (ring) {
+                ring.addTick(alignMinute(minuteUtc, i), price, volume);
+            }
+        }
+    }
+
+    private static int alignMinute(long minuteUtc, int intervalIdx) {
+        return (int) (minuteUtc - Math.floorMod(minuteUtc, MINUTES[intervalIdx]));
+    }
+
+    // =====================================================================
+    // 조회
+
+    /**
+     * @return 캐시 대상 간격이면 링 인덱스, 아니면 -1 (1W/1M/1Y 등)
+     */
+    static int intervalIndex(String intervalCode) {
+        for (int i = 0; i < CACHED.length; i++) {
+            if (CACHED[i].getCode().equals(intervalCode)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 메모리가 기준이 되는 구간의 시작 (이 시각 이후 버킷은 메모리만으로 응답 가능)
+     * @return 시작 시각, 캐시되지 않은 종목/간격이면 null
+     */
+    public LocalDateTime coverageStart(String code, String intervalCode) {
+        CandleRing ring = ringOf(code, intervalCode);
+        if (ring == null) return null;
+        int oldest;
+        synchronized (ring) {
+            oldest = ring.oldestBucket();
+        }
+        return oldest == Integer.MAX_VALUE ? null : toKst(oldest);
+    }
+
+    /**
+     * [fromKst, toKst) 구간 캔들 (오래된 순, 메모리에 있는 것만)
+     */
+    public List<StockChartDto> range(String code, String intervalCode, LocalDateTime fromKst, LocalDateTime toKst) {
+        List<StockChartDto> out = new ArrayList<>();
+        CandleRing ring = ringOf(code, intervalCode);
+        if (ring == null) return out;
+        int stockId = stockRegistry.stockIdAt(stockRegistry.indexOf(code));
+        synchronized (ring) {
+            ring.forEachInRange(toUtcMinute(fromKst), toUtcMinute(toKst),
+                    (b, o, h, l, c, v) -> out.add(toDto(stockId, code, intervalCode, b, o, h, l, c, v)));
+        }
+        return out;
+    }
+
+    /**
+     * 최신 limit 개 (최신 순 - findLatestByCode 와 같은 정렬)
+     * @return 캐시되지 않은 종목/간격이면 null
+     */
+    public List<StockChartDto> latest(String code, String intervalCode, int limit) {
+        CandleRing ring = ringOf(code, intervalCode);
+        if (ring == null) return null;
+        int stockId = stockRegistry.stockIdAt(stockRegistry.indexOf(code));
+        List<StockChartDto> out = new ArrayList<>(limit);
+        synchronized (ring) {
+            ring.forEachLatest(limit, (b, o, h, l, c, v) -> out.add(toDto(stockId, code, intervalCode, b, o, h, l, c, v)));
+        }
+        return out;
+    }
+
+    /** 조회 결과 통계 (StockChartService 에서 기록) */
+    public void recordHit(boolean memoryOnly) {
+        if (memoryOnly) memoryHits.incrementAndGet();
+        else stitched.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    private CandleRing ringOf(String code, String intervalCode) {
+        if (!ready || code == null) return null;
+        int i = intervalIndex(intervalCode);
+        if (i < 0) return null;
+        int index = stockRegistry.indexOf(code);
+        CandleRing[][] current = rings;
+        if (index < 0 || index >= current.length || current[index] == null) return null;
+        return current[index][i];
+    }
+
+    private static StockChartDto toDto(int stockId, String code, String interval, int bucketMin,
+                                       int o, int h, int l, int c, long v) {
+        return StockChartDto.builder()
+                .stockInfoId(stockId)
+                .bucket(toKst(bucketMin))
+                .code(code)
+                .interval(interval)
+                .openPrice(o)
+                .highPrice(h)
+                .lowPrice(l)
+                .closePrice(c)
+                .volume(v)
+                .build();
+    }
+
+    private static LocalDateTime toKst(int bucketMin) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(bucketMin * 60L), KST);
+    }
+
+    private static int toUtcMinute(LocalDateTime kst) {
+        long minute = Math.floorDiv(kst.atZone(KST).toEpochSecond(), 60);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, minute));
+    }
+
+    private CandleRing[] ringsFor(int index) {
+        CandleRing[][] current = rings;
+        if (index < current.length && current[index] != null) return current[index];
+        synchronized (this) {
+            current = rings;
+            if (index >= current.length) {
+                CandleRing[][] grown = new CandleRing[Math.max(index + 1, Math.max(stockRegistry.size(), current.length * 2))][];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            if (current[index] == null) {
+                CandleRing[] perInterval = new CandleRing[CACHED.length];
+                for (int i = 0; i < perInterval.length; i++) perInterval[i] = new CandleRing(capacity);
+                current[index] = perInterval;
+            }
+            rings = current;
+            return current[index];
+        }
+    }
+
+    // =====================================================================
+    // 시딩
+
+    /**
+     * @param nowMinute 현재 UTC epoch 분
+     * @return 적재한 봉 수 (롤업 전 원본 행 기준)
+     */
+    int seed(long nowMinute) {
+        long rawStart = nowMinute - rawSeedMinutes;
+        int[] cutoff = new int[CACHED.length];
+        int total = 0;
+
+        // 1) CAGG: 간격별로 raw 구간이 온전히 덮지 못하는 버킷까지
+        for (int i = 0; i < CACHED.length; i++) {
+            int iv = MINUTES[i];
+            cutoff[i] = (int) (Math.floorDiv(rawStart + iv - 1, iv) * iv);
+            // 장중 시간만 봉이 생기므로 capacity 개를 채울 만큼 넉넉히 (휴일 포함)
+            long lookbackMinutes = (long) capacity * iv * 4 + 7 * 1440;
+            final int idx = i;
+            int[] rows = {0};
+            jdbc.query(CAGG_SEED_SQL.formatted(VIEWS[i]), ps -> {
+                ps.setTimestamp(1, Timestamp.from(Instant.ofEpochSecond((cutoff[idx] - lookbackMinutes) * 60)));
+                ps.setTimestamp(2, Timestamp.from(Instant.ofEpochSecond(cutoff[idx] * 60L)));
+                ps.setInt(3, capacity);
+            }, (RowCallbackHandler) rs -> {
+                mergeRow(rs, idx);
+                rows[0]++;
+            });
+            total += rows[0];
+        }
+
+        // 3) 꼬리 후보: DB 조회보다 먼저 읽어야 그 사이 적재된 청크를 원장으로 걸러낼 수 있음
+        List<TailChunk> tail = readPendingChunks();
+
+        // 2) 최근 구간: 1초봉 → 1분 (+ 꼬리 후보 중 이미 적재된 청크 ID)
+        List<long[]> raw = new ArrayList<>();
+        Set<String> ingested = new HashSet<>();
+        String[] tailIds = tail.stream().map(TailChunk::chunkId).toArray(String[]::new);
+        String sql = tailIds.length == 0 ? RAW_SEED_SQL : RAW_WITH_LEDGER_SQL;
+        jdbc.query(sql, ps -> {
+            ps.setTimestamp(1, Timestamp.from(Instant.ofEpochSecond(rawStart * 60)));
+            if (tailIds.length > 0) ps.setArray(2, ps.getConnection().createArrayOf("text", tailIds));
+        }, (RowCallbackHandler) rs -> {
+            String chunkId = rs.getString(8);
+            if (chunkId != null) {
+                ingested.add(chunkId);
+                return;
+            }
+            int index = stockRegistry.indexOfStockId(rs.getInt(1));
+            if (index < 0) return;
+            raw.add(new long[]{index, rs.getTimestamp(2).toInstant().getEpochSecond() / 60,
+                    rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getLong(7)});
+        });
+        // 시각 오름차순으로 롤업 → 꼬리는 그 뒤 (청크 순서 = 적재 대기열 순서)
+        raw.sort(Comparator.comparingLong(r -> r[1]));
+        for (long[] r : raw) {
+            mergeMinute((int) r[0], (int) r[1], (int) r[2], (int) r[3], (int) r[4], (int) r[5], r[6], cutoff);
+        }
+        int tailRows = 0;
+        int merged = 0;
+        for (TailChunk chunk : tail) {
+            if (ingested.contains(chunk.chunkId())) continue;
+            int index = stockRegistry.indexOfStockId(chunk.stockId());
+            if (index < 0) continue;
+            for (Map.Entry<Integer, long[]> e : chunk.minutes().entrySet()) {
+                if (e.getKey() < rawStart) continue;
+                long[] m = e.getValue();
+                mergeMinute(index, e.getKey(), (int) m[0], (int) m[1], (int) m[2], (int) m[3], m[4], cutoff);
+                tailRows++;
+            }
+            merged++;
+        }
+        tailChunks = merged;
+        if (!tail.isEmpty()) {
+            log.info("Chart candle cache tail: pendingChunks={}, alreadyIngested={}, merged={}",
+                    tail.size(), ingested.size(), merged);
+        }
+        return total + raw.size() + tailRows;
+    }
+
+    private void mergeMinute(int index, int minute, int o, int h, int l, int c, long v, int[] cutoff) {
+        CandleRing[] perInterval = ringsFor(index);
+        for (int i = 0; i < CACHED.length; i++) {
+            int b = alignMinute(minute, i);
+            if (b < cutoff[i]) continue;
+            synchronized (perInterval[i]) {
+                perInterval[i].merge(b, o, h, l, c, v);
+            }
+        }
+    }
+
+    /**
+     * 적재 대기열의 청크를 Redis 에서 읽어 청크별 1분봉으로 (읽을 수 없으면 빈 목록 - raw 까지만 시딩)
+     */
+    private List<TailChunk> readPendingChunks() {
+        TickChunkStore store = chunkStore.getIfAvailable();
+        TickChunkReaderService reader = chunkReader.getIfAvailable();
+        ChunkIngestLedger ledger = ingestLedger.getIfAvailable();
+        if (store == null || reader == null || ledger == null || tailMaxChunks <= 0) return List.of();
+        List<String> ids;
+        try {
+            ledger.requireLedgerTable();
+            ids = store.pendingChunkIds(tailMaxChunks);
+        } catch (Exception e) {
+            log.warn("⚠️ Chart candle cache tail skipped: {}", e.getMessage());
+            return List.of();
+        }
+        if (ids.size() >= tailMaxChunks) {
+            log.warn("⚠️ Ingest backlog exceeds tail-max-chunks={} - newest chunks may be missing until live ticks", tailMaxChunks);
+        }
+        List<TailChunk> tail = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            TreeMap<Integer, long[]> minutes = new TreeMap<>();
+            int[] stockId = {-1};
+            long[] base = {0};
+            try {
+                reader.forEachTick(id, new TickColumns.TickVisitor() {
+                    @Override
+                    public void onChunk(int sid, long baseEpochMillis, int count) {
+                        stockId[0] = sid;
+                        base[0] = baseEpochMillis;
+                    }
+
+                    @Override
+                    public void onTick(int sid, int msOfDay, int price, int volume) {
+                        int minute = (int) ((base[0] + msOfDay) / 60_000L);
+                        long[] m = minutes.get(minute);
+                        if (m == null) {
+                            minutes.put(minute, new long[]{price, price, price, price, volume});
+                        } else {
+                            m[1] = Math.max(m[1], price);
+                            m[2] = Math.min(m[2], price);
+                            m[3] = price;
+                            m[4] += volume;
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                // 그 사이 적재 + 정리된 청크 → DB 조회가 대신 읽음
+                log.debug("Pending chunk {} not readable: {}", id, e.getMessage());
+                continue;
+            }
+            if (stockId[0] >= 0 && !minutes.isEmpty()) tail.add(new TailChunk(id, stockId[0], minutes));
+        }
+        return tail;
+    }
+
+    /** 적재 대기 청크 하나의 1분봉 (분 → {open, high, low, close, volume}) */
+    private record TailChunk(String chunkId, int stockId, TreeMap<Integer, long[]> minutes) {}
+
+    private void mergeRow(ResultSet rs, int intervalIdx) throws SQLException {
+        int index = stockRegistry.indexOfStockId(rs.getInt(1));
+        if (index < 0) return;
+        int b = (int) (rs.getTimestamp(2).toInstant().getEpochSecond() / 60);
+        CandleRing ring = ringsFor(index)[intervalIdx];
+        synchronized (ring) {
+            ring.merge(b, rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6), rs.getLong(7));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        CandleRing[][] current = rings;
+        int stocks = 0;
+        for (CandleRing[] r : current) if (r != null) stocks++;
+        stats.put("ready", ready);
+        stats.put("stocks", stocks);
+        stats.put("capacity", capacity);
+        stats.put("ticks", ticks.get());
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("stitched", stitched.get());
+        stats.put("misses", misses.get());
+        stats.put("seedTailChunks", tailChunks);
+        return stats;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.LAGO.realtime.candle;
+
+import com.example.LAGO.dto.StockMinuteDto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 마감(또는 정정)된 1분봉
+ * @param stockId stock_info_id
+ * @param minuteKey KST 기준 epoch 분 (epochDay × 1440 + 분)
+ * @param trades 체결 건수
+ * @param correction true면 이미 내보낸 분봉의 늦은 틱 반영 결과 (전체 상태)
+ * @param seq 마지막으로 반영된 틱(마감 이벤트는 마감 시점)의 엔진 순번 (클라이언트가 오래된 이벤트를 버리는 기준)
+ */
+public record MinuteCandle(int stockId, long minuteKey, int open, int high, int low, int close,
+                           long volume, int trades, boolean correction, long seq) {
+
+    public LocalDateTime minute() {
+        return LocalDate.ofEpochDay(minuteKey / 1440).atStartOfDay().plusMinutes(minuteKey % 1440);
+    }
+
+    public StockMinuteDto toDto() {
+        return StockMinuteDto.builder()
+                .stockInfoId(stockId)
+                .date(minute())
+                .openPrice(open)
+                .highPrice(high)
+                .lowPrice(low)
+                .closePrice(close)
+                .volume((int) Math.min(Integer.MAX_VALUE, volume))
+                .seq(seq)
+                .build();
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.LAGO.realtime.candle;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.StockRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 이벤트 시각 기준 1분봉 집계 엔진 (MinuteCandleService 대체)
+ *
+ * - 종목별 상태는 StockRegistry 인덱스 배열, 틱당 O(1) 누적 (open/high/low/close/volume/체결 건수)
+ * - 종목별 워터마크: 더 늦은 분의 틱이 오면 즉시 마감, 틱이 없으면 분 종료 + grace-ms 지나면 closer가 마감
+ * - 이미 마감한 분의 늦은 틱(late-window-minutes 이내)은 해당 분봉에 반영 후 정정 이벤트로 다시 내보냄
+ *   (그보다 오래됐거나 체결이 없던 분의 늦은 틱은 버리고 집계만)
+ * - 마감/정정 분봉은 CandleSink(StockMinuteBatchWriter)로 넘겨 배치 저장 + STOMP 전송
+ *
+ * 같은 종목은 항상 같은 파이프라인 파티션 스레드에서 들어오고, closer 스레드와는 종목 상태 단위로 동기화
+ * 분봉이 바뀔 때마다 엔진 전체 순번(seq)을 부여 → 구독 스냅샷(currentCandle)과 이후 마감/정정 이벤트의 선후 비교용
+ *   마감 이벤트는 마감 시점에 새 순번을 받음: 다음 분 틱이 직전 분을 마감하면 새 분(스냅샷 대상)이 먼저 순번을 받고
+ *   마감이 그 뒤 순번을 받으므로, 새 분 스냅샷을 받은 클라이언트가 직전 분 마감을 "오래된 메시지"로 버리지 않음
+ * 시각은 KST epoch ms (epochDay × 86,400,000 + msOfDay) 로 통일
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression(MinuteCandleEngine.ENABLED)
+public class MinuteCandleEngine {
+
+    /**
+     * 분봉 집계/저장/전송 활성화 조건 - realtime.candle.enabled, 없으면 예전 MinuteCandleService와 같이 redis.stream.enabled (기본 꺼짐)
+     */
+    public static final String ENABLED = "${realtime.candle.enabled:${redis.stream.enabled:false}}";
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final long MINUTE_MS = 60_000L;
+    private static final long DAY_MS = 86_400_000L;
+
+    /** 마감/정정 분봉 수신자 */
+    @FunctionalInterface
+    public interface CandleSink {
+        void accept(MinuteCandle candle);
+    }
+
+    private final StockRegistry stockRegistry;
+    private final CandleSink sink;
+
+    @Value("${realtime.candle.grace-ms:3000}")
+    private long graceMs = 3_000L;
+
+    @Value("${realtime.candle.late-window-minutes:5}")
+    private int lateWindowMinutes = 5;
+
+    private volatile StockState[] states = new StockState[0];
+    private volatile long todayEpochMs = LocalDate.now(KST).toEpochDay() * DAY_MS;
+    private ScheduledExecutorService closer;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong closedByTick = new AtomicLong();
+    private final AtomicLong closedByGrace = new AtomicLong();
+    private final AtomicLong corrections = new AtomicLong();
+    private final AtomicLong droppedLate = new AtomicLong();
+
+    public MinuteCandleEngine(StockRegistry stockRegistry, CandleSink sink) {
+        this.stockRegistry = stockRegistry;
+        this.sink = sink;
+    }
+
+    @PostConstruct
+    public void start() {
+        closer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "candle-closer");
+            t.setDaemon(true);
+            return t;
+        });
+        closer.scheduleWithFixedDelay(this::closeExpiredSafely, 1_000, 500, TimeUnit.MILLISECONDS);
+        log.info("🚀 MinuteCandleEngine started: grace={}ms, lateWindow={}min", graceMs, lateWindowMinutes);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (closer != null) closer.shutdownNow();
+        // 종료 시 열린 분봉은 그대로 마감
+        closeExpired(Long.MAX_VALUE);
+    }
+
+    /**
+     * 파이프라인 candle 스테이지 진입점
+     */
+    public void onTick(KisTickRecord tick) {
+        int index = tick.codeNumeric() >= 0
+                ? stockRegistry.indexOfNumericCode(tick.codeNumeric())
+                : stockRegistry.indexOf(tick.code());
+        if (index < 0) return; // 미등록 종목 (persist 스테이지에서 로그)
+        onTick(index, stockRegistry.stockIdAt(index), todayEpochMs + tick.msOfDay(),
+                tick.closePrice(), tick.volume());
+    }
+
+    /**
+     * 틱 하나 반영
+     * @param stockIndex StockRegistry 인덱스
+     * @param eventMs KST epoch ms
+     */
+    public void onTick(int stockIndex, int stockId, long eventMs, int price, int volume) {
+        ticks.incrementAndGet();
+        StockState state = stateFor(stockIndex, stockId);
+        MinuteCandle emit;
+        synchronized (state) {
+            emit = state.apply(eventMs, price, volume, lateWindowMinutes, sequence);
+        }
+        if (emit != null) {
+            if (emit.correction()) corrections.incrementAndGet();
+            else closedByTick.incrementAndGet();
+            sink.accept(emit);
+        } else if (state.lastDropped) {
+            droppedLate.incrementAndGet();
+        }
+    }
+
+    /**
+     * 워터마크(nowMs) 기준으로 분 종료 + grace가 지난 열린 분봉 마감
+     * @param nowMs KST epoch ms
+     * @return 마감한 분봉 수
+     */
+    public int closeExpired(long nowMs) {
+        int closed = 0;
+        for (StockState state : states) {
+            if (state == null) continue;
+            MinuteCandle emit;
+            synchronized (state) {
+                emit = state.closeIfExpired(nowMs, graceMs, sequence);
+            }
+            if (emit != null) {
+                closed++;
+                sink.accept(emit);
+            }
+        }
+        closedByGrace.addAndGet(closed);
+        return closed;
+    }
+
+    /**
+     * 종목의 가장 최근 분봉 (진행 중이거나, 다음 틱 전까지는 방금 마감된 분봉)
+     * @param stockIndex StockRegistry 인덱스
+     * @return 아직 틱이 없으면 null
+     */
+    public MinuteCandle currentCandle(int stockIndex) {
+        StockState[] arr = states;
+        if (stockIndex < 0 || stockIndex >= arr.length || arr[stockIndex] == null) return null;
+        StockState state = arr[stockIndex];
+        synchronized (state) {
+            Acc current = state.ring[state.head];
+            return current.minute < 0 ? null : current.snapshot(state.stockId, false);
+        }
+    }
+
+    /** 지금까지 부여된 마지막 분봉 순번 */
+    public long currentSequence() {
+        return sequence.get();
+    }
+
+    private void closeExpiredSafely() {
+        try {
+            LocalDate today = LocalDate.now(KST);
+            todayEpochMs = today.toEpochDay() * DAY_MS;
+            long nowMs = todayEpochMs + LocalTime.now(KST).toNanoOfDay() / 1_000_000;
+            closeExpired(nowMs);
+        } catch (Exception e) {
+            log.error("❌ Candle closer failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private StockState stateFor(int index, int stockId) {
+        StockState[] arr = states;
+        if (index < arr.length && arr[index] != null) return arr[index];
+        synchronized (this) {
+            arr = states;
+            if (index >= arr.length) {
+                StockState[] grown = new StockState[Math.max(index + 1, Math.max(16, arr.length * 2))];
+                System.arraycopy(arr, 0, grown, 0, arr.length);
+                arr = grown;
+            }
+            if (arr[index] == null) arr[index] = new StockState(stockId, lateWindowMinutes + 1);
+            states = arr;
+            return arr[index];
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ticks", ticks.get());
+        stats.put("closedByTick", closedByTick.get());
+        stats.put("closedByGrace", closedByGrace.get());
+        stats.put("corrections", corrections.get());
+        stats.put("droppedLateTicks", droppedLate.get());
+        stats.put("graceMs", graceMs);
+        stats.put("lateWindowMinutes", lateWindowMinutes);
+        return stats;
+    }
+
+    // =====================================================================
+
+    /**
+     * 분봉 누적기 (재사용)
+     */
+    static final class Acc {
+        long minute = -1;
+        int open, high, low, close;
+        long openMs, closeMs;
+        long volume;
+        int trades;
+        long seq;
+        boolean closed;
+
+        void reset(long minute, long eventMs, int price, int volume, long seq) {
+            this.minute = minute;
+            open = high = low = close = price;
+            openMs = closeMs = eventMs;
+            this.volume = volume;
+            trades = 1;
+            this.seq = seq;
+            closed = false;
+        }
+
+        void add(long eventMs, int price, int vol, long seq) {
+            if (price > high) high = price;
+            if (price < low) low = price;
+            // 순서가 뒤바뀐 틱도 이벤트 시각 기준으로 open/close 결정
+            if (eventMs >= closeMs) {
+                close = price;
+                closeMs = eventMs;
+            }
+            if (eventMs < openMs) {
+                open = price;
+                openMs = eventMs;
+            }
+            volume += vol;
+            trades++;
+            this.seq = seq;
+        }
+
+        MinuteCandle snapshot(int stockId, boolean correction) {
+            return new MinuteCandle(stockId, minute, open, high, low, close, volume, trades, correction, seq);
+        }
+    }
+
+    /**
+     * 종목별 상태: 현재 분 + 최근 마감 분봉 링 (늦은 틱 정정용)
+     */
+    static final class StockState {
+        final int stockId;
+        final Acc[] ring;
+        int head;              // ring[head] = 가장 최근 분
+        boolean lastDropped;
+
+        StockState(int stockId, int slots) {
+            this.stockId = stockId;
+            this.ring = new Acc[slots];
+            for (int i = 0; i < slots; i++) ring[i] = new Acc();
+        }
+
+        /**
+         * @param sequence 엔진 순번 - 틱마다 1개, 직전 분을 마감하면 1개 더
+         * @return 내보낼 분봉 (직전 분 마감 또는 정정), 없으면 null
+         */
+        MinuteCandle apply(long eventMs, int price, int volume, int lateWindowMinutes, AtomicLong sequence) {
+            lastDropped = false;
+            long seq = sequence.incrementAndGet();
+            long minute = eventMs / MINUTE_MS;
+            Acc current = ring[head];
+
+            if (current.minute < 0) {
+                current.reset(minute, eventMs, price, volume, seq);
+                return null;
+            }
+            if (minute == current.minute && !current.closed) {
+                current.add(eventMs, price, volume, seq);
+                return null;
+            }
+            if (minute > current.minute) {
+                // 워터마크 전진: 새 분 시작 후 열린 분봉 마감 (마감 순번 > 새 분 순번)
+                head = (head + 1) % ring.length;
+                ring[head].reset(minute, eventMs, price, volume, seq);
+                return current.closed ? null : closeAcc(current, sequence.incrementAndGet());
+            }
+            // 이미 마감된 분의 늦은 틱
+            if (current.minute - minute <= lateWindowMinutes) {
+                for (Acc acc : ring) {
+                    if (acc.minute == minute) {
+                        acc.add(eventMs, price, volume, seq);
+                        return acc.snapshot(stockId, true);
+                    }
+                }
+            }
+            lastDropped = true;
+            return null;
+        }
+
+        MinuteCandle closeIfExpired(long nowMs, long graceMs, AtomicLong sequence) {
+            Acc current = ring[head];
+            if (current.minute < 0 || current.closed) return null;
+            if (nowMs < (current.minute + 1) * MINUTE_MS + graceMs) return null;
+            return closeAcc(current, sequence.incrementAndGet());
+        }
+
+        private MinuteCandle closeAcc(Acc acc, long seq) {
+            acc.closed = true;
+            acc.seq = seq;
+            return acc.snapshot(stockId, false);
+        }
+    }
+}
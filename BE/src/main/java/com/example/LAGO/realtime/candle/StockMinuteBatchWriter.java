@@ -0,0 +1,232 @@
+package com.example.LAGO.realtime.candle;
+
+import com.example.LAGO.realtime.RealtimeSchema;
+import com.example.LAGO.realtime.MinuteCandleWebsocketController;
+import com.example.LAGO.realtime.relay.RealtimeRelayPublisher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 마감/정정 분봉 → stock_minute JDBC 배치 저장 + STOMP 전송
+ *
+ * - 엔진 스레드는 큐에 넣기만 하고, 전용 스레드가 flush-interval-ms 마다 모아서 처리
+ * - 같은 (종목, 분)의 이벤트는 한 flush 안에서 마지막 상태 하나로 합침
+ * - 마감/정정 모두 (stock_info_id, date) 유니크 키에 INSERT … ON CONFLICT DO UPDATE
+ *   (재시도/재기동으로 같은 분봉이 다시 와도 행이 늘지 않음, 키는 realtime_schema.sql 로 생성 - 없으면 flush 실패)
+ * - 저장 실패 시 배치를 보관해 다음 flush에서 먼저 재시도 (max-pending 초과분은 버림)
+ * - 저장이 끝난 분봉만 /topic/realtime-1m/{stockInfoId} 로 전송
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression(MinuteCandleEngine.ENABLED)
+public class StockMinuteBatchWriter implements MinuteCandleEngine.CandleSink {
+
+    private static final String UNIQUE_INDEX = "stock_minute_stock_date_uk";
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO stock_minute (stock_info_id, date, open_price, high_price, low_price, close_price, volume)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (stock_info_id, date) DO UPDATE SET
+            open_price  = EXCLUDED.open_price,
+            high_price  = EXCLUDED.high_price,
+            low_price   = EXCLUDED.low_price,
+            close_price = EXCLUDED.close_price,
+            volume      = EXCLUDED.volume
+        """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<MinuteCandleWebsocketController> websocketProvider;
+    private final ObjectProvider<RealtimeRelayPublisher> relayProvider;
+
+    @Value("${realtime.candle.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${realtime.candle.max-pending:200000}")
+    private int maxPending;
+
+    private final ConcurrentLinkedQueue<MinuteCandle> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // 저장 실패 배치 (flush 스레드 전용)
+    private final List<MinuteCandle> retry = new ArrayList<>();
+    private ScheduledExecutorService flusher;
+    private volatile boolean keyReady;
+
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public StockMinuteBatchWriter(JdbcTemplate jdbc,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectProvider<MinuteCandleWebsocketController> websocketProvider,
+                                  ObjectProvider<RealtimeRelayPublisher> relayProvider) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.websocketProvider = websocketProvider;
+        this.relayProvider = relayProvider;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "candle-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushSafely();
+    }
+
+    @Override
+    public void accept(MinuteCandle candle) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(candle);
+    }
+
+    private synchronized void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            failedFlushes.incrementAndGet();
+            log.error("❌ 1분봉 배치 저장 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 큐에 쌓인 분봉 저장 후 전송
+     * @return 저장한 분봉 수
+     */
+    int flush() {
+        // (stockId, minuteKey) 별 마지막 상태 + 최초 마감 포함 여부 (통계용)
+        Map<Long, MinuteCandle> latest = new LinkedHashMap<>();
+        Map<Long, Boolean> closedKeys = new LinkedHashMap<>();
+        // 직전 실패분을 먼저 넣어야 그 뒤에 들어온 정정이 마지막 상태로 남음
+        List<MinuteCandle> incoming = new ArrayList<>(retry);
+        retry.clear();
+        MinuteCandle polled;
+        while ((polled = queue.poll()) != null) {
+            pending.decrementAndGet();
+            incoming.add(polled);
+        }
+        for (MinuteCandle c : incoming) {
+            long key = ((long) c.stockId() << 32) | (c.minuteKey() & 0xFFFFFFFFL);
+            latest.put(key, c);
+            if (!c.correction()) closedKeys.put(key, Boolean.TRUE);
+        }
+        if (latest.isEmpty()) return 0;
+
+        List<MinuteCandle> candles = new ArrayList<>(latest.values());
+        try {
+            requireUniqueKey();
+            // 한 트랜잭션으로 → 실패 시 배치 전체를 그대로 재시도
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbc.batchUpdate(UPSERT_SQL, new CandleSetter(candles)));
+        } catch (RuntimeException e) {
+            retry.addAll(candles);
+            if (retry.size() > maxPending) {
+                dropped.addAndGet(retry.size() - maxPending);
+                retry.subList(maxPending, retry.size()).clear();
+            }
+            throw e;
+        }
+        int closes = closedKeys.size();
+        int corrections = candles.size() - closes;
+        inserted.addAndGet(closes);
+        updated.addAndGet(corrections);
+
+        MinuteCandleWebsocketController websocket = websocketProvider.getIfAvailable();
+        if (websocket != null) {
+            for (MinuteCandle candle : latest.values()) {
+                try {
+                    websocket.sendMinuteCandle(candle.toDto());
+                } catch (Exception e) {
+                    log.warn("⚠️ 1분봉 WebSocket 전송 실패 - stockId: {}, {}", candle.stockId(), e.getMessage());
+                }
+            }
+        }
+        // 다른 노드 구독자용 (realtime.relay.mode=publish 일 때만)
+        RealtimeRelayPublisher relay = relayProvider.getIfAvailable();
+        if (relay != null) latest.values().forEach(relay::onCandle);
+        log.debug("💾 1분봉 저장: close={}, correction={}", closes, corrections);
+        return latest.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.get());
+        stats.put("retrying", retry.size());
+        stats.put("inserted", inserted.get());
+        stats.put("updated", updated.get());
+        stats.put("dropped", dropped.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        return stats;
+    }
+
+    /**
+     * (stock_info_id, date) 유니크 키 확인 - 없으면 ON CONFLICT 가 실패하므로 저장 전에 스크립트 적용을 요구
+     */
+    private void requireUniqueKey() {
+        if (keyReady) return;
+        RealtimeSchema.require(jdbc, UNIQUE_INDEX);
+        keyReady = true;
+    }
+
+    private record CandleSetter(List<MinuteCandle> candles) implements BatchPreparedStatementSetter {
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            MinuteCandle c = candles.get(i);
+            ps.setInt(1, c.stockId());
+            ps.setTimestamp(2, Timestamp.valueOf(c.minute()));
+            ps.setInt(3, c.open());
+            ps.setInt(4, c.high());
+            ps.setInt(5, c.low());
+            ps.setInt(6, c.close());
+            ps.setInt(7, (int) Math.min(Integer.MAX_VALUE, c.volume()));
+        }
+
+        @Override
+        public int getBatchSize() {
+            return candles.size();
+        }
+    }
+}
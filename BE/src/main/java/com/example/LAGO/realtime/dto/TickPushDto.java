@@ -1,5 +1,6 @@
 package com.example.LAGO.realtime.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -18,4 +19,7 @@ public class TickPushDto {
     private Integer volume;
     private BigDecimal fluctuationRate;  // 등락률
     private Integer previousDay;         // 전일대비
+    private Long seq;                    // QuoteBook version (이보다 작은 메시지는 오래된 것)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean snapshot;            // 구독 직후 1회 전송되는 현재 시세면 true
 }
@@ -0,0 +1,265 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.StockRegistry;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * /topic/stocks/all 시장 전체 스냅샷 프레임 발행
+ *
+ * 틱마다 TickData 한 건씩 보내던 방식 대신
+ * - frame-interval-ms(기본 200ms)마다 직전 프레임 이후 바뀐 종목만 모은 delta 프레임 1개
+ * - keyframe-interval-ms(기본 5초)마다 시세가 있는 전 종목 key 프레임 1개 (늦게 들어온 구독자 수렴용)
+ * 을 보낸다. 행은 stockInfoId 기준 숫자 배열:
+ *
+ *   {"type":"key","seq":42,"ts":1755131400123,
+ *    "fields":["id","price","rate","change","volume","time"],
+ *    "rows":[[1,71000,125,900,1234567,90001], ...]}
+ *
+ *   rate = 등락률 × 100, change = 전일대비, volume = 누적 거래량, time = HHmmss
+ *   값이 없으면 null, "fields" 는 key 프레임에만 포함
+ *
+ * 최신 값은 구독 여부와 관계없이 StockRegistry 인덱스 배열에 기록 (틱당 primitive 쓰기만)하고,
+ * 구독자가 없으면 프레임을 만들지 않는다.
+ */
+@Slf4j
+@Component
+public class MarketSnapshotPublisher {
+
+    static final List<String> FIELDS = List.of("id", "price", "rate", "change", "volume", "time");
+    private static final int NULL = KisTickRecord.NULL;
+    private static final int STRIPES = 64;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StompSubscriptionRegistry subscriptions;
+    private final StockRegistry stockRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${realtime.snapshot.frame-interval-ms:200}")
+    private long frameIntervalMs = 200;
+
+    @Value("${realtime.snapshot.keyframe-interval-ms:5000}")
+    private long keyframeIntervalMs = 5000;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private volatile State state = new State(0);
+    private ScheduledExecutorService publisher;
+    private long lastKeyframeMs;
+    private long seq;
+
+    private final AtomicLong deltaFrames = new AtomicLong();
+    private final AtomicLong keyFrames = new AtomicLong();
+    private final AtomicLong rowsSent = new AtomicLong();
+
+    /** 컬럼형 최신 값 + 변경 비트맵 (인덱스 = StockRegistry 인덱스) */
+    private static final class State {
+        final int[] price, rate, change, volume, time;
+        final long[] changed;
+        final boolean[] present;
+
+        State(int capacity) {
+            price = new int[capacity];
+            rate = new int[capacity];
+            change = new int[capacity];
+            volume = new int[capacity];
+            time = new int[capacity];
+            changed = new long[(capacity + 63) >>> 6];
+            present = new boolean[capacity];
+        }
+
+        int capacity() {
+            return price.length;
+        }
+    }
+
+    /** 직렬화용 프레임 */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Frame(String type, long seq, long ts, List<String> fields, List<Integer[]> rows) {
+    }
+
+    public MarketSnapshotPublisher(SimpMessagingTemplate messagingTemplate, StompSubscriptionRegistry subscriptions,
+                                   StockRegistry stockRegistry, ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptions = subscriptions;
+        this.stockRegistry = stockRegistry;
+        this.objectMapper = objectMapper;
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    @PostConstruct
+    public void start() {
+        publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "market-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        publisher.scheduleWithFixedDelay(this::publishSafely, frameIntervalMs, frameIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("🚀 MarketSnapshotPublisher started: frame={}ms, keyframe={}ms", frameIntervalMs, keyframeIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publisher != null) publisher.shutdownNow();
+    }
+
+    public void onTick(int index, KisTickRecord tick) {
+        record(index, tick.closePrice(), tick.rateScaled(), tick.previousDay(), tick.cumVolume(), toHhmmss(tick.msOfDay()));
+    }
+
+    /**
+     * 최신 값 기록 (파이프라인 스레드)
+     * @param time HHmmss 정수, 없으면 KisTickRecord.NULL
+     */
+    public void record(int index, int price, int rate, int change, int volume, int time) {
+        if (index < 0) return;
+        ReentrantLock lock = stripeOf(index >>> 6);
+        lock.lock();
+        try {
+            State s = state;
+            if (index >= s.capacity()) {
+                lock.unlock();
+                try {
+                    grow(index + 1);
+                } finally {
+                    lock.lock();
+                }
+                s = state;
+            }
+            s.price[index] = price;
+            s.rate[index] = rate;
+            s.change[index] = change;
+            s.volume[index] = volume;
+            s.time[index] = time;
+            s.present[index] = true;
+            s.changed[index >>> 6] |= 1L << index;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static int toHhmmss(int msOfDay) {
+        if (msOfDay == NULL) return NULL;
+        int sec = msOfDay / 1000;
+        return (sec / 3600) * 10000 + ((sec / 60) % 60) * 100 + sec % 60;
+    }
+
+    private void grow(int minCapacity) {
+        for (ReentrantLock l : stripes) l.lock();
+        try {
+            State old = state;
+            if (old.capacity() >= minCapacity) return;
+            State next = new State(Math.max(minCapacity, Math.max(stockRegistry.size(), old.capacity() * 2)));
+            int n = old.capacity();
+            System.arraycopy(old.price, 0, next.price, 0, n);
+            System.arraycopy(old.rate, 0, next.rate, 0, n);
+            System.arraycopy(old.change, 0, next.change, 0, n);
+            System.arraycopy(old.volume, 0, next.volume, 0, n);
+            System.arraycopy(old.time, 0, next.time, 0, n);
+            System.arraycopy(old.present, 0, next.present, 0, n);
+            System.arraycopy(old.changed, 0, next.changed, 0, old.changed.length);
+            state = next;
+        } finally {
+            for (ReentrantLock l : stripes) l.unlock();
+        }
+    }
+
+    private void publishSafely() {
+        try {
+            publish(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("❌ Market snapshot publish failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * delta 또는 key 프레임 하나 생성/전송 (구독자가 없으면 변경 비트만 비움)
+     * @return 전송한 프레임, 없으면 null
+     */
+    Frame publish(long nowMs) {
+        boolean keyframe = nowMs - lastKeyframeMs >= keyframeIntervalMs;
+        Frame frame = buildFrame(keyframe, nowMs);
+        if (keyframe) lastKeyframeMs = nowMs;
+        if (frame == null || !subscriptions.hasSubscribers(StompSubscriptionRegistry.ALL_STOCKS_TOPIC)) return null;
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(frame);
+        } catch (Exception e) {
+            log.warn("⚠️ Market snapshot serialize failed: {}", e.getMessage());
+            return null;
+        }
+        messagingTemplate.send(StompSubscriptionRegistry.ALL_STOCKS_TOPIC, QuoteFanout.jsonMessage(json));
+        (keyframe ? keyFrames : deltaFrames).incrementAndGet();
+        rowsSent.addAndGet(frame.rows().size());
+        return frame;
+    }
+
+    /**
+     * 변경 비트를 비우면서 프레임 행 수집 (key 프레임이면 시세가 있는 전 종목)
+     */
+    Frame buildFrame(boolean keyframe, long nowMs) {
+        State s = state;
+        List<Integer[]> rows = new ArrayList<>();
+        for (int word = 0; word < s.changed.length; word++) {
+            int base = word << 6;
+            int end = Math.min(base + 64, s.capacity());
+            ReentrantLock lock = stripeOf(word);
+            lock.lock();
+            try {
+                long bits = s.changed[word];
+                if (bits == 0 && !keyframe) continue;
+                s.changed[word] = 0;
+                for (int index = base; index < end; index++) {
+                    boolean changed = (bits & (1L << index)) != 0;
+                    if (!changed && !(keyframe && s.present[index])) continue;
+                    rows.add(new Integer[]{
+                            stockRegistry.stockIdAt(index),
+                            boxed(s.price[index]), boxed(s.rate[index]), boxed(s.change[index]),
+                            boxed(s.volume[index]), boxed(s.time[index])
+                    });
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (rows.isEmpty() && !keyframe) return null;
+        return new Frame(keyframe ? "key" : "delta", ++seq, nowMs, keyframe ? FIELDS : null, rows);
+    }
+
+    // 같은 비트맵 워드(64종목)는 같은 락 → 워드 단위 read-modify-write 안전
+    private ReentrantLock stripeOf(int word) {
+        return stripes[word & (STRIPES - 1)];
+    }
+
+    private static Integer boxed(int v) {
+        return v == NULL ? null : v;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("frameIntervalMs", frameIntervalMs);
+        stats.put("keyframeIntervalMs", keyframeIntervalMs);
+        stats.put("deltaFrames", deltaFrames.get());
+        stats.put("keyFrames", keyFrames.get());
+        stats.put("rowsSent", rowsSent.get());
+        stats.put("subscribers", subscriptions.subscriberCount(StompSubscriptionRegistry.ALL_STOCKS_TOPIC));
+        return stats;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.dto.TickData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 구독 기반 + conflation 시세 fan-out
+ *
+ * 기존에는 틱마다 TickPushDto/TickData 를 만들어 /topic/stocks/{code}, /topic/stocks/all 로 바로 보냈다.
+ * (/topic/stocks/all 은 MarketSnapshotPublisher 의 묶음 프레임으로 대체, 여기서는 값만 넘김)
+ * - 구독자가 없는 종목은 변환/전송 자체를 하지 않음 (StompSubscriptionRegistry)
+ * - 종목별 QuoteSlot 에 마지막 값만 덮어쓰고, flush 스레드가 종목당 max-rate-hz 이하로 전송
+ *   → 느린 클라이언트도 중간 틱 대신 최신 값만 받음
+ * - 목적지별 payload 는 한 번만 JSON 직렬화해 byte[] 메시지로 전송 (브로커가 구독자에게 그대로 복사)
+ * → 브로커 부하 상한 = 구독 중인 종목 수 × 전송률 (원본 틱 속도와 무관)
+ */
+@Slf4j
+@Component
+public class QuoteFanout {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StompSubscriptionRegistry subscriptions;
+    private final StockRegistry stockRegistry;
+    private final ObjectMapper objectMapper;
+    private final MarketSnapshotPublisher marketSnapshot;
+
+    @Value("${realtime.fanout.max-rate-hz:10}")
+    private int maxRateHz = 10;
+
+    @Value("${realtime.fanout.flush-interval-ms:20}")
+    private long flushIntervalMs = 20;
+
+    private volatile QuoteSlot[] slots = new QuoteSlot[0];
+    private ScheduledExecutorService flusher;
+    private long minIntervalNanos;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong skippedUnwatched = new AtomicLong();
+    private final AtomicLong sentSymbol = new AtomicLong();
+    private final AtomicLong serializeErrors = new AtomicLong();
+
+    public QuoteFanout(SimpMessagingTemplate messagingTemplate, StompSubscriptionRegistry subscriptions,
+                       StockRegistry stockRegistry, ObjectMapper objectMapper,
+                       MarketSnapshotPublisher marketSnapshot) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptions = subscriptions;
+        this.stockRegistry = stockRegistry;
+        this.objectMapper = objectMapper;
+        this.marketSnapshot = marketSnapshot;
+    }
+
+    @PostConstruct
+    public void start() {
+        minIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, maxRateHz);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "quote-fanout");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("🚀 QuoteFanout started: maxRate={}Hz/symbol, flushInterval={}ms", maxRateHz, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) flusher.shutdownNow();
+    }
+
+    /**
+     * 파이프라인 fanout 스테이지 진입점
+     * @param index StockRegistry 인덱스 (미등록이면 음수)
+     * @param seq QuoteBook version (구독 스냅샷과의 선후 비교용으로 메시지에 실림)
+     */
+    public void onTick(int index, long seq, KisTickRecord tick) {
+        received.incrementAndGet();
+        marketSnapshot.onTick(index, tick);
+        if (!isWatched(index)) {
+            skippedUnwatched.incrementAndGet();
+            return;
+        }
+        slotFor(index).update(seq, tick);
+    }
+
+    /**
+     * 기존 TickData 경로
+     */
+    public void onTick(int index, long seq, TickData tick) {
+        received.incrementAndGet();
+        marketSnapshot.record(index, QuoteSlot.unboxed(tick.getClosePrice()),
+                QuoteSlot.rateScaled(tick.getFluctuationRate()), QuoteSlot.unboxed(tick.getPreviousDay()),
+                KisTickRecord.NULL, MarketSnapshotPublisher.toHhmmss(QuoteSlot.parseHhmmss(tick.getDate())));
+        if (!isWatched(index)) {
+            skippedUnwatched.incrementAndGet();
+            return;
+        }
+        slotFor(index).update(seq, tick);
+    }
+
+    private boolean isWatched(int index) {
+        return index >= 0 && subscriptions.isSymbolWatched(index);
+    }
+
+    private void flushSafely() {
+        try {
+            flush(System.nanoTime());
+        } catch (Exception e) {
+            log.error("❌ Quote fan-out flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 전송 주기가 된 dirty 종목만 전송
+     * @return 전송한 종목 수
+     */
+    int flush(long nowNanos) {
+        int sent = 0;
+        QuoteSlot[] current = slots;
+        for (int i = 0; i < current.length; i++) {
+            QuoteSlot slot = current[i];
+            if (slot == null || !slot.dirty) continue;
+            if (nowNanos - slot.lastSentNanos < minIntervalNanos) continue;
+            // 스냅샷 전에 내림 → 직렬화 중 들어온 틱은 다음 주기에 전송
+            slot.dirty = false;
+            slot.lastSentNanos = nowNanos;
+
+            if (!subscriptions.isSymbolWatched(i)) continue;
+            send(StompSubscriptionRegistry.STOCK_TOPIC_PREFIX + slot.code, slot.toPushDto());
+            sentSymbol.incrementAndGet();
+            sent++;
+        }
+        return sent;
+    }
+
+    private void send(String destination, Object payload) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (Exception e) {
+            serializeErrors.incrementAndGet();
+            log.warn("⚠️ Quote serialize failed - {}: {}", destination, e.getMessage());
+            return;
+        }
+        messagingTemplate.send(destination, jsonMessage(json));
+    }
+
+    static Message<byte[]> jsonMessage(byte[] json) {
+        return MessageBuilder.withPayload(json)
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build();
+    }
+
+    private QuoteSlot slotFor(int index) {
+        QuoteSlot[] current = slots;
+        if (index < current.length && current[index] != null) return current[index];
+        synchronized (this) {
+            current = slots;
+            if (index >= current.length) {
+                QuoteSlot[] grown = new QuoteSlot[Math.max(index + 1, Math.max(stockRegistry.size(), current.length * 2))];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            if (current[index] == null) current[index] = new QuoteSlot(stockRegistry.codeAt(index));
+            slots = current;
+            return current[index];
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(subscriptions.getStats());
+        stats.put("maxRateHz", maxRateHz);
+        stats.put("received", received.get());
+        stats.put("skippedUnwatched", skippedUnwatched.get());
+        stats.put("sentSymbol", sentSymbol.get());
+        stats.put("marketSnapshot", marketSnapshot.getStats());
+        stats.put("serializeErrors", serializeErrors.get());
+        return stats;
+    }
+}
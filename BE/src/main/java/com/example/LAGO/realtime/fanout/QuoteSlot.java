@@ -0,0 +1,100 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.dto.TickData;
+import com.example.LAGO.realtime.dto.TickPushDto;
+
+import java.math.BigDecimal;
+
+/**
+ * 종목별 최신 시세 한 칸 (conflation 용 - 전송 전까지 마지막 값만 유지)
+ * 쓰기(파이프라인 스레드)와 읽기(flush 스레드)는 슬롯 단위 synchronized
+ */
+final class QuoteSlot {
+
+    private static final int NULL = KisTickRecord.NULL;
+
+    final String code;
+    private int msOfDay = NULL;
+    private int open = NULL, high = NULL, low = NULL, close = NULL;
+    private int volume = NULL, rateScaled = NULL, previousDay = NULL;
+    private long seq;
+
+    /** 마지막 전송 이후 갱신 여부 */
+    volatile boolean dirty;
+    /** flush 스레드 전용 */
+    long lastSentNanos;
+
+    QuoteSlot(String code) {
+        this.code = code;
+    }
+
+    synchronized void update(long seq, KisTickRecord tick) {
+        this.seq = seq;
+        msOfDay = tick.msOfDay();
+        open = tick.openPrice();
+        high = tick.highPrice();
+        low = tick.lowPrice();
+        close = tick.closePrice();
+        volume = tick.volume();
+        rateScaled = tick.rateScaled();
+        previousDay = tick.previousDay();
+        dirty = true;
+    }
+
+    synchronized void update(long seq, TickData tick) {
+        this.seq = seq;
+        msOfDay = parseHhmmss(tick.getDate());
+        open = unboxed(tick.getOpenPrice());
+        high = unboxed(tick.getHighPrice());
+        low = unboxed(tick.getLowPrice());
+        close = unboxed(tick.getClosePrice());
+        volume = unboxed(tick.getVolume());
+        rateScaled = rateScaled(tick.getFluctuationRate());
+        previousDay = unboxed(tick.getPreviousDay());
+        dirty = true;
+    }
+
+    synchronized TickPushDto toPushDto() {
+        return TickPushDto.builder()
+                .code(code)
+                .date(hhmmss(msOfDay))
+                .openPrice(boxed(open))
+                .highPrice(boxed(high))
+                .lowPrice(boxed(low))
+                .closePrice(boxed(close))
+                .volume(boxed(volume))
+                .fluctuationRate(rateScaled == NULL ? null : BigDecimal.valueOf(rateScaled, 2))
+                .previousDay(boxed(previousDay))
+                .seq(seq)
+                .build();
+    }
+
+    static String hhmmss(int msOfDay) {
+        if (msOfDay == NULL) return null;
+        int sec = msOfDay / 1000;
+        return String.format("%02d%02d%02d", sec / 3600, (sec / 60) % 60, sec % 60);
+    }
+
+    static int parseHhmmss(String date) {
+        if (date == null || date.length() != 6) return NULL;
+        try {
+            int v = Integer.parseInt(date);
+            return ((v / 10000) * 3600 + (v / 100 % 100) * 60 + v % 100) * 1000;
+        } catch (NumberFormatException e) {
+            return NULL;
+        }
+    }
+
+    static Integer boxed(int v) {
+        return v == NULL ? null : v;
+    }
+
+    static int rateScaled(BigDecimal rate) {
+        return rate == null ? NULL : rate.movePointRight(2).intValue();
+    }
+
+    static int unboxed(Integer v) {
+        return v == null ? NULL : v;
+    }
+}
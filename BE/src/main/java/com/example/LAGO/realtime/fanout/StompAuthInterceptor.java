@@ -0,0 +1,82 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.service.JwtTokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * STOMP CONNECT 인증 (Authorization: Bearer {accessToken} 네이티브 헤더)
+ *
+ * - 유효한 access 토큰이면 세션 Principal = userId → 이후 SUBSCRIBE 이벤트의 getUser() 로 전달
+ * - 토큰이 있는데 잘못됐거나 만료됐으면 CONNECT 거절 (ERROR 프레임)
+ * - 토큰이 없으면 익명 연결 (공개 시세 토픽만 의미 있음, /user/queue/watchlist 는 WatchlistStream 이 무시)
+ */
+@Slf4j
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER = "Bearer ";
+
+    private final JwtTokenService jwtTokenService;
+
+    private final AtomicLong authenticated = new AtomicLong();
+    private final AtomicLong anonymous = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public StompAuthInterceptor(JwtTokenService jwtTokenService) {
+        this.jwtTokenService = jwtTokenService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) return message;
+
+        String header = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER);
+        if (header == null || header.isBlank()) {
+            anonymous.incrementAndGet();
+            return message;
+        }
+        Long userId = userIdOf(header);
+        if (userId == null) {
+            rejected.incrementAndGet();
+            log.warn("⚠️ STOMP CONNECT rejected - invalid token, session={}", accessor.getSessionId());
+            throw new MessageDeliveryException(message, "invalid access token");
+        }
+        accessor.setUser(new UsernamePasswordAuthenticationToken(String.valueOf(userId), null, List.of()));
+        authenticated.incrementAndGet();
+        return message;
+    }
+
+    private Long userIdOf(String header) {
+        String token = header.startsWith(BEARER) ? header.substring(BEARER.length()).trim() : header.trim();
+        try {
+            if (!jwtTokenService.isTokenValid(token) || !jwtTokenService.isAccessToken(token)) return null;
+            return jwtTokenService.getUserIdFromToken(token);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("authenticated", authenticated.get());
+        stats.put("anonymous", anonymous.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.realtime.StockRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * STOMP 구독 현황 (SimpleBroker 는 구독자 수를 알려주지 않으므로 세션 이벤트로 직접 집계)
+ *
+ * - 목적지별 구독자 수: ConcurrentHashMap (구독/해제 때만 갱신)
+ * - /topic/stocks/{code} 는 틱마다 확인하므로 StockRegistry 인덱스 배열로 따로 보관
+ *   (구독 변경 시 배열을 새로 만들어 교체 → 틱 경로는 volatile 읽기 + 배열 접근만)
+ * - 세션 종료 시 그 세션의 구독을 모두 해제
+ */
+@Slf4j
+@Component
+public class StompSubscriptionRegistry {
+
+    public static final String STOCK_TOPIC_PREFIX = "/topic/stocks/";
+    public static final String ALL_STOCKS_TOPIC = "/topic/stocks/all";
+
+    private final StockRegistry stockRegistry;
+
+    // sessionId → (subscriptionId → destination), 갱신은 synchronized(this)
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+    private final Map<String, Integer> destinationCounts = new ConcurrentHashMap<>();
+    private volatile int[] symbolWatchers = new int[0];
+
+    public StompSubscriptionRegistry(StockRegistry stockRegistry) {
+        this.stockRegistry = stockRegistry;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        subscribe(accessor.getSessionId(), accessor.getSubscriptionId(), accessor.getDestination());
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        unsubscribe(accessor.getSessionId(), accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+
+    synchronized void subscribe(String sessionId, String subscriptionId, String destination) {
+        if (sessionId == null || subscriptionId == null || destination == null) return;
+        String previous = sessions.computeIfAbsent(sessionId, k -> new HashMap<>()).put(subscriptionId, destination);
+        if (previous != null) adjust(previous, -1);
+        adjust(destination, +1);
+    }
+
+    synchronized void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> subs = sessions.get(sessionId);
+        if (subs == null) return;
+        String destination = subs.remove(subscriptionId);
+        if (destination != null) adjust(destination, -1);
+        if (subs.isEmpty()) sessions.remove(sessionId);
+    }
+
+    synchronized void disconnect(String sessionId) {
+        Map<String, String> subs = sessions.remove(sessionId);
+        if (subs == null) return;
+        subs.values().forEach(destination -> adjust(destination, -1));
+    }
+
+    private void adjust(String destination, int delta) {
+        destinationCounts.merge(destination, delta, (a, b) -> a + b > 0 ? a + b : null);
+
+        if (destination.startsWith(STOCK_TOPIC_PREFIX) && !destination.equals(ALL_STOCKS_TOPIC)) {
+            int index = stockRegistry.indexOf(destination.substring(STOCK_TOPIC_PREFIX.length()));
+            if (index < 0) return;
+            int[] next = Arrays.copyOf(symbolWatchers, Math.max(symbolWatchers.length, index + 1));
+            next[index] = Math.max(0, next[index] + delta);
+            symbolWatchers = next;
+        }
+    }
+
+    /**
+     * /topic/stocks/{code} 구독자가 있는지 (틱 경로)
+     */
+    public boolean isSymbolWatched(int stockIndex) {
+        int[] watchers = symbolWatchers;
+        return stockIndex >= 0 && stockIndex < watchers.length && watchers[stockIndex] > 0;
+    }
+
+    public boolean hasSubscribers(String destination) {
+        return destinationCounts.containsKey(destination);
+    }
+
+    public int subscriberCount(String destination) {
+        return destinationCounts.getOrDefault(destination, 0);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int watchedSymbols = 0;
+        for (int w : symbolWatchers) if (w > 0) watchedSymbols++;
+        synchronized (this) {
+            stats.put("sessions", sessions.size());
+        }
+        stats.put("destinations", destinationCounts.size());
+        stats.put("watchedSymbols", watchedSymbols);
+        stats.put("allStocksSubscribers", subscriberCount(ALL_STOCKS_TOPIC));
+        return stats;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.dto.StockMinuteDto;
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.MinuteCandleWebsocketController;
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.candle.MinuteCandle;
+import com.example.LAGO.realtime.candle.MinuteCandleEngine;
+import com.example.LAGO.realtime.dto.TickPushDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 구독 직후 현재 값 1회 전송 (snapshot-on-subscribe)
+ *
+ * 기존에는 /topic/stocks/{code}, /topic/realtime-1m/{stockInfoId} 를 구독해도 다음 틱/분봉까지 아무것도 오지 않아
+ * 화면마다 REST 조회를 한 번 더 했다. clientInboundChannel 인터셉터로 SUBSCRIBE 를 브로커가 처리한 직후
+ * (= 이후 브로드캐스트는 이 구독에도 전달됨) 그 구독에만 현재 값을 보낸다.
+ * - 시세: QuoteBook (파이프라인이 갱신하는 메모리 최신값), seq = QuoteBook version
+ * - 분봉: MinuteCandleEngine 의 진행 중 분봉, seq = 엔진 분봉 순번
+ *   (마감 이벤트는 마감 시점에 새 순번을 받으므로, 새 분 스냅샷 이후에 나간 직전 분 마감은 항상 스냅샷 seq 보다 큼)
+ * - 이후 델타 메시지에도 같은 seq 가 실리므로, 클라이언트는 스냅샷 seq 보다 작은 메시지를 버리면 됨
+ *   (스냅샷과 브로드캐스트가 서로 다른 스레드에서 나가 순서가 뒤바뀔 수 있음)
+ * - 값이 아직 없으면 보내지 않음 (/topic/stocks/all 은 MarketSnapshotPublisher 키프레임이 대신함)
+ */
+@Slf4j
+@Component
+public class SubscribeSnapshotInterceptor implements ExecutorChannelInterceptor {
+
+    private final StockRegistry stockRegistry;
+    private final QuoteBook quoteBook;
+    private final ObjectProvider<MinuteCandleEngine> candleEngine;
+    private final ObjectMapper objectMapper;
+    private final MessageChannel clientOutboundChannel;
+
+    private final AtomicLong quoteSnapshots = new AtomicLong();
+    private final AtomicLong candleSnapshots = new AtomicLong();
+    private final AtomicLong empty = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    // clientOutboundChannel 은 이 인터셉터를 등록하는 WebSocketConfig 쪽에서 만들어지므로 지연 주입
+    public SubscribeSnapshotInterceptor(StockRegistry stockRegistry, QuoteBook quoteBook,
+                                        ObjectProvider<MinuteCandleEngine> candleEngine, ObjectMapper objectMapper,
+                                        @Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+        this.stockRegistry = stockRegistry;
+        this.quoteBook = quoteBook;
+        this.candleEngine = candleEngine;
+        this.objectMapper = objectMapper;
+        this.clientOutboundChannel = clientOutboundChannel;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        // SUBSCRIBE 는 여러 핸들러가 받으므로 브로커가 구독을 등록한 뒤 한 번만
+        if (ex != null || !(handler instanceof AbstractBrokerMessageHandler)) return;
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.SUBSCRIBE) return;
+
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+        if (destination == null || sessionId == null || subscriptionId == null) return;
+
+        try {
+            Object snapshot = snapshotFor(destination);
+            if (snapshot == null) {
+                empty.incrementAndGet();
+                return;
+            }
+            sendToSubscription(sessionId, subscriptionId, destination, objectMapper.writeValueAsBytes(snapshot));
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            log.warn("⚠️ Subscribe snapshot failed - {}: {}", destination, e.getMessage());
+        }
+    }
+
+    /**
+     * 목적지별 현재 값
+     * @return 보낼 값이 없으면 null
+     */
+    Object snapshotFor(String destination) {
+        if (destination.equals(StompSubscriptionRegistry.ALL_STOCKS_TOPIC)) return null;
+        if (destination.startsWith(StompSubscriptionRegistry.STOCK_TOPIC_PREFIX)) {
+            String code = destination.substring(StompSubscriptionRegistry.STOCK_TOPIC_PREFIX.length());
+            TickPushDto dto = quoteSnapshot(stockRegistry.indexOf(code), code);
+            if (dto != null) quoteSnapshots.incrementAndGet();
+            return dto;
+        }
+        if (destination.startsWith(MinuteCandleWebsocketController.TOPIC_PREFIX)) {
+            StockMinuteDto dto = candleSnapshot(destination.substring(MinuteCandleWebsocketController.TOPIC_PREFIX.length()));
+            if (dto != null) candleSnapshots.incrementAndGet();
+            return dto;
+        }
+        return null;
+    }
+
+    private TickPushDto quoteSnapshot(int index, String code) {
+        if (index < 0) return null;
+        int[] v = new int[QuoteBook.FIELD_COUNT];
+        long version = quoteBook.read(index, v);
+        if (version == 0) return null;
+        int rate = v[QuoteBook.RATE];
+        return TickPushDto.builder()
+                .code(code)
+                .date(QuoteSlot.hhmmss(v[QuoteBook.TIME]))
+                .openPrice(QuoteSlot.boxed(v[QuoteBook.OPEN]))
+                .highPrice(QuoteSlot.boxed(v[QuoteBook.HIGH]))
+                .lowPrice(QuoteSlot.boxed(v[QuoteBook.LOW]))
+                .closePrice(QuoteSlot.boxed(v[QuoteBook.PRICE]))
+                // QuoteBook 은 누적 거래량만 보관 → 틱 단위 volume 은 다음 델타부터
+                .fluctuationRate(rate == KisTickRecord.NULL ? null : BigDecimal.valueOf(rate, 2))
+                .previousDay(QuoteSlot.boxed(v[QuoteBook.CHANGE]))
+                .seq(version)
+                .snapshot(true)
+                .build();
+    }
+
+    private StockMinuteDto candleSnapshot(String stockInfoId) {
+        MinuteCandleEngine engine = candleEngine.getIfAvailable();
+        if (engine == null) return null;
+        int stockId;
+        try {
+            stockId = Integer.parseInt(stockInfoId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        MinuteCandle candle = engine.currentCandle(stockRegistry.indexOfStockId(stockId));
+        if (candle == null) return null;
+        StockMinuteDto dto = candle.toDto();
+        dto.setSnapshot(true);
+        return dto;
+    }
+
+    private void sendToSubscription(String sessionId, String subscriptionId, String destination, byte[] json) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        clientOutboundChannel.send(MessageBuilder.createMessage(json, accessor.getMessageHeaders()));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("quoteSnapshots", quoteSnapshots.get());
+        stats.put("candleSnapshots", candleSnapshots.get());
+        stats.put("empty", empty.get());
+        stats.put("errors", errors.get());
+        return stats;
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.service.InterestChangedEvent;
+import com.example.LAGO.service.InterestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 유저별 관심 종목 묶음 스트림 (/user/queue/watchlist)
+ *
+ * 앱이 관심 종목마다 /topic/stocks/{code} 를 따로 구독하던 것을 구독 하나로 대체한다.
+ * - CONNECT 때 인증된 Principal(StompAuthInterceptor, 이름 = userId)의 관심 종목(InterestService)을 불러와 세션에 연결
+ *   (SUBSCRIBE 헤더 userId 는 신뢰하지 않음 - 보냈는데 Principal 과 다르거나 Principal 이 없으면 구독 무시)
+ *   → 재접속 시 클라이언트는 이 구독 하나만 다시 하면 서버가 관심 목록 전체를 복원
+ * - 종목 → 세션 역색인 (StockRegistry 인덱스 배열, 행은 copy-on-write)
+ *   → 틱은 그 종목을 보는 세션의 변경 비트만 세움
+ * - flush-interval-ms 마다 세션별로 바뀐 종목만 QuoteBook 최신값으로 묶어 delta 프레임 1개 전송 (conflation)
+ * - 구독 직후와 관심 종목 추가/삭제(InterestChangedEvent, 커밋 후) 뒤에는 관심 목록 전체 key 프레임
+ *
+ * 프레임 형식은 /topic/stocks/all 과 동일 (MarketSnapshotPublisher.Frame, seq 는 세션별)
+ * 역색인/세션 목록 변경은 모두 watchlist 스레드에서만 수행
+ */
+@Slf4j
+@Component
+public class WatchlistStream {
+
+    public static final String DESTINATION = "/user/queue/watchlist";
+    static final String USER_QUEUE = "/queue/watchlist";
+    static final String USER_ID_HEADER = "userId";
+
+    private static final WatchSession[] NO_SESSIONS = new WatchSession[0];
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final InterestService interestService;
+    private final StockRegistry stockRegistry;
+    private final QuoteBook quoteBook;
+    private final ObjectMapper objectMapper;
+
+    @Value("${realtime.watchlist.flush-interval-ms:200}")
+    private long flushIntervalMs = 200;
+
+    // 종목 인덱스 → 보고 있는 세션들 (watchlist 스레드가 교체, 틱 스레드는 읽기만)
+    private volatile WatchSession[][] watchers = new WatchSession[0][];
+    private final Map<String, WatchSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<WatchSession>> sessionsByUser = new HashMap<>();
+    private ScheduledExecutorService executor;
+
+    private final AtomicLong keyFrames = new AtomicLong();
+    private final AtomicLong deltaFrames = new AtomicLong();
+    private final AtomicLong rowsSent = new AtomicLong();
+    private final AtomicLong loadErrors = new AtomicLong();
+    private final AtomicLong rejectedSubscribes = new AtomicLong();
+
+    /** 구독 하나 (세션당 최대 1개) */
+    static final class WatchSession {
+        final String sessionId;
+        final String subscriptionId;
+        final long userId;
+        final Set<Integer> indices = new HashSet<>();   // watchlist 스레드 전용
+        long seq;                                        // watchlist 스레드 전용
+
+        // 틱 스레드 ↔ watchlist 스레드, synchronized(this)
+        private final BitSet dirty = new BitSet();
+        private boolean keyPending = true;
+
+        WatchSession(String sessionId, String subscriptionId, long userId) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+            this.userId = userId;
+        }
+
+        synchronized void markDirty(int index) {
+            dirty.set(index);
+        }
+
+        synchronized void requestKey() {
+            keyPending = true;
+        }
+
+        /**
+         * 보낼 것을 꺼내고 비움
+         * @return key 프레임이면 null, 아니면 바뀐 종목 비트 (없으면 빈 BitSet)
+         */
+        synchronized BitSet drain() {
+            if (keyPending) {
+                keyPending = false;
+                dirty.clear();
+                return null;
+            }
+            BitSet out = (BitSet) dirty.clone();
+            dirty.clear();
+            return out;
+        }
+    }
+
+    public WatchlistStream(SimpMessagingTemplate messagingTemplate, InterestService interestService,
+                           StockRegistry stockRegistry, QuoteBook quoteBook, ObjectMapper objectMapper) {
+        this.messagingTemplate = messagingTemplate;
+        this.interestService = interestService;
+        this.stockRegistry = stockRegistry;
+        this.quoteBook = quoteBook;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "watchlist");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("🚀 WatchlistStream started: flushInterval={}ms", flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    // ===================== STOMP 세션 이벤트 (I/O 스레드 → watchlist 스레드로 넘김) =====================
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (!DESTINATION.equals(accessor.getDestination())) return;
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        if (sessionId == null || subscriptionId == null) return;
+        Long userId = userIdOf(accessor.getFirstNativeHeader(USER_ID_HEADER), event.getUser());
+        if (userId == null) {
+            rejectedSubscribes.incrementAndGet();
+            log.warn("⚠️ Watchlist subscribe ignored - unauthenticated or userId header mismatch, session={}", sessionId);
+            return;
+        }
+        executor.execute(() -> attach(sessionId, subscriptionId, userId));
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        if (sessionId == null || subscriptionId == null) return;
+        // attach 가 아직 큐에 있을 수 있으므로 확인도 watchlist 스레드에서
+        executor.execute(() -> unsubscribe(sessionId, subscriptionId));
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String sessionId = event.getSessionId();
+        if (sessionId == null) return;
+        executor.execute(() -> detach(sessionId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInterestChanged(InterestChangedEvent event) {
+        executor.execute(() -> interestChanged(event.userId(), event.code(), event.added()));
+    }
+
+    /**
+     * 인증된 Principal 의 userId (헤더는 보냈다면 Principal 과 같아야 함)
+     * @return Principal 이 없거나 헤더와 다르면 null
+     */
+    static Long userIdOf(String header, Principal principal) {
+        Long authenticated = principal == null ? null : parseUserId(principal.getName());
+        if (authenticated == null) return null;
+        if (header != null && !authenticated.equals(parseUserId(header))) return null;
+        return authenticated;
+    }
+
+    private static Long parseUserId(String raw) {
+        if (raw == null) return null;
+        try {
+            return Long.parseLong(raw.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ===================== 틱 경로 =====================
+
+    /**
+     * QuoteBook 갱신 직후 호출 (RealTimeDataBroadcaster)
+     */
+    public void onTick(int index) {
+        WatchSession[][] current = watchers;
+        if (index < 0 || index >= current.length) return;
+        WatchSession[] row = current[index];
+        if (row == null) return;
+        for (WatchSession session : row) session.markDirty(index);
+    }
+
+    // ===================== watchlist 스레드 =====================
+
+    /**
+     * 세션에 관심 목록 연결 (같은 세션의 이전 구독은 대체)
+     */
+    void attach(String sessionId, String subscriptionId, long userId) {
+        List<Integer> stockInfoIds;
+        try {
+            stockInfoIds = interestService.stockInfoIds(userId);
+        } catch (Exception e) {
+            loadErrors.incrementAndGet();
+            log.warn("⚠️ Watchlist load failed - user={}: {}", userId, e.getMessage());
+            return;
+        }
+        detach(sessionId);
+        WatchSession session = new WatchSession(sessionId, subscriptionId, userId);
+        for (Integer stockInfoId : stockInfoIds) {
+            if (stockInfoId == null) continue;
+            int index = stockRegistry.indexOfStockId(stockInfoId);
+            if (index >= 0 && session.indices.add(index)) addWatcher(index, session);
+        }
+        sessions.put(sessionId, session);
+        sessionsByUser.computeIfAbsent(userId, k -> new HashSet<>()).add(session);
+        log.debug("Watchlist attached - session={}, user={}, symbols={}", sessionId, userId, session.indices.size());
+    }
+
+    void unsubscribe(String sessionId, String subscriptionId) {
+        WatchSession session = sessions.get(sessionId);
+        if (session != null && session.subscriptionId.equals(subscriptionId)) detach(sessionId);
+    }
+
+    void detach(String sessionId) {
+        WatchSession session = sessions.remove(sessionId);
+        if (session == null) return;
+        for (int index : session.indices) removeWatcher(index, session);
+        Set<WatchSession> userSessions = sessionsByUser.get(session.userId);
+        if (userSessions != null) {
+            userSessions.remove(session);
+            if (userSessions.isEmpty()) sessionsByUser.remove(session.userId);
+        }
+    }
+
+    /**
+     * 관심 종목 추가/삭제를 그 유저의 열린 세션 전체에 반영 (다음 flush 에 key 프레임)
+     */
+    void interestChanged(long userId, String code, boolean added) {
+        Set<WatchSession> userSessions = sessionsByUser.get(userId);
+        if (userSessions == null) return;
+        int index = code == null ? StockRegistry.NOT_FOUND : stockRegistry.indexOf(code);
+        if (index < 0) return;
+        for (WatchSession session : userSessions) {
+            boolean changed = added ? session.indices.add(index) : session.indices.remove(index);
+            if (!changed) continue;
+            if (added) addWatcher(index, session);
+            else removeWatcher(index, session);
+            session.requestKey();
+        }
+    }
+
+    private void addWatcher(int index, WatchSession session) {
+        WatchSession[][] current = watchers;
+        if (index >= current.length) {
+            current = Arrays.copyOf(current, Math.max(index + 1, Math.max(stockRegistry.size(), current.length * 2)));
+        }
+        WatchSession[] row = current[index] == null ? NO_SESSIONS : current[index];
+        WatchSession[] next = Arrays.copyOf(row, row.length + 1);
+        next[row.length] = session;
+        current[index] = next;
+        watchers = current;
+    }
+
+    private void removeWatcher(int index, WatchSession session) {
+        WatchSession[][] current = watchers;
+        if (index >= current.length || current[index] == null) return;
+        WatchSession[] row = current[index];
+        int n = 0;
+        WatchSession[] next = new WatchSession[row.length];
+        for (WatchSession s : row) if (s != session) next[n++] = s;
+        current[index] = n == 0 ? null : Arrays.copyOf(next, n);
+        watchers = current;
+    }
+
+    private void flushSafely() {
+        try {
+            flush(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.error("❌ Watchlist flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 세션별 key/delta 프레임 전송
+     * @return 전송한 프레임 수
+     */
+    int flush(long nowMs) {
+        int sent = 0;
+        int[] values = new int[QuoteBook.FIELD_COUNT];
+        for (WatchSession session : sessions.values()) {
+            BitSet dirty = session.drain();
+            boolean keyframe = dirty == null;
+            if (!keyframe && dirty.isEmpty()) continue;
+
+            List<Integer[]> rows = new ArrayList<>();
+            if (keyframe) {
+                for (int index : session.indices) rows.add(row(index, values, true));
+            } else {
+                for (int index = dirty.nextSetBit(0); index >= 0; index = dirty.nextSetBit(index + 1)) {
+                    // 직전에 관심 해제된 종목의 남은 비트는 무시
+                    if (!session.indices.contains(index)) continue;
+                    Integer[] row = row(index, values, false);
+                    if (row != null) rows.add(row);
+                }
+                if (rows.isEmpty()) continue;
+            }
+            MarketSnapshotPublisher.Frame frame = new MarketSnapshotPublisher.Frame(keyframe ? "key" : "delta",
+                    ++session.seq, nowMs, keyframe ? MarketSnapshotPublisher.FIELDS : null, rows);
+            if (send(session.sessionId, frame)) {
+                (keyframe ? keyFrames : deltaFrames).incrementAndGet();
+                rowsSent.addAndGet(rows.size());
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * [stockInfoId, price, rate, change, volume, time(HHmmss)]
+     * key 프레임은 시세가 아직 없어도 목록 확인용으로 id 만 채운 행 포함
+     */
+    private Integer[] row(int index, int[] values, boolean includeEmpty) {
+        if (quoteBook.read(index, values) == 0) {
+            return includeEmpty ? new Integer[]{stockRegistry.stockIdAt(index), null, null, null, null, null} : null;
+        }
+        return new Integer[]{
+                stockRegistry.stockIdAt(index),
+                QuoteSlot.boxed(values[QuoteBook.PRICE]),
+                QuoteSlot.boxed(values[QuoteBook.RATE]),
+                QuoteSlot.boxed(values[QuoteBook.CHANGE]),
+                QuoteSlot.boxed(values[QuoteBook.VOLUME]),
+                QuoteSlot.boxed(MarketSnapshotPublisher.toHhmmss(values[QuoteBook.TIME]))
+        };
+    }
+
+    private boolean send(String sessionId, MarketSnapshotPublisher.Frame frame) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(frame);
+        } catch (Exception e) {
+            log.warn("⚠️ Watchlist serialize failed - session={}: {}", sessionId, e.getMessage());
+            return false;
+        }
+        // 유저 이름 자리에 세션 ID + sessionId 헤더 → 해당 세션의 /user/queue/watchlist 구독에만 전달
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send("/user/" + sessionId + USER_QUEUE,
+                MessageBuilder.createMessage(json, accessor.getMessageHeaders()));
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int watchedSymbols = 0;
+        for (WatchSession[] row : watchers) if (row != null) watchedSymbols++;
+        stats.put("sessions", sessions.size());
+        stats.put("watchedSymbols", watchedSymbols);
+        stats.put("keyFrames", keyFrames.get());
+        stats.put("deltaFrames", deltaFrames.get());
+        stats.put("rowsSent", rowsSent.get());
+        stats.put("loadErrors", loadErrors.get());
+        stats.put("rejectedSubscribes", rejectedSubscribes.get());
+        return stats;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.LAGO.realtime.ingest;
+
+/**
+ * DB 지연 기반 적재 배치 크기 조절 (AIMD)
+ *
+ * - 배치 지연이 목표의 절반 미만: +max(1, size/4) 증가
+ * - 목표 초과: 절반으로 감소
+ * - 실패: 최소 크기로 (DB가 회복될 때까지 작은 배치로 재시도)
+ * 스레드 안전 (워커들이 동시에 보고)
+ */
+public final class AdaptiveBatchSizer {
+
+    private final int min;
+    private final int max;
+    private final long targetMillis;
+    private int size;
+
+    public AdaptiveBatchSizer(int min, int max, int initial, long targetMillis) {
+        if (min < 1 || max < min) throw new IllegalArgumentException("invalid batch bounds: " + min + ".." + max);
+        this.min = min;
+        this.max = max;
+        this.targetMillis = targetMillis;
+        this.size = Math.clamp(initial, min, max);
+    }
+
+    public synchronized int current() {
+        return size;
+    }
+
+    /**
+     * 성공한 배치의 지연 보고
+     * @param batchSize 실제 배치 크기 (현재 크기보다 작은 배치는 확대 근거로 쓰지 않음)
+     */
+    public synchronized void onSuccess(int batchSize, long elapsedMillis) {
+        if (elapsedMillis > targetMillis) {
+            size = Math.max(min, size / 2);
+        } else if (elapsedMillis * 2 < targetMillis && batchSize >= size) {
+            size = Math.min(max, size + Math.max(1, size / 4));
+        }
+    }
+
+    public synchronized void onFailure() {
+        size = min;
+    }
+}
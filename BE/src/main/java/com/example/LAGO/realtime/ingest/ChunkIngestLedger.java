@@ -0,0 +1,116 @@
+package com.example.LAGO.realtime.ingest;
+
+import com.example.LAGO.realtime.RealtimeSchema;
+import com.example.LAGO.realtime.TickChunkStore.ChunkRef;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 청크 적재 원장 - 청크 ID 단위 멱등 처리
+ *
+ * "TICKS" 병합 규칙이 volume = 기존 + EXCLUDED.volume 이라 같은 청크가 두 번 들어가면 거래량이 이중 집계된다.
+ * (DB 커밋 후 Redis 대기열 제거 전에 끊기거나, 리스가 만료돼 다른 인스턴스가 다시 잡는 경우)
+ * 병합과 같은 트랜잭션에서 원장에 chunk_id를 먼저 기록하고, 새로 기록된 청크만 병합한다.
+ * → 트랜잭션이 롤백되면 원장도 함께 롤백, 커밋됐으면 재시도 시 건너뜀
+ *
+ * 키는 chunk_id: seq는 Redis INCR 카운터라 카운터가 유실되면(FLUSHALL, AOF 없는 failover) 재사용되고,
+ * seq로 충돌을 판단하면 새 청크를 "이미 적재됨"으로 건너뛰는 조용한 유실이 생긴다. seq는 참고용으로만 남긴다.
+ * 원장은 청크 TTL보다 충분히 긴 realtime.ingest.ledger-retention-hours 동안만 보관 (그 뒤엔 같은 청크가 다시 올 수 없음)
+ * 테이블/인덱스와 chunk_seq → chunk_id 키 전환은 realtime_schema.sql 에서 하고, 여기서는 존재만 확인한다.
+ */
+@Slf4j
+@Component
+public class ChunkIngestLedger {
+
+    private static final String CLAIM_SQL = """
+        INSERT INTO "TICKS_INGEST_LEDGER" (chunk_seq, chunk_id)
+        SELECT * FROM unnest(?::bigint[], ?::text[])
+        ON CONFLICT (chunk_id) DO NOTHING
+        RETURNING chunk_id
+        """;
+
+    private static final String PRUNE_SQL = """
+        DELETE FROM "TICKS_INGEST_LEDGER" WHERE ingested_at < now() - make_interval(hours => ?)
+        """;
+
+    private final JdbcTemplate jdbc;
+    private volatile boolean ledgerReady;
+
+    // 청크 TTL(1일) + 재시도 여유보다 길어야 함
+    @Value("${realtime.ingest.ledger-retention-hours:72}")
+    private int retentionHours = 72;
+
+    public ChunkIngestLedger(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * 원장에 청크 ID 기록 (호출측 트랜잭션 안에서 호출해야 함)
+     * @return 이번에 새로 기록된 chunk_id - 여기에 없는 청크는 이미 적재됨
+     */
+    public Set<String> claim(List<ChunkRef> chunks) {
+        if (chunks.isEmpty()) return Set.of();
+        requireLedgerTable();
+
+        Long[] seqs = new Long[chunks.size()];
+        String[] ids = new String[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            seqs[i] = chunks.get(i).seq();
+            ids[i] = chunks.get(i).chunkId();
+        }
+
+        return jdbc.execute((ConnectionCallback<Set<String>>) con -> {
+            Array seqArray = con.createArrayOf("bigint", seqs);
+            Array idArray = con.createArrayOf("text", ids);
+            try (PreparedStatement ps = con.prepareStatement(CLAIM_SQL)) {
+                ps.setArray(1, seqArray);
+                ps.setArray(2, idArray);
+                Set<String> claimed = new HashSet<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) claimed.add(rs.getString(1));
+                }
+                return claimed;
+            } finally {
+                seqArray.free();
+                idArray.free();
+            }
+        });
+    }
+
+    /**
+     * 보관 기간이 지난 원장 행 삭제
+     */
+    @Scheduled(fixedDelay = 3_600_000L, initialDelay = 600_000L)
+    public void prune() {
+        try {
+            requireLedgerTable();
+            int deleted = jdbc.update(PRUNE_SQL, retentionHours);
+            if (deleted > 0) {
+                log.info("🧹 Pruned {} ingest ledger rows older than {}h", deleted, retentionHours);
+            }
+        } catch (Exception e) {
+            log.warn("Ingest ledger prune failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 원장 테이블 확인 (원장을 함께 읽는 쪽에서 첫 조회 전에 호출 - ChartCandleCache 시딩)
+     * @throws IllegalStateException realtime_schema.sql 미적용
+     */
+    public void requireLedgerTable() {
+        if (ledgerReady) return;
+        RealtimeSchema.require(jdbc, "\"TICKS_INGEST_LEDGER\"");
+        ledgerReady = true;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.LAGO.realtime.ingest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 적재 리스 (ticks:ingest:lock:{key}) - ChunkAutoIngestor 는 종목 단위 키(stock:{stockId})로 잡음
+ *
+ * 고정 5분 TTL 락은 인스턴스가 죽으면 5분간 청크가 묶이고, 반대로 적재가 TTL보다 길어지면 중복 처리된다.
+ * 짧은 TTL로 잡고 보유 중인 리스를 TTL/3 주기로 연장하며,
+ * 연장/해제는 소유 토큰이 일치할 때만 수행 (다른 인스턴스가 다시 잡은 리스는 건드리지 않음)
+ * 연장에 실패한 리스는 lost로 표시 → 적재 워커가 커밋 전에 확인하고 롤백
+ */
+@Slf4j
+@Component
+public class ChunkLeaseManager {
+
+    public static final String LEASE_PREFIX = "ticks:ingest:lock:";
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+
+    @Value("${realtime.ingest.lease-ttl-ms:15000}")
+    private long leaseTtlMs;
+
+    // 토큰 = 인스턴스 ID + 스레드 + 획득 시각
+    private final String owner = UUID.randomUUID().toString();
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    private ScheduledExecutorService renewer;
+
+    public ChunkLeaseManager(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    /** 보유 중인 리스 */
+    public static final class Lease {
+        private final String key;
+        private final String token;
+        private volatile boolean lost;
+        private volatile long renewedAt = System.currentTimeMillis();
+
+        private Lease(String key, String token) {
+            this.key = key;
+            this.token = token;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /** 연장 실패(만료/탈취) 여부 - true면 이 청크 결과를 커밋하면 안 됨 */
+        public boolean isLost() {
+            return lost;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        long period = Math.max(1_000L, leaseTtlMs / 3);
+        renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ingest-lease-renewer");
+            t.setDaemon(true);
+            return t;
+        });
+        renewer.scheduleWithFixedDelay(this::renewAll, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renewer != null) renewer.shutdownNow();
+        held.values().forEach(this::release);
+    }
+
+    /**
+     * 리스 획득 시도
+     * @return 다른 워커/인스턴스가 보유 중이면 null
+     */
+    public Lease tryAcquire(String key) {
+        String token = owner + ":" + Thread.currentThread().threadId() + ":" + System.nanoTime();
+        Boolean ok = redis.opsForValue().setIfAbsent(LEASE_PREFIX + key, token, Duration.ofMillis(leaseTtlMs));
+        if (!Boolean.TRUE.equals(ok)) return null;
+        Lease lease = new Lease(key, token);
+        held.put(key, lease);
+        return lease;
+    }
+
+    /**
+     * 리스 해제 (토큰 일치 시에만 삭제)
+     */
+    public void release(Lease lease) {
+        held.remove(lease.key, lease);
+        try {
+            redis.execute(RELEASE_SCRIPT, List.of(LEASE_PREFIX + lease.key), lease.token);
+        } catch (Exception e) {
+            // TTL로 자연 만료됨
+            log.warn("Lease release failed for {}: {}", lease.key, e.getMessage());
+        }
+    }
+
+    public int heldCount() {
+        return held.size();
+    }
+
+    private void renewAll() {
+        String ttl = String.valueOf(leaseTtlMs);
+        for (Lease lease : held.values()) {
+            try {
+                Long renewed = redis.execute(RENEW_SCRIPT, List.of(LEASE_PREFIX + lease.key), lease.token, ttl);
+                if (renewed == null || renewed == 0L) {
+                    markLost(lease);
+                } else {
+                    lease.renewedAt = System.currentTimeMillis();
+                }
+            } catch (Exception e) {
+                // Redis 일시 장애: TTL 안에 연장하지 못했으면 이미 만료된 것으로 간주
+                if (System.currentTimeMillis() - lease.renewedAt >= leaseTtlMs) {
+                    markLost(lease);
+                } else {
+                    log.debug("Lease renew failed for {}: {}", lease.key, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void markLost(Lease lease) {
+        lease.lost = true;
+        held.remove(lease.key, lease);
+        log.warn("⚠️ Ingest lease lost for {}", lease.key);
+    }
+}
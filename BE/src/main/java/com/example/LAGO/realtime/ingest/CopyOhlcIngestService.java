@@ -0,0 +1,161 @@
+package com.example.LAGO.realtime.ingest;
+
+import com.example.LAGO.realtime.RealtimeSchema;
+import com.example.LAGO.realtime.StockLastPriceStore;
+import com.example.LAGO.service.TickChunkReaderService;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 청크 → "TICKS" 1초 OHLCV 적재 (COPY 기반)
+ *
+ * 기존 TimescaleOhlcIngestService는 초 버킷마다 UPSERT 한 줄을 batchUpdate로 보내므로
+ * 장 시작 직후 청크가 몰리면 커넥션을 오래 점유한다. 여기서는
+ *   1) 여러 청크의 틱을 LongOhlcMap 하나에 누적 (청크 순서대로 → close는 마지막 청크 기준)
+ *   2) 결과를 binary COPY로 UNLOGGED 스테이징 테이블에 흘려 넣고
+ *   3) INSERT … SELECT … ON CONFLICT 한 문장으로 하이퍼테이블에 병합
+ *   4) 같은 트랜잭션에서 종목별 마지막 종가를 stock_last_price 에 upsert
+ * → 배치당 왕복 3~4회, 충돌 규칙(GREATEST/LEAST/누적 volume)은 기존 UPSERT와 동일
+ *
+ * 스테이징 테이블은 여러 워커가 함께 쓰므로 batch_id로 구분하고, 같은 트랜잭션에서 지운다.
+ * 테이블은 realtime_schema.sql 로 만들고, 여기서는 첫 병합 전에 존재만 확인한다.
+ */
+@Slf4j
+@Service
+public class CopyOhlcIngestService {
+
+    private static final String COPY_SQL =
+            "COPY \"TICKS_STAGE\" (batch_id, stock_info_id, ts, open_price, high_price, low_price, close_price, volume) "
+                    + "FROM STDIN (FORMAT binary)";
+
+    // 충돌 규칙은 TimescaleOhlcIngestService.UPSERT_SQL과 동일하게 유지
+    private static final String MERGE_SQL = """
+        INSERT INTO "TICKS"
+            (stock_info_id, ts, open_price, high_price, low_price, close_price, volume)
+        SELECT stock_info_id, ts, open_price, high_price, low_price, close_price, volume
+        FROM "TICKS_STAGE" WHERE batch_id = ?
+        ON CONFLICT (stock_info_id, ts) DO UPDATE SET
+            open_price  = COALESCE("TICKS".open_price, EXCLUDED.open_price),
+            high_price  = GREATEST(COALESCE("TICKS".high_price, EXCLUDED.high_price), EXCLUDED.high_price),
+            low_price   = LEAST(COALESCE("TICKS".low_price, EXCLUDED.low_price), EXCLUDED.low_price),
+            close_price = EXCLUDED.close_price,
+            volume      = COALESCE("TICKS".volume, 0) + COALESCE(EXCLUDED.volume, 0)
+        """;
+
+    private static final String CLEAR_STAGE_SQL = "DELETE FROM \"TICKS_STAGE\" WHERE batch_id = ?";
+
+    private final TickChunkReaderService reader;
+    private final JdbcTemplate jdbc;
+    private final StockLastPriceStore lastPriceStore;
+
+    // 워커 스레드별 집계 맵 재사용
+    private static final ThreadLocal<LongOhlcMap> MAPS = ThreadLocal.withInitial(() -> new LongOhlcMap(4096));
+    private final AtomicLong batchSeq = new AtomicLong(System.currentTimeMillis() << 16);
+    private volatile boolean stageReady;
+
+    public CopyOhlcIngestService(TickChunkReaderService reader, JdbcTemplate jdbc,
+                                 StockLastPriceStore lastPriceStore) {
+        this.reader = reader;
+        this.jdbc = jdbc;
+        this.lastPriceStore = lastPriceStore;
+    }
+
+    /**
+     * 청크 하나 적재 (TimescaleOhlcIngestService.ingestChunkAs1sOHLC 대체)
+     * @return 병합된 행 수
+     */
+    @Transactional
+    public int ingestChunkAs1sOHLC(String chunkId) {
+        return ingestChunks(List.of(chunkId));
+    }
+
+    /**
+     * 여러 청크를 한 트랜잭션/COPY 배치로 적재
+     * @param chunkIds 적재 순서대로 (같은 초가 겹치면 뒤 청크의 마지막 틱이 close)
+     * @return 병합된 행 수
+     */
+    @Transactional
+    public int ingestChunks(List<String> chunkIds) {
+        LongOhlcMap map = MAPS.get();
+        map.clear();
+        for (String chunkId : chunkIds) {
+            reader.forEachTick(chunkId, map);
+        }
+        if (map.isEmpty()) {
+            log.info("No rows in chunks {}", chunkIds);
+            return 0;
+        }
+        int affected = merge(map);
+        log.info("✅ Ingested chunks={} buckets={} rows={}", chunkIds.size(), map.size(), affected);
+        return affected;
+    }
+
+    /**
+     * 집계 결과를 COPY → 스테이징 → 하이퍼테이블 병합
+     * 호출측 트랜잭션이 있으면 그 커넥션에서 실행됨
+     * @return 병합된 행 수
+     */
+    public int merge(LongOhlcMap map) {
+        if (map.isEmpty()) return 0;
+        requireStageTable();
+        long batchId = batchSeq.incrementAndGet();
+
+        Integer affected = jdbc.execute((ConnectionCallback<Integer>) con -> {
+            copyToStage(con, batchId, map);
+            int rows;
+            try (PreparedStatement ps = con.prepareStatement(MERGE_SQL)) {
+                ps.setLong(1, batchId);
+                rows = ps.executeUpdate();
+            }
+            try (PreparedStatement ps = con.prepareStatement(CLEAR_STAGE_SQL)) {
+                ps.setLong(1, batchId);
+                ps.executeUpdate();
+            }
+            return rows;
+        });
+        lastPriceStore.upsertLatest(map);
+        return affected == null ? 0 : affected;
+    }
+
+    private void requireStageTable() {
+        if (stageReady) return;
+        RealtimeSchema.require(jdbc, "\"TICKS_STAGE\"");
+        stageReady = true;
+    }
+
+    private static void copyToStage(Connection con, long batchId, LongOhlcMap map) throws SQLException {
+        CopyIn copyIn = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            PgBinaryCopyWriter writer = new PgBinaryCopyWriter(copyIn, 8);
+            map.forEach((stockId, epochSecond, open, high, low, close, volume) -> {
+                writer.startRow();
+                writer.writeLong(batchId);
+                writer.writeInt(stockId);
+                writer.writeTimestampMicros(epochSecond * 1_000_000L);
+                writer.writeInt(open);
+                writer.writeInt(high);
+                writer.writeInt(low);
+                writer.writeInt(close);
+                writer.writeLong(volume);
+            });
+            writer.finish();
+        } catch (SQLException e) {
+            if (copyIn.isActive()) copyIn.cancelCopy();
+            throw e;
+        } catch (Exception e) {
+            if (copyIn.isActive()) copyIn.cancelCopy();
+            throw new SQLException("binary COPY to stage failed: " + e.getMessage(), e);
+        }
+    }
+}
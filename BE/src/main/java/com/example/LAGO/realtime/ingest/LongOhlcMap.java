@@ -0,0 +1,160 @@
+package com.example.LAGO.realtime.ingest;
+
+import com.example.LAGO.realtime.TickColumns;
+
+import java.util.Arrays;
+
+/**
+ * (stockId, epochSecond) → 1초 OHLCV 집계용 open-addressing 맵
+ *
+ * - 키: stockId << 32 | epochSecond (long 하나, 박싱/키 객체 없음)
+ * - 값: 슬롯별 primitive 배열 (open/high/low/close/volume)
+ * - 선형 탐사, 적재율 0.5 초과 시 2배 확장
+ * - 틱 순회 visitor로 바로 사용 (여러 청크를 순서대로 누적 가능)
+ *
+ * open: 첫 틱, high: 최대, low: 최소, close: 마지막, volume: 합계
+ * 스레드 안전하지 않음 (워커별로 하나씩 사용)
+ */
+public final class LongOhlcMap implements TickColumns.TickVisitor {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] open;
+    private int[] high;
+    private int[] low;
+    private int[] close;
+    private long[] volume;
+    private int mask;
+    private int size;
+
+    // 현재 순회 중인 청크 (onChunk에서 설정)
+    private long chunkBaseEpochSecond;
+
+    public LongOhlcMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public static long key(int stockId, long epochSecond) {
+        return ((long) stockId << 32) | (epochSecond & 0xFFFFFFFFL);
+    }
+
+    public static int stockIdOf(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public static long epochSecondOf(long key) {
+        return key & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public void onChunk(int stockId, long baseEpochMillis, int count) {
+        chunkBaseEpochSecond = baseEpochMillis / 1000;
+    }
+
+    @Override
+    public void onTick(int stockId, int msOfDay, int price, int volume) {
+        accept(stockId, chunkBaseEpochSecond + msOfDay / 1000, price, volume);
+    }
+
+    /**
+     * 틱 하나 누적
+     */
+    public void accept(int stockId, long epochSecond, int price, int vol) {
+        long k = key(stockId, epochSecond);
+        int slot = mix(k) & mask;
+        while (true) {
+            long existing = keys[slot];
+            if (existing == EMPTY) {
+                keys[slot] = k;
+                open[slot] = high[slot] = low[slot] = close[slot] = price;
+                volume[slot] = vol;
+                if (++size * 2 > keys.length) rehash();
+                return;
+            }
+            if (existing == k) {
+                if (price > high[slot]) high[slot] = price;
+                if (price < low[slot]) low[slot] = price;
+                close[slot] = price;
+                volume[slot] += vol;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 용량은 유지한 채 비움
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /** 버킷 순회 콜백 */
+    @FunctionalInterface
+    public interface BucketVisitor {
+        void onBucket(int stockId, long epochSecond, int open, int high, int low, int close, long volume)
+                throws Exception;
+    }
+
+    /**
+     * 채워진 버킷 순회 (순서는 슬롯 순 - 병합 결과에는 영향 없음)
+     */
+    public void forEach(BucketVisitor visitor) throws Exception {
+        for (int i = 0; i < keys.length; i++) {
+            long k = keys[i];
+            if (k == EMPTY) continue;
+            visitor.onBucket(stockIdOf(k), epochSecondOf(k), open[i], high[i], low[i], close[i], volume[i]);
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldOpen = open, oldHigh = high, oldLow = low, oldClose = close;
+        long[] oldVolume = volume;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k == EMPTY) continue;
+            int slot = mix(k) & mask;
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+            keys[slot] = k;
+            open[slot] = oldOpen[i];
+            high[slot] = oldHigh[i];
+            low[slot] = oldLow[i];
+            close[slot] = oldClose[i];
+            volume[slot] = oldVolume[i];
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        open = new int[capacity];
+        high = new int[capacity];
+        low = new int[capacity];
+        close = new int[capacity];
+        volume = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    // 연속된 초(하위 비트)가 몰리지 않도록 섞기 (murmur3 finalizer)
+    private static int mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        return (int) k;
+    }
+}
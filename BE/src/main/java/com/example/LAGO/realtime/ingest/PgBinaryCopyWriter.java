@@ -0,0 +1,79 @@
+package com.example.LAGO.realtime.ingest;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+
+/**
+ * PostgreSQL COPY … (FORMAT binary) 스트림 작성기
+ *
+ * 헤더: "PGCOPY\n\377\r\n\0" + flags(int32=0) + 확장 길이(int32=0)
+ * 행:   필드 수(int16) + [필드 길이(int32) + 값]…
+ * 끝:   int16 -1
+ * 모든 값은 네트워크 바이트 순서(big-endian), 버퍼가 차면 CopyIn으로 내보냄
+ */
+final class PgBinaryCopyWriter {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    // 2000-01-01T00:00:00Z (PostgreSQL timestamp 기준점)의 Unix epoch 마이크로초
+    private static final long PG_EPOCH_MICROS = 946_684_800_000_000L;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CopyIn copyIn;
+    private final short fieldCount;
+    private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE); // 기본 big-endian
+
+    PgBinaryCopyWriter(CopyIn copyIn, int fieldCount) throws SQLException {
+        this.copyIn = copyIn;
+        this.fieldCount = (short) fieldCount;
+        buf.put(SIGNATURE);
+        buf.putInt(0);
+        buf.putInt(0);
+    }
+
+    void startRow() throws SQLException {
+        ensure(2);
+        buf.putShort(fieldCount);
+    }
+
+    void writeInt(int v) throws SQLException {
+        ensure(8);
+        buf.putInt(4);
+        buf.putInt(v);
+    }
+
+    void writeLong(long v) throws SQLException {
+        ensure(12);
+        buf.putInt(8);
+        buf.putLong(v);
+    }
+
+    /**
+     * timestamptz (Unix epoch 마이크로초 → PG 기준점 마이크로초)
+     */
+    void writeTimestampMicros(long unixMicros) throws SQLException {
+        writeLong(unixMicros - PG_EPOCH_MICROS);
+    }
+
+    /**
+     * 트레일러 전송 후 COPY 종료
+     * @return 서버가 보고한 행 수
+     */
+    long finish() throws SQLException {
+        ensure(2);
+        buf.putShort((short) -1);
+        flush();
+        return copyIn.endCopy();
+    }
+
+    private void ensure(int bytes) throws SQLException {
+        if (buf.remaining() < bytes) flush();
+    }
+
+    private void flush() throws SQLException {
+        if (buf.position() == 0) return;
+        copyIn.writeToCopy(buf.array(), 0, buf.position());
+        buf.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.LAGO.realtime.pipeline;
+
+/**
+ * 입력 링버퍼가 가득 찼을 때의 동작
+ *
+ * - BLOCK: 빈 슬롯이 생길 때까지 생산자(소켓 스레드) 대기 - 유실 없음
+ * - DROP : 즉시 버리고 카운트만 증가 - 소켓 읽기를 절대 막지 않음
+ */
+public enum BackpressurePolicy {
+    BLOCK,
+    DROP
+}
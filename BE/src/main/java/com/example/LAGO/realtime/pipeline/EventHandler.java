@@ -0,0 +1,16 @@
+package com.example.LAGO.realtime.pipeline;
+
+/**
+ * 스테이지 이벤트 처리기
+ * @param <E> 슬롯 타입 (재사용 객체이므로 보관하려면 복사해야 함)
+ */
+@FunctionalInterface
+public interface EventHandler<E> {
+
+    /**
+     * @param event 슬롯 이벤트
+     * @param sequence 시퀀스 번호
+     * @param endOfBatch 이번에 가져온 배치의 마지막 이벤트 여부 (모아서 flush 할 때 사용)
+     */
+    void onEvent(E event, long sequence, boolean endOfBatch) throws Exception;
+}
@@ -0,0 +1,9 @@
+package com.example.LAGO.realtime.pipeline;
+
+/**
+ * 입력 링버퍼 슬롯 - 소켓에서 받은 원시 프레임
+ */
+final class FrameEvent {
+    String frame;
+    long receivedNanos;
+}
@@ -0,0 +1,142 @@
+package com.example.LAGO.realtime.pipeline;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 사전할당 단일 생산자 / 다중 소비자 링버퍼 (Disruptor 방식)
+ *
+ * - 슬롯 객체는 생성 시 한 번만 만들고 재사용
+ * - 생산자는 next() → 슬롯 채우기 → publish() 순서로 사용
+ * - 각 소비자는 자기 시퀀스를 gating으로 등록, 생산자는 가장 느린 소비자를 추월하지 않음
+ * - 생산자가 여럿이면 호출측에서 next~publish 구간을 직렬화해야 함
+ */
+public final class RingBuffer<E> {
+
+    private final Object[] entries;
+    private final int size;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+
+    // 마지막으로 publish된 시퀀스
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private volatile AtomicLong[] gatingSequences = new AtomicLong[0];
+
+    // 생산자 전용 상태
+    private long nextSequence = -1;
+    private long cachedGatingMin = -1;
+
+    /**
+     * @param size 슬롯 수 (2의 거듭제곱)
+     * @param factory 슬롯 생성기
+     * @param waitStrategy 대기 전략
+     */
+    public RingBuffer(int size, Supplier<E> factory, WaitStrategy waitStrategy) {
+        if (size < 1 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("ring size must be a power of 2: " + size);
+        }
+        this.size = size;
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+        this.entries = new Object[size];
+        for (int i = 0; i < size; i++) {
+            entries[i] = factory.get();
+        }
+    }
+
+    /**
+     * 소비자 시퀀스 등록 (소비자 시작 전에 호출)
+     */
+    public synchronized void addGatingSequence(AtomicLong sequence) {
+        AtomicLong[] current = gatingSequences;
+        AtomicLong[] next = new AtomicLong[current.length + 1];
+        System.arraycopy(current, 0, next, 0, current.length);
+        next[current.length] = sequence;
+        gatingSequences = next;
+    }
+
+    /**
+     * 다음 슬롯 확보 - 가득 찼으면 가장 느린 소비자가 따라올 때까지 대기
+     */
+    public long next() {
+        long next = nextSequence + 1;
+        long wrapPoint = next - size;
+        if (wrapPoint > cachedGatingMin) {
+            long min;
+            int attempt = 0;
+            while (wrapPoint > (min = minimumGatingSequence(nextSequence))) {
+                waitStrategy.idle(attempt++);
+            }
+            cachedGatingMin = min;
+        }
+        nextSequence = next;
+        return next;
+    }
+
+    /**
+     * 다음 슬롯 확보 시도 - 가득 찼으면 대기하지 않고 -1 반환
+     */
+    public long tryNext() {
+        long next = nextSequence + 1;
+        long wrapPoint = next - size;
+        if (wrapPoint > cachedGatingMin) {
+            long min = minimumGatingSequence(nextSequence);
+            cachedGatingMin = min;
+            if (wrapPoint > min) return -1;
+        }
+        nextSequence = next;
+        return next;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) (sequence & mask)];
+    }
+
+    /**
+     * 슬롯 채우기 완료 → 소비자에게 공개
+     */
+    public void publish(long sequence) {
+        cursor.set(sequence);
+    }
+
+    /**
+     * 소비자용: sequence 이상이 publish될 때까지 대기
+     * @return publish된 최신 시퀀스 (running이 false가 되면 sequence보다 작을 수 있음)
+     */
+    long waitFor(long sequence, BooleanSupplier running) {
+        long available;
+        int attempt = 0;
+        while ((available = cursor.get()) < sequence) {
+            if (!running.getAsBoolean()) return available;
+            waitStrategy.idle(attempt++);
+        }
+        return available;
+    }
+
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public int getBufferSize() {
+        return size;
+    }
+
+    /**
+     * 남은 슬롯 수 (모니터링용)
+     */
+    public long remainingCapacity() {
+        long produced = cursor.get();
+        return size - (produced - minimumGatingSequence(produced));
+    }
+
+    private long minimumGatingSequence(long defaultValue) {
+        long min = defaultValue;
+        for (AtomicLong s : gatingSequences) {
+            long v = s.get();
+            if (v < min) min = v;
+        }
+        return min;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.LAGO.realtime.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 링버퍼 하나를 전용 스레드에서 순서대로 소비하는 스테이지
+ * 이벤트 처리 중 예외는 해당 이벤트만 건너뛰고 계속 진행 (스테이지가 죽으면 생산자가 멈추므로)
+ */
+@Slf4j
+public final class StageConsumer<E> implements Runnable {
+
+    private final String name;
+    private final RingBuffer<E> ring;
+    private final EventHandler<E> handler;
+    private final AtomicLong sequence = new AtomicLong(-1);
+
+    private volatile boolean running = true;
+    private final BooleanSupplier runningFlag = () -> running;
+    private volatile long processed = 0;
+    private volatile long errors = 0;
+    private Thread thread;
+
+    public StageConsumer(String name, RingBuffer<E> ring, EventHandler<E> handler) {
+        this.name = name;
+        this.ring = ring;
+        this.handler = handler;
+        ring.addGatingSequence(sequence);
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 이미 publish된 이벤트를 모두 처리한 뒤 종료
+     */
+    public void stop(long timeoutMillis) {
+        running = false;
+        Thread t = thread;
+        if (t == null) return;
+        try {
+            t.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (t.isAlive()) {
+            log.warn("Stage {} did not drain within {}ms (lag={})", name, timeoutMillis, getLag());
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        while (true) {
+            long available = ring.waitFor(next, runningFlag);
+            if (available < next) {
+                if (!running) break;
+                continue;
+            }
+            for (long s = next; s <= available; s++) {
+                try {
+                    handler.onEvent(ring.get(s), s, s == available);
+                } catch (Throwable t) {
+                    errors++;
+                    log.error("Stage {} failed at sequence {}: {}", name, s, t.getMessage(), t);
+                }
+            }
+            processed += available - next + 1;
+            sequence.set(available);
+            next = available + 1;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 생산자 대비 밀린 이벤트 수
+     */
+    public long getLag() {
+        return ring.getCursor() - sequence.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stage", name);
+        stats.put("lag", getLag());
+        stats.put("processed", processed);
+        stats.put("errors", errors);
+        return stats;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.LAGO.realtime.pipeline;
+
+import com.example.LAGO.realtime.KisTickRecord;
+
+/**
+ * 종목 파티션 링버퍼 슬롯 - 파싱된 체결 1건
+ */
+public final class TickEvent {
+
+    final KisTickRecord tick = new KisTickRecord();
+    // 소켓 수신 시각 (System.nanoTime) - 스테이지별 지연 측정용
+    long receivedNanos;
+
+    public KisTickRecord tick() {
+        return tick;
+    }
+
+    public long receivedNanos() {
+        return receivedNanos;
+    }
+}
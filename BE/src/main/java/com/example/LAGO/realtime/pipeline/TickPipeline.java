@@ -0,0 +1,214 @@
+package com.example.LAGO.realtime.pipeline;
+
+import com.example.LAGO.realtime.KisFrameParser;
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.RealTimeDataBroadcaster;
+import com.example.LAGO.realtime.RealtimeDataService;
+import com.example.LAGO.realtime.candle.ChartCandleCache;
+import com.example.LAGO.realtime.candle.MinuteCandleEngine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * KIS 소켓 스레드와 하위 처리 단계를 분리하는 링버퍼 파이프라인
+ *
+ *   socket thread ─publish─▶ [ingress ring] ─▶ parse ─▶ [partition ring × N]
+ *                                                         ├─▶ persist (청크 적재/압축)
+ *                                                         ├─▶ quote   (최신 시세 저장)
+ *                                                         ├─▶ fanout  (STOMP 전송)
+ *                                                         ├─▶ candle  (분봉 집계, 활성화된 경우)
+ *                                                         └─▶ chart   (차트 캔들 캐시, 활성화된 경우)
+ *
+ * - 소켓 스레드는 프레임을 슬롯에 넣기만 함 → Redis가 느려도 소켓 읽기가 멈추지 않음
+ * - 종목코드 기준 파티션 → 같은 종목은 항상 같은 링/같은 소비자 스레드 → 종목별 순서 보장
+ * - 파티션 링의 스테이지들은 서로 독립적으로 소비 (persist가 느려도 fanout은 진행)
+ * - 각 스테이지의 lag(밀린 이벤트 수)는 getStats()로 노출
+ */
+@Slf4j
+@Component
+public class TickPipeline {
+
+    private final RealtimeDataService realtimeDataService;
+    private final RealTimeDataBroadcaster broadcaster;
+    private final ObjectProvider<MinuteCandleEngine> minuteCandleEngineProvider;
+    private final ObjectProvider<ChartCandleCache> chartCandleCacheProvider;
+
+    @Value("${realtime.pipeline.ingress-size:8192}")
+    private int ingressSize;
+
+    @Value("${realtime.pipeline.partition-size:4096}")
+    private int partitionSize;
+
+    @Value("${realtime.pipeline.partitions:2}")
+    private int partitionCount;
+
+    @Value("${realtime.pipeline.wait-strategy:SLEEPING}")
+    private WaitStrategy waitStrategy;
+
+    @Value("${realtime.pipeline.backpressure:BLOCK}")
+    private BackpressurePolicy backpressure;
+
+    @Value("${realtime.pipeline.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMs;
+
+    private RingBuffer<FrameEvent> ingress;
+    private RingBuffer<TickEvent>[] partitions;
+    private final List<StageConsumer<?>> stages = new ArrayList<>();
+
+    // 소켓 스레드가 여럿(userA/userB)이므로 입력 링 publish 구간만 직렬화
+    private final Object ingressLock = new Object();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong invalidTicks = new AtomicLong();
+
+    // parse 스테이지 전용 스크래치 (단일 스레드)
+    private final KisTickRecord parseScratch = new KisTickRecord();
+    private long currentFrameNanos;
+    private final KisFrameParser.TickSink partitionSink = this::publishTick;
+
+    public TickPipeline(RealtimeDataService realtimeDataService,
+                        RealTimeDataBroadcaster broadcaster,
+                        ObjectProvider<MinuteCandleEngine> minuteCandleEngineProvider,
+                        ObjectProvider<ChartCandleCache> chartCandleCacheProvider) {
+        this.realtimeDataService = realtimeDataService;
+        this.broadcaster = broadcaster;
+        this.minuteCandleEngineProvider = minuteCandleEngineProvider;
+        this.chartCandleCacheProvider = chartCandleCacheProvider;
+    }
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void start() {
+        ingress = new RingBuffer<>(ingressSize, FrameEvent::new, waitStrategy);
+        partitions = new RingBuffer[partitionCount];
+
+        MinuteCandleEngine candleEngine = minuteCandleEngineProvider.getIfAvailable();
+        ChartCandleCache chartCache = chartCandleCacheProvider.getIfAvailable();
+
+        for (int p = 0; p < partitionCount; p++) {
+            RingBuffer<TickEvent> ring = new RingBuffer<>(partitionSize, TickEvent::new, waitStrategy);
+            partitions[p] = ring;
+
+            stages.add(new StageConsumer<>("tick-persist-" + p, ring,
+                    (e, seq, end) -> realtimeDataService.appendTick(e.tick)));
+            stages.add(new StageConsumer<>("tick-quote-" + p, ring,
+                    (e, seq, end) -> realtimeDataService.saveLatestQuote(e.tick)));
+            stages.add(new StageConsumer<>("tick-fanout-" + p, ring,
+                    (e, seq, end) -> broadcaster.sendRealTimeData(e.tick)));
+            if (candleEngine != null) {
+                stages.add(new StageConsumer<>("tick-candle-" + p, ring,
+                        (e, seq, end) -> candleEngine.onTick(e.tick)));
+            }
+            if (chartCache != null) {
+                stages.add(new StageConsumer<>("tick-chart-" + p, ring,
+                        (e, seq, end) -> chartCache.onTick(e.tick)));
+            }
+        }
+        // parse 스테이지는 하위 스테이지가 모두 준비된 뒤 등록
+        stages.add(0, new StageConsumer<>("tick-parse", ingress, this::parseFrame));
+
+        stages.forEach(StageConsumer::start);
+        log.info("🚀 Tick pipeline started: partitions={}, ingress={}, partitionSize={}, wait={}, backpressure={}, stages={}",
+                partitionCount, ingressSize, partitionSize, waitStrategy, backpressure, stages.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        // 상류부터 순서대로 drain
+        for (StageConsumer<?> stage : stages) {
+            stage.stop(shutdownTimeoutMs);
+        }
+        log.info("🛑 Tick pipeline stopped: {}", getStats());
+    }
+
+    /**
+     * 소켓 스레드 진입점: 원시 프레임을 입력 링에 넣고 즉시 반환
+     * @return 입력 링에 들어갔는지 여부 (DROP 정책에서 가득 차면 false)
+     */
+    public boolean publishFrame(String frame) {
+        long now = System.nanoTime();
+        synchronized (ingressLock) {
+            long seq;
+            if (backpressure == BackpressurePolicy.DROP) {
+                seq = ingress.tryNext();
+                if (seq < 0) {
+                    long dropped = droppedFrames.incrementAndGet();
+                    if ((dropped & 1023) == 1) {
+                        log.warn("⚠️ Tick pipeline ingress full - dropped {} frames so far", dropped);
+                    }
+                    return false;
+                }
+            } else {
+                seq = ingress.next();
+            }
+            FrameEvent event = ingress.get(seq);
+            event.frame = frame;
+            event.receivedNanos = now;
+            ingress.publish(seq);
+        }
+        return true;
+    }
+
+    /**
+     * parse 스테이지: 프레임 → 레코드 → 종목 파티션 링
+     */
+    private void parseFrame(FrameEvent event, long sequence, boolean endOfBatch) {
+        String frame = event.frame;
+        event.frame = null; // 프레임 문자열 참조 해제
+        currentFrameNanos = event.receivedNanos;
+        KisFrameParser.parse(frame, parseScratch, partitionSink);
+    }
+
+    private void publishTick(KisTickRecord record) {
+        if (!record.isValid()) {
+            invalidTicks.incrementAndGet();
+            log.warn("Invalid tick data in batch: {}", record);
+            return;
+        }
+        RingBuffer<TickEvent> ring = partitions[partitionOf(record)];
+        long seq = ring.next();
+        TickEvent slot = ring.get(seq);
+        slot.tick.copyFrom(record);
+        slot.receivedNanos = currentFrameNanos;
+        ring.publish(seq);
+    }
+
+    private int partitionOf(KisTickRecord record) {
+        int key = record.codeNumeric();
+        if (key < 0) {
+            key = 0;
+            for (int i = 0; i < record.codeLength(); i++) {
+                key = key * 31 + record.codeCharAt(i);
+            }
+            key &= Integer.MAX_VALUE;
+        }
+        return key % partitionCount;
+    }
+
+    /**
+     * 스테이지별 lag/처리량 및 입력 링 상태
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("waitStrategy", waitStrategy);
+        stats.put("backpressure", backpressure);
+        stats.put("ingressRemaining", ingress == null ? 0 : ingress.remainingCapacity());
+        stats.put("droppedFrames", droppedFrames.get());
+        stats.put("invalidTicks", invalidTicks.get());
+        List<Map<String, Object>> stageStats = new ArrayList<>();
+        for (StageConsumer<?> stage : stages) {
+            stageStats.add(stage.getStats());
+        }
+        stats.put("stages", stageStats);
+        return stats;
+    }
+}
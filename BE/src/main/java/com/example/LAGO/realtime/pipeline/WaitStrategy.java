@@ -0,0 +1,49 @@
+package com.example.LAGO.realtime.pipeline;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 링버퍼 대기 전략 (소비자: 데이터 대기 / 생산자: 빈 슬롯 대기)
+ *
+ * - BUSY_SPIN: 최저 지연, 코어 하나를 계속 점유
+ * - YIELDING : 짧게 스핀 후 yield
+ * - SLEEPING : 스핀 → yield → 100µs park (기본값, CPU/지연 절충)
+ * - BLOCKING : 1ms 단위 park, 유휴 CPU 최소
+ */
+public enum WaitStrategy {
+    BUSY_SPIN {
+        @Override
+        void idle(int attempt) {
+            Thread.onSpinWait();
+        }
+    },
+    YIELDING {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) Thread.onSpinWait();
+            else Thread.yield();
+        }
+    },
+    SLEEPING {
+        @Override
+        void idle(int attempt) {
+            if (attempt < SPIN_TRIES) Thread.onSpinWait();
+            else if (attempt < SPIN_TRIES * 2) Thread.yield();
+            else LockSupport.parkNanos(100_000L);
+        }
+    },
+    BLOCKING {
+        @Override
+        void idle(int attempt) {
+            LockSupport.parkNanos(1_000_000L);
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+
+    /**
+     * 한 번 대기
+     * @param attempt 연속 대기 횟수 (0부터)
+     */
+    abstract void idle(int attempt);
+}
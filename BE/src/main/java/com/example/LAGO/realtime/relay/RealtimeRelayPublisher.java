@@ -0,0 +1,223 @@
+package com.example.LAGO.realtime.relay;
+
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.candle.MinuteCandle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 수집 노드 → 다른 노드 실시간 릴레이 발행 (realtime.relay.mode=publish)
+ *
+ * KIS 웹소켓을 받는 노드만 틱을 갖고 SimpleBroker 는 프로세스 내부라, 지금은 모든 클라이언트가 이 노드에 붙어야 한다.
+ * publish-interval-ms 마다
+ * - 직전 배치 이후 QuoteBook version 이 바뀐 종목만 최신값 1행씩 (conflation)
+ * - 그 사이 마감/정정된 1분봉 (StockMinuteBatchWriter 가 넘겨줌, 같은 분봉은 마지막 것만)
+ * 을 RelayBatch 하나로 묶어
+ *   1) realtime:relay:log 리스트에 추가 (최근 log-size 개 유지 - 구독 노드의 gap 재전송용)
+ *   2) realtime:relay 채널로 PUBLISH
+ * snapshot-interval-ms 마다 전 종목 스냅샷을 realtime:relay:snapshot 키에 덮어씀 (log 가 못 덮는 긴 gap/신규 노드용)
+ *
+ * 스냅샷 주기가 log 보존 구간보다 짧아야 (기본 5초 < 600배치) 스냅샷 + log 로 항상 빈틈없이 복구됨
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "realtime.relay.mode", havingValue = "publish")
+public class RealtimeRelayPublisher {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final QuoteBook quoteBook;
+    private final StockRegistry stockRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${realtime.relay.channel:realtime:relay}")
+    private String channel = "realtime:relay";
+
+    @Value("${realtime.relay.publish-interval-ms:100}")
+    private long publishIntervalMs = 100;
+
+    @Value("${realtime.relay.snapshot-interval-ms:5000}")
+    private long snapshotIntervalMs = 5000;
+
+    @Value("${realtime.relay.log-size:600}")
+    private int logSize = 600;
+
+    private final String origin = UUID.randomUUID().toString().substring(0, 8);
+    private final long epoch = System.currentTimeMillis();
+    private final ConcurrentLinkedQueue<MinuteCandle> pendingCandles = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService publisher;
+
+    // publisher 스레드 전용
+    private long seq;
+    private long[] publishedVersions = new long[0];
+    private final int[] values = new int[QuoteBook.FIELD_COUNT];
+    private long lastSnapshotMs;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong quoteRows = new AtomicLong();
+    private final AtomicLong candles = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public RealtimeRelayPublisher(@Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                                  QuoteBook quoteBook, StockRegistry stockRegistry, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.quoteBook = quoteBook;
+        this.stockRegistry = stockRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "relay-publisher");
+            t.setDaemon(true);
+            return t;
+        });
+        publisher.scheduleWithFixedDelay(this::publishSafely, publishIntervalMs, publishIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("🚀 RealtimeRelayPublisher started: channel={}, interval={}ms, snapshot={}ms, origin={}, epoch={}",
+                channel, publishIntervalMs, snapshotIntervalMs, origin, epoch);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (publisher != null) publisher.shutdownNow();
+    }
+
+    /**
+     * 마감/정정된 1분봉 (StockMinuteBatchWriter 저장 후)
+     */
+    public void onCandle(MinuteCandle candle) {
+        pendingCandles.add(candle);
+    }
+
+    static String logKey(String channel) {
+        return channel + ":log";
+    }
+
+    static String snapshotKey(String channel) {
+        return channel + ":snapshot";
+    }
+
+    private void publishSafely() {
+        try {
+            publish(System.currentTimeMillis());
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            log.error("❌ Relay publish failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 배치 1개 발행 (+ 주기가 되면 스냅샷 저장)
+     * @return 발행한 배치, 바뀐 것이 없으면 null
+     */
+    RelayBatch publish(long nowMs) throws Exception {
+        RelayBatch batch = buildBatch(nowMs);
+        if (batch != null) {
+            String json = objectMapper.writeValueAsString(batch);
+            // log 먼저 → PUBLISH 를 받고 gap 을 본 노드가 log 에서 찾을 수 있도록
+            String logKey = logKey(channel);
+            redisTemplate.opsForList().rightPush(logKey, json);
+            redisTemplate.opsForList().trim(logKey, -logSize, -1);
+            redisTemplate.convertAndSend(channel, json);
+            batches.incrementAndGet();
+            quoteRows.addAndGet(batch.quotes().size());
+            candles.addAndGet(batch.candles().size());
+        }
+        if (nowMs - lastSnapshotMs >= snapshotIntervalMs) {
+            redisTemplate.opsForValue().set(snapshotKey(channel), objectMapper.writeValueAsString(buildSnapshot(nowMs)));
+            lastSnapshotMs = nowMs;
+            snapshots.incrementAndGet();
+        }
+        return batch;
+    }
+
+    RelayBatch buildBatch(long nowMs) {
+        int size = stockRegistry.size();
+        if (publishedVersions.length < size) publishedVersions = Arrays.copyOf(publishedVersions, size);
+
+        List<long[]> rows = new ArrayList<>();
+        for (int index = 0; index < size; index++) {
+            if (quoteBook.versionOf(index) <= publishedVersions[index]) continue;
+            long[] row = row(index);
+            if (row == null) continue;
+            publishedVersions[index] = row[RelayBatch.VERSION];
+            rows.add(row);
+        }
+
+        List<MinuteCandle> candleList = List.of();
+        if (!pendingCandles.isEmpty()) {
+            // 같은 종목·분봉은 마지막(정정 반영) 것만
+            Map<Long, MinuteCandle> latest = new LinkedHashMap<>();
+            MinuteCandle c;
+            while ((c = pendingCandles.poll()) != null) {
+                latest.put(((long) c.stockId() << 32) ^ c.minuteKey(), c);
+            }
+            candleList = new ArrayList<>(latest.values());
+        }
+        if (rows.isEmpty() && candleList.isEmpty()) return null;
+        return new RelayBatch(origin, epoch, ++seq, nowMs, false, rows, candleList);
+    }
+
+    /**
+     * 시세가 있는 전 종목, seq = 마지막으로 발행한 배치 (이 배치까지 반영된 상태)
+     */
+    RelayBatch buildSnapshot(long nowMs) {
+        List<long[]> rows = new ArrayList<>();
+        for (int index = 0; index < stockRegistry.size(); index++) {
+            long[] row = row(index);
+            if (row != null) rows.add(row);
+        }
+        return new RelayBatch(origin, epoch, seq, nowMs, true, rows, null);
+    }
+
+    private long[] row(int index) {
+        long version = quoteBook.read(index, values);
+        if (version == 0) return null;
+        long[] row = new long[RelayBatch.ROW_LENGTH];
+        row[RelayBatch.ID] = stockRegistry.stockIdAt(index);
+        row[RelayBatch.VERSION] = version;
+        row[RelayBatch.PRICE] = values[QuoteBook.PRICE];
+        row[RelayBatch.OPEN] = values[QuoteBook.OPEN];
+        row[RelayBatch.HIGH] = values[QuoteBook.HIGH];
+        row[RelayBatch.LOW] = values[QuoteBook.LOW];
+        row[RelayBatch.RATE] = values[QuoteBook.RATE];
+        row[RelayBatch.CHANGE] = values[QuoteBook.CHANGE];
+        row[RelayBatch.VOLUME] = values[QuoteBook.VOLUME];
+        row[RelayBatch.TIME] = values[QuoteBook.TIME];
+        return row;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("origin", origin);
+        stats.put("epoch", epoch);
+        stats.put("batches", batches.get());
+        stats.put("quoteRows", quoteRows.get());
+        stats.put("candles", candles.get());
+        stats.put("snapshots", snapshots.get());
+        stats.put("pendingCandles", pendingCandles.size());
+        stats.put("errors", errors.get());
+        return stats;
+    }
+}
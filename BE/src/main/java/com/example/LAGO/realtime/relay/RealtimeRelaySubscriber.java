@@ -0,0 +1,216 @@
+package com.example.LAGO.realtime.relay;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.MinuteCandleWebsocketController;
+import com.example.LAGO.realtime.RealTimeDataBroadcaster;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.candle.MinuteCandle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 릴레이 수신 → 이 노드의 STOMP/바이너리 구독자에게 재전송 (realtime.relay.mode=subscribe)
+ *
+ * - 시세 행은 RealTimeDataBroadcaster 로 그대로 흘려 보냄 (QuoteBook → QuoteFanout/WatchlistStream/ws-quote)
+ * - 1분봉은 MinuteCandleWebsocketController 로 전송
+ * - 중복 제거: 배치 seq 가 이미 반영한 것 이하면 버림, 행은 종목별 발행자 version 이 더 클 때만 반영
+ *   (스냅샷/log 재전송과 겹쳐도 값이 뒤로 가지 않음)
+ * - gap (seq 가 건너뜀, pub/sub 재연결 중 유실 등): log 리스트에서 빠진 배치를 찾아 순서대로 반영,
+ *   log 가 이미 잘려 나갔으면 스냅샷을 먼저 적용 후 그 이후 배치만 반영
+ * - epoch 가 바뀌면(발행 노드 재기동) 상태를 비우고 스냅샷부터 다시 받음 - 첫 메시지도 같은 경로
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "realtime.relay.mode", havingValue = "subscribe")
+public class RealtimeRelaySubscriber implements MessageListener {
+
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final StockRegistry stockRegistry;
+    private final RealTimeDataBroadcaster broadcaster;
+    private final ObjectProvider<MinuteCandleWebsocketController> candleWebsocket;
+
+    @Value("${realtime.relay.channel:realtime:relay}")
+    private String channel = "realtime:relay";
+
+    private RedisMessageListenerContainer container;
+
+    // accept() 안에서만 (synchronized)
+    private long epoch;
+    private long lastSeq;
+    private long[] versions = new long[0];
+    private final KisTickRecord scratch = new KisTickRecord();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong gaps = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong snapshotResyncs = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public RealtimeRelaySubscriber(RedisConnectionFactory connectionFactory,
+                                   @Qualifier("redisTemplate") RedisTemplate<String, String> redisTemplate,
+                                   ObjectMapper objectMapper, StockRegistry stockRegistry,
+                                   RealTimeDataBroadcaster broadcaster,
+                                   ObjectProvider<MinuteCandleWebsocketController> candleWebsocket) {
+        this.connectionFactory = connectionFactory;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.stockRegistry = stockRegistry;
+        this.broadcaster = broadcaster;
+        this.candleWebsocket = candleWebsocket;
+    }
+
+    @PostConstruct
+    public void start() {
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(this, new ChannelTopic(channel));
+        container.afterPropertiesSet();
+        container.start();
+        log.info("🚀 RealtimeRelaySubscriber started: channel={}", channel);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        if (container != null) container.destroy();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        received.incrementAndGet();
+        try {
+            accept(objectMapper.readValue(message.getBody(), RelayBatch.class));
+        } catch (Exception e) {
+            errors.incrementAndGet();
+            log.error("❌ Relay message failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 배치 1개 반영 (중복이면 버리고, gap 이면 log/스냅샷으로 메운 뒤 반영)
+     */
+    synchronized void accept(RelayBatch batch) throws Exception {
+        if (batch.epoch() != epoch) {
+            log.info("🔄 Relay epoch changed {} → {} (origin={}), resync", epoch, batch.epoch(), batch.origin());
+            epoch = batch.epoch();
+            lastSeq = 0;
+            versions = new long[0];
+            resync(batch.seq(), true);
+        }
+        if (batch.seq() <= lastSeq) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        if (batch.seq() > lastSeq + 1) {
+            gaps.incrementAndGet();
+            log.warn("⚠️ Relay gap: expected seq {}, got {}", lastSeq + 1, batch.seq());
+            resync(batch.seq(), false);
+            if (batch.seq() <= lastSeq) return;
+        }
+        apply(batch);
+    }
+
+    /**
+     * lastSeq 다음부터 upToSeq 직전까지 메움
+     * @param forceSnapshot 처음/epoch 변경 시 log 와 상관없이 스냅샷부터
+     */
+    private void resync(long upToSeq, boolean forceSnapshot) throws Exception {
+        List<RelayBatch> backlog = new ArrayList<>();
+        List<String> entries = redisTemplate.opsForList().range(RealtimeRelayPublisher.logKey(channel), 0, -1);
+        if (entries != null) {
+            for (String json : entries) {
+                RelayBatch b = objectMapper.readValue(json, RelayBatch.class);
+                if (b.epoch() == epoch && b.seq() > lastSeq && b.seq() < upToSeq) backlog.add(b);
+            }
+        }
+        backlog.sort(Comparator.comparingLong(RelayBatch::seq));
+
+        boolean logCovers = !backlog.isEmpty() && backlog.get(0).seq() == lastSeq + 1;
+        if (forceSnapshot || !logCovers) {
+            String json = redisTemplate.opsForValue().get(RealtimeRelayPublisher.snapshotKey(channel));
+            RelayBatch snapshot = json == null ? null : objectMapper.readValue(json, RelayBatch.class);
+            if (snapshot != null && snapshot.epoch() == epoch) {
+                applyQuotes(snapshot);
+                lastSeq = Math.max(lastSeq, snapshot.seq());
+                snapshotResyncs.incrementAndGet();
+            }
+        }
+        for (RelayBatch b : backlog) {
+            if (b.seq() <= lastSeq) continue;
+            if (b.seq() > lastSeq + 1) {
+                // 스냅샷 이후 구간도 log 에 없음 → 놓친 분봉은 포기, 시세는 다음 스냅샷/변경 때 수렴
+                log.warn("⚠️ Relay backlog hole: {} → {}", lastSeq + 1, b.seq());
+            }
+            apply(b);
+            replayed.incrementAndGet();
+        }
+        // 채울 수 없는 구간은 건너뛰고 이어서 받음
+        if (lastSeq < upToSeq - 1) lastSeq = upToSeq - 1;
+    }
+
+    private void apply(RelayBatch batch) {
+        applyQuotes(batch);
+        MinuteCandleWebsocketController websocket = candleWebsocket.getIfAvailable();
+        if (websocket != null) {
+            for (MinuteCandle candle : batch.candles()) websocket.sendMinuteCandle(candle.toDto());
+        }
+        lastSeq = batch.seq();
+        applied.incrementAndGet();
+    }
+
+    private void applyQuotes(RelayBatch batch) {
+        for (long[] row : batch.quotes()) {
+            if (row.length < RelayBatch.ROW_LENGTH) continue;
+            int index = stockRegistry.indexOfStockId((int) row[RelayBatch.ID]);
+            if (index < 0) continue;
+            if (index >= versions.length) versions = Arrays.copyOf(versions, Math.max(index + 1, stockRegistry.size()));
+            long version = row[RelayBatch.VERSION];
+            if (version <= versions[index]) continue;
+            versions[index] = version;
+
+            scratch.setQuote(stockRegistry.codeAt(index), (int) row[RelayBatch.TIME],
+                    (int) row[RelayBatch.OPEN], (int) row[RelayBatch.HIGH], (int) row[RelayBatch.LOW],
+                    (int) row[RelayBatch.PRICE], KisTickRecord.NULL, (int) row[RelayBatch.RATE],
+                    (int) row[RelayBatch.CHANGE], (int) row[RelayBatch.VOLUME]);
+            broadcaster.sendRealTimeData(scratch);
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("epoch", epoch);
+        stats.put("lastSeq", lastSeq);
+        stats.put("received", received.get());
+        stats.put("applied", applied.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("gaps", gaps.get());
+        stats.put("replayed", replayed.get());
+        stats.put("snapshotResyncs", snapshotResyncs.get());
+        stats.put("errors", errors.get());
+        return stats;
+    }
+}
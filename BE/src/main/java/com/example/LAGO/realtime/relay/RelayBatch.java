@@ -0,0 +1,35 @@
+package com.example.LAGO.realtime.relay;
+
+import com.example.LAGO.realtime.candle.MinuteCandle;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * 노드 간 릴레이 메시지 (수집 노드 → Redis → API 노드)
+ *
+ * quotes 행: [stockInfoId, version, price, open, high, low, rate, change, volume, time]
+ *   version = 수집 노드 QuoteBook version (행 단위 중복 제거용), volume = 누적 거래량, time = ms-of-day
+ *   값이 없으면 KisTickRecord.NULL
+ *
+ * @param origin 발행 노드 식별자 (로그용)
+ * @param epoch 발행자 기동 시각 - 바뀌면 seq/version 이 처음부터 다시 시작된 것
+ * @param seq 배치 순번 (epoch 안에서 1씩 증가, 스냅샷은 마지막으로 발행한 배치 순번)
+ * @param snapshot true면 전 종목 스냅샷
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record RelayBatch(String origin, long epoch, long seq, long ts, boolean snapshot,
+                         List<long[]> quotes, List<MinuteCandle> candles) {
+
+    static final int ID = 0, VERSION = 1, PRICE = 2, OPEN = 3, HIGH = 4, LOW = 5,
+            RATE = 6, CHANGE = 7, VOLUME = 8, TIME = 9;
+    static final int ROW_LENGTH = 10;
+
+    public List<long[]> quotes() {
+        return quotes == null ? List.of() : quotes;
+    }
+
+    public List<MinuteCandle> candles() {
+        return candles == null ? List.of() : candles;
+    }
+}
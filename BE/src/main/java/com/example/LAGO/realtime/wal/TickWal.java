@@ -0,0 +1,534 @@
+package com.example.LAGO.realtime.wal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 틱 로컬 WAL (세그먼트 롤링, MappedByteBuffer, CRC32C 프레임)
+ *
+ * 종목별 TickChunk 버퍼는 메모리에만 있어 Redis 커밋 전에 프로세스가 죽으면 사라진다.
+ * 틱을 청크에 넣기 전에 WAL에 먼저 쓰고, 청크가 Redis에 커밋되면 COMMIT 레코드(종목, LSN 구간)를 남긴다.
+ * - 기동 시: 이전 실행의 세그먼트를 재생 → COMMIT 구간에 포함되지 않은 틱만 다시 청크로 커밋
+ * - 체크포인트: 아직 커밋 안 된 틱이 없는 세그먼트는 삭제 (releaseBefore)
+ * - 쓰기는 page cache까지(프로세스 장애 대비), force-interval-ms 주기로 디스크 동기화(OS 장애 대비)
+ *
+ * LSN = 세그먼트 번호 << 32 | 세그먼트 내 오프셋 (증가 순서 = 기록 순서)
+ * 레코드 payload: type(1B) + 본문
+ *   TICK   : stockId, msOfDay, price, volume, side, cumVolume (int×6)
+ *   COMMIT : stockId(int), fromLsn(long), toLsn(long)
+ *   PREPARE: stockId(int), fromLsn(long), toLsn(long)
+ *
+ * 세그먼트 번호는 디렉터리를 비우면 1부터 다시 시작하므로, 디렉터리마다 wal.id 파일에 인스턴스 ID를 둔다.
+ */
+@Slf4j
+@Component
+public class TickWal {
+
+    static final byte TYPE_TICK = 1;
+    static final byte TYPE_COMMIT = 2;
+    static final byte TYPE_PREPARE = 3;
+    static final String ID_FILE = "wal.id";
+    private static final int FRAME_HEADER = 8;           // 길이 + CRC
+    private static final int TICK_PAYLOAD = 1 + 6 * 4;
+    private static final int COMMIT_PAYLOAD = 1 + 4 + 8 + 8;
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    @Value("${realtime.wal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${realtime.wal.dir:./data/tick-wal}")
+    private String dir;
+
+    @Value("${realtime.wal.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    // 0이면 주기 동기화 안 함 (page cache까지만)
+    @Value("${realtime.wal.force-interval-ms:200}")
+    private long forceIntervalMs;
+
+    private final Object lock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private Path walDir;
+    private String walId;
+    private WalSegment active;
+    private long activeDayEndMillis;
+    // 활성 세그먼트 이전 세그먼트 (체크포인트 전까지 보관)
+    private final TreeMap<Long, Path> sealed = new TreeMap<>();
+    // 기동 시점에 남아 있던 세그먼트 (재생 대상)
+    private List<Path> recovered = List.of();
+    private ScheduledExecutorService forcer;
+
+    private final AtomicLong tickRecords = new AtomicLong();
+    private final AtomicLong commitRecords = new AtomicLong();
+    private final AtomicLong releasedSegments = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            log.info("TickWal disabled");
+            return;
+        }
+        walDir = Paths.get(dir).toAbsolutePath();
+        Files.createDirectories(walDir);
+        walId = loadOrCreateId(walDir);
+
+        long maxNumber = 0;
+        List<Path> existing = new ArrayList<>();
+        try (Stream<Path> files = Files.list(walDir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                long n = WalSegment.numberOf(p);
+                if (n < 0) continue;
+                existing.add(p);
+                sealed.put(n, p);
+                maxNumber = Math.max(maxNumber, n);
+            }
+        }
+        existing.sort(null); // 0 패딩 파일명 = 번호 순
+        recovered = List.copyOf(existing);
+        openActive(maxNumber + 1);
+
+        if (forceIntervalMs > 0) {
+            forcer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "tick-wal-force");
+                t.setDaemon(true);
+                return t;
+            });
+            forcer.scheduleWithFixedDelay(this::forceActive, forceIntervalMs, forceIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("🚀 TickWal started: dir={}, segment={}B, recoveredSegments={}, active={}",
+                walDir, segmentBytes, recovered.size(), active.number);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (forcer != null) forcer.shutdownNow();
+        synchronized (lock) {
+            if (active != null) {
+                active.force();
+                active.close();
+                active = null;
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && active != null;
+    }
+
+    public static long segmentOf(long lsn) {
+        return lsn >>> 32;
+    }
+
+    /**
+     * WAL 디렉터리 인스턴스 ID (디렉터리를 비우면 새로 발급)
+     */
+    public String walId() {
+        return walId;
+    }
+
+    /**
+     * WAL 구간에서 만든 청크의 결정적 ID - 재생/재시도로 다시 커밋해도 같은 ID
+     * @return WAL이 꺼져 있거나 구간이 없으면 null
+     */
+    public String chunkIdOf(int stockId, long fromLsn, long toLsn) {
+        if (walId == null || fromLsn < 0 || toLsn < 0) return null;
+        return String.format("wal-%s-%d-%x-%x", walId, stockId, fromLsn, toLsn);
+    }
+
+    /**
+     * 틱 기록 (청크에 넣기 전에 호출)
+     * @return LSN, WAL이 꺼져 있으면 -1
+     */
+    public long appendTick(int stockId, int msOfDay, int price, int volume, int side, int cumVolume) {
+        if (!enabled) return -1;
+        synchronized (lock) {
+            if (active == null) return -1;
+            int pos = reserve(TICK_PAYLOAD);
+            MappedByteBuffer b = active.buf;
+            b.position(pos + FRAME_HEADER);
+            b.put(TYPE_TICK).putInt(stockId).putInt(msOfDay).putInt(price)
+                    .putInt(volume).putInt(side).putInt(cumVolume);
+            seal(pos, TICK_PAYLOAD);
+            tickRecords.incrementAndGet();
+            return (active.number << 32) | pos;
+        }
+    }
+
+    /**
+     * 종목 청크 커밋 시작 기록 (Redis 커밋 직전) - 재생 시 COMMIT이 없으면 [fromLsn, toLsn]을 한 청크로 다시 커밋
+     */
+    public void appendPrepare(int stockId, long fromLsn, long toLsn) {
+        appendRange(TYPE_PREPARE, stockId, fromLsn, toLsn);
+    }
+
+    /**
+     * 종목 청크 커밋 완료 기록 - 재생 시 [fromLsn, toLsn] 구간의 해당 종목 틱은 건너뜀
+     */
+    public void appendCommit(int stockId, long fromLsn, long toLsn) {
+        if (appendRange(TYPE_COMMIT, stockId, fromLsn, toLsn)) commitRecords.incrementAndGet();
+    }
+
+    private boolean appendRange(byte type, int stockId, long fromLsn, long toLsn) {
+        if (!enabled || fromLsn < 0) return false;
+        synchronized (lock) {
+            if (active == null) return false;
+            int pos = reserve(COMMIT_PAYLOAD);
+            MappedByteBuffer b = active.buf;
+            b.position(pos + FRAME_HEADER);
+            b.put(type).putInt(stockId).putLong(fromLsn).putLong(toLsn);
+            seal(pos, COMMIT_PAYLOAD);
+            return true;
+        }
+    }
+
+    /**
+     * 재생 콜백 (세그먼트 순서 = 기록 순서)
+     */
+    @FunctionalInterface
+    public interface ReplayHandler {
+        void onTick(LocalDate tradingDay, long lsn, int stockId, int msOfDay, int price, int volume,
+                    int side, int cumVolume);
+
+        /**
+         * PREPARE만 있고 COMMIT이 없는 구간의 첫 틱 직전과 끝 틱 직후에 호출
+         * - 해당 종목에 모아 둔 틱을 여기서 끊어 커밋하면 원래 청크와 같은 구간(= 같은 청크 ID)이 된다
+         */
+        default void onPreparedBoundary(LocalDate tradingDay, int stockId) {}
+    }
+
+    /**
+     * 기동 시점에 남아 있던 세그먼트 재생 (커밋되지 않은 틱만 전달)
+     * 1차: COMMIT/PREPARE 구간 수집, 2차: COMMIT 구간 밖 틱 전달 (PREPARE 구간 경계는 onPreparedBoundary로 알림)
+     * CRC가 맞지 않는 레코드에서 해당 세그먼트 읽기 중단(찢긴 꼬리)
+     * @return 전달한 틱 수
+     */
+    public long replay(ReplayHandler handler) {
+        if (recovered.isEmpty()) return 0;
+        Map<Integer, CommittedRanges> committed = new HashMap<>();
+        // LSN은 전역 유일 → 종목 구분 없이 경계 LSN만 보관
+        Set<Long> preparedFrom = new HashSet<>();
+        Set<Long> preparedTo = new HashSet<>();
+        List<WalSegment> segments = new ArrayList<>();
+        try {
+            for (Path p : recovered) {
+                WalSegment seg;
+                try {
+                    seg = WalSegment.openForRead(p);
+                } catch (IOException e) {
+                    log.warn("⚠️ Failed to open WAL segment {}: {}", p, e.getMessage());
+                    continue;
+                }
+                if (seg == null) {
+                    log.warn("⚠️ Skipping WAL segment with bad header: {}", p);
+                    continue;
+                }
+                segments.add(seg);
+                scan(seg, (lsn, body) -> {
+                    byte type = body.get();
+                    if (type == TYPE_COMMIT) {
+                        committed.computeIfAbsent(body.getInt(), k -> new CommittedRanges())
+                                .add(body.getLong(), body.getLong());
+                    } else if (type == TYPE_PREPARE) {
+                        body.getInt();
+                        preparedFrom.add(body.getLong());
+                        preparedTo.add(body.getLong());
+                    }
+                });
+            }
+
+            committed.values().forEach(CommittedRanges::seal);
+            long[] replayed = {0, 0};
+            for (WalSegment seg : segments) {
+                scan(seg, (lsn, body) -> {
+                    if (body.get() != TYPE_TICK) return;
+                    int stockId = body.getInt();
+                    CommittedRanges ranges = committed.get(stockId);
+                    if (ranges != null && ranges.contains(lsn)) {
+                        replayed[1]++;
+                        return;
+                    }
+                    if (preparedFrom.contains(lsn)) handler.onPreparedBoundary(seg.tradingDay, stockId);
+                    handler.onTick(seg.tradingDay, lsn, stockId, body.getInt(), body.getInt(), body.getInt(),
+                            body.getInt(), body.getInt());
+                    if (preparedTo.contains(lsn)) handler.onPreparedBoundary(seg.tradingDay, stockId);
+                    replayed[0]++;
+                });
+            }
+            log.info("🔁 WAL replay: segments={}, replayedTicks={}, alreadyCommitted={}",
+                    segments.size(), replayed[0], replayed[1]);
+            return replayed[0];
+        } finally {
+            segments.forEach(WalSegment::close);
+        }
+    }
+
+    /**
+     * 실행 중 WAL에서 한 종목의 [fromLsn, toLsn] 구간 틱 다시 읽기
+     * (재시도 큐 상한을 넘어 WAL 위치만 남긴 청크 복구용 - 해당 세그먼트는 호출 측이 체크포인트에서 보존)
+     * @return 읽은 틱 수
+     */
+    public int readRange(int stockId, long fromLsn, long toLsn, ReplayHandler handler) {
+        if (!enabled || fromLsn < 0) return 0;
+        int[] read = {0};
+        for (long n = segmentOf(fromLsn); n <= segmentOf(toLsn); n++) {
+            WalSegment seg;
+            try {
+                seg = WalSegment.openForRead(WalSegment.pathOf(walDir, n));
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to open WAL segment " + n, e);
+            }
+            if (seg == null) continue;
+            try {
+                scan(seg, (lsn, body) -> {
+                    if (lsn < fromLsn || lsn > toLsn || body.get() != TYPE_TICK || body.getInt() != stockId) return;
+                    handler.onTick(seg.tradingDay, lsn, stockId, body.getInt(), body.getInt(), body.getInt(),
+                            body.getInt(), body.getInt());
+                    read[0]++;
+                });
+            } finally {
+                seg.close();
+            }
+        }
+        return read[0];
+    }
+
+    /**
+     * segmentNumber 미만의 닫힌 세그먼트 삭제 (활성 세그먼트는 대상 아님)
+     * @return 삭제한 세그먼트 수
+     */
+    public int releaseBefore(long segmentNumber) {
+        if (!enabled) return 0;
+        int released = 0;
+        synchronized (lock) {
+            var it = sealed.headMap(segmentNumber).entrySet().iterator();
+            while (it.hasNext()) {
+                Path p = it.next().getValue();
+                try {
+                    Files.deleteIfExists(p);
+                    it.remove();
+                    released++;
+                } catch (IOException e) {
+                    log.warn("Failed to delete WAL segment {}: {}", p, e.getMessage());
+                    break;
+                }
+            }
+        }
+        releasedSegments.addAndGet(released);
+        return released;
+    }
+
+    /**
+     * 현재 쓰는 세그먼트 번호 (릴리스 상한)
+     */
+    public long activeSegment() {
+        synchronized (lock) {
+            return active == null ? Long.MAX_VALUE : active.number;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) return stats;
+        synchronized (lock) {
+            stats.put("dir", String.valueOf(walDir));
+            stats.put("walId", walId);
+            stats.put("activeSegment", active == null ? null : active.number);
+            stats.put("activeBytes", active == null ? 0 : active.buf.position());
+            stats.put("retainedSegments", sealed.size());
+        }
+        stats.put("tickRecords", tickRecords.get());
+        stats.put("commitRecords", commitRecords.get());
+        stats.put("releasedSegments", releasedSegments.get());
+        return stats;
+    }
+
+    // ---------------------------------------------------------------------
+
+    /**
+     * 프레임 자리 확보 (필요하면 세그먼트 롤링 / 거래일이 바뀌어도 롤링)
+     * @return 프레임 시작 오프셋
+     */
+    private int reserve(int payloadBytes) {
+        int need = FRAME_HEADER + payloadBytes;
+        if (active.buf.remaining() < need + 4 || System.currentTimeMillis() >= activeDayEndMillis) {
+            roll();
+        }
+        return active.buf.position();
+    }
+
+    /**
+     * payload를 쓴 뒤 CRC → 길이 순으로 기록 (길이가 0이 아니게 되는 순간 레코드가 보임)
+     */
+    private void seal(int pos, int payloadBytes) {
+        MappedByteBuffer b = active.buf;
+        crc.reset();
+        crc.update(b.slice(pos + FRAME_HEADER, payloadBytes));
+        b.putInt(pos + 4, (int) crc.getValue());
+        b.putInt(pos, payloadBytes);
+    }
+
+    private void roll() {
+        WalSegment old = active;
+        old.force();
+        old.close();
+        sealed.put(old.number, old.path);
+        openActive(old.number + 1);
+    }
+
+    private void openActive(long number) {
+        LocalDate today = LocalDate.now(KST);
+        try {
+            active = WalSegment.create(walDir, number, segmentBytes, today);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to create WAL segment " + number, e);
+        }
+        activeDayEndMillis = today.plusDays(1).atStartOfDay(KST).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 디렉터리 인스턴스 ID 읽기 (없으면 발급)
+     */
+    private static String loadOrCreateId(Path walDir) throws IOException {
+        Path idFile = walDir.resolve(ID_FILE);
+        if (Files.exists(idFile)) {
+            String id = Files.readString(idFile).trim();
+            if (!id.isEmpty()) return id;
+        }
+        String id = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        Files.writeString(idFile, id);
+        return id;
+    }
+
+    private void forceActive() {
+        try {
+            synchronized (lock) {
+                if (active != null) active.force();
+            }
+        } catch (Exception e) {
+            log.warn("WAL force failed: {}", e.getMessage());
+        }
+    }
+
+    private interface FrameVisitor {
+        void onFrame(long lsn, ByteBuffer body);
+    }
+
+    private static void scan(WalSegment seg, FrameVisitor visitor) {
+        ByteBuffer b = seg.buf.duplicate();
+        int pos = WalSegment.HEADER_BYTES;
+        CRC32C check = new CRC32C();
+        while (pos + FRAME_HEADER <= b.limit()) {
+            int len = b.getInt(pos);
+            if (len == 0) return; // 세그먼트 끝
+            if (len < 0 || pos + FRAME_HEADER + len > b.limit()) {
+                log.warn("⚠️ Corrupt WAL frame length {} at {}:{}", len, seg.path.getFileName(), pos);
+                return;
+            }
+            ByteBuffer body = b.slice(pos + FRAME_HEADER, len);
+            check.reset();
+            check.update(body.duplicate());
+            if ((int) check.getValue() != b.getInt(pos + 4)) {
+                log.warn("⚠️ WAL CRC mismatch at {}:{} - stopping segment replay", seg.path.getFileName(), pos);
+                return;
+            }
+            visitor.onFrame((seg.number << 32) | pos, body);
+            pos += FRAME_HEADER + len;
+        }
+    }
+
+    /**
+     * 한 종목의 COMMIT 구간 - 재생 시 틱마다 조회하므로 정렬/병합 후 이진 탐색 (틱당 O(log 구간 수))
+     * COMMIT 레코드는 대개 LSN 순이지만 재시도 커밋은 늦게 기록될 수 있어 seal 에서 정렬
+     */
+    static final class CommittedRanges {
+        private long[] from = new long[8];
+        private long[] to = new long[8];
+        private int size;
+
+        void add(long fromLsn, long toLsn) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+            }
+            from[size] = fromLsn;
+            to[size] = toLsn;
+            size++;
+        }
+
+        /**
+         * 시작 LSN 순 정렬 + 겹치는 구간 병합 (add 가 끝난 뒤 한 번)
+         */
+        void seal() {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) sorted = from[i - 1] <= from[i];
+            if (!sorted) {
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) order[i] = i;
+                long[] f = from, t = to;
+                Arrays.sort(order, (a, b) -> Long.compare(f[a], f[b]));
+                long[] nf = new long[size], nt = new long[size];
+                for (int i = 0; i < size; i++) {
+                    nf[i] = f[order[i]];
+                    nt[i] = t[order[i]];
+                }
+                from = nf;
+                to = nt;
+            }
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (n > 0 && from[i] <= to[n - 1]) {
+                    to[n - 1] = Math.max(to[n - 1], to[i]);
+                } else {
+                    from[n] = from[i];
+                    to[n] = to[i];
+                    n++;
+                }
+            }
+            size = n;
+        }
+
+        boolean contains(long lsn) {
+            // 시작 LSN 이 lsn 이하인 마지막 구간
+            int lo = 0, hi = size - 1, found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (from[mid] <= lsn) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return found >= 0 && lsn <= to[found];
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.LAGO.realtime.wal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * WAL 세그먼트 파일 하나 (고정 크기, MappedByteBuffer)
+ *
+ * 헤더(16B): magic(int) + version(int) + 거래일 epochDay(long)
+ * 레코드:    길이(int, 0이면 끝) + CRC32C(int) + payload
+ * 파일은 생성 시 전체 크기로 확장되어 0으로 채워져 있으므로 길이 0 = 세그먼트 끝(또는 찢긴 꼬리)
+ */
+final class WalSegment {
+
+    static final int MAGIC = 0x4C57414C; // "LWAL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    final long number;
+    final Path path;
+    final LocalDate tradingDay;
+    private final FileChannel channel;
+    final MappedByteBuffer buf;
+
+    private WalSegment(long number, Path path, LocalDate tradingDay, FileChannel channel, MappedByteBuffer buf) {
+        this.number = number;
+        this.path = path;
+        this.tradingDay = tradingDay;
+        this.channel = channel;
+        this.buf = buf;
+    }
+
+    static Path pathOf(Path dir, long number) {
+        return dir.resolve(String.format("%020d.wal", number));
+    }
+
+    /**
+     * 파일명에서 세그먼트 번호 추출
+     * @return WAL 파일이 아니면 -1
+     */
+    static long numberOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(".wal")) return -1;
+        try {
+            return Long.parseLong(name.substring(0, name.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 새 세그먼트 생성 (쓰기용)
+     */
+    static WalSegment create(Path dir, long number, int sizeBytes, LocalDate tradingDay) throws IOException {
+        Path path = pathOf(dir, number);
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes);
+        buf.putInt(MAGIC).putInt(VERSION).putLong(tradingDay.toEpochDay());
+        return new WalSegment(number, path, tradingDay, ch, buf);
+    }
+
+    /**
+     * 기존 세그먼트 열기 (재생용, 읽기 전용)
+     * @return 헤더가 깨졌으면 null
+     */
+    static WalSegment openForRead(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        long size = ch.size();
+        if (size < HEADER_BYTES) {
+            ch.close();
+            return null;
+        }
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+            ch.close();
+            return null;
+        }
+        LocalDate day = LocalDate.ofEpochDay(buf.getLong());
+        return new WalSegment(numberOf(path), path, day, ch, buf);
+    }
+
+    void force() {
+        buf.force();
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 매핑은 GC 때 해제됨
+        }
+    }
+}
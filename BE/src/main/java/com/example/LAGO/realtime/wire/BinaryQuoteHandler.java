@@ -0,0 +1,252 @@
+package com.example.LAGO.realtime.wire;
+
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.StockRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /ws-quote 네이티브 WebSocket 바이너리 시세 핸들러 (프로토콜은 QuoteWire 참고)
+ *
+ * - 시세 원천은 STOMP 와 같은 QuoteBook (RealTimeDataBroadcaster 가 갱신)
+ * - flush-interval-ms 마다 세션별로 바뀐 구독 종목만 델타 인코딩해 한 메시지로 전송
+ *   (세션당 종목별 conflation 과 같은 효과)
+ * - 느린 클라이언트는 ConcurrentWebSocketSessionDecorator 의 전송 시간/버퍼 한도를 넘으면 끊김
+ * - 끊긴 세션 상태는 resume-ttl-ms 동안 토큰으로 보관 → RESUME 으로 심볼 테이블/델타 기준 유지
+ * - permessage-deflate 는 컨테이너가 협상 (BinaryQuoteWebSocketConfig 에서 끌 수 있음), 결과는 HELLO flags 로 알림
+ */
+@Slf4j
+@Component
+public class BinaryQuoteHandler extends BinaryWebSocketHandler {
+
+    private static final String DEFLATE = "permessage-deflate";
+
+    private final QuoteBook quoteBook;
+    private final StockRegistry stockRegistry;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${realtime.wire.flush-interval-ms:100}")
+    private long flushIntervalMs = 100;
+
+    @Value("${realtime.wire.max-symbols:200}")
+    private int maxSymbols = 200;
+
+    @Value("${realtime.wire.resume-ttl-ms:60000}")
+    private long resumeTtlMs = 60_000;
+
+    @Value("${realtime.wire.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs = 5_000;
+
+    @Value("${realtime.wire.buffer-size-limit:524288}")
+    private int bufferSizeLimit = 512 * 1024;
+
+    /**
+     * 소켓 1개 - RESUME 이면 수신 스레드가 wire 를 보관해 둔 세션으로 교체
+     * 교체+HELLO 와 flush 의 인코딩+전송은 lock 으로 묶음
+     * (교체 전 세션 기준으로 인코딩된 QUOTES 가 RESUME HELLO 뒤에 나가면 클라이언트가 엉뚱한 기준에 델타를 적용)
+     */
+    private static final class Connection {
+        private final WebSocketSession socket;
+        private final boolean deflate;
+        private final Object lock = new Object();
+        private volatile WireSession wire;
+
+        Connection(WebSocketSession socket, boolean deflate, WireSession wire) {
+            this.socket = socket;
+            this.deflate = deflate;
+            this.wire = wire;
+        }
+
+        WebSocketSession socket() {
+            return socket;
+        }
+
+        boolean deflate() {
+            return deflate;
+        }
+
+        WireSession wire() {
+            return wire;
+        }
+    }
+
+    private record Parked(WireSession wire, long expiresAt) {
+    }
+
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final Map<String, Parked> parked = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    // flush 스레드 전용 버퍼
+    private final QuoteWire.Writer body = new QuoteWire.Writer(4096);
+    private final QuoteWire.Writer out = new QuoteWire.Writer(4096);
+    private final int[] scratch = new int[QuoteBook.FIELD_COUNT];
+
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong resumed = new AtomicLong();
+    private final AtomicLong resumeMisses = new AtomicLong();
+
+    public BinaryQuoteHandler(QuoteBook quoteBook, StockRegistry stockRegistry) {
+        this.quoteBook = quoteBook;
+        this.stockRegistry = stockRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "quote-wire");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::expireParked, 10, 10, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) flusher.shutdownNow();
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        boolean deflate = session.getExtensions().stream().anyMatch(e -> DEFLATE.equals(e.getName()));
+        WebSocketSession socket = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, bufferSizeLimit);
+        Connection conn = new Connection(socket, deflate, newWireSession());
+        synchronized (conn.lock) {
+            connections.put(session.getId(), conn);
+            send(conn, conn.wire().hello(deflate, false));
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        Connection conn = connections.get(session.getId());
+        if (conn == null) return;
+        QuoteWire.Reader in = new QuoteWire.Reader(message.getPayload());
+        try {
+            int op = in.readByte();
+            switch (op) {
+                case QuoteWire.OP_SUBSCRIBE -> {
+                    int n = Math.min(in.readVarintInt(), maxSymbols);
+                    List<String> codes = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) codes.add(in.readShortString());
+                    // SYMBOLS 가 새 ID 를 쓰는 QUOTES 보다 먼저 나가도록 flush 와 같은 잠금
+                    synchronized (conn.lock) {
+                        byte[] symbols = conn.wire().subscribe(codes, stockRegistry::indexOf, maxSymbols);
+                        if (symbols != null) send(conn, symbols);
+                    }
+                }
+                case QuoteWire.OP_UNSUBSCRIBE -> {
+                    int n = in.readVarintInt();
+                    int[] ids = new int[Math.min(n, maxSymbols * 4)];
+                    for (int i = 0; i < ids.length; i++) ids[i] = in.readVarintInt();
+                    conn.wire().unsubscribe(ids);
+                }
+                case QuoteWire.OP_RESUME -> resume(conn, in.readBytes(QuoteWire.TOKEN_BYTES), in.readVarint());
+                default -> send(conn, WireSession.error("unknown op " + op));
+            }
+        } catch (IllegalArgumentException e) {
+            send(conn, WireSession.error(e.getMessage()));
+        }
+    }
+
+    private void resume(Connection conn, byte[] token, long clientLastSeq) {
+        Parked p = parked.remove(HexFormat.of().formatHex(token));
+        boolean hit = p != null && p.expiresAt() > System.currentTimeMillis() && p.wire().lastSeq() == clientLastSeq;
+        // 모르는 토큰이거나 중간 메시지를 놓침 → 새 상태로 다시 시작
+        WireSession next = hit ? p.wire() : newWireSession();
+        synchronized (conn.lock) {
+            conn.wire = next;
+            send(conn, next.hello(conn.deflate(), hit));
+        }
+        if (hit) resumed.incrementAndGet();
+        else resumeMisses.incrementAndGet();
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection conn = connections.remove(session.getId());
+        if (conn == null) return;
+        WireSession wire = conn.wire();
+        if (wire.activeCount() > 0) {
+            parked.put(HexFormat.of().formatHex(wire.token), new Parked(wire, System.currentTimeMillis() + resumeTtlMs));
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Quote wire transport error - {}: {}", session.getId(), exception.getMessage());
+    }
+
+    private WireSession newWireSession() {
+        byte[] token = new byte[QuoteWire.TOKEN_BYTES];
+        random.nextBytes(token);
+        return new WireSession(token);
+    }
+
+    private void flushSafely() {
+        try {
+            for (Connection conn : connections.values()) {
+                synchronized (conn.lock) {
+                    byte[] quotes = conn.wire().encodeQuotes(quoteBook, body, out, scratch);
+                    if (quotes != null) send(conn, quotes);
+                }
+            }
+        } catch (Exception e) {
+            log.error("❌ Quote wire flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void send(Connection conn, byte[] payload) {
+        try {
+            conn.socket().sendMessage(new BinaryMessage(payload));
+            messagesSent.incrementAndGet();
+            bytesSent.addAndGet(payload.length);
+        } catch (Exception e) {
+            log.debug("Quote wire send failed - {}: {}", conn.socket().getId(), e.getMessage());
+            try {
+                conn.socket().close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (Exception ignored) {
+                // 이미 닫힘
+            }
+        }
+    }
+
+    private void expireParked() {
+        long now = System.currentTimeMillis();
+        parked.values().removeIf(p -> p.expiresAt() <= now);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connections", connections.size());
+        stats.put("parked", parked.size());
+        stats.put("deflateConnections", connections.values().stream().filter(Connection::deflate).count());
+        stats.put("messagesSent", messagesSent.get());
+        stats.put("bytesSent", bytesSent.get());
+        stats.put("resumed", resumed.get());
+        stats.put("resumeMisses", resumeMisses.get());
+        return stats;
+    }
+}
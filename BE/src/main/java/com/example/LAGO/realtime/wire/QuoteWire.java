@@ -0,0 +1,179 @@
+package com.example.LAGO.realtime.wire;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * /ws-quote 바이너리 시세 프로토콜 (v1) 공통 정의
+ *
+ * 모든 정수는 LEB128 varint, 부호 있는 값(델타)은 zigzag 후 varint.
+ *
+ * 서버 → 클라이언트
+ *   HELLO    0x10 | version u8 | flags u8 (bit0 deflate, bit1 resumed) | token 16B | lastSeq varint
+ *   SYMBOLS  0x11 | n varint | { id varint | len u8 | ascii code } × n
+ *            (id 를 새로 알리거나 다시 구독 → 클라이언트는 그 id 의 값을 0으로 초기화)
+ *   QUOTES   0x12 | seq varint | n varint | { id varint | mask u8 | zigzag delta × popcount(mask) } × n
+ *            (필드 순서는 QuoteBook.PRICE..TIME, 델타 기준은 클라이언트가 가진 직전 값)
+ *   ERROR    0x1F | len u8 | utf8 message
+ *
+ * 클라이언트 → 서버
+ *   SUBSCRIBE    0x01 | n varint | { len u8 | ascii code } × n
+ *   UNSUBSCRIBE  0x02 | n varint | { id varint } × n
+ *   RESUME       0x03 | token 16B | lastSeq varint
+ *
+ * 재접속 시 RESUME 의 lastSeq 가 서버가 마지막으로 보낸 seq 와 같으면 심볼 테이블/델타 기준을 그대로 이어감,
+ * 아니면 새 토큰의 HELLO(resumed=0) → 클라이언트는 상태를 비우고 다시 SUBSCRIBE.
+ */
+public final class QuoteWire {
+
+    public static final int VERSION = 1;
+
+    public static final byte OP_SUBSCRIBE = 0x01;
+    public static final byte OP_UNSUBSCRIBE = 0x02;
+    public static final byte OP_RESUME = 0x03;
+
+    public static final byte OP_HELLO = 0x10;
+    public static final byte OP_SYMBOLS = 0x11;
+    public static final byte OP_QUOTES = 0x12;
+    public static final byte OP_ERROR = 0x1F;
+
+    public static final int FLAG_DEFLATE = 1;
+    public static final int FLAG_RESUMED = 1 << 1;
+
+    public static final int TOKEN_BYTES = 16;
+
+    private QuoteWire() {
+    }
+
+    public static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    public static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * 확장 가능한 바이트 버퍼 (재사용 가능)
+     */
+    public static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        public Writer(int initialCapacity) {
+            buf = new byte[Math.max(16, initialCapacity)];
+        }
+
+        public Writer reset() {
+            pos = 0;
+            return this;
+        }
+
+        public int size() {
+            return pos;
+        }
+
+        public Writer writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+            return this;
+        }
+
+        public Writer writeVarint(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+            return this;
+        }
+
+        public Writer writeSigned(long v) {
+            return writeVarint(zigzag(v));
+        }
+
+        public Writer writeBytes(byte[] src, int off, int len) {
+            ensure(len);
+            System.arraycopy(src, off, buf, pos, len);
+            pos += len;
+            return this;
+        }
+
+        public Writer writeBytes(Writer other) {
+            return writeBytes(other.buf, 0, other.pos);
+        }
+
+        /** 길이(u8) + ASCII */
+        public Writer writeShortString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            int len = Math.min(255, bytes.length);
+            writeByte(len);
+            return writeBytes(bytes, 0, len);
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int n) {
+            if (pos + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+        }
+    }
+
+    /**
+     * ByteBuffer 기반 읽기 (잘못된 입력은 IllegalArgumentException)
+     */
+    public static final class Reader {
+        private final ByteBuffer in;
+
+        public Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        public boolean hasRemaining() {
+            return in.hasRemaining();
+        }
+
+        public int readByte() {
+            try {
+                return in.get() & 0xFF;
+            } catch (BufferUnderflowException e) {
+                throw new IllegalArgumentException("truncated frame");
+            }
+        }
+
+        public long readVarint() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+            }
+            throw new IllegalArgumentException("varint too long");
+        }
+
+        public int readVarintInt() {
+            long v = readVarint();
+            if (v < 0 || v > Integer.MAX_VALUE) throw new IllegalArgumentException("varint out of range: " + v);
+            return (int) v;
+        }
+
+        public long readSigned() {
+            return unzigzag(readVarint());
+        }
+
+        public byte[] readBytes(int len) {
+            if (in.remaining() < len) throw new IllegalArgumentException("truncated frame");
+            byte[] out = new byte[len];
+            in.get(out);
+            return out;
+        }
+
+        public String readShortString() {
+            return new String(readBytes(readByte()), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.LAGO.realtime.wire;
+
+import com.example.LAGO.realtime.QuoteBook;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * /ws-quote 참조 클라이언트 디코더 (Android 클라이언트 구현 기준, 서버 테스트에도 사용)
+ *
+ * - 심볼 테이블과 id 별 현재 값을 보관하고, QUOTES 의 델타를 더해 절대값으로 복원
+ * - HELLO(resumed=0) 를 받으면 상태를 모두 비움
+ * - 요청 메시지(SUBSCRIBE/UNSUBSCRIBE/RESUME) 인코딩 제공
+ * 스레드 안전하지 않음 (소켓 수신 스레드 하나에서 사용)
+ */
+public final class QuoteWireDecoder {
+
+    /** 디코딩 이벤트 콜백 */
+    public interface Listener {
+        default void onHello(byte[] token, boolean resumed, boolean deflate, long lastSeq) {
+        }
+
+        default void onSymbol(int id, String code) {
+        }
+
+        /**
+         * @param values 현재 값 전체 (QuoteBook.PRICE..TIME), 호출 후 재사용되므로 복사해서 보관
+         * @param changedMask 이번 메시지에서 바뀐 필드 비트
+         */
+        default void onQuote(int id, String code, int[] values, int changedMask) {
+        }
+
+        default void onError(String message) {
+        }
+    }
+
+    private final Map<Integer, String> codes = new HashMap<>();
+    private final Map<Integer, int[]> values = new HashMap<>();
+    private byte[] token;
+    private long lastSeq;
+
+    /**
+     * 서버 메시지 하나 처리
+     * @throws IllegalArgumentException 잘못된 메시지
+     */
+    public void decode(ByteBuffer frame, Listener listener) {
+        QuoteWire.Reader in = new QuoteWire.Reader(frame);
+        int op = in.readByte();
+        switch (op) {
+            case QuoteWire.OP_HELLO -> {
+                int version = in.readByte();
+                if (version != QuoteWire.VERSION) throw new IllegalArgumentException("unsupported version " + version);
+                int flags = in.readByte();
+                byte[] newToken = in.readBytes(QuoteWire.TOKEN_BYTES);
+                long seq = in.readVarint();
+                boolean resumed = (flags & QuoteWire.FLAG_RESUMED) != 0;
+                if (!resumed) {
+                    codes.clear();
+                    values.clear();
+                }
+                token = newToken;
+                lastSeq = seq;
+                listener.onHello(newToken, resumed, (flags & QuoteWire.FLAG_DEFLATE) != 0, seq);
+            }
+            case QuoteWire.OP_SYMBOLS -> {
+                int n = in.readVarintInt();
+                for (int i = 0; i < n; i++) {
+                    int id = in.readVarintInt();
+                    String code = in.readShortString();
+                    codes.put(id, code);
+                    values.put(id, new int[QuoteBook.FIELD_COUNT]);
+                    listener.onSymbol(id, code);
+                }
+            }
+            case QuoteWire.OP_QUOTES -> {
+                long seq = in.readVarint();
+                int n = in.readVarintInt();
+                for (int i = 0; i < n; i++) {
+                    int id = in.readVarintInt();
+                    int mask = in.readByte();
+                    int[] current = values.get(id);
+                    if (current == null) throw new IllegalArgumentException("unknown symbol id " + id);
+                    for (int f = 0; f < QuoteBook.FIELD_COUNT; f++) {
+                        if ((mask & (1 << f)) != 0) current[f] = (int) (current[f] + in.readSigned());
+                    }
+                    listener.onQuote(id, codes.get(id), current, mask);
+                }
+                lastSeq = seq;
+            }
+            case QuoteWire.OP_ERROR -> listener.onError(in.readShortString());
+            default -> throw new IllegalArgumentException("unknown op " + op);
+        }
+    }
+
+    public String codeOf(int id) {
+        return codes.get(id);
+    }
+
+    /** id 의 현재 값 (없으면 null) */
+    public int[] valuesOf(int id) {
+        return values.get(id);
+    }
+
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    public byte[] token() {
+        return token;
+    }
+
+    // ===== 요청 인코딩 =====
+
+    public static byte[] subscribe(String... stockCodes) {
+        QuoteWire.Writer out = new QuoteWire.Writer(2 + stockCodes.length * 8)
+                .writeByte(QuoteWire.OP_SUBSCRIBE).writeVarint(stockCodes.length);
+        for (String code : stockCodes) out.writeShortString(code);
+        return out.toByteArray();
+    }
+
+    public static byte[] unsubscribe(int... ids) {
+        QuoteWire.Writer out = new QuoteWire.Writer(2 + ids.length * 2)
+                .writeByte(QuoteWire.OP_UNSUBSCRIBE).writeVarint(ids.length);
+        for (int id : ids) out.writeVarint(id);
+        return out.toByteArray();
+    }
+
+    /**
+     * 재접속 직후 보낼 RESUME (이전 HELLO 를 받은 적이 없으면 null)
+     */
+    public byte[] resume() {
+        if (token == null) return null;
+        return new QuoteWire.Writer(QuoteWire.TOKEN_BYTES + 12)
+                .writeByte(QuoteWire.OP_RESUME).writeBytes(token, 0, token.length).writeVarint(lastSeq)
+                .toByteArray();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.LAGO.realtime.wire;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.QuoteBook;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * /ws-quote 세션 하나의 서버측 상태 (연결이 끊겨도 resume-ttl 동안 보관)
+ *
+ * - 심볼 테이블: 종목 인덱스 ↔ 세션 내 id (0부터 순서대로, 해제해도 id 는 재사용하지 않음)
+ * - id 별로 클라이언트가 가진 값(lastSent)과 마지막으로 반영한 QuoteBook version
+ * - 메시지 seq: QUOTES 를 보낼 때마다 +1 (resume 일치 판정용)
+ * 모든 메서드는 세션 단위로 synchronized (수신 스레드 / flush 스레드)
+ */
+final class WireSession {
+
+    private static final int NULL = KisTickRecord.NULL;
+
+    final byte[] token;
+    private final Map<Integer, Integer> idByIndex = new HashMap<>();
+    private int[] indexById = new int[16];
+    private int[][] lastSent = new int[16][];
+    private long[] lastVersion = new long[16];
+    private int nextId;
+    private int active;
+    private long seq;
+
+    WireSession(byte[] token) {
+        this.token = token;
+        Arrays.fill(indexById, -1);
+    }
+
+    synchronized long lastSeq() {
+        return seq;
+    }
+
+    synchronized int activeCount() {
+        return active;
+    }
+
+    /**
+     * 구독 추가 → SYMBOLS 메시지 (새로 활성화된 항목 없으면 null)
+     * @param indexOf 종목코드 → StockRegistry 인덱스 (없으면 음수)
+     * @param maxSymbols 세션당 최대 구독 수
+     */
+    synchronized byte[] subscribe(List<String> codes, ToIntFunction<String> indexOf, int maxSymbols) {
+        QuoteWire.Writer body = new QuoteWire.Writer(codes.size() * 10);
+        int n = 0;
+        for (String code : codes) {
+            int index = indexOf.applyAsInt(code);
+            if (index < 0) continue;
+            Integer existing = idByIndex.get(index);
+            if (existing != null && indexById[existing] >= 0) continue; // 이미 구독 중
+            if (active >= maxSymbols) break;
+            int id;
+            if (existing != null) {
+                id = existing;
+            } else {
+                id = nextId++;
+                ensureCapacity(id + 1);
+                idByIndex.put(index, id);
+            }
+            indexById[id] = index;
+            lastSent[id] = new int[QuoteBook.FIELD_COUNT]; // 클라이언트도 0으로 초기화
+            lastVersion[id] = 0;
+            active++;
+            body.writeVarint(id).writeShortString(code);
+            n++;
+        }
+        if (n == 0) return null;
+        return new QuoteWire.Writer(body.size() + 8)
+                .writeByte(QuoteWire.OP_SYMBOLS).writeVarint(n).writeBytes(body).toByteArray();
+    }
+
+    synchronized void unsubscribe(int[] ids) {
+        for (int id : ids) {
+            if (id < 0 || id >= nextId || indexById[id] < 0) continue;
+            indexById[id] = -1;
+            lastSent[id] = null;
+            active--;
+        }
+    }
+
+    /**
+     * 마지막 전송 이후 바뀐 구독 종목을 QUOTES 메시지로 인코딩
+     * @param body/out 호출 스레드 전용 재사용 버퍼
+     * @param scratch 길이 QuoteBook.FIELD_COUNT
+     * @return 메시지 바이트, 보낼 것이 없으면 null
+     */
+    synchronized byte[] encodeQuotes(QuoteBook book, QuoteWire.Writer body, QuoteWire.Writer out, int[] scratch) {
+        body.reset();
+        int n = 0;
+        for (int id = 0; id < nextId; id++) {
+            int index = indexById[id];
+            if (index < 0) continue;
+            if (book.versionOf(index) <= lastVersion[id]) continue;
+            long version = book.read(index, scratch);
+            int[] sent = lastSent[id];
+            int mask = 0;
+            for (int f = 0; f < QuoteBook.FIELD_COUNT; f++) {
+                if (scratch[f] != NULL && scratch[f] != sent[f]) mask |= 1 << f;
+            }
+            lastVersion[id] = version;
+            if (mask == 0) continue;
+            body.writeVarint(id).writeByte(mask);
+            for (int f = 0; f < QuoteBook.FIELD_COUNT; f++) {
+                if ((mask & (1 << f)) == 0) continue;
+                body.writeSigned((long) scratch[f] - sent[f]);
+                sent[f] = scratch[f];
+            }
+            n++;
+        }
+        if (n == 0) return null;
+        seq++;
+        return out.reset().writeByte(QuoteWire.OP_QUOTES).writeVarint(seq).writeVarint(n)
+                .writeBytes(body).toByteArray();
+    }
+
+    byte[] hello(boolean deflate, boolean resumed) {
+        int flags = (deflate ? QuoteWire.FLAG_DEFLATE : 0) | (resumed ? QuoteWire.FLAG_RESUMED : 0);
+        return new QuoteWire.Writer(32)
+                .writeByte(QuoteWire.OP_HELLO).writeByte(QuoteWire.VERSION).writeByte(flags)
+                .writeBytes(token, 0, token.length).writeVarint(lastSeq()).toByteArray();
+    }
+
+    static byte[] error(String message) {
+        return new QuoteWire.Writer(message.length() + 4)
+                .writeByte(QuoteWire.OP_ERROR).writeShortString(message).toByteArray();
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= indexById.length) return;
+        int cap = Math.max(n, indexById.length * 2);
+        int old = indexById.length;
+        indexById = Arrays.copyOf(indexById, cap);
+        Arrays.fill(indexById, old, cap, -1);
+        lastSent = Arrays.copyOf(lastSent, cap);
+        lastVersion = Arrays.copyOf(lastVersion, cap);
+    }
+}
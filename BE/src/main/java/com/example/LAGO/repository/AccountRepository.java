@@ -2,6 +2,9 @@ package com.example.LAGO.repository;
 
 import com.example.LAGO.domain.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -39,4 +42,37 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      * @return 계좌
      */
     Optional<Account> findByAccountIdAndUserId(Long accountId, Long userId);
+
+    // ======================== 주문 체결용 원자적 갱신 (OrderExecutionEngine) ========================
+
+    /**
+     * 잔액이 충분할 때만 차감 (읽고-계산하고-저장 대신 조건부 UPDATE 1문장)
+     * @return 1 = 차감됨, 0 = 잔액 부족 또는 계좌 없음
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Account a set a.balance = a.balance - :amount where a.accountId = :accountId and a.balance >= :amount")
+    int debitIfSufficient(@Param("accountId") Long accountId, @Param("amount") int amount);
+
+    /**
+     * 잔액 증가
+     * @return 갱신된 행 수
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :amount where a.accountId = :accountId")
+    int credit(@Param("accountId") Long accountId, @Param("amount") int amount);
+
+    /**
+     * 총 자산 = 잔액 + 보유 종목 매입금액 합계 (같은 트랜잭션의 최신 값 기준)
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+        UPDATE accounts SET total_asset = balance + (
+            SELECT COALESCE(SUM(sh.total_price), 0) FROM stock_holding sh
+            WHERE sh.account_id = :accountId AND sh.quantity > 0)
+        WHERE account_id = :accountId
+        """, nativeQuery = true)
+    int refreshTotalAsset(@Param("accountId") Long accountId);
+
+    @Query("select a.balance from Account a where a.accountId = :accountId")
+    Optional<Integer> findBalanceByAccountId(@Param("accountId") Long accountId);
 }
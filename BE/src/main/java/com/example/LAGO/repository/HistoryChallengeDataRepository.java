@@ -22,6 +22,16 @@ public interface HistoryChallengeDataRepository extends JpaRepository<HistoryCha
             "ORDER BY hcd.eventDateTime DESC LIMIT 1 " )
     HistoryChallengeData findLatestChallengeData(@Param("targetDate") LocalDateTime targetDate);
 
+    /**
+     * 특정 챌린지의 전체 주가 데이터를 조회합니다. (HistoryChallengeTimeline 적재용)
+     * @param challengeId 챌린지 ID
+     * @return 챌린지 일시순 주가 데이터 목록
+     */
+    @Query("SELECT hcd FROM HistoryChallengeData hcd " +
+            "WHERE hcd.challengeId = :challengeId " +
+            "ORDER BY hcd.eventDateTime ASC, hcd.originDateTime ASC")
+    List<HistoryChallengeData> findAllByChallengeIdOrderByEventDateTime(@Param("challengeId") Integer challengeId);
+
     /**
      * 특정 챌린지의 지정된 과거 내의 모든 주가 데이터를 조회합니다.
      * @param challengeId 챌린지 ID
@@ -2,6 +2,7 @@ package com.example.LAGO.repository;
 
 import com.example.LAGO.domain.StockHolding;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -106,4 +107,42 @@ public interface StockHoldingRepository extends JpaRepository<StockHolding, Long
 
     // @Query("SELECT sh FROM StockHolding sh WHERE sh.account.accountId = :accountId AND sh.quantity > 0 ORDER BY sh.profitLossRate ASC")
     // List<StockHolding> findTopLosingStocks(@Param("accountId") Long accountId, @Param("limit") int limit);
+
+    // ======================== 주문 체결용 원자적 갱신 (OrderExecutionEngine) ========================
+
+    /**
+     * 기존 보유분에 매수 수량/금액 가산
+     * @return 0 이면 보유분 없음 → 호출측에서 신규 생성
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+        update StockHolding sh set sh.quantity = sh.quantity + :quantity, sh.totalPrice = sh.totalPrice + :amount
+        where sh.accountId = :accountId and sh.stockInfoId = :stockInfoId
+        """)
+    int addToHolding(@Param("accountId") Long accountId, @Param("stockInfoId") Integer stockInfoId,
+                     @Param("quantity") int quantity, @Param("amount") int amount);
+
+    /**
+     * 보유 수량이 충분할 때만 차감, 매입금액은 남은 수량 비율로 조정 (SET 우변은 모두 갱신 전 값)
+     * @return 1 = 차감됨, 0 = 보유 수량 부족 또는 미보유
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = """
+        UPDATE stock_holding
+        SET total_price = (total_price::bigint * (quantity - :quantity) / quantity)::int,
+            quantity    = quantity - :quantity
+        WHERE account_id = :accountId AND stock_info_id = :stockInfoId AND quantity >= :quantity
+        """, nativeQuery = true)
+    int reduceIfSufficient(@Param("accountId") Long accountId, @Param("stockInfoId") Integer stockInfoId,
+                           @Param("quantity") int quantity);
+
+    /**
+     * 전량 매도된 보유분 삭제
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from StockHolding sh where sh.accountId = :accountId and sh.stockInfoId = :stockInfoId and sh.quantity <= 0")
+    int deleteEmpty(@Param("accountId") Long accountId, @Param("stockInfoId") Integer stockInfoId);
+
+    @Query("select coalesce(sum(sh.quantity), 0) from StockHolding sh where sh.accountId = :accountId and sh.stockInfoId = :stockInfoId")
+    long sumQuantity(@Param("accountId") Long accountId, @Param("stockInfoId") Integer stockInfoId);
 }
@@ -2,6 +2,7 @@ package com.example.LAGO.scheduler;
 
 import com.example.LAGO.dto.response.HistoryChallengeDataResponse;
 import com.example.LAGO.exception.ErrorResponse;
+import com.example.LAGO.realtime.fanout.StompSubscriptionRegistry;
 import com.example.LAGO.service.HistoryChallengeService;
 import com.example.LAGO.service.HistoryChallengeServiceImpl;
 import lombok.RequiredArgsConstructor;
@@ -21,8 +22,11 @@ public class ChallengeScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(HistoryChallengeServiceImpl.class);
 
+    public static final String TOPIC = "/topic/history-challenge";
+
     private final HistoryChallengeService historyChallengeService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final StompSubscriptionRegistry subscriptionRegistry;
 
     // 1초마다 메소드 실행
     @Scheduled(fixedRate = 1000)
@@ -34,8 +38,10 @@ public class ChallengeScheduler {
         // 오후 3시와 9시 사이일 때만 데이터 전송
         // 테스트 및 시연을 위해 24시간으로 변경
 //        if (now.isAfter(startTime) && now.isBefore(endTime)) {
+            // 구독자가 없으면 조회/직렬화 자체를 생략
+            if (!subscriptionRegistry.hasSubscribers(TOPIC)) return;
             HistoryChallengeDataResponse latestData = historyChallengeService.getLatestData();
-            messagingTemplate.convertAndSend("/topic/history-challenge", latestData);
+            messagingTemplate.convertAndSend(TOPIC, latestData);
 //        }
     }
 }
@@ -8,7 +8,6 @@ import com.example.LAGO.dto.response.HistoryChallengeDataResponse;
 import com.example.LAGO.dto.response.HistoryChallengeNewsResponse;
 import com.example.LAGO.dto.response.HistoryChallengeResponse;
 import com.example.LAGO.exception.NoContentException;
-import com.example.LAGO.repository.HistoryChallengeDataRepository;
 import com.example.LAGO.repository.HistoryChallengeNewsRepository;
 import com.example.LAGO.repository.HistoryChallengeRepository;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +18,6 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,15 +26,16 @@ public class HistoryChallengeServiceImpl implements HistoryChallengeService {
     private static final Logger log = LoggerFactory.getLogger(HistoryChallengeServiceImpl.class);
 
     private final HistoryChallengeRepository historyChallengeRepository;
-    private final HistoryChallengeDataRepository historyChallengeDataRepository;
     private final HistoryChallengeNewsRepository historyChallengeNewsRepository;
+    private final HistoryChallengeTimeline historyChallengeTimeline;
 
     @Override
     public HistoryChallengeDataResponse getLatestData() {
-        // TODO: '상태 관리'
-
         LocalDateTime now = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
-        HistoryChallengeData latest = historyChallengeDataRepository.findLatestChallengeData(now);
+
+        // 진행 중인 챌린지는 메모리 타임라인에서 (1초마다 호출되므로 DB 조회하지 않음, 대체 조회도 주기적으로만)
+        HistoryChallengeData latest = latestOf(historyChallengeTimeline.active(now), now);
+        if (latest == null) latest = historyChallengeTimeline.latestFallback(now);
 
         return new HistoryChallengeDataResponse(latest);
     }
@@ -47,13 +46,15 @@ public class HistoryChallengeServiceImpl implements HistoryChallengeService {
         LocalDateTime now = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
 
         // 1. 현재 날짜로 진행 중인 챌린지 조회
-        HistoryChallenge challenge = historyChallengeRepository.findByDate(now);
-        if (challenge == null) {
+        HistoryChallengeTimeline.Series series = historyChallengeTimeline.active(now);
+        if (series == null) {
             throw new NoContentException("현재 진행 중인 역사 챌린지가 없습니다.");
         }
+        HistoryChallenge challenge = series.challenge();
 
         // 2. 해당 챌린지의 가장 최신 주가 데이터 조회
-        HistoryChallengeData currentData = historyChallengeDataRepository.findLatestChallengeData(now);
+        HistoryChallengeData currentData = latestOf(series, now);
+        if (currentData == null) currentData = historyChallengeTimeline.latestFallback(now);
 
         // 3. 두 엔티티를 사용하여 응답 DTO 생성 및 반환
         return new HistoryChallengeResponse(challenge, currentData);
@@ -62,9 +63,8 @@ public class HistoryChallengeServiceImpl implements HistoryChallengeService {
     @Override
     public List<HistoryChallengeDataResponse> getHistoryChallengeData(Integer challengeId, Interval interval, LocalDateTime fromDateTime, LocalDateTime toDateTime) {
 
-        // 0. 챌린지 정보 조회
-        historyChallengeRepository.findById(challengeId)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid challenge ID: " + challengeId));
+        // 0. 챌린지 타임라인 조회 (없는 챌린지면 IllegalArgumentException)
+        HistoryChallengeTimeline.Series series = historyChallengeTimeline.series(challengeId);
 
         // 1. 현재 일시
         LocalDateTime now = LocalDateTime.now(ZoneId.of("Asia/Seoul"));
@@ -72,24 +72,20 @@ public class HistoryChallengeServiceImpl implements HistoryChallengeService {
         if (now.isBefore(toDateTime)) toDateTime = now;
         if (now.isBefore(fromDateTime)) fromDateTime = now;
 
-        // 2. interval 문자열 매핑
-        String intervalString = Interval.intervalToString(interval);
-
-        // 3. DB 조회 (현재 시간까지)
-        List<Object[]> aggregatedData = historyChallengeDataRepository.findAggregatedByChallengeIdAndDate(
-                challengeId,
-                intervalString,
-                fromDateTime,
-                toDateTime
-        );
+        // 2. 간격별 집계 (현재 시간까지, time_bucket 쿼리와 같은 규칙으로 메모리에서 롤업)
+        List<HistoryChallengeDataResponse> aggregatedData = series.aggregate(interval, fromDateTime, toDateTime);
 
-        if (aggregatedData == null || aggregatedData.isEmpty()) {
+        if (aggregatedData.isEmpty()) {
             throw new NoContentException("해당 챌린지의 차트 데이터가 없습니다.");
         }
 
-        return aggregatedData.stream()
-                .map(HistoryChallengeDataResponse::new)
-                .collect(Collectors.toList());
+        return aggregatedData;
+    }
+
+    private static HistoryChallengeData latestOf(HistoryChallengeTimeline.Series series, LocalDateTime now) {
+        if (series == null) return null;
+        int index = series.indexAt(now);
+        return index < 0 ? null : series.dataAt(index);
     }
 
     @Override
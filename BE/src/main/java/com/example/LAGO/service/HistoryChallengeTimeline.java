@@ -0,0 +1,346 @@
+package com.example.LAGO.service;
+
+import com.example.LAGO.constants.Interval;
+import com.example.LAGO.domain.HistoryChallenge;
+import com.example.LAGO.domain.HistoryChallengeData;
+import com.example.LAGO.dto.response.HistoryChallengeDataResponse;
+import com.example.LAGO.repository.HistoryChallengeDataRepository;
+import com.example.LAGO.repository.HistoryChallengeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 역사챌린지 타임라인 (history_challenge_data 를 챌린지별로 한 번만 읽어 원시 배열로 보관)
+ *
+ * 챌린지 데이터는 과거 시세를 챌린지 일시(event_date_time)에 다시 재생하는 정적 데이터라
+ * - 최신 데이터: 챌린지 일시 배열에서 커서를 현재 시각까지 전진 (1초마다 DB 조회하던 것 대체)
+ * - 차트 간격 집계: time_bucket 쿼리와 같은 규칙으로 메모리에서 롤업
+ * 진행 중 챌린지는 active-check-ms 마다만 DB 로 다시 확인 (없을 때도 매 요청 조회하지 않도록)
+ * - 진행 중 챌린지가 없을 때의 대체 조회(findLatestChallengeData)도 같은 주기로만
+ * 적재한 타임라인은 series-ttl-ms 가 지나면 다음 조회 때 다시 읽음 (데이터 보정 반영, 끝난 챌린지는 주기적으로 제거)
+ */
+@Slf4j
+@Component
+public class HistoryChallengeTimeline {
+
+    private final HistoryChallengeRepository historyChallengeRepository;
+    private final HistoryChallengeDataRepository historyChallengeDataRepository;
+
+    @Value("${history-challenge.timeline.active-check-ms:10000}")
+    private long activeCheckMs = 10_000;
+
+    @Value("${history-challenge.timeline.series-ttl-ms:600000}")
+    private long seriesTtlMs = 600_000;
+
+    private final Map<Integer, Loaded> loaded = new ConcurrentHashMap<>();
+    private volatile Loaded active;
+    private volatile long nextActiveCheckMs;
+    private volatile Fallback fallback;
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong activeChecks = new AtomicLong();
+    private final AtomicLong fallbackQueries = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /** 적재한 타임라인 + 적재 시각 */
+    private record Loaded(Series series, long loadedAtMs) {}
+
+    /** 진행 중 챌린지가 없을 때의 최신 데이터 (조회 결과가 없으면 data = null) */
+    private record Fallback(HistoryChallengeData data, long expiresAtMs) {}
+
+    public HistoryChallengeTimeline(HistoryChallengeRepository historyChallengeRepository,
+                                    HistoryChallengeDataRepository historyChallengeDataRepository) {
+        this.historyChallengeRepository = historyChallengeRepository;
+        this.historyChallengeDataRepository = historyChallengeDataRepository;
+    }
+
+    /**
+     * 현재 진행 중인 챌린지 타임라인
+     * @return 진행 중인 챌린지가 없으면 null
+     */
+    public Series active(LocalDateTime now) {
+        long nowMs = System.currentTimeMillis();
+        Loaded l = active;
+        if (l != null && l.series().covers(now)) {
+            if (fresh(l, nowMs)) return l.series();
+            l = cached(l.series().challenge(), nowMs); // TTL 지남 → 같은 챌린지 다시 적재
+            active = l;
+            return l.series();
+        }
+        if (nowMs < nextActiveCheckMs) return null;
+
+        synchronized (this) {
+            l = active;
+            if (l != null && l.series().covers(now)) return l.series();
+            if (nowMs < nextActiveCheckMs) return null;
+            activeChecks.incrementAndGet();
+            HistoryChallenge challenge = historyChallengeRepository.findByDate(now);
+            active = challenge == null ? null : cached(challenge, nowMs);
+            nextActiveCheckMs = nowMs + activeCheckMs;
+            return active == null ? null : active.series();
+        }
+    }
+
+    /**
+     * 진행 중 챌린지에서 최신 데이터를 못 찾았을 때의 대체 조회 (findLatestChallengeData)
+     * 결과는 active-check-ms 동안 재사용 - 챌린지가 없는 동안 1초 폴링마다 DB 를 조회하지 않도록
+     */
+    public HistoryChallengeData latestFallback(LocalDateTime now) {
+        long nowMs = System.currentTimeMillis();
+        Fallback f = fallback;
+        if (f != null && nowMs < f.expiresAtMs()) return f.data();
+        synchronized (this) {
+            f = fallback;
+            if (f != null && nowMs < f.expiresAtMs()) return f.data();
+            fallbackQueries.incrementAndGet();
+            f = new Fallback(historyChallengeDataRepository.findLatestChallengeData(now), nowMs + activeCheckMs);
+            fallback = f;
+            return f.data();
+        }
+    }
+
+    /**
+     * 챌린지 ID 로 타임라인 조회 (처음이면 적재)
+     * @throws IllegalArgumentException 없는 챌린지
+     */
+    public Series series(Integer challengeId) {
+        long nowMs = System.currentTimeMillis();
+        Loaded l = loaded.get(challengeId);
+        if (l != null && fresh(l, nowMs)) return l.series();
+        HistoryChallenge challenge = historyChallengeRepository.findById(challengeId)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid challenge ID: " + challengeId));
+        return cached(challenge, nowMs).series();
+    }
+
+    /**
+     * TTL 이 지난 타임라인 제거 (끝난 챌린지가 메모리에 계속 남지 않도록)
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void evictExpired() {
+        long nowMs = System.currentTimeMillis();
+        int before = loaded.size();
+        loaded.values().removeIf(l -> !fresh(l, nowMs));
+        int evicted = before - loaded.size();
+        if (evicted > 0) evictions.addAndGet(evicted);
+    }
+
+    // 캐시에 있고 TTL 안이면 그대로, 아니면 다시 적재 (같은 챌린지는 한 번만 적재)
+    private Loaded cached(HistoryChallenge challenge, long nowMs) {
+        return loaded.compute(challenge.getChallengeId(),
+                (id, cur) -> cur != null && fresh(cur, nowMs) ? cur : new Loaded(load(challenge), nowMs));
+    }
+
+    private boolean fresh(Loaded l, long nowMs) {
+        return nowMs - l.loadedAtMs() < seriesTtlMs;
+    }
+
+    private Series load(HistoryChallenge challenge) {
+        List<HistoryChallengeData> rows =
+                historyChallengeDataRepository.findAllByChallengeIdOrderByEventDateTime(challenge.getChallengeId());
+        loads.incrementAndGet();
+        log.info("📚 History challenge timeline loaded: challengeId={}, rows={}", challenge.getChallengeId(), rows.size());
+        return new Series(challenge, rows);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Loaded l = active;
+        stats.put("activeChallengeId", l == null ? null : l.series().challenge().getChallengeId());
+        stats.put("activeCursor", l == null ? null : l.series().cursor);
+        stats.put("loadedChallenges", loaded.size());
+        stats.put("loads", loads.get());
+        stats.put("evictions", evictions.get());
+        stats.put("activeChecks", activeChecks.get());
+        stats.put("fallbackQueries", fallbackQueries.get());
+        return stats;
+    }
+
+    /**
+     * 챌린지 1개의 전체 시세 (챌린지 일시순)
+     * 일시는 LocalDateTime 을 UTC 기준 epoch 초로 바꾼 값 - 벽시계 필드가 그대로 보존되어 time_bucket 과 경계가 같음
+     */
+    public static final class Series {
+
+        private static final long MINUTE = 60;
+        private static final long DAY = 86_400;
+        private static final long WEEK = 7 * DAY;
+        private static final long MONDAY = 4 * DAY; // 1970-01-05 (time_bucket 주 단위 기준: 월요일)
+        private static final int SCAN_LIMIT = 64;
+
+        private final HistoryChallenge challenge;
+        private final long[] event;
+        private final long[] origin;
+        private final int[] open;
+        private final int[] high;
+        private final int[] low;
+        private final int[] close;
+        private final int[] volume;
+
+        // 마지막으로 조회한 시각의 인덱스 (대부분 앞으로만 전진)
+        private volatile int cursor = -1;
+
+        Series(HistoryChallenge challenge, List<HistoryChallengeData> rows) {
+            this.challenge = challenge;
+            int n = rows.size();
+            event = new long[n];
+            origin = new long[n];
+            open = new int[n];
+            high = new int[n];
+            low = new int[n];
+            close = new int[n];
+            volume = new int[n];
+            for (int i = 0; i < n; i++) {
+                HistoryChallengeData row = rows.get(i);
+                event[i] = seconds(row.getEventDateTime());
+                origin[i] = seconds(row.getOriginDateTime());
+                open[i] = row.getOpenPrice();
+                high[i] = row.getHighPrice();
+                low[i] = row.getLowPrice();
+                close[i] = row.getClosePrice();
+                volume[i] = row.getVolume();
+            }
+        }
+
+        public HistoryChallenge challenge() {
+            return challenge;
+        }
+
+        public int size() {
+            return event.length;
+        }
+
+        boolean covers(LocalDateTime now) {
+            return !now.isBefore(challenge.getStartDate()) && !now.isAfter(challenge.getEndDate());
+        }
+
+        /**
+         * @return 챌린지 일시가 now 이하인 마지막 행, 없으면 -1
+         */
+        public int indexAt(LocalDateTime now) {
+            long t = seconds(now);
+            int c = cursor;
+            if ((c >= 0 && event[c] > t) || (c + SCAN_LIMIT < event.length && event[c + SCAN_LIMIT] <= t)) {
+                c = upperBound(t) - 1; // 시계가 뒤로 갔거나 한참 건너뛴 경우만 이진 탐색
+            } else {
+                while (c + 1 < event.length && event[c + 1] <= t) c++;
+            }
+            cursor = c;
+            return c;
+        }
+
+        /**
+         * 해당 행을 엔티티로 (응답 DTO 생성자 재사용용, 영속 상태 아님)
+         */
+        public HistoryChallengeData dataAt(int index) {
+            return HistoryChallengeData.builder()
+                    .challengeId(challenge.getChallengeId())
+                    .eventDateTime(dateTime(event[index]))
+                    .originDateTime(dateTime(origin[index]))
+                    .openPrice(open[index])
+                    .highPrice(high[index])
+                    .lowPrice(low[index])
+                    .closePrice(close[index])
+                    .volume(volume[index])
+                    .build();
+        }
+
+        /**
+         * findAggregatedByChallengeIdAndDate 와 같은 결과 (event_date_time BETWEEN from AND to,
+         * origin_date_time 기준 time_bucket, FIRST/LAST 는 origin_date_time 순)
+         */
+        public List<HistoryChallengeDataResponse> aggregate(Interval interval, LocalDateTime from, LocalDateTime to) {
+            int start = lowerBound(seconds(from));
+            int end = upperBound(seconds(to));
+
+            // bucket → {firstOrigin, firstEvent, open, high, low, lastOrigin, close, volume}
+            TreeMap<Long, long[]> buckets = new TreeMap<>();
+            for (int i = start; i < end; i++) {
+                long bucket = bucketStart(interval, origin[i]);
+                long[] acc = buckets.get(bucket);
+                if (acc == null) {
+                    buckets.put(bucket, new long[]{
+                            origin[i], event[i], open[i], high[i], low[i], origin[i], close[i], volume[i]});
+                    continue;
+                }
+                if (origin[i] < acc[0]) {
+                    acc[0] = origin[i];
+                    acc[1] = event[i];
+                    acc[2] = open[i];
+                }
+                acc[3] = Math.max(acc[3], high[i]);
+                acc[4] = Math.min(acc[4], low[i]);
+                if (origin[i] >= acc[5]) {
+                    acc[5] = origin[i];
+                    acc[6] = close[i];
+                }
+                acc[7] += volume[i];
+            }
+
+            List<HistoryChallengeDataResponse> result = new ArrayList<>(buckets.size());
+            long rowId = 0;
+            for (Map.Entry<Long, long[]> e : buckets.entrySet()) {
+                long[] acc = e.getValue();
+                result.add(new HistoryChallengeDataResponse(++rowId, dateTime(e.getKey()), dateTime(acc[1]),
+                        (int) acc[2], (int) acc[3], (int) acc[4], (int) acc[6], acc[7]));
+            }
+            return result;
+        }
+
+        static long bucketStart(Interval interval, long t) {
+            return switch (interval) {
+                case MINUTE -> floor(t, MINUTE);
+                case MINUTE3 -> floor(t, 3 * MINUTE);
+                case MINUTE5 -> floor(t, 5 * MINUTE);
+                case MINUTE10 -> floor(t, 10 * MINUTE);
+                case MINUTE15 -> floor(t, 15 * MINUTE);
+                case MINUTE30 -> floor(t, 30 * MINUTE);
+                case MINUTE60 -> floor(t, 60 * MINUTE);
+                case DAY -> floor(t, DAY);
+                case WEEK -> floor(t - MONDAY, WEEK) + MONDAY;
+                case MONTH -> seconds(dateTime(t).toLocalDate().withDayOfMonth(1).atStartOfDay());
+                case YEAR -> seconds(dateTime(t).toLocalDate().withDayOfYear(1).atStartOfDay());
+            };
+        }
+
+        private static long floor(long t, long step) {
+            return Math.floorDiv(t, step) * step;
+        }
+
+        // event[] 에서 t 이상인 첫 위치
+        private int lowerBound(long t) {
+            int i = Arrays.binarySearch(event, t);
+            if (i < 0) return -i - 1;
+            while (i > 0 && event[i - 1] == t) i--;
+            return i;
+        }
+
+        // event[] 에서 t 초과인 첫 위치
+        private int upperBound(long t) {
+            int i = Arrays.binarySearch(event, t);
+            if (i < 0) return -i - 1;
+            while (i + 1 < event.length && event[i + 1] == t) i++;
+            return i + 1;
+        }
+
+        private static long seconds(LocalDateTime t) {
+            return t.toEpochSecond(ZoneOffset.UTC);
+        }
+
+        private static LocalDateTime dateTime(long seconds) {
+            return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.LAGO.service;
+
+/**
+ * 관심 종목 추가/삭제 이벤트 (커밋 후 /user/queue/watchlist 구독 갱신용)
+ * @param userId 유저 ID
+ * @param code 종목 코드
+ * @param added true면 추가, false면 삭제
+ */
+public record InterestChangedEvent(long userId, String code, boolean added) {
+}
@@ -7,6 +7,7 @@ import com.example.LAGO.dto.response.InterestToggleResponse;
 import com.example.LAGO.repository.InterestRepository;
 import com.example.LAGO.repository.StockInfoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +20,7 @@ import java.util.stream.Collectors;
 public class InterestService {
     private final InterestRepository interestRepository;
     private final StockInfoRepository stockInfoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // 1. 특정 유저 관심 종목 리스트 조회
     public List<InterestResponse> list(long userId) {
@@ -28,12 +30,21 @@ public class InterestService {
                 .collect(Collectors.toList());
     }
 
+    // 1-1. 특정 유저 관심 종목 stock_info_id 목록 (실시간 관심 종목 스트림 구독 시)
+    public List<Integer> stockInfoIds(long userId) {
+        return interestRepository.findByUserId(userId)
+                .stream()
+                .map(Interest::getStockInfoId)
+                .collect(Collectors.toList());
+    }
+
     // 2. 토글 기능 (없으면 추가, 있으면 삭제)
     @Transactional
     public InterestToggleResponse toggle(long userId, String code) {
         if (interestRepository.existsByUserIdAndStockInfo_Code(userId, code)) {
             // 존재하면 삭제
             long deletedCount = interestRepository.deleteByUserIdAndStockInfo_Code(userId, code);
+            if (deletedCount > 0) eventPublisher.publishEvent(new InterestChangedEvent(userId, code, false));
             return new InterestToggleResponse(false, deletedCount > 0);
         } else {
             // 존재하지 않으면 추가
@@ -46,6 +57,7 @@ public class InterestService {
                     .build();
 
             interestRepository.save(interest);
+            eventPublisher.publishEvent(new InterestChangedEvent(userId, code, true));
             return new InterestToggleResponse(true, true);
         }
     }
@@ -7,16 +7,14 @@ import com.example.LAGO.dto.response.MockTradeResponse;
 import com.example.LAGO.repository.*;
 import com.example.LAGO.utils.TradingUtils;
 import com.example.LAGO.realtime.RealtimeDataService;
+import com.example.LAGO.realtime.StockLastPriceStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import java.util.Optional;
 
 /**
  * 모의투자 거래 서비스
@@ -46,9 +44,9 @@ public class MockTradingService {
     private final AccountRepository accountRepository;
     private final StockInfoRepository stockInfoRepository;
     private final StockHoldingRepository stockHoldingRepository;
-    private final MockTradeRepository mockTradeRepository;
     private final RealtimeDataService realtimeDataService;
-    private final TicksRepository ticksRepository;
+    private final OrderExecutionEngine orderExecutionEngine;
+    private final StockLastPriceStore stockLastPriceStore;
 
     // ======================== Virtual Thread Executor ========================
     
@@ -79,12 +77,10 @@ public class MockTradingService {
      * @throws IllegalArgumentException 잘못된 요청 파라미터
      * @throws RuntimeException 거래 처리 실패
      */
-    @Transactional
     public MockTradeResponse processBuyOrder(Long userId, MockTradeRequest request) {
         return processBuyOrder(userId, request, null); // 기본 계좌 사용
     }
 
-    @Transactional
     public MockTradeResponse processBuyOrder(Long userId, MockTradeRequest request, Integer accountType) {
         log.info("매수 주문 처리 시작: userId={}, stockCode={}, quantity={}, price={}, accountType={}", 
                 userId, request.getStockCode(), request.getQuantity(), request.getPrice(), accountType);
@@ -115,41 +111,30 @@ public class MockTradingService {
             // 7. 계좌 잔액 충분성 검증
             validateSufficientBalance(account, totalCost);
             
-            // 8. 동기 거래 처리 (트랜잭션 보장을 위해)
-            try {
-                // 계좌 잔액 차감
-                updateAccountForBuy(account, totalCost);
-                
-                // 거래 내역 저장
-                MockTrade mockTrade = createAndSaveMockTrade(
-                    account, request.getStockCode(), TradeType.BUY,
-                    request.getQuantity(), executedPrice, totalCost
-                );
-                
-                // 보유 주식 추가/업데이트
-                updateStockHoldingForBuy(account, request, executedPrice, totalCost);
-                
-                log.info("매수 주문 처리 완료: userId={}, stockCode={}, quantity={}, totalCost={}", 
-                        userId, request.getStockCode(), request.getQuantity(), totalCost);
-                
-                // 성공 응답 생성
-                return MockTradeResponse.success(
-                    mockTrade.getTradeId(),
-                    request.getStockCode(),
-                    stockInfo.getName(),
-                    request.getQuantity(),
-                    executedPrice,
-                    totalCost,
-                    0, // 수수료 없음
-                    account.getBalance(),
-                    TradingConstants.TRADE_TYPE_BUY
-                );
-                
-            } catch (Exception e) {
-                log.error("매수 주문 처리 중 오류 발생: userId={}", userId, e);
-                throw new RuntimeException("매수 주문 처리 실패", e);
-            }
-            
+            // 8. 계좌 lane 에서 조건부 차감 + 보유 주식 가산 + 거래 내역 저장 (한 트랜잭션)
+            OrderExecutionEngine.Fill fill = orderExecutionEngine.execute(new OrderExecutionEngine.OrderCommand(
+                    account.getAccountId(), stockInfo.getStockInfoId(), TradeType.BUY,
+                    request.getQuantity(), executedPrice, totalCost, false));
+
+            log.info("매수 주문 처리 완료: userId={}, stockCode={}, quantity={}, totalCost={}",
+                    userId, request.getStockCode(), request.getQuantity(), totalCost);
+
+            // 성공 응답 생성
+            return MockTradeResponse.success(
+                fill.tradeId(),
+                request.getStockCode(),
+                stockInfo.getName(),
+                request.getQuantity(),
+                executedPrice,
+                totalCost,
+                0, // 수수료 없음
+                fill.balance(),
+                TradingConstants.TRADE_TYPE_BUY
+            );
+
+        } catch (OrderExecutionEngine.OrderRejectedException e) {
+            log.warn("매수 주문 거절: userId={}, code={}, error={}", userId, e.getErrorCode(), e.getMessage());
+            return MockTradeResponse.failure(request.getStockCode(), e.getMessage());
         } catch (IllegalArgumentException e) {
             log.warn("매수 주문 요청 오류: userId={}, error={}", userId, e.getMessage());
             return MockTradeResponse.failure(request.getStockCode(), e.getMessage());
@@ -179,12 +164,10 @@ public class MockTradingService {
      * @throws IllegalArgumentException 잘못된 요청 파라미터
      * @throws RuntimeException 거래 처리 실패
      */
-    @Transactional
     public MockTradeResponse processSellOrder(Long userId, MockTradeRequest request) {
         return processSellOrder(userId, request, null); // 기본 계좌 사용
     }
 
-    @Transactional
     public MockTradeResponse processSellOrder(Long userId, MockTradeRequest request, Integer accountType) {
         log.info("매도 주문 처리 시작: userId={}, stockCode={}, quantity={}, price={}, accountType={}", 
                 userId, request.getStockCode(), request.getQuantity(), request.getPrice(), accountType);
@@ -216,41 +199,30 @@ public class MockTradingService {
                 TradingConstants.TRADE_TYPE_SELL
             );
             
-            // 8. 동기 거래 처리 (트랜잭션 보장을 위해)
-            try {
-                // 계좌 잔액 증가
-                updateAccountForSell(account, totalRevenue);
-                
-                // 거래 내역 저장
-                MockTrade mockTrade = createAndSaveMockTrade(
-                    account, request.getStockCode(), TradeType.SELL,
-                    request.getQuantity(), executedPrice, totalRevenue
-                );
-                
-                // 보유 주식 감소/삭제
-                updateStockHoldingForSell(holding, request.getQuantity());
-                
-                log.info("매도 주문 처리 완료: userId={}, stockCode={}, quantity={}, totalRevenue={}", 
-                        userId, request.getStockCode(), request.getQuantity(), totalRevenue);
-                
-                // 성공 응답 생성
-                return MockTradeResponse.success(
-                    mockTrade.getTradeId(),
-                    request.getStockCode(),
-                    stockInfo.getName(),
-                    request.getQuantity(),
-                    executedPrice,
-                    totalRevenue,
-                    0, // 수수료 없음
-                    account.getBalance(),
-                    TradingConstants.TRADE_TYPE_SELL
-                );
-                    
-            } catch (Exception e) {
-                log.error("매도 주문 처리 중 오류 발생: userId={}", userId, e);
-                throw new RuntimeException("매도 주문 처리 실패", e);
-            }
-            
+            // 8. 계좌 lane 에서 조건부 수량 차감 + 잔액 가산 + 거래 내역 저장 (한 트랜잭션)
+            OrderExecutionEngine.Fill fill = orderExecutionEngine.execute(new OrderExecutionEngine.OrderCommand(
+                    account.getAccountId(), stockInfo.getStockInfoId(), TradeType.SELL,
+                    request.getQuantity(), executedPrice, totalRevenue, false));
+
+            log.info("매도 주문 처리 완료: userId={}, stockCode={}, quantity={}, totalRevenue={}",
+                    userId, request.getStockCode(), request.getQuantity(), totalRevenue);
+
+            // 성공 응답 생성
+            return MockTradeResponse.success(
+                fill.tradeId(),
+                request.getStockCode(),
+                stockInfo.getName(),
+                request.getQuantity(),
+                executedPrice,
+                totalRevenue,
+                0, // 수수료 없음
+                fill.balance(),
+                TradingConstants.TRADE_TYPE_SELL
+            );
+
+        } catch (OrderExecutionEngine.OrderRejectedException e) {
+            log.warn("매도 주문 거절: userId={}, code={}, error={}", userId, e.getErrorCode(), e.getMessage());
+            return MockTradeResponse.failure(request.getStockCode(), e.getMessage());
         } catch (IllegalArgumentException e) {
             log.warn("매도 주문 요청 오류: userId={}, error={}", userId, e.getMessage());
             return MockTradeResponse.failure(request.getStockCode(), e.getMessage());
@@ -364,116 +336,12 @@ public class MockTradingService {
         }
     }
 
-    // ======================== 업데이트 메서드들 ========================
-
-    /**
-     * 매수 시 계좌 정보 업데이트
-     */
-    private void updateAccountForBuy(Account account, Integer totalCost) {
-        account.setBalance(account.getBalance() - totalCost);
-        account.setTotalAsset(account.getTotalAsset()); // 총 자산은 동일 (현금 -> 주식)
-        accountRepository.save(account);
-        
-        log.debug("매수 후 계좌 업데이트 완료: accountId={}, newBalance={}", 
-                account.getAccountId(), account.getBalance());
-    }
-
-    /**
-     * 매도 시 계좌 정보 업데이트
-     */
-    private void updateAccountForSell(Account account, Integer totalRevenue) {
-        account.setBalance(account.getBalance() + totalRevenue);
-        accountRepository.save(account);
-        
-        log.debug("매도 후 계좌 업데이트 완료: accountId={}, newBalance={}", 
-                account.getAccountId(), account.getBalance());
-    }
-
-    /**
-     * 거래 내역 생성 및 저장
-     */
-    private MockTrade createAndSaveMockTrade(Account account, String stockCode, TradeType tradeType,
-                                           Integer quantity, Integer executedPrice, Integer totalAmount) {
-        // 종목 정보 조회
-        StockInfo stockInfo = stockInfoRepository.findByCode(stockCode)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid stock code: " + stockCode));
-        
-        MockTrade mockTrade = MockTrade.builder()
-            .accountId(account.getAccountId())
-            .stockId(stockInfo.getStockInfoId())
-            .tradeType(tradeType)
-            .quantity(quantity)
-            .price(executedPrice)
-            .tradeAt(LocalDateTime.now())
-            .build();
-            
-        return mockTradeRepository.save(mockTrade);
-    }
-
-    /**
-     * 매수 시 보유 주식 추가/업데이트
-     */
-    private void updateStockHoldingForBuy(Account account, MockTradeRequest request, 
-                                        Integer executedPrice, Integer totalCost) {
-        Optional<StockHolding> existingHolding = 
-            stockHoldingRepository.findByAccountIdAndStockCode(account.getAccountId(), request.getStockCode());
-            
-        if (existingHolding.isPresent()) {
-            // 기존 보유 주식이 있는 경우 수량과 총 매수금액 업데이트
-            StockHolding holding = existingHolding.get();
-            Integer newQuantity = holding.getQuantity() + request.getQuantity();
-            Integer newTotalPrice = holding.getTotalPrice() + totalCost;
-            
-            holding.setQuantity(newQuantity);
-            holding.setTotalPrice(newTotalPrice);
-            
-            stockHoldingRepository.save(holding);
-        } else {
-            // 종목 정보 조회
-            StockInfo stockInfo = stockInfoRepository.findByCode(request.getStockCode())
-                .orElseThrow(() -> new IllegalArgumentException("Stock not found: " + request.getStockCode()));
-                
-            // 신규 보유 주식 생성
-            StockHolding newHolding = StockHolding.builder()
-                .accountId(account.getAccountId())
-                .stockInfoId(stockInfo.getStockInfoId())
-                .quantity(request.getQuantity())
-                .totalPrice(totalCost)
-                .build();
-                
-            stockHoldingRepository.save(newHolding);
-        }
-    }
-
-    /**
-     * 매도 시 보유 주식 감소/삭제
-     */
-    private void updateStockHoldingForSell(StockHolding holding, Integer sellQuantity) {
-        Integer remainingQuantity = holding.getQuantity() - sellQuantity;
-        
-        if (remainingQuantity <= 0) {
-            // 전량 매도시 보유 주식 삭제
-            stockHoldingRepository.delete(holding);
-            log.debug("전량 매도로 보유 주식 삭제: holdingId={}", holding.getHoldingId());
-        } else {
-            // 부분 매도시 수량 감소 및 총 매수금액 비례 조정
-            Integer newTotalPrice = (holding.getTotalPrice() * remainingQuantity) / holding.getQuantity();
-            
-            holding.setQuantity(remainingQuantity);
-            holding.setTotalPrice(newTotalPrice);
-            
-            stockHoldingRepository.save(holding);
-            log.debug("부분 매도로 보유 주식 업데이트: holdingId={}, newQuantity={}", 
-                    holding.getHoldingId(), remainingQuantity);
-        }
-    }
-
     // ======================== 유틸리티 메서드들 ========================
 
     /**
      * 실제 체결 가격 결정
      * - 지정가 주문: 요청 가격 사용
-     * - 시장가 주문: Redis에서 웹소켓 실시간 가격 → TICKS 테이블 마지막 가격 순으로 조회
+     * - 시장가 주문: Redis에서 웹소켓 실시간 가격 → stock_last_price 마지막 체결가 순으로 조회 (둘 다 없으면 거절)
      */
     private Integer determineExecutedPrice(Integer requestPrice, StockInfo stockInfo) {
         if (requestPrice != null && requestPrice > 0) {
@@ -486,23 +354,17 @@ public class MockTradingService {
                 return realtimePrice;
             }
             
-            // 2차: TICKS 테이블에서 마지막 확인된 가격 조회
-            try {
-                Integer lastKnownPrice = ticksRepository.findLatestClosePriceByStockCode(stockInfo.getCode());
-                if (lastKnownPrice != null && lastKnownPrice > 0) {
-                    log.info("종목 {} 웹소켓 실시간 가격 조회 실패, TICKS 테이블 마지막 가격 사용: {}원", 
-                            stockInfo.getCode(), lastKnownPrice);
-                    return lastKnownPrice;
-                }
-            } catch (Exception e) {
-                log.error("종목 {} TICKS 테이블 조회 실패", stockInfo.getCode(), e);
+            // 2차: stock_last_price 마지막 체결가 (메모리 → PK 조회)
+            Integer lastKnownPrice = stockLastPriceStore.getPrice(stockInfo.getStockInfoId());
+            if (lastKnownPrice != null && lastKnownPrice > 0) {
+                log.info("종목 {} 웹소켓 실시간 가격 조회 실패, 마지막 체결가 사용: {}원",
+                        stockInfo.getCode(), lastKnownPrice);
+                return lastKnownPrice;
             }
-            
-            // 3차: StockInfo 테이블에는 가격 정보가 없으므로 생략
-            
-            // 최후: StockInfo에도 가격이 없으면 기본값
-            log.error("종목 {} 모든 가격 정보 없음, 기본 가격 사용", stockInfo.getCode());
-            return 100000000; // 최후의 기본 가격 (1억원)
+
+            // 가격을 모르면 임의 가격으로 체결하지 않고 주문 거절
+            log.error("종목 {} 모든 가격 정보 없음, 시장가 주문 거절", stockInfo.getCode());
+            throw new IllegalArgumentException("현재가를 확인할 수 없어 시장가 주문을 처리할 수 없습니다");
         }
     }
 }
@@ -0,0 +1,277 @@
+package com.example.LAGO.service;
+
+import com.example.LAGO.domain.MockTrade;
+import com.example.LAGO.domain.StockHolding;
+import com.example.LAGO.domain.TradeType;
+import com.example.LAGO.repository.AccountRepository;
+import com.example.LAGO.repository.MockTradeRepository;
+import com.example.LAGO.repository.StockHoldingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 주문 체결 엔진 - 계좌별 직렬 실행 + 조건부 원자 UPDATE
+ *
+ * 기존에는 Account/StockHolding 을 읽어 Java 에서 계산 후 save 했기 때문에
+ * 같은 계좌의 동시 주문(앱 연타, 자동매매봇 parallelStream)이 서로의 갱신을 덮어써
+ * 잔액 이중 사용 / 초과 매도가 가능했다.
+ *
+ * - 계좌 ID 로 고른 lane(가상 스레드 단일 실행기)에서만 체결 → 같은 계좌 주문은 도착 순서대로 한 번에 하나
+ *   lane 은 lanes 개로 줄무늬 분할, 다른 계좌는 다른 lane 에서 병렬 처리
+ * - 잔액/수량 변경은 "WHERE balance >= ?" 형태의 조건부 UPDATE (다른 인스턴스와 겹쳐도 음수가 되지 않음)
+ * - 체결 1건 = 짧은 트랜잭션 1개 (호출 스레드는 트랜잭션/커넥션을 잡지 않은 채 대기)
+ * - trading.order.group-commit=true 면 lane 은 OrderJournal 에 추가만 하고, 여러 계좌 주문이 배치 트랜잭션 1개로 커밋됨
+ */
+@Slf4j
+@Component
+public class OrderExecutionEngine {
+
+    private final AccountRepository accountRepository;
+    private final StockHoldingRepository stockHoldingRepository;
+    private final MockTradeRepository mockTradeRepository;
+    private final OrderJournal orderJournal;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${trading.order.lanes:64}")
+    private int laneCount = 64;
+
+    // lane 대기열에서 이 시간 안에 시작하지 못한 주문은 체결하지 않고 거절
+    @Value("${trading.order.timeout-ms:10000}")
+    private long timeoutMs = 10_000;
+
+    @Value("${trading.order.group-commit:true}")
+    private boolean groupCommit = true;
+
+    private ExecutorService[] lanes;
+    private AtomicInteger[] queued;
+    private static final ThreadLocal<Integer> CURRENT_LANE = new ThreadLocal<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong filled = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final Map<String, AtomicLong> rejected = new ConcurrentHashMap<>();
+
+    public OrderExecutionEngine(AccountRepository accountRepository,
+                                StockHoldingRepository stockHoldingRepository,
+                                MockTradeRepository mockTradeRepository,
+                                OrderJournal orderJournal,
+                                PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.stockHoldingRepository = stockHoldingRepository;
+        this.mockTradeRepository = mockTradeRepository;
+        this.orderJournal = orderJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        lanes = new ExecutorService[laneCount];
+        queued = new AtomicInteger[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("order-lane-" + i).factory());
+            queued[i] = new AtomicInteger();
+        }
+        log.info("🚀 OrderExecutionEngine started: lanes={}, timeout={}ms, groupCommit={}", laneCount, timeoutMs, groupCommit);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (lanes == null) return;
+        for (ExecutorService lane : lanes) lane.shutdown();
+        for (ExecutorService lane : lanes) {
+            try {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 주문 체결 (계좌 lane 에서 실행, 끝날 때까지 대기)
+     * @throws OrderRejectedException 잔액/보유 수량 부족, 대기 시간 초과
+     */
+    public Fill execute(OrderCommand command) {
+        int lane = laneOf(command.accountId());
+        submitted.incrementAndGet();
+        if (Integer.valueOf(lane).equals(CURRENT_LANE.get())) {
+            return count(() -> apply(command)); // lane 안에서 다시 호출된 경우 (대기하면 교착)
+        }
+
+        int depth = queued[lane].incrementAndGet();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        Future<Fill> future = lanes[lane].submit(() -> {
+            queued[lane].decrementAndGet();
+            CURRENT_LANE.set(lane);
+            return count(() -> apply(command));
+        });
+        return await(future);
+    }
+
+    private Fill await(Future<Fill> future) {
+        try {
+            try {
+                return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 아직 시작 전이면 취소 (체결되지 않았음이 확실), 이미 실행 중이면 끝까지 기다려 결과 반환
+                if (future.cancel(false)) {
+                    timeouts.incrementAndGet();
+                    throw new OrderRejectedException("ORDER_TIMEOUT", "주문이 밀려 처리하지 못했습니다. 잠시 후 다시 시도해주세요");
+                }
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (future.cancel(false)) {
+                throw new OrderRejectedException("ORDER_INTERRUPTED", "주문 처리가 중단되었습니다");
+            }
+            throw new IllegalStateException("order interrupted while executing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("order execution failed", e.getCause());
+        }
+    }
+
+    private Fill count(Supplier<Fill> work) {
+        try {
+            Fill fill = work.get();
+            filled.incrementAndGet();
+            return fill;
+        } catch (OrderRejectedException e) {
+            rejected.computeIfAbsent(e.getErrorCode(), k -> new AtomicLong()).incrementAndGet();
+            throw e;
+        }
+    }
+
+    private Fill apply(OrderCommand command) {
+        if (groupCommit) {
+            return orderJournal.commit(command);
+        }
+        return transactionTemplate.execute(status ->
+                command.tradeType() == TradeType.BUY ? applyBuy(command) : applySell(command));
+    }
+
+    private Fill applyBuy(OrderCommand c) {
+        if (accountRepository.debitIfSufficient(c.accountId(), c.amount()) == 0) {
+            int balance = accountRepository.findBalanceByAccountId(c.accountId()).orElse(0);
+            throw new OrderRejectedException("INSUFFICIENT_BALANCE",
+                    String.format("잔액이 부족합니다. 필요: %,d원, 보유: %,d원", c.amount(), balance));
+        }
+        if (stockHoldingRepository.addToHolding(c.accountId(), c.stockInfoId(), c.quantity(), c.amount()) == 0) {
+            stockHoldingRepository.save(StockHolding.builder()
+                    .accountId(c.accountId())
+                    .stockInfoId(c.stockInfoId())
+                    .quantity(c.quantity())
+                    .totalPrice(c.amount())
+                    .build());
+        }
+        return finish(c);
+    }
+
+    private Fill applySell(OrderCommand c) {
+        if (stockHoldingRepository.reduceIfSufficient(c.accountId(), c.stockInfoId(), c.quantity()) == 0) {
+            long holding = stockHoldingRepository.sumQuantity(c.accountId(), c.stockInfoId());
+            throw new OrderRejectedException("INSUFFICIENT_STOCK",
+                    String.format("보유 수량이 부족합니다. 보유: %d주, 매도요청: %d주", holding, c.quantity()));
+        }
+        stockHoldingRepository.deleteEmpty(c.accountId(), c.stockInfoId());
+        accountRepository.credit(c.accountId(), c.amount());
+        return finish(c);
+    }
+
+    private Fill finish(OrderCommand c) {
+        MockTrade trade = mockTradeRepository.save(MockTrade.builder()
+                .accountId(c.accountId())
+                .stockId(c.stockInfoId())
+                .tradeType(c.tradeType())
+                .quantity(c.quantity())
+                .price(c.price())
+                .tradeAt(LocalDateTime.now())
+                .isQuiz(false)
+                .build());
+        if (c.refreshTotalAsset()) {
+            accountRepository.refreshTotalAsset(c.accountId());
+        }
+        int balance = accountRepository.findBalanceByAccountId(c.accountId()).orElse(0);
+        int holding = (int) stockHoldingRepository.sumQuantity(c.accountId(), c.stockInfoId());
+        return new Fill(trade.getTradeId(), balance, holding);
+    }
+
+    int laneOf(Long accountId) {
+        return (int) Math.floorMod(accountId, (long) laneCount);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int pending = 0;
+        if (queued != null) {
+            for (AtomicInteger q : queued) pending += q.get();
+        }
+        Map<String, Long> rejectedByCode = new LinkedHashMap<>();
+        rejected.forEach((code, n) -> rejectedByCode.put(code, n.get()));
+        stats.put("lanes", laneCount);
+        stats.put("pending", pending);
+        stats.put("maxQueueDepth", maxQueueDepth.get());
+        stats.put("submitted", submitted.get());
+        stats.put("filled", filled.get());
+        stats.put("rejected", rejectedByCode);
+        stats.put("timeouts", timeouts.get());
+        stats.put("groupCommit", groupCommit);
+        if (groupCommit) {
+            stats.put("journal", orderJournal.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * 체결 요청
+     * @param amount 잔액 변경액 (매수: 차감할 총 비용, 매도: 가산할 총 수익)
+     * @param refreshTotalAsset 체결 후 total_asset = 잔액 + 매입금액 합계 로 갱신할지
+     */
+    public record OrderCommand(Long accountId, Integer stockInfoId, TradeType tradeType,
+                               int quantity, int price, int amount, boolean refreshTotalAsset) {
+    }
+
+    /**
+     * 체결 결과 (잔액/보유 수량은 같은 트랜잭션에서 읽은 체결 직후 값)
+     */
+    public record Fill(Long tradeId, int balance, int holdingQuantity) {
+    }
+
+    /**
+     * 잔액/보유 수량 부족 등으로 체결하지 않은 주문 (DB 변경 없음)
+     */
+    public static class OrderRejectedException extends RuntimeException {
+        private final String errorCode;
+
+        public OrderRejectedException(String errorCode, String message) {
+            super(message);
+            this.errorCode = errorCode;
+        }
+
+        public String getErrorCode() {
+            return errorCode;
+        }
+    }
+}
@@ -0,0 +1,559 @@
+package com.example.LAGO.service;
+
+import com.example.LAGO.domain.TradeType;
+import com.example.LAGO.service.OrderExecutionEngine.Fill;
+import com.example.LAGO.service.OrderExecutionEngine.OrderCommand;
+import com.example.LAGO.service.OrderExecutionEngine.OrderRejectedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 주문 그룹 커밋 저널
+ *
+ * 주문마다 MockTrade insert / StockHolding upsert / Account save / 총자산 갱신을 각각 왕복하던 것을
+ * 커미터 스레드 1개가 flush-interval-ms 동안 (또는 max-batch 건까지) 모아 트랜잭션 1개로 반영한다.
+ *
+ * - 대상 계좌/보유 행을 FOR UPDATE 로 잠그고 메모리에서 도착 순서대로 잔액/수량 검사 → 거절/체결 결정
+ * - 변경분은 unnest 배열 UPDATE/INSERT/DELETE 로 일괄 반영, trade_id 는 generate_series 로 한 번에 발급
+ * - 주문 스레드는 자기 주문이 포함된 배치가 커밋되면 응답 (synchronous-commit=off 면 WAL fsync 전에 응답)
+ * - 대기 상한: commit-timeout-ms 안에 배치에 들어가지 못한 주문은 대기열에서 빼고 ORDER_TIMEOUT 거절 (체결 안 됨이 확실),
+ *   이미 배치에 들어간 주문은 결과를 기다리되 배치 트랜잭션의 문장마다 같은 값의 statement_timeout 이 걸림
+ *
+ * 배치 크기: OrderExecutionEngine 의 lane 은 주문 1건씩 commit() 에서 대기하므로 한 인스턴스에서 동시에 대기열에 있을 수 있는
+ * 주문은 최대 lanes 건. max-batch 기본값을 lanes 와 같게 두어, 모든 lane 이 대기 중이면 flush-interval 을 기다리지 않고 바로 커밋
+ * (lanes 보다 크게 잡으면 그 크기는 채워지지 않고 매 배치가 flush-interval 만큼 늦어짐)
+ */
+@Slf4j
+@Component
+public class OrderJournal {
+
+    private static final String LOCK_ACCOUNTS_SQL = """
+            SELECT account_id, balance FROM accounts
+            WHERE account_id = ANY(?) ORDER BY account_id FOR UPDATE
+            """;
+
+    private static final String LOCK_HOLDINGS_SQL = """
+            SELECT holding_id, account_id, stock_info_id, quantity, total_price FROM stock_holding
+            WHERE account_id = ANY(?) AND stock_info_id = ANY(?) ORDER BY holding_id FOR UPDATE
+            """;
+
+    private static final String NEXT_TRADE_IDS_SQL =
+            "SELECT nextval('mock_trade_trade_id_seq') FROM generate_series(1, ?)";
+
+    private static final String UPDATE_BALANCES_SQL = """
+            UPDATE accounts a SET balance = v.balance
+            FROM unnest(?::bigint[], ?::int[]) AS v(account_id, balance)
+            WHERE a.account_id = v.account_id
+            """;
+
+    private static final String UPDATE_HOLDINGS_SQL = """
+            UPDATE stock_holding h SET quantity = v.quantity, total_price = v.total_price
+            FROM unnest(?::bigint[], ?::int[], ?::int[]) AS v(holding_id, quantity, total_price)
+            WHERE h.holding_id = v.holding_id
+            """;
+
+    private static final String DELETE_HOLDINGS_SQL = "DELETE FROM stock_holding WHERE holding_id = ANY(?)";
+
+    private static final String INSERT_HOLDINGS_SQL = """
+            INSERT INTO stock_holding (account_id, stock_info_id, quantity, total_price)
+            SELECT * FROM unnest(?::bigint[], ?::int[], ?::int[], ?::int[])
+            """;
+
+    private static final String INSERT_TRADES_SQL = """
+            INSERT INTO mock_trade (trade_id, account_id, stock_id, buy_sell, quantity, price, trade_at, is_quiz)
+            SELECT t.*, false FROM unnest(?::bigint[], ?::bigint[], ?::int[], ?::text[], ?::int[], ?::int[], ?::timestamp[]) AS t
+            """;
+
+    private static final String REFRESH_TOTAL_ASSET_SQL = """
+            UPDATE accounts a SET total_asset = a.balance + COALESCE((
+                SELECT SUM(sh.total_price) FROM stock_holding sh
+                WHERE sh.account_id = a.account_id AND sh.quantity > 0), 0)
+            WHERE a.account_id = ANY(?)
+            """;
+
+    private static final Set<String> SYNCHRONOUS_COMMIT_LEVELS = Set.of("on", "off", "local", "remote_write", "remote_apply");
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+
+    // 첫 주문 도착 후 이 시간만큼 더 모아서 커밋 (0 이면 직전 커밋 중 쌓인 것만)
+    @Value("${trading.journal.flush-interval-ms:5}")
+    private long flushIntervalMs = 5;
+
+    // 동시에 대기할 수 있는 주문 수(= lanes)를 넘지 않게 (클래스 설명 참고)
+    @Value("${trading.journal.max-batch:${trading.order.lanes:64}}")
+    private int maxBatch = 64;
+
+    @Value("${trading.journal.commit-timeout-ms:10000}")
+    private long commitTimeoutMs = 10_000;
+
+    // PostgreSQL synchronous_commit (on: WAL fsync 후 응답, off: fsync 전 응답 - 장애 시 마지막 수 ms 주문 유실 가능, 정합성은 유지)
+    @Value("${trading.journal.synchronous-commit:on}")
+    private String synchronousCommit = "on";
+
+    private ExecutorService committer;
+    private volatile boolean running;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong committedOrders = new AtomicLong();
+    private final AtomicLong rejectedOrders = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong maxBatchSeen = new AtomicLong();
+    private volatile long lastBatchMs;
+
+    public OrderJournal(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!SYNCHRONOUS_COMMIT_LEVELS.contains(synchronousCommit)) {
+            throw new IllegalStateException("trading.journal.synchronous-commit must be one of " + SYNCHRONOUS_COMMIT_LEVELS);
+        }
+        running = true;
+        committer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "order-journal-committer");
+            t.setDaemon(true);
+            return t;
+        });
+        committer.submit(this::commitLoop);
+        log.info("🚀 OrderJournal started: flushInterval={}ms, maxBatch={}, commitTimeout={}ms, synchronousCommit={}",
+                flushIntervalMs, maxBatch, commitTimeoutMs, synchronousCommit);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (committer == null) return;
+        committer.shutdown();
+        try {
+            committer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 주문을 저널에 추가하고 그 배치가 커밋될 때까지 대기
+     * @throws OrderRejectedException 잔액/보유 수량 부족, 대기 시간 초과 (DB 변경 없음)
+     */
+    public Fill commit(OrderCommand command) {
+        if (!running) throw new IllegalStateException("order journal is not running");
+        Entry entry = new Entry(command, LocalDateTime.now());
+        queue.add(entry);
+        appended.incrementAndGet();
+        try {
+            try {
+                return entry.result.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 커미터가 아직 꺼내지 않았으면 빼고 거절 (체결되지 않았음이 확실), 이미 배치에 들어갔으면 결과까지 대기
+                if (queue.remove(entry)) {
+                    timeouts.incrementAndGet();
+                    throw new OrderRejectedException("ORDER_TIMEOUT", "주문이 밀려 처리하지 못했습니다. 잠시 후 다시 시도해주세요");
+                }
+                return entry.result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (queue.remove(entry)) {
+                throw new OrderRejectedException("ORDER_INTERRUPTED", "주문 처리가 중단되었습니다");
+            }
+            throw new IllegalStateException("order interrupted while committing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("order journal commit failed", e.getCause());
+        }
+    }
+
+    private void commitLoop() {
+        List<Entry> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // flush 가 이미 future 를 완료시키므로 여기 오는 건 예기치 못한 오류뿐
+                log.error("주문 저널 커미터 오류", e);
+            } finally {
+                for (Entry entry : batch) {
+                    entry.result.completeExceptionally(new IllegalStateException("order journal commit aborted"));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<Entry> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < maxBatch) {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatch || remaining <= 0) return;
+            Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) return;
+            batch.add(next);
+        }
+    }
+
+    void flush(List<Entry> batch) {
+        long start = System.currentTimeMillis();
+        List<Fill> fills;
+        try {
+            fills = transactionTemplate.execute(status -> jdbc.execute((ConnectionCallback<List<Fill>>) con -> apply(con, batch)));
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            log.error("주문 배치 커밋 실패: orders={}", batch.size(), e);
+            for (Entry entry : batch) entry.result.completeExceptionally(e);
+            return;
+        }
+
+        // 통계를 먼저 반영 - 응답을 받은 호출측이 보는 stats 에 이 배치가 포함되도록
+        int rejected = 0;
+        for (Entry entry : batch) if (entry.rejection != null) rejected++;
+        rejectedOrders.addAndGet(rejected);
+        committedOrders.addAndGet(batch.size() - rejected);
+        batches.incrementAndGet();
+        maxBatchSeen.accumulateAndGet(batch.size(), Math::max);
+        lastBatchMs = System.currentTimeMillis() - start;
+
+        // 커밋 이후에만 응답 (거절 건도 같은 배치 결과와 함께)
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            if (entry.rejection != null) {
+                entry.result.completeExceptionally(entry.rejection);
+            } else {
+                entry.result.complete(fills.get(i));
+            }
+        }
+    }
+
+    /**
+     * 배치 1개 반영 (트랜잭션 안) - 반환 리스트는 batch 와 같은 순서, 거절 건은 null
+     */
+    List<Fill> apply(Connection con, List<Entry> batch) throws SQLException {
+        // 배치에 들어간 주문의 대기도 유한하도록 문장마다 상한 (트랜잭션 범위)
+        setLocal(con, "statement_timeout", Long.toString(commitTimeoutMs));
+        if (!"on".equals(synchronousCommit)) {
+            setLocal(con, "synchronous_commit", synchronousCommit);
+        }
+
+        Set<Long> accountIds = new LinkedHashSet<>();
+        Set<Integer> stockIds = new LinkedHashSet<>();
+        for (Entry entry : batch) {
+            entry.rejection = null;
+            accountIds.add(entry.command.accountId());
+            stockIds.add(entry.command.stockInfoId());
+        }
+        Map<Long, int[]> balances = lockAccounts(con, accountIds);
+        Map<HoldingKey, Holding> holdings = lockHoldings(con, accountIds, stockIds);
+
+        // 1) 메모리에서 도착 순서대로 체결/거절 결정
+        List<Fill> fills = new ArrayList<>(batch.size());
+        List<Entry> accepted = new ArrayList<>(batch.size());
+        Set<Long> refresh = new LinkedHashSet<>();
+        for (Entry entry : batch) {
+            OrderCommand c = entry.command;
+            int[] balance = balances.get(c.accountId());
+            HoldingKey key = new HoldingKey(c.accountId(), c.stockInfoId());
+            Holding holding = holdings.get(key);
+            if (c.tradeType() == TradeType.BUY) {
+                if (balance == null || balance[0] < c.amount()) {
+                    entry.rejection = new OrderRejectedException("INSUFFICIENT_BALANCE",
+                            String.format("잔액이 부족합니다. 필요: %,d원, 보유: %,d원", c.amount(), balance == null ? 0 : balance[0]));
+                    fills.add(null);
+                    continue;
+                }
+                balance[0] -= c.amount();
+                if (holding == null) {
+                    holding = new Holding(null);
+                    holdings.put(key, holding);
+                }
+                holding.quantity += c.quantity();
+                holding.totalPrice += c.amount();
+            } else {
+                if (balance == null || holding == null || holding.quantity < c.quantity()) {
+                    entry.rejection = new OrderRejectedException("INSUFFICIENT_STOCK",
+                            String.format("보유 수량이 부족합니다. 보유: %d주, 매도요청: %d주",
+                                    holding == null ? 0 : holding.quantity, c.quantity()));
+                    fills.add(null);
+                    continue;
+                }
+                holding.totalPrice = (int) ((long) holding.totalPrice * (holding.quantity - c.quantity()) / holding.quantity);
+                holding.quantity -= c.quantity();
+                balance[0] += c.amount();
+            }
+            holding.dirty = true;
+            if (c.refreshTotalAsset()) refresh.add(c.accountId());
+            accepted.add(entry);
+            fills.add(new Fill(null, balance[0], holding.quantity));
+        }
+        if (accepted.isEmpty()) return fills;
+
+        // 2) 변경분 일괄 반영
+        long[] tradeIds = nextTradeIds(con, accepted.size());
+        writeBalances(con, balances);
+        writeHoldings(con, holdings);
+        insertTrades(con, accepted, tradeIds);
+        if (!refresh.isEmpty()) {
+            Array ids = con.createArrayOf("bigint", refresh.toArray());
+            try (PreparedStatement ps = con.prepareStatement(REFRESH_TOTAL_ASSET_SQL)) {
+                ps.setArray(1, ids);
+                ps.executeUpdate();
+            } finally {
+                ids.free();
+            }
+        }
+
+        int t = 0;
+        for (int i = 0; i < fills.size(); i++) {
+            Fill fill = fills.get(i);
+            if (fill != null) fills.set(i, new Fill(tradeIds[t++], fill.balance(), fill.holdingQuantity()));
+        }
+        return fills;
+    }
+
+    private static void setLocal(Connection con, String name, String value) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT set_config(?, ?, true)")) {
+            ps.setString(1, name);
+            ps.setString(2, value);
+            ps.execute();
+        }
+    }
+
+    private Map<Long, int[]> lockAccounts(Connection con, Set<Long> accountIds) throws SQLException {
+        Map<Long, int[]> balances = new LinkedHashMap<>();
+        Array ids = con.createArrayOf("bigint", accountIds.toArray());
+        try (PreparedStatement ps = con.prepareStatement(LOCK_ACCOUNTS_SQL)) {
+            ps.setArray(1, ids);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) balances.put(rs.getLong(1), new int[]{rs.getInt(2), rs.getInt(2)});
+            }
+        } finally {
+            ids.free();
+        }
+        return balances;
+    }
+
+    private Map<HoldingKey, Holding> lockHoldings(Connection con, Set<Long> accountIds, Set<Integer> stockIds) throws SQLException {
+        Map<HoldingKey, Holding> holdings = new HashMap<>();
+        Array accounts = con.createArrayOf("bigint", accountIds.toArray());
+        Array stocks = con.createArrayOf("integer", stockIds.toArray());
+        try (PreparedStatement ps = con.prepareStatement(LOCK_HOLDINGS_SQL)) {
+            ps.setArray(1, accounts);
+            ps.setArray(2, stocks);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    HoldingKey key = new HoldingKey(rs.getLong(2), rs.getInt(3));
+                    if (holdings.containsKey(key)) continue; // 중복 행은 가장 오래된 것만 사용
+                    Holding holding = new Holding(rs.getLong(1));
+                    holding.quantity = rs.getInt(4);
+                    holding.totalPrice = rs.getInt(5);
+                    holdings.put(key, holding);
+                }
+            }
+        } finally {
+            accounts.free();
+            stocks.free();
+        }
+        return holdings;
+    }
+
+    private long[] nextTradeIds(Connection con, int count) throws SQLException {
+        long[] ids = new long[count];
+        try (PreparedStatement ps = con.prepareStatement(NEXT_TRADE_IDS_SQL)) {
+            ps.setInt(1, count);
+            try (ResultSet rs = ps.executeQuery()) {
+                for (int i = 0; i < count && rs.next(); i++) ids[i] = rs.getLong(1);
+            }
+        }
+        return ids;
+    }
+
+    private void writeBalances(Connection con, Map<Long, int[]> balances) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        balances.forEach((id, balance) -> {
+            if (balance[0] != balance[1]) {
+                ids.add(id);
+                values.add(balance[0]);
+            }
+        });
+        if (ids.isEmpty()) return;
+        executeWithArrays(con, UPDATE_BALANCES_SQL,
+                con.createArrayOf("bigint", ids.toArray()),
+                con.createArrayOf("integer", values.toArray()));
+    }
+
+    private void writeHoldings(Connection con, Map<HoldingKey, Holding> holdings) throws SQLException {
+        List<Long> updateIds = new ArrayList<>();
+        List<Integer> updateQuantities = new ArrayList<>();
+        List<Integer> updatePrices = new ArrayList<>();
+        List<Long> deleteIds = new ArrayList<>();
+        List<Long> insertAccounts = new ArrayList<>();
+        List<Integer> insertStocks = new ArrayList<>();
+        List<Integer> insertQuantities = new ArrayList<>();
+        List<Integer> insertPrices = new ArrayList<>();
+
+        for (Map.Entry<HoldingKey, Holding> e : holdings.entrySet()) {
+            Holding h = e.getValue();
+            if (!h.dirty) continue;
+            if (h.holdingId == null) {
+                if (h.quantity <= 0) continue; // 같은 배치에서 사고 전량 판 경우
+                insertAccounts.add(e.getKey().accountId());
+                insertStocks.add(e.getKey().stockInfoId());
+                insertQuantities.add(h.quantity);
+                insertPrices.add(h.totalPrice);
+            } else if (h.quantity <= 0) {
+                deleteIds.add(h.holdingId);
+            } else {
+                updateIds.add(h.holdingId);
+                updateQuantities.add(h.quantity);
+                updatePrices.add(h.totalPrice);
+            }
+        }
+
+        if (!updateIds.isEmpty()) {
+            executeWithArrays(con, UPDATE_HOLDINGS_SQL,
+                    con.createArrayOf("bigint", updateIds.toArray()),
+                    con.createArrayOf("integer", updateQuantities.toArray()),
+                    con.createArrayOf("integer", updatePrices.toArray()));
+        }
+        if (!deleteIds.isEmpty()) {
+            executeWithArrays(con, DELETE_HOLDINGS_SQL, con.createArrayOf("bigint", deleteIds.toArray()));
+        }
+        if (!insertAccounts.isEmpty()) {
+            executeWithArrays(con, INSERT_HOLDINGS_SQL,
+                    con.createArrayOf("bigint", insertAccounts.toArray()),
+                    con.createArrayOf("integer", insertStocks.toArray()),
+                    con.createArrayOf("integer", insertQuantities.toArray()),
+                    con.createArrayOf("integer", insertPrices.toArray()));
+        }
+    }
+
+    private void insertTrades(Connection con, List<Entry> accepted, long[] tradeIds) throws SQLException {
+        int n = accepted.size();
+        Long[] ids = new Long[n];
+        Long[] accounts = new Long[n];
+        Integer[] stocks = new Integer[n];
+        String[] sides = new String[n];
+        Integer[] quantities = new Integer[n];
+        Integer[] prices = new Integer[n];
+        Timestamp[] times = new Timestamp[n];
+        for (int i = 0; i < n; i++) {
+            Entry entry = accepted.get(i);
+            OrderCommand c = entry.command;
+            ids[i] = tradeIds[i];
+            accounts[i] = c.accountId();
+            stocks[i] = c.stockInfoId();
+            sides[i] = c.tradeType().name();
+            quantities[i] = c.quantity();
+            prices[i] = c.price();
+            times[i] = Timestamp.valueOf(entry.acceptedAt);
+        }
+        executeWithArrays(con, INSERT_TRADES_SQL,
+                con.createArrayOf("bigint", ids),
+                con.createArrayOf("bigint", accounts),
+                con.createArrayOf("integer", stocks),
+                con.createArrayOf("text", sides),
+                con.createArrayOf("integer", quantities),
+                con.createArrayOf("integer", prices),
+                con.createArrayOf("timestamp", times));
+    }
+
+    private static void executeWithArrays(Connection con, String sql, Array... arrays) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i = 0; i < arrays.length; i++) ps.setArray(i + 1, arrays[i]);
+            ps.executeUpdate();
+        } finally {
+            for (Array array : arrays) array.free();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long batchCount = batches.get();
+        long orders = committedOrders.get() + rejectedOrders.get();
+        stats.put("running", running);
+        stats.put("queued", queue.size());
+        stats.put("appended", appended.get());
+        stats.put("batches", batchCount);
+        stats.put("committedOrders", committedOrders.get());
+        stats.put("rejectedOrders", rejectedOrders.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("avgBatchSize", batchCount == 0 ? 0 : (double) orders / batchCount);
+        stats.put("maxBatchSize", maxBatchSeen.get());
+        stats.put("lastBatchMs", lastBatchMs);
+        stats.put("flushIntervalMs", flushIntervalMs);
+        stats.put("maxBatch", maxBatch);
+        stats.put("commitTimeoutMs", commitTimeoutMs);
+        stats.put("synchronousCommit", synchronousCommit);
+        return stats;
+    }
+
+    static final class Entry {
+        final OrderCommand command;
+        final LocalDateTime acceptedAt;
+        final CompletableFuture<Fill> result = new CompletableFuture<>();
+        OrderRejectedException rejection;
+
+        Entry(OrderCommand command, LocalDateTime acceptedAt) {
+            this.command = command;
+            this.acceptedAt = acceptedAt;
+        }
+    }
+
+    private record HoldingKey(Long accountId, Integer stockInfoId) {
+    }
+
+    private static final class Holding {
+        final Long holdingId;
+        int quantity;
+        int totalPrice;
+        boolean dirty;
+
+        Holding(Long holdingId) {
+            this.holdingId = holdingId;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.LAGO.domain.StockHolding;
 import com.example.LAGO.dto.response.RankingResponse;
 import com.example.LAGO.repository.*;
 import com.example.LAGO.realtime.RealtimeDataService;
+import com.example.LAGO.realtime.StockLastPriceStore;
 import org.springframework.data.domain.PageRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +39,7 @@ public class RankingService {
     private final StockInfoRepository stockInfoRepository;
     private final Ticks1dRepository ticks1dRepository;
     private final RealtimeDataService realtimeDataService;
+    private final StockLastPriceStore stockLastPriceStore;
     private final RedisTemplate<String, Object> redisTemplate;
     
     // Java 21 Virtual Threads Executor
@@ -547,107 +549,37 @@ public class RankingService {
             return priceMap;
         }
         
-        // 1. Redis에서 배치 조회 (RealtimeDataService와 동일한 키 형식)
-        List<String> redisKeys = stockCodes.stream()
-                .map(code -> "realtime:stock:" + code)
-                .toList();
-        
+        // 1. 실시간 가격 일괄 조회 (L1 캐시 → 메모리 사본 → Redis 파이프라인 1회)
         try {
-            // Redis Hash에서 closePrice 필드를 배치로 조회
-            log.info("🔍 Redis에서 {} 종목 가격 조회 시작", stockCodes.size());
-            for (String stockCode : stockCodes) {
-                String key = "realtime:stock:" + stockCode;
-                Object priceObj = redisTemplate.opsForHash().get(key, "closePrice");
-                if (priceObj != null) {
-                    try {
-                        Integer price = Integer.parseInt(priceObj.toString());
-                        if (price > 0) {
-                            priceMap.put(stockCode, price);
-                            log.debug("✅ Redis: {} = {}원", stockCode, price);
-                        }
-                    } catch (NumberFormatException e) {
-                        log.debug("❌ Redis 가격 파싱 실패: {}", stockCode);
-                    }
-                } else {
-                    log.debug("❌ Redis에 없음: {}", stockCode);
+            log.info("🔍 실시간 가격 {} 종목 조회 시작", stockCodes.size());
+            List<Map.Entry<Integer, String>> entries = new ArrayList<>(stockCodeMap.entrySet());
+            int[] stockIds = entries.stream().mapToInt(Map.Entry::getKey).toArray();
+            int[] prices = realtimeDataService.getLatestPrices(stockIds);
+            for (int i = 0; i < prices.length; i++) {
+                if (prices[i] > 0) {
+                    priceMap.put(entries.get(i).getValue(), prices[i]);
                 }
             }
-            log.info("📊 Redis 조회 완료: {}/{} 종목 가격 발견", priceMap.size(), stockCodes.size());
+            log.info("📊 실시간 가격 조회 완료: {}/{} 종목 가격 발견", priceMap.size(), stockCodes.size());
         } catch (Exception e) {
-            log.warn("Redis 배치 조회 실패: {}", e.getMessage());
+            log.warn("실시간 가격 배치 조회 실패: {}", e.getMessage());
         }
         
-        // 2. Redis에서 못 찾은 종목들은 DB에서 배치 조회
-        List<String> missingCodes = stockCodes.stream()
-                .filter(code -> !priceMap.containsKey(code))
+        // 2. 실시간 가격이 없는 종목은 stock_last_price 마지막 체결가 (메모리 → PK 조회 1회)
+        List<Integer> missingStockIds = stockCodeMap.entrySet().stream()
+                .filter(entry -> !priceMap.containsKey(entry.getValue()))
+                .map(Map.Entry::getKey)
                 .toList();
         
-        if (!missingCodes.isEmpty()) {
-            log.info("🔍 DB에서 {} 종목 최신 가격 조회 시작", missingCodes.size());
-            
-            // stockCode -> stockInfoId 역매핑 필요
-            Map<String, Integer> codeToIdMap = new HashMap<>();
-            for (Map.Entry<Integer, String> entry : stockCodeMap.entrySet()) {
-                codeToIdMap.put(entry.getValue(), entry.getKey());
-            }
-            
-            // stock_info_id 리스트 생성
-            List<Integer> missingStockIds = missingCodes.stream()
-                    .map(codeToIdMap::get)
-                    .filter(id -> id != null)
-                    .toList();
-            
-            if (!missingStockIds.isEmpty()) {
-                String placeholders = String.join(",", java.util.Collections.nCopies(missingStockIds.size(), "?"));
-                String sql = """
-                    SELECT DISTINCT ON (stock_info_id) stock_info_id, close_price 
-                    FROM ticks 
-                    WHERE stock_info_id IN (%s)
-                    ORDER BY stock_info_id, ts DESC
-                    """.formatted(placeholders);
-                
-                try (Connection connection = dataSource.getConnection();
-                     PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    
-                    for (int i = 0; i < missingStockIds.size(); i++) {
-                        stmt.setInt(i + 1, missingStockIds.get(i));
-                    }
-                    
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        int foundCount = 0;
-                        while (rs.next()) {
-                            Integer stockInfoId = rs.getInt("stock_info_id");
-                            Integer price = rs.getInt("close_price");
-                            String code = stockCodeMap.get(stockInfoId);
-                            
-                            if (code != null && price > 0) {
-                                priceMap.put(code, price);
-                                foundCount++;
-                                log.debug("✅ DB: {} (ID:{}) = {}원", code, stockInfoId, price);
-                                
-                                // 📦 DB에서 조회한 가격을 Redis에 캐싱 (TTL: 10분)
-                                try {
-                                    String redisKey = "realtime:stock:" + code;
-                                    Map<String, String> cacheData = new HashMap<>();
-                                    cacheData.put("closePrice", price.toString());
-                                    cacheData.put("cachedAt", java.time.LocalDateTime.now().toString());
-                                    cacheData.put("source", "ticks");
-                                    
-                                    redisTemplate.opsForHash().putAll(redisKey, cacheData);
-                                    redisTemplate.expire(redisKey, java.time.Duration.ofMinutes(10));
-                                    
-                                    log.debug("💾 Redis 캐싱: {} = {}원 (TTL: 10분)", code, price);
-                                } catch (Exception cacheEx) {
-                                    log.warn("Redis 캐싱 실패: {} - {}", code, cacheEx.getMessage());
-                                }
-                            }
-                        }
-                        log.info("📊 DB 조회 완료: {}/{} 종목 가격 발견 및 캐싱", foundCount, missingCodes.size());
-                    }
-                } catch (Exception e) {
-                    log.error("DB 배치 가격 조회 실패: {}", e.getMessage(), e);
+        if (!missingStockIds.isEmpty()) {
+            Map<Integer, Integer> lastPrices = stockLastPriceStore.getPrices(missingStockIds);
+            lastPrices.forEach((stockInfoId, price) -> {
+                String code = stockCodeMap.get(stockInfoId);
+                if (code != null && price > 0) {
+                    priceMap.put(code, price);
                 }
-            }
+            });
+            log.info("📊 마지막 체결가 조회 완료: {}/{} 종목 가격 발견", lastPrices.size(), missingStockIds.size());
         }
         
         return priceMap;
@@ -1,15 +1,18 @@
 package com.example.LAGO.service;
 
 import com.example.LAGO.dto.StockChartDto;
+import com.example.LAGO.realtime.candle.ChartCandleCache;
 import com.example.LAGO.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,6 +32,9 @@ public class StockChartService {
     private final Ticks1wRepository ticks1wRepository;
     private final Ticks1monRepository ticks1monRepository;
     private final Ticks1yRepository ticks1yRepository;
+    private final ObjectProvider<ChartCandleCache> chartCandleCacheProvider;
+    
+    private static final int LATEST_LIMIT = 100;
     
     /**
      * 특정 종목의 기간별 차트 데이터 조회 (KST 입력 -> UTC 조회 -> KST 응답)
@@ -58,32 +64,8 @@ public class StockChartService {
             
             log.debug("시간 변환 완료: startUtc={}, endUtc={}", startTimeUtc, endTimeUtc);
             
-            // interval별 Repository 분기
-            List<StockChartDto> chartData = switch (interval) {
-                case "1m" -> ticks1mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "3m" -> ticks3mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "5m" -> ticks5mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "10m" -> ticks10mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "15m" -> ticks15mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "30m" -> ticks30mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "60m" -> ticks60mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "1D" -> ticks1dRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "1W" -> ticks1wRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "1M" -> ticks1monRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "1Y" -> ticks1yRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                default -> throw new IllegalArgumentException("지원하지 않는 시간 간격: " + interval);
-            };
+            List<StockChartDto> chartData = findRangeWithCache(code, interval, startDateKst, endDateKst,
+                    startTimeUtc, endTimeUtc);
             
             log.info("차트 데이터 조회 완료: code={}, interval={}, 조회된 건수={}", 
                     code, interval, chartData.size());
@@ -108,34 +90,7 @@ public class StockChartService {
         try {
             log.info("최신 차트 데이터 조회: code={}, interval={}", code, interval);
             
-            Pageable pageable = Pageable.ofSize(100);
-            
-            // interval별 Repository 분기
-            List<StockChartDto> chartData = switch (interval) {
-                case "1m" -> ticks1mRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "3m" -> ticks3mRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "5m" -> ticks5mRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "10m" -> ticks10mRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "15m" -> ticks15mRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "30m" -> ticks30mRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "60m" -> ticks60mRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "1D" -> ticks1dRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "1W" -> ticks1wRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "1M" -> ticks1monRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                case "1Y" -> ticks1yRepository.findLatestByCode(code, pageable)
-                        .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
-                default -> throw new IllegalArgumentException("지원하지 않는 시간 간격: " + interval);
-            };
+            List<StockChartDto> chartData = findLatestWithCache(code, interval, LATEST_LIMIT);
             
             log.info("최신 차트 데이터 조회 완료: code={}, interval={}, 조회된 건수={}", 
                     code, interval, chartData.size());
@@ -148,6 +103,116 @@ public class StockChartService {
         }
     }
     
+    /**
+     * 기간 조회: 메모리 캐시가 덮는 구간은 캐시에서, 그 이전 구간만 DB(CAGG)에서 조회해 이어 붙임
+     * 경계 버킷은 캐시 쪽만 사용 (DB 조회 상한 = 캐시 시작, 미포함)
+     */
+    private List<StockChartDto> findRangeWithCache(String code, String interval,
+                                                   LocalDateTime startDateKst, LocalDateTime endDateKst,
+                                                   OffsetDateTime startTimeUtc, OffsetDateTime endTimeUtc) {
+        ChartCandleCache cache = chartCandleCacheProvider.getIfAvailable();
+        LocalDateTime coverage = cache != null ? cache.coverageStart(code, interval) : null;
+        if (coverage == null || !endDateKst.isAfter(coverage)) {
+            if (cache != null) cache.recordMiss();
+            return findRange(code, interval, startTimeUtc, endTimeUtc);
+        }
+        if (!startDateKst.isBefore(coverage)) {
+            cache.recordHit(true);
+            return cache.range(code, interval, startDateKst, endDateKst);
+        }
+        OffsetDateTime coverageUtc = coverage.atZone(ZoneId.of("Asia/Seoul")).toOffsetDateTime();
+        List<StockChartDto> chartData = new ArrayList<>(findRange(code, interval, startTimeUtc, coverageUtc));
+        chartData.addAll(cache.range(code, interval, coverage, endDateKst));
+        cache.recordHit(false);
+        log.debug("차트 캐시 이어 붙임: code={}, interval={}, coverage={}", code, interval, coverage);
+        return chartData;
+    }
+    
+    /**
+     * 최신 조회: 캐시에 limit 개가 있으면 메모리만 사용, 모자라면 DB 결과 중 캐시 이전 버킷만 뒤에 붙임 (최신 순)
+     */
+    private List<StockChartDto> findLatestWithCache(String code, String interval, int limit) {
+        ChartCandleCache cache = chartCandleCacheProvider.getIfAvailable();
+        List<StockChartDto> cached = cache != null ? cache.latest(code, interval, limit) : null;
+        if (cached == null || cached.isEmpty()) {
+            if (cache != null) cache.recordMiss();
+            return findLatest(code, interval, limit);
+        }
+        if (cached.size() >= limit) {
+            cache.recordHit(true);
+            return cached;
+        }
+        LocalDateTime oldest = cached.get(cached.size() - 1).getBucket();
+        List<StockChartDto> chartData = new ArrayList<>(cached);
+        for (StockChartDto dto : findLatest(code, interval, limit)) {
+            if (chartData.size() >= limit) break;
+            if (dto.getBucket().isBefore(oldest)) chartData.add(dto);
+        }
+        cache.recordHit(false);
+        return chartData;
+    }
+    
+    private List<StockChartDto> findRange(String code, String interval,
+                                          OffsetDateTime startTimeUtc, OffsetDateTime endTimeUtc) {
+        // interval별 Repository 분기
+        return switch (interval) {
+            case "1m" -> ticks1mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "3m" -> ticks3mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "5m" -> ticks5mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "10m" -> ticks10mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "15m" -> ticks15mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "30m" -> ticks30mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "60m" -> ticks60mRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "1D" -> ticks1dRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "1W" -> ticks1wRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "1M" -> ticks1monRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "1Y" -> ticks1yRepository.findByCodeAndBucketRange(code, startTimeUtc, endTimeUtc)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            default -> throw new IllegalArgumentException("지원하지 않는 시간 간격: " + interval);
+        };
+    }
+    
+    private List<StockChartDto> findLatest(String code, String interval, int limit) {
+        Pageable pageable = Pageable.ofSize(limit);
+        
+        // interval별 Repository 분기
+        return switch (interval) {
+            case "1m" -> ticks1mRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "3m" -> ticks3mRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "5m" -> ticks5mRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "10m" -> ticks10mRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "15m" -> ticks15mRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "30m" -> ticks30mRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "60m" -> ticks60mRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "1D" -> ticks1dRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "1W" -> ticks1wRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "1M" -> ticks1monRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            case "1Y" -> ticks1yRepository.findLatestByCode(code, pageable)
+                    .stream().map(tick -> convertToDto(tick, interval)).collect(Collectors.toList());
+            default -> throw new IllegalArgumentException("지원하지 않는 시간 간격: " + interval);
+        };
+    }
+    
     /**
      * 지원하는 시간 간격 목록 반환
      * 
@@ -1,13 +1,15 @@
 package com.example.LAGO.service;
 
+import com.example.LAGO.realtime.TickChunkCodec;
+import com.example.LAGO.realtime.TickChunkDictionaries;
+import com.example.LAGO.realtime.TickColumns;
 import com.example.LAGO.realtime.TickDataSerializer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,17 +22,42 @@ import java.util.Objects;
 public class TickChunkReaderService {
     private final RedisTemplate<String, byte[]> redisBin;
     private final StringRedisTemplate redisStr;
+    private final TickChunkDictionaries dictionaries;
 
+    // forEachTick 전용 스레드별 컬럼 버퍼
+    private static final ThreadLocal<TickColumns> SCRATCH = ThreadLocal.withInitial(() -> new TickColumns(1024));
+
+    /**
+     * 청크 읽기 - 틱마다 Decoded16B를 만드는 호환용 API
+     * 대량 처리는 readColumns / forEachTick 사용
+     */
     public List<TickDataSerializer.Decoded16B> readChunk(String chunkId) {
+        TickColumns cols = readColumns(chunkId, new TickColumns(0));
+        int stockId = cols.stockId();
+        List<TickDataSerializer.Decoded16B> out = new ArrayList<>(cols.count());
+        for (int i = 0; i < cols.count(); i++) {
+            out.add(new TickDataSerializer.Decoded16B(stockId, Instant.ofEpochMilli(cols.epochMillis(i)),
+                    cols.price(i), cols.volume(i)));
+        }
+        return out;
+    }
+
+    /**
+     * 청크를 컬럼 버퍼에 일괄 복원 (out은 재사용, 필요 시 확장)
+     * 메타의 ver로 v1(16B 행) / v2(컬럼 delta/varint) 형식을 구분
+     * @return out (baseDate 설정됨)
+     */
+    public TickColumns readColumns(String chunkId, TickColumns out) {
         // 1) 메타 읽기
         String metaKey = "ticks:chunk:" + chunkId + ":meta";
         Map<Object,Object> meta = redisStr.opsForHash().entries(metaKey);
         if (meta == null || meta.isEmpty()) throw new IllegalStateException("meta not found: " + chunkId);
 
         int count    = Integer.parseInt(Objects.toString(meta.get("count")));
-        int rawBytes = Integer.parseInt(Objects.toString(meta.get("rawBytes"))); // = count * 16
+        int rawBytes = Integer.parseInt(Objects.toString(meta.get("rawBytes"))); // v1: count * 16, v2: 인코딩 길이
         LocalDate baseDate = LocalDate.parse(Objects.toString(meta.get("baseDate"))); // yyyy-MM-dd (KST)
-        // boolean compressed = Boolean.parseBoolean(Objects.toString(meta.getOrDefault("compressed", "true")));
+        int ver      = Integer.parseInt(Objects.toString(meta.getOrDefault("ver", "1")));
+        int dictId   = Integer.parseInt(Objects.toString(meta.getOrDefault("dictId", "0")));
 
         // 2) blob 읽기
         String blobKey = "ticks:chunk:" + chunkId + ":blob";
@@ -38,38 +65,52 @@ public class TickChunkReaderService {
         if (blob == null) throw new IllegalStateException("blob not found: " + chunkId);
 
         // 3) 압축 해제
-        byte[] raw = com.github.luben.zstd.Zstd.decompress(blob, rawBytes);
+        byte[] raw = dictionaries.decompress(blob, rawBytes, dictId);
 
         // 길이 검증
         if (raw.length != rawBytes) {
             throw new IllegalStateException("unexpected raw length: " + raw.length +
                     "(meta rawBytes=" + rawBytes + ") id=" + chunkId);
         }
-        // 일부 환경에선 written이 0으로 나올 수 있어 길이만 검증
-        if (raw.length % 16 != 0) {
-            throw new IllegalStateException("raw len not multiple of 16: " +
-                    raw.length + " id=" + chunkId);
-        }
-
 
-        // 4) 16B 반복 파싱
-        ByteBuffer bb = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
-
-        /**
-         * zstd 해제 시 메타의 rawBytes 크기만큼 정확히 복원
-         * 복원 후 길이 검증(16B 배수)
-         * 파싱 루프를 remaining() >= 16 기준으로 돌리기 + count와 실제 길이 중 최소값 사용
-         */
-        // ✅ meta count vs 실제 길이 교차검증
-        int byLenCount = raw.length / 16;
-        int n = Math.min(count, byLenCount);
+        // 4) 형식별 디코딩
+        if (ver == TickChunkCodec.FORMAT_V2) {
+            TickChunkCodec.decodeV2(raw, out);
+        } else {
+            // 일부 환경에선 written이 0으로 나올 수 있어 길이만 검증
+            if (raw.length % 16 != 0) {
+                throw new IllegalStateException("raw len not multiple of 16: " +
+                        raw.length + " id=" + chunkId);
+            }
+            // meta count vs 실제 길이 중 최소값만 복원
+            TickDataSerializer.read16BColumns(raw, count, out);
+        }
+        out.setBaseDate(baseDate);
+        return out;
+    }
 
-        List<TickDataSerializer.Decoded16B> out = new ArrayList<>(count);
-        for (int i = 0; i < count; i++) {
-            if (bb.remaining() < 16) break; // 안전가드
+    /**
+     * 청크의 틱을 저장 순서대로 visitor에 전달 (스레드별 버퍼 재사용, 틱 단위 할당 없음)
+     * @return 전달한 틱 수
+     */
+    public int forEachTick(String chunkId, TickColumns.TickVisitor visitor) {
+        TickColumns cols = readColumns(chunkId, SCRATCH.get());
+        cols.forEach(visitor);
+        return cols.count();
+    }
 
-            out.add(TickDataSerializer.read16B(bb, baseDate));
+    /**
+     * v2 청크의 압축 해제된 인코딩 원본 (사전 학습 샘플용), v2가 아니거나 만료됐으면 null
+     */
+    public byte[] readRawV2(String chunkId) {
+        Map<Object,Object> meta = redisStr.opsForHash().entries("ticks:chunk:" + chunkId + ":meta");
+        if (meta == null || !String.valueOf(TickChunkCodec.FORMAT_V2).equals(Objects.toString(meta.get("ver")))) {
+            return null;
         }
-        return out;
+        byte[] blob = redisBin.opsForValue().get("ticks:chunk:" + chunkId + ":blob");
+        if (blob == null) return null;
+        int rawBytes = Integer.parseInt(Objects.toString(meta.get("rawBytes")));
+        int dictId = Integer.parseInt(Objects.toString(meta.getOrDefault("dictId", "0")));
+        return dictionaries.decompress(blob, rawBytes, dictId);
     }
 }
@@ -0,0 +1,128 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.TickChunkStore.ChunkRef;
+import com.example.LAGO.realtime.ingest.AdaptiveBatchSizer;
+import com.example.LAGO.realtime.ingest.ChunkIngestLedger;
+import com.example.LAGO.realtime.ingest.ChunkLeaseManager;
+import com.example.LAGO.realtime.ingest.CopyOhlcIngestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 같은 종목 청크는 커밋 순번대로 한 워커에서 / 실패한 종목은 hold 동안 뒤 청크도 적재하지 않음
+ */
+@SuppressWarnings("unchecked")
+public class ChunkAutoIngestorTest {
+
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class);
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final TickChunkStore chunkStore = mock(TickChunkStore.class);
+    private final CopyOhlcIngestService copyIngest = mock(CopyOhlcIngestService.class);
+    private final ChunkIngestLedger ledger = mock(ChunkIngestLedger.class);
+    private final ChunkLeaseManager leases = mock(ChunkLeaseManager.class);
+    private final TransactionTemplate tx = mock(TransactionTemplate.class);
+    private final List<List<String>> ingested = new ArrayList<>();
+    private ChunkAutoIngestor ingestor;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.multiGet(anyCollection())).thenAnswer(inv -> Arrays.asList(new String[inv.<List<?>>getArgument(0).size()]));
+        when(leases.tryAcquire(anyString())).thenAnswer(inv -> mock(ChunkLeaseManager.Lease.class));
+        when(tx.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(ledger.claim(anyList())).thenAnswer(inv -> {
+            var ids = new LinkedHashSet<String>();
+            inv.<List<ChunkRef>>getArgument(0).forEach(r -> ids.add(r.chunkId()));
+            return ids;
+        });
+        when(copyIngest.ingestChunks(anyList())).thenAnswer(inv -> {
+            ingested.add(List.copyOf(inv.<List<String>>getArgument(0)));
+            return 1;
+        });
+
+        ingestor = new ChunkAutoIngestor(redis, chunkStore, mock(TimescaleOhlcIngestService.class), copyIngest,
+                ledger, leases, tx);
+        ReflectionTestUtils.setField(ingestor, "ingestEngine", "copy");
+        ReflectionTestUtils.setField(ingestor, "workerCount", 4);
+        ReflectionTestUtils.setField(ingestor, "minBatch", 1);
+        ReflectionTestUtils.setField(ingestor, "maxBatch", 64);
+        ReflectionTestUtils.setField(ingestor, "targetBatchMs", 750L);
+        ReflectionTestUtils.setField(ingestor, "retryBackoffMs", 15_000L);
+        ingestor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestor.shutdown();
+    }
+
+    @Test
+    public void chunksSplittingOneSecondAreIngestedInCommitOrder() {
+        // 같은 종목(5)의 두 청크가 09:00:00 한 초를 나눠 가짐, 대기열에서는 뒤 청크(seq 2)가 먼저 보임
+        due("late", "other", "early");
+        when(chunkStore.resolve("early")).thenReturn(new ChunkRef("early", 1, 5));
+        when(chunkStore.resolve("late")).thenReturn(new ChunkRef("late", 2, 5));
+        when(chunkStore.resolve("other")).thenReturn(new ChunkRef("other", 3, 9));
+
+        assertEquals(3, ingestor.drainRound(64, new int[1]));
+
+        // 종목 5의 두 청크는 한 배치에서 순번대로 → open 은 앞 청크, close 는 뒤 청크 기준
+        List<String> stock5 = ingested.stream().filter(b -> b.contains("early")).findFirst().orElseThrow();
+        assertEquals(List.of("early", "late"), stock5);
+        assertFalse(stock5.contains("other"));
+        verify(leases).tryAcquire(ChunkAutoIngestor.STOCK_LEASE_PREFIX + 5);
+        verify(leases).tryAcquire(ChunkAutoIngestor.STOCK_LEASE_PREFIX + 9);
+    }
+
+    @Test
+    public void failedChunkHoldsLaterChunksOfTheSameStock() {
+        ReflectionTestUtils.setField(ingestor, "batchSizer", new AdaptiveBatchSizer(1, 1, 1, 750L)); // 청크마다 배치 1개
+        due("late", "early");
+        when(chunkStore.resolve("early")).thenReturn(new ChunkRef("early", 1, 5));
+        when(chunkStore.resolve("late")).thenReturn(new ChunkRef("late", 2, 5));
+        when(copyIngest.ingestChunks(List.of("early"))).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertEquals(0, ingestor.drainRound(64, new int[1]));
+        // 앞 청크가 실패하면 같은 워커의 뒤 청크는 시도하지 않고, 종목 5를 hold
+        verify(copyIngest, never()).ingestChunks(List.of("late"));
+        verify(chunkStore, never()).completeIngested(anyList(), anyBoolean());
+        StringRedisConnection conn = runPipelines();
+        verify(conn).set(eq(ChunkAutoIngestor.HOLD_PREFIX + 5), anyString(), any(), any());
+
+        // hold 가 남아 있는 동안 종목 5는 라운드에서 빠짐
+        when(values.multiGet(anyCollection())).thenReturn(List.of("held"));
+        assertEquals(0, ingestor.drainRound(64, new int[1]));
+        verify(copyIngest, times(1)).ingestChunks(anyList());
+    }
+
+    private void due(String... ids) {
+        when(chunkStore.duePending(anyLong(), anyInt())).thenReturn(List.of(ids));
+    }
+
+    private StringRedisConnection runPipelines() {
+        ArgumentCaptor<RedisCallback<Object>> callbacks = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redis, atLeastOnce()).executePipelined(callbacks.capture());
+        StringRedisConnection conn = mock(StringRedisConnection.class);
+        callbacks.getAllValues().forEach(cb -> cb.doInRedis(conn));
+        return conn;
+    }
+}
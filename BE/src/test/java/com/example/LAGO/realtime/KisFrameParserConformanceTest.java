@@ -0,0 +1,189 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.dto.TickData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KisFrameParser 적합성 테스트
+ * 녹화된 H0STCNT0 프레임을 기존 split 기반 파싱 결과(TickData)와 비교
+ */
+public class KisFrameParserConformanceTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void replayedFramesMatchLegacyTickData() throws Exception {
+        List<String> frames = loadFrames();
+        assertFalse(frames.isEmpty());
+
+        KisTickRecord scratch = new KisTickRecord();
+        for (String frame : frames) {
+            List<TickData> expected = legacyParse(frame);
+
+            List<TickData> actual = new ArrayList<>();
+            if (!KisFrameParser.isJsonMessage(frame)) {
+                KisFrameParser.parse(frame, scratch, r -> {
+                    if (r.isValid()) actual.add(r.toTickData());
+                });
+            }
+
+            assertEquals(expected.size(), actual.size(), "record count: " + frame);
+            for (int i = 0; i < expected.size(); i++) {
+                assertSameTick(expected.get(i), actual.get(i), frame);
+            }
+        }
+    }
+
+    @Test
+    public void heartbeatDetectionMatchesJsonParsing() throws Exception {
+        for (String frame : loadFrames()) {
+            assertEquals(legacyIsHeartbeat(frame), KisFrameParser.isHeartbeat(frame), frame);
+        }
+    }
+
+    @Test
+    public void decodesScaledPrimitives() {
+        String frame = "0|H0STCNT0|001|005930^093354^71900^5^-100^-0.14^72023.83^72100^72400^71700^71900^71800^1";
+        KisTickRecord scratch = new KisTickRecord();
+        int n = KisFrameParser.parse(frame, scratch, r -> {
+            assertEquals(5930, r.codeNumeric());
+            assertEquals((9 * 3600 + 33 * 60 + 54) * 1000, r.msOfDay());
+            assertEquals(71900, r.closePrice());
+            assertEquals(-14, r.rateScaled());
+            assertEquals(-100, r.previousDay());
+            assertTrue(r.codeEquals("005930"));
+        });
+        assertEquals(1, n);
+    }
+
+    @Test
+    public void roundsRateDigitsPastSecondDecimalHalfUp() {
+        assertEquals(15, scaled2("0.145"));
+        assertEquals(-15, scaled2("-0.145"));
+        assertEquals(14, scaled2("0.1449"));
+        assertEquals(123, scaled2("+1.234"));
+        assertEquals(3000, scaled2("29.995"));
+        assertEquals(50, scaled2("0.5"));
+    }
+
+    private static int scaled2(String v) {
+        return KisFrameParser.parseScaled2(v, 0, v.length());
+    }
+
+    private static void assertSameTick(TickData expected, TickData actual, String frame) {
+        assertEquals(expected.getCode(), actual.getCode(), frame);
+        assertEquals(expected.getDate(), actual.getDate(), frame);
+        assertEquals(expected.getClosePrice(), actual.getClosePrice(), frame);
+        assertEquals(expected.getOpenPrice(), actual.getOpenPrice(), frame);
+        assertEquals(expected.getHighPrice(), actual.getHighPrice(), frame);
+        assertEquals(expected.getLowPrice(), actual.getLowPrice(), frame);
+        assertEquals(expected.getVolume(), actual.getVolume(), frame);
+        assertEquals(expected.getPreviousDay(), actual.getPreviousDay(), frame);
+        // 등락률은 소수 둘째 자리 고정 → 기준 구현 값을 HALF_UP 으로 맞춰 비교
+        assertEquals(0, expected.getFluctuationRate().setScale(2, RoundingMode.HALF_UP)
+                .compareTo(actual.getFluctuationRate()), frame);
+    }
+
+    private static List<String> loadFrames() throws Exception {
+        List<String> frames = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(
+                Objects.requireNonNull(KisFrameParserConformanceTest.class.getResourceAsStream("/kis/h0stcnt0-frames.txt")),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) frames.add(line);
+            }
+        }
+        return frames;
+    }
+
+    // ===== 기존 KisRealTimeDataProcessor 파싱 로직 (기준 구현) =====
+
+    private static boolean legacyIsHeartbeat(String rawMessage) {
+        if (rawMessage == null || rawMessage.isEmpty()) return false;
+        if (rawMessage.charAt(0) != '{') return false;
+        try {
+            JsonNode node = MAPPER.readTree(rawMessage);
+            return "PINGPONG".equalsIgnoreCase(node.path("header").path("tr_id").asText(""));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static List<TickData> legacyParse(String rawMessage) {
+        List<TickData> out = new ArrayList<>();
+        if (legacyIsHeartbeat(rawMessage) || rawMessage.startsWith("{")) return out;
+
+        String[] parts = rawMessage.split("\\|", -1);
+        if (parts.length < 4) return out;
+        if (!"0".equals(parts[0]) || !"H0STCNT0".equals(parts[1])) return out;
+        if (parts[3].split("\\^", -1).length < KisFrameParser.EXPECTED_MIN_FIELDS) return out;
+
+        int dataCount;
+        try {
+            dataCount = Integer.parseInt(parts[2].trim());
+        } catch (NumberFormatException e) {
+            dataCount = 1;
+        }
+        String[] allFields = parts[3].split("\\^");
+        int fieldsPerRecord = dataCount == 0 ? allFields.length : allFields.length / dataCount;
+        for (int i = 0; i < dataCount; i++) {
+            int start = i * fieldsPerRecord;
+            int end = start + fieldsPerRecord;
+            if (end > allFields.length) continue;
+            TickData td = legacyToTickData(Arrays.copyOfRange(allFields, start, end));
+            if (td != null && td.isValid()) out.add(td);
+        }
+        return out;
+    }
+
+    private static TickData legacyToTickData(String[] f) {
+        if (f.length < KisFrameParser.EXPECTED_MIN_FIELDS) return null;
+        return TickData.builder()
+                .code(str(f[KisFrameParser.MKSC_SHRN_ISCD]))
+                .date(str(f[KisFrameParser.STCK_CNTG_HOUR]))
+                .closePrice(integer(f[KisFrameParser.STCK_PRPR]))
+                .openPrice(integer(f[KisFrameParser.STCK_OPRC]))
+                .highPrice(integer(f[KisFrameParser.STCK_HGPR]))
+                .lowPrice(integer(f[KisFrameParser.STCK_LWPR]))
+                .volume(integer(f[KisFrameParser.CNTG_VOL]))
+                .fluctuationRate(decimal(f[KisFrameParser.PRDY_CTRT]))
+                .previousDay(integer(f[KisFrameParser.PRDY_VRSS]))
+                .build();
+    }
+
+    private static String str(String v) {
+        return (v != null && !v.trim().isEmpty()) ? v.trim() : null;
+    }
+
+    private static Integer integer(String v) {
+        try {
+            return (v == null || v.trim().isEmpty()) ? null : Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal decimal(String v) {
+        if (v == null || v.trim().isEmpty()) return null;
+        try {
+            return new BigDecimal(v.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.dto.TickData;
+import com.example.LAGO.realtime.wal.TickWal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 최신 시세 write-behind: 종목별 병합 / max-batch-size 로 배치 분할 / staleness 초과 시 추가 배치 /
+ * flush 실패 시 재시도 대기 / flush 전에도 getLatestPrice·getTickData 는 메모리 값 (read-your-writes)
+ */
+@SuppressWarnings("unchecked")
+public class LatestQuoteWriterTest {
+
+    private final RedisTemplate<String, String> redis = mock(RedisTemplate.class);
+    private final QuotePriceCache quotePriceCache = mock(QuotePriceCache.class);
+    private final RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+    // 파이프라인 1회 = HSET 된 realtime:stock:{code} 키 목록 1개
+    private final List<List<String>> roundTrips = new ArrayList<>();
+    private final List<Map<byte[], byte[]>> stockHashes = new ArrayList<>();
+    private LatestQuoteWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.hashCommands()).thenReturn(hashCommands);
+        when(connection.keyCommands()).thenReturn(mock(RedisKeyCommands.class));
+        when(connection.stringCommands()).thenReturn(mock(RedisStringCommands.class));
+        when(quotePriceCache.channel()).thenReturn("realtime:quote-updates");
+        when(quotePriceCache.updateMessage(anyList(), any())).thenReturn("msg");
+
+        List<String> current = new ArrayList<>();
+        doAnswer(inv -> {
+            byte[] key = inv.getArgument(0);
+            String k = new String(key, StandardCharsets.UTF_8);
+            if (k.startsWith(LatestQuoteWriter.REALTIME_KEY_PREFIX)) {
+                current.add(k.substring(LatestQuoteWriter.REALTIME_KEY_PREFIX.length()));
+                stockHashes.add(inv.getArgument(1));
+            }
+            return null;
+        }).when(hashCommands).hMSet(any(byte[].class), anyMap());
+        when(redis.executePipelined(any(RedisCallback.class))).thenAnswer(inv -> {
+            current.clear();
+            inv.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            roundTrips.add(List.copyOf(current));
+            return List.of();
+        });
+
+        writer = new LatestQuoteWriter(redis, quotePriceCache);
+        ReflectionTestUtils.setField(writer, "maxBatchSize", 256);
+        ReflectionTestUtils.setField(writer, "maxStalenessMs", 60_000L);
+    }
+
+    @Test
+    public void coalescesTicksPerStockIntoOneWrite() {
+        writer.update("005930", 32_400_000, 71_800, 71_000, 72_000, 70_900, 10, 1L);
+        writer.update("005930", 32_401_000, 71_900, 71_000, 72_000, 70_900, 5, 2L);
+        writer.update("000660", 32_401_000, 131_500, 130_000, 132_000, 129_000, 3, 2L);
+        writer.update("005930", 32_402_000, 72_100, 71_000, 72_100, 70_900, 7, 3L);
+
+        assertEquals(4L, writer.getStats().get("updates"));
+        assertEquals(2, writer.getStats().get("dirtyStocks"));
+        flush();
+
+        assertEquals(List.of(List.of("005930", "000660")), roundTrips);
+        assertEquals("72100", field(stockHashes.get(0), "closePrice")); // 마지막 틱만
+        assertEquals("090002", field(stockHashes.get(0), "date"));
+        assertEquals(2L, writer.getStats().get("flushedQuotes"));
+        assertEquals(0, writer.getStats().get("dirtyStocks"));
+
+        flush(); // 바뀐 종목이 없으면 Redis 호출 없음
+        assertEquals(1, roundTrips.size());
+    }
+
+    @Test
+    public void splitsBatchesAndDrainsStaleBacklogInExtraBatches() {
+        ReflectionTestUtils.setField(writer, "maxBatchSize", 2);
+        for (int i = 0; i < 5; i++) writer.update("00000" + i, 32_400_000, 1_000 + i, 0, 0, 0, 1, 1L);
+
+        flush(); // 아직 staleness 한도 안 → 주기당 한 배치만
+        assertEquals(List.of(List.of("000000", "000001")), roundTrips);
+        assertEquals(3, writer.getStats().get("dirtyStocks"));
+
+        ReflectionTestUtils.setField(writer, "maxStalenessMs", -1L); // 남은 시세가 한도를 넘김
+        flush();
+        assertEquals(List.of(List.of("000000", "000001"), List.of("000002", "000003"), List.of("000004")),
+                roundTrips);
+        assertEquals(1L, writer.getStats().get("staleQuotes")); // 첫 배치 뒤 남은 머리(000004)가 한도 초과
+        assertEquals(3L, writer.getStats().get("flushRoundTrips"));
+        assertEquals(0, writer.getStats().get("dirtyStocks"));
+    }
+
+    @Test
+    public void failedFlushKeepsQuotesDirtyForTheNextCycle() {
+        writer.update("005930", 32_400_000, 71_900, 0, 0, 0, 1, 1L);
+        doThrow(new QueryTimeoutException("redis down")).when(redis).executePipelined(any(RedisCallback.class));
+        flush();
+
+        assertEquals(1L, writer.getStats().get("flushFailures"));
+        assertEquals(1, writer.getStats().get("dirtyStocks"));
+        assertEquals(0L, writer.getStats().get("flushedQuotes"));
+    }
+
+    @Test
+    public void readsOwnWritesBeforeFlushThroughRealtimeDataService() {
+        RealtimeDataService service = new RealtimeDataService(redis, mock(RedisTemplate.class), new ObjectMapper(),
+                mock(StockRegistry.class), writer, quotePriceCache, mock(QuoteSnapshotStore.class),
+                mock(TickChunkStore.class), mock(TickChunkDictionaries.class), mock(TickWal.class));
+        writer.update("005930", 34_215_000, 71_900, 71_000, 72_300, 70_800, 12, 1_755_131_400_123L);
+
+        assertEquals(71_900, service.getLatestPrice("005930"));
+        verify(quotePriceCache).fill("005930", 71_900);
+        TickData tick = service.getTickData("005930");
+        assertEquals(71_900, tick.getClosePrice());
+        assertEquals(70_800, tick.getLowPrice());
+        assertEquals("093015", tick.getDate());
+
+        assertTrue(roundTrips.isEmpty()); // 아직 flush 전
+        verify(redis, never()).opsForHash();
+    }
+
+    private void flush() {
+        ReflectionTestUtils.invokeMethod(writer, "flushSafely");
+    }
+
+    private static String field(Map<byte[], byte[]> hash, String name) {
+        for (Map.Entry<byte[], byte[]> e : hash.entrySet()) {
+            if (new String(e.getKey(), StandardCharsets.UTF_8).equals(name)) {
+                return new String(e.getValue(), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.dto.StockInfoDto;
+import com.example.LAGO.service.StockInfoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * L1 현재가 캐시: 로컬 갱신 / 다른 노드 메시지 적용 / max-age 만료 / 인덱스 확장
+ */
+public class QuotePriceCacheTest {
+
+    @Test
+    public void appliesRemoteUpdatesButIgnoresOwnMessages() {
+        StockRegistry registry = registry();
+        QuotePriceCache cache = new QuotePriceCache(registry, mock(RedisConnectionFactory.class));
+        int samsung = registry.indexOf("005930");
+        int hynix = registry.indexOf("000660");
+
+        assertEquals(0, cache.get(samsung));
+        cache.put(samsung, 71900);
+        assertEquals(71900, cache.get("005930"));
+
+        // 자기 메시지는 무시 (로컬 틱이 더 최신일 수 있음)
+        String own = cache.updateMessage(List.of("005930", "000660"), new int[]{70000, 120000});
+        cache.apply(own);
+        assertEquals(71900, cache.get(samsung));
+        assertEquals(0, cache.get(hynix));
+
+        String remote = "otherno1" + own.substring(own.indexOf('|'));
+        cache.apply(remote);
+        assertEquals(70000, cache.get(samsung));
+        assertEquals(120000, cache.get(hynix));
+
+        cache.apply("otherno1|999999:100,000660:121000"); // 모르는 종목은 건너뜀
+        assertEquals(121000, cache.get(hynix));
+
+        var stats = cache.getStats();
+        assertEquals(1L, stats.get("localUpdates"));
+        assertEquals(3L, stats.get("remoteUpdates"));
+        assertEquals(2L, stats.get("misses"));
+    }
+
+    @Test
+    public void expiresEntriesOlderThanMaxAgeAndGrows() {
+        StockRegistry registry = registry();
+        QuotePriceCache cache = new QuotePriceCache(registry, mock(RedisConnectionFactory.class));
+        ReflectionTestUtils.setField(cache, "maxAgeMs", -1L);
+
+        cache.fill("005930", 71900);
+        assertEquals(0, cache.get("005930"));
+        assertEquals(1L, cache.getStats().get("staleMisses"));
+
+        ReflectionTestUtils.setField(cache, "maxAgeMs", 60_000L);
+        cache.fill(500, 1000); // 종목 마스터 갱신으로 늘어난 인덱스
+        assertEquals(1000, cache.get(500));
+        assertEquals(71900, cache.get("005930"));
+        assertEquals(501, cache.getStats().get("capacity"));
+
+        cache.put(0, 0);
+        cache.put(StockRegistry.NOT_FOUND, 100);
+        assertEquals(0, cache.get(StockRegistry.NOT_FOUND));
+    }
+
+    private static StockRegistry registry() {
+        StockInfoService service = mock(StockInfoService.class);
+        when(service.getAllStockInfo()).thenReturn(List.of(stock(10, "005930"), stock(11, "000660")));
+        StockRegistry registry = new StockRegistry(service);
+        registry.refresh();
+        return registry;
+    }
+
+    private static StockInfoDto stock(int id, String code) {
+        StockInfoDto dto = new StockInfoDto();
+        dto.setStockInfoId(id);
+        dto.setCode(code);
+        dto.setMarket("KOSPI");
+        return dto;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.dto.TickData;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * packed 시세 인코딩 / 버전이 바뀐 경우만 전체 재조회 / HMGET 일괄 가격 조회 /
+ * 오래된 종목 제외 및 정리 / 같은 버전에서 만료로 빠지면 ETag 변경 / clear 후에도 버전은 계속 증가
+ */
+@SuppressWarnings("unchecked")
+public class QuoteSnapshotStoreTest {
+
+    @Test
+    public void packedQuoteRoundTrips() {
+        String packed = QuoteSnapshotStore.encode(71900, 71000, 72300, 70800, 1234567, "093015", 1755131400123L);
+        TickData data = QuoteSnapshotStore.decode("005930", packed);
+        assertEquals("005930", data.getCode());
+        assertEquals(71900, data.getClosePrice());
+        assertEquals(70800, data.getLowPrice());
+        assertEquals(1234567, data.getVolume());
+        assertEquals("093015", data.getDate());
+        assertNull(QuoteSnapshotStore.decode("005930", "71900,71000"));
+    }
+
+    @Test
+    public void reloadsOnlyWhenVersionChanges() {
+        RedisTemplate<String, String> redis = mock(RedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.get(QuoteSnapshotStore.VERSION_KEY)).thenReturn("7", "7", "8");
+        when(redis.executePipelined(any(RedisCallback.class))).thenReturn(
+                List.of("7", Map.of("005930", quote(71900), "000660", quote(120000))),
+                List.of("8", Map.of("005930", quote(72000), "000660", quote(120000))));
+
+        QuoteSnapshotStore store = new QuoteSnapshotStore(redis);
+        ReflectionTestUtils.setField(store, "refreshMs", 0L);
+
+        QuoteSnapshotStore.Snapshot first = store.snapshot();
+        assertEquals(7, first.version());
+        assertEquals(List.of("000660", "005930"), List.copyOf(first.quotes().keySet()));
+        assertSame(first, store.snapshot()); // 같은 버전 → 재조회 없음
+
+        QuoteSnapshotStore.Snapshot second = store.snapshot();
+        assertEquals(8, second.version());
+        assertEquals(72000, second.quotes().get("005930").getClosePrice());
+        verify(redis, times(2)).executePipelined(any(RedisCallback.class));
+        assertEquals(3L, store.getStats().get("versionChecks"));
+
+        // refresh-ms 안에서는 메모리 사본으로 종목 여러 개 조회
+        ReflectionTestUtils.setField(store, "refreshMs", 60_000L);
+        QuoteSnapshotStore.Snapshot picked = store.lookup(Set.of("005930", "999999"));
+        assertEquals(8, picked.version());
+        assertEquals(Set.of("005930"), picked.quotes().keySet());
+    }
+
+    @Test
+    public void pricesManyCodesWithSingleHmget() {
+        RedisTemplate<String, String> redis = mock(RedisTemplate.class);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        when(redis.opsForHash()).thenReturn(hash);
+        when(hash.multiGet(QuoteSnapshotStore.SNAPSHOT_KEY, List.of("005930", "999999", "000660")))
+                .thenReturn(Arrays.asList(quote(71900), null, quote(120000)));
+
+        QuoteSnapshotStore store = new QuoteSnapshotStore(redis);
+        assertArrayEquals(new int[]{71900, 0, 120000}, store.getPrices(List.of("005930", "999999", "000660")));
+        verify(hash, times(1)).multiGet(any(), any());
+    }
+
+    @Test
+    public void dropsStaleQuotesOnReadAndPrunesThem() {
+        RedisTemplate<String, String> redis = mock(RedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        when(redis.opsForHash()).thenReturn(hash);
+        when(values.get(QuoteSnapshotStore.VERSION_KEY)).thenReturn("3");
+        long now = System.currentTimeMillis();
+        String fresh = QuoteSnapshotStore.encode(71900, 71900, 71900, 71900, 100, "090000", now);
+        String stale = QuoteSnapshotStore.encode(50000, 50000, 50000, 50000, 100, "090000", now - 7_200_000L);
+        when(redis.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of("3", Map.of("005930", fresh, "035720", stale)));
+        when(hash.multiGet(QuoteSnapshotStore.SNAPSHOT_KEY, List.of("005930", "035720")))
+                .thenReturn(List.of(fresh, stale));
+        when(hash.entries(QuoteSnapshotStore.SNAPSHOT_KEY)).thenReturn(Map.of("005930", fresh, "035720", stale));
+        when(redis.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        QuoteSnapshotStore store = new QuoteSnapshotStore(redis);
+        ReflectionTestUtils.setField(store, "refreshMs", 0L);
+
+        assertEquals(Set.of("005930"), store.snapshot().quotes().keySet());
+        assertArrayEquals(new int[]{71900, 0}, store.getPrices(List.of("005930", "035720")));
+
+        // 오래된 종목만 후보로 넘김 (스크립트가 다시 확인 후 HDEL + version 증가)
+        assertEquals(1L, store.pruneStale());
+        verify(redis).execute(any(RedisScript.class),
+                eq(List.of(QuoteSnapshotStore.SNAPSHOT_KEY, QuoteSnapshotStore.VERSION_KEY)),
+                anyString(), eq("035720"));
+    }
+
+    @Test
+    public void etagChangesWhenQuotesExpireWithoutVersionBump() throws Exception {
+        RedisTemplate<String, String> redis = mock(RedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.get(QuoteSnapshotStore.VERSION_KEY)).thenReturn("5");
+        long now = System.currentTimeMillis();
+        String expiring = QuoteSnapshotStore.encode(50000, 50000, 50000, 50000, 100, "090000", now - 950);
+        when(redis.executePipelined(any(RedisCallback.class)))
+                .thenReturn(List.of("5", Map.of("005930", quote(71900), "035720", expiring)));
+
+        QuoteSnapshotStore store = new QuoteSnapshotStore(redis);
+        ReflectionTestUtils.setField(store, "refreshMs", 0L);
+        ReflectionTestUtils.setField(store, "maxAgeMs", 1_000L);
+
+        QuoteSnapshotStore.Snapshot first = store.snapshot();
+        assertEquals(2, first.quotes().size());
+        Thread.sleep(100); // prune 전에 035720 만료 → version 은 그대로
+
+        QuoteSnapshotStore.Snapshot second = store.snapshot();
+        assertEquals(first.version(), second.version());
+        assertEquals(Set.of("005930"), second.quotes().keySet());
+        assertNotEquals(first.etag(), second.etag()); // 내용이 바뀌었으므로 304 가 아니어야 함
+        verify(redis, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    public void clearKeepsVersionIncreasing() {
+        RedisTemplate<String, String> redis = mock(RedisTemplate.class);
+        new QuoteSnapshotStore(redis).clear();
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redis).executePipelined(callback.capture());
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisKeyCommands keys = mock(RedisKeyCommands.class);
+        RedisStringCommands strings = mock(RedisStringCommands.class);
+        when(connection.keyCommands()).thenReturn(keys);
+        when(connection.stringCommands()).thenReturn(strings);
+        callback.getValue().doInRedis(connection);
+
+        // 해시만 지우고 version 은 INCR (0으로 돌아가지 않음)
+        verify(keys).del(QuoteSnapshotStore.SNAPSHOT_KEY.getBytes(StandardCharsets.UTF_8));
+        verify(strings).incr(QuoteSnapshotStore.VERSION_KEY.getBytes(StandardCharsets.UTF_8));
+        verifyNoMoreInteractions(keys);
+    }
+
+    private static String quote(int price) {
+        return QuoteSnapshotStore.encode(price, price, price, price, 100, "090000", System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.realtime.ingest.LongOhlcMap;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 적재 배치의 종목별 마지막 종가 선택 / 메모리 우선 조회 / 오래된 값만 DB 재조회 / 종목 순 upsert + 커밋 후 반영
+ */
+public class StockLastPriceStoreTest {
+
+    @Test
+    public void keepsLatestSecondPerStockAndServesFromMemory() {
+        JdbcTemplate jdbc = schemaApplied();
+        StockLastPriceStore store = new StockLastPriceStore(jdbc);
+
+        LongOhlcMap buckets = new LongOhlcMap(16);
+        buckets.accept(1, 1_000, 100, 1);
+        buckets.accept(1, 1_002, 120, 1);
+        buckets.accept(1, 1_001, 110, 1); // 슬롯 순서와 무관하게 가장 늦은 초
+        buckets.accept(2, 1_000, 500, 1);
+        store.upsertLatest(buckets);
+
+        assertEquals(120, store.getPrice(1));
+        assertEquals(Map.of(1, 120, 2, 500), store.getPrices(List.of(1, 2, 3)));
+        assertNull(store.getPrice(null));
+
+        // 테이블 확인 1회 + upsert 1회 + 없는 종목(3) PK 조회 1회
+        verify(jdbc, times(1)).queryForObject(anyString(), eq(Boolean.class), any(Object[].class));
+        verify(jdbc, times(2)).execute(any(ConnectionCallback.class));
+        assertEquals(1L, store.getStats().get("dbReads"));
+    }
+
+    @Test
+    public void rereadsStaleEntriesButKeepsNewerLocalPrice() {
+        JdbcTemplate jdbc = schemaApplied();
+        StockLastPriceStore store = new StockLastPriceStore(jdbc);
+        store.upsert(new int[]{7}, new int[]{9_900}, new long[]{2_000}, 1);
+
+        ReflectionTestUtils.setField(store, "maxAgeMs", -1L);
+        assertEquals(9_900, store.getPrice(7)); // DB 결과가 없어도 마지막으로 알던 값
+        assertEquals(1L, store.getStats().get("dbReads"));
+    }
+
+    @Test
+    public void upsertsInStockOrderAndRemembersOnlyAfterCommit() throws Exception {
+        JdbcTemplate jdbc = schemaApplied();
+        Connection con = mock(Connection.class);
+        when(con.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        when(con.createArrayOf(anyString(), any())).thenReturn(mock(Array.class));
+        when(jdbc.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> inv.<ConnectionCallback<?>>getArgument(0).doInConnection(con));
+        StockLastPriceStore store = new StockLastPriceStore(jdbc);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.upsert(new int[]{9, 3, 5}, new int[]{900, 300, 500}, new long[]{1, 2, 3}, 3);
+            verify(con).createArrayOf(eq("integer"), eq(new Integer[]{3, 5, 9}));
+            verify(con).createArrayOf(eq("integer"), eq(new Integer[]{300, 500, 900}));
+
+            // 커밋 전에는 메모리에 없음 → 롤백되면 그대로 버려짐
+            assertEquals(0, store.getStats().get("cachedStocks"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(Map.of(3, 300, 5, 500, 9, 900), store.getPrices(List.of(3, 5, 9)));
+        assertEquals(0L, store.getStats().get("dbReads"));
+    }
+
+    @Test
+    public void failsWithoutSchemaScript() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(false);
+        StockLastPriceStore store = new StockLastPriceStore(jdbc);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> store.upsert(new int[]{1}, new int[]{100}, new long[]{1}, 1));
+        assertTrue(e.getMessage().contains(RealtimeSchema.SCRIPT));
+        verify(jdbc, never()).execute(any(ConnectionCallback.class));
+    }
+
+    // realtime_schema.sql 이 적용된 DB
+    private static JdbcTemplate schemaApplied() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        when(jdbc.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(true);
+        return jdbc;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.LAGO.realtime;
+
+import com.example.LAGO.dto.StockInfoDto;
+import com.example.LAGO.service.StockInfoService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 인덱스 고정(갱신 후에도 유지), 숫자/비숫자 코드 조회, 삭제 종목 처리
+ */
+public class StockRegistryTest {
+
+    @Test
+    public void keepsIndexesStableAcrossRefresh() {
+        StockInfoService service = mock(StockInfoService.class);
+        List<StockInfoDto> stocks = new ArrayList<>(List.of(
+                stock(10, "005930", "KOSPI"),
+                stock(11, "000660", "KOSPI"),
+                stock(12, "0000J0", "KOSDAQ")));
+        when(service.getAllStockInfo()).thenAnswer(inv -> List.copyOf(stocks));
+
+        StockRegistry registry = new StockRegistry(service);
+        registry.refresh();
+
+        int samsung = registry.indexOfNumericCode(5930);
+        assertEquals(samsung, registry.indexOf("005930"));
+        assertEquals(10, registry.stockIdAt(samsung));
+        assertEquals("005930", registry.codeAt(samsung));
+        assertEquals(samsung, registry.indexOfStockId(10));
+        int etn = registry.indexOf("0000J0");
+        assertEquals(12, registry.stockIdAt(etn));
+        assertEquals("KOSDAQ", registry.getMarket(12));
+        assertEquals(StockRegistry.NOT_FOUND, registry.indexOf("999999"));
+        assertNull(registry.getStockId("999999"));
+
+        // 종목 추가 + 삭제 후 갱신: 기존 인덱스 유지, 새 종목은 뒤에
+        int hynix = registry.indexOf("000660");
+        stocks.remove(1);
+        stocks.add(stock(13, "035420", "KOSPI"));
+        registry.refresh();
+
+        assertEquals(samsung, registry.indexOf("005930"));
+        assertEquals(etn, registry.indexOf("0000J0"));
+        assertEquals(3, registry.indexOf("035420"));
+        assertEquals(4, registry.size());
+        assertEquals(StockRegistry.NOT_FOUND, registry.indexOf("000660"));
+        assertFalse(registry.isListed(hynix));
+        assertEquals("000660", registry.codeAt(hynix)); // 자리는 그대로
+
+        // 다시 상장되면 같은 인덱스로 복귀
+        stocks.add(stock(11, "000660", "KOSPI"));
+        registry.refresh();
+        assertEquals(hynix, registry.indexOf("000660"));
+        assertTrue(registry.isListed(hynix));
+    }
+
+    @Test
+    public void parsesNumericCodesWithoutAllocation() {
+        assertEquals(5930, StockRegistry.parseNumericCode("005930"));
+        assertEquals(5930, StockRegistry.parseNumericCode(" 005930 "));
+        assertEquals(-1, StockRegistry.parseNumericCode("0000J0"));
+        assertEquals(-1, StockRegistry.parseNumericCode("05930"));
+    }
+
+    private static StockInfoDto stock(int id, String code, String market) {
+        StockInfoDto dto = new StockInfoDto();
+        dto.setStockInfoId(id);
+        dto.setCode(code);
+        dto.setMarket(market);
+        return dto;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.LAGO.realtime;
+
+import com.github.luben.zstd.Zstd;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 청크 v2 컬럼 인코딩 왕복 및 v1 대비 압축률 테스트
+ */
+public class TickChunkCodecTest {
+
+    @Test
+    public void v2RoundTripPreservesAllColumns() {
+        TickChunk chunk = new TickChunk(1000);
+        fillRealisticTicks(chunk, 1000, true);
+
+        TickColumns decoded = new TickColumns(0);
+        TickChunkCodec.decodeV2(chunk.toRawV2(), decoded);
+
+        assertEquals(1000, decoded.count());
+        assertEquals(1234, decoded.stockId());
+        assertTrue(decoded.hasSide());
+        assertTrue(decoded.hasCumVolume());
+
+        // 16B 행 표현과 값이 같아야 함
+        ByteBuffer rows = ByteBuffer.wrap(chunk.toRaw16B()).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < decoded.count(); i++) {
+            assertEquals(1234, rows.getInt());
+            assertEquals(rows.getInt(), decoded.msOfDay(i), "msOfDay@" + i);
+            assertEquals(rows.getInt(), decoded.price(i), "price@" + i);
+            assertEquals(rows.getInt(), decoded.volume(i), "volume@" + i);
+            assertTrue(decoded.side(i) == 1 || decoded.side(i) == 5);
+        }
+    }
+
+    @Test
+    public void v1BulkColumnDecodeMatchesV2() {
+        TickChunk chunk = new TickChunk(1000);
+        fillRealisticTicks(chunk, 777, false);
+
+        TickColumns v1 = new TickColumns(0);
+        TickDataSerializer.read16BColumns(chunk.toRaw16B(), 777, v1);
+        TickColumns v2 = new TickColumns(0);
+        TickChunkCodec.decodeV2(chunk.toRawV2(), v2);
+
+        assertEquals(v2.count(), v1.count());
+        assertEquals(v2.stockId(), v1.stockId());
+        long[] sums = new long[2];
+        v1.forEach((stockId, msOfDay, price, volume) -> sums[0] += (long) msOfDay * 31 + price * 7L + volume);
+        v2.forEach((stockId, msOfDay, price, volume) -> sums[1] += (long) msOfDay * 31 + price * 7L + volume);
+        assertEquals(sums[1], sums[0]);
+        for (int i = 0; i < v1.count(); i++) {
+            assertEquals(v2.msOfDay(i), v1.msOfDay(i));
+            assertEquals(v2.price(i), v1.price(i));
+            assertEquals(v2.volume(i), v1.volume(i));
+        }
+    }
+
+    @Test
+    public void optionalColumnsAndExtremeValuesRoundTrip() {
+        TickChunk chunk = new TickChunk(8);
+        chunk.add16B(7, 0, Integer.MAX_VALUE, 1);
+        chunk.add16B(7, 86_399_999, Integer.MIN_VALUE + 1, Integer.MAX_VALUE);
+        chunk.add16B(7, 1, 0, -5);
+
+        TickColumns decoded = new TickColumns(0);
+        TickChunkCodec.decodeV2(chunk.toRawV2(), decoded);
+
+        assertEquals(3, decoded.count());
+        assertFalse(decoded.hasSide());
+        assertFalse(decoded.hasCumVolume());
+        assertEquals(KisTickRecord.NULL, decoded.side(0));
+        assertEquals(Integer.MAX_VALUE, decoded.price(0));
+        assertEquals(Integer.MIN_VALUE + 1, decoded.price(1));
+        assertEquals(86_399_999, decoded.msOfDay(1));
+        assertEquals(Integer.MAX_VALUE, decoded.volume(1));
+        assertEquals(-5, decoded.volume(2));
+    }
+
+    @Test
+    public void v2CompressesSeveralTimesBetterThanV1() {
+        TickChunk chunk = new TickChunk(1000);
+        fillRealisticTicks(chunk, 1000, false);
+
+        int v1 = Zstd.compress(chunk.toRaw16B(), 3).length;
+        int v2 = Zstd.compress(chunk.toRawV2(), 3).length;
+        assertTrue(v2 * 2 < v1, "v1=" + v1 + "B, v2=" + v2 + "B");
+    }
+
+    private static void fillRealisticTicks(TickChunk chunk, int n, boolean extras) {
+        Random random = new Random(42);
+        int ms = 9 * 3_600_000;
+        int price = 71_000;
+        int cum = 0;
+        for (int i = 0; i < n; i++) {
+            ms += random.nextInt(4) == 0 ? 0 : 1000;
+            price += (random.nextInt(5) - 2) * 100;
+            int volume = 1 + random.nextInt(random.nextInt(10) == 0 ? 5000 : 50);
+            cum += volume;
+            if (extras) {
+                chunk.add(1234, ms, price, volume, random.nextBoolean() ? 1 : 5, cum);
+            } else {
+                chunk.add16B(1234, ms, price, volume);
+            }
+        }
+    }
+}
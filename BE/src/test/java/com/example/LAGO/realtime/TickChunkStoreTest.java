@@ -0,0 +1,68 @@
+package com.example.LAGO.realtime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 레거시 배치 이관: v1이 이미 청크로 저장한 blob은 새 청크를 만들지 않고 레거시 키만 삭제
+ */
+@SuppressWarnings("unchecked")
+public class TickChunkStoreTest {
+
+    @Test
+    public void migrationSkipsBatchesAlreadyIndexedByV1() {
+        RedisTemplate<String, byte[]> binary = mock(RedisTemplate.class);
+        RedisTemplate<String, String> redis = mock(RedisTemplate.class);
+        ValueOperations<String, byte[]> blobs = mock(ValueOperations.class);
+        HashOperations<String, Object, Object> hash = mock(HashOperations.class);
+        ZSetOperations<String, String> zset = mock(ZSetOperations.class);
+        when(binary.opsForValue()).thenReturn(blobs);
+        when(redis.opsForHash()).thenReturn(hash);
+        when(redis.opsForZSet()).thenReturn(zset);
+
+        Cursor<String> cursor = mock(Cursor.class);
+        doAnswer(inv -> {
+            inv.<Consumer<String>>getArgument(0).accept("tick_meta:5");
+            return null;
+        }).when(cursor).forEachRemaining(any());
+        when(redis.scan(any(ScanOptions.class))).thenReturn(cursor);
+
+        // 1000: v1 짝 있음 (같은 blob), 2000: 짝 없음 (v1 이중 저장 이전 배치)
+        Map<Object, Object> legacy = new LinkedHashMap<>();
+        legacy.put("tick_batch:5:1000", "count=1,size=3,ratio=10.00%,key=tick_batch:5:1000");
+        legacy.put("tick_batch:5:2000", "count=1,size=3,ratio=10.00%,key=tick_batch:5:2000");
+        when(hash.entries("tick_meta:5")).thenReturn(legacy);
+        when(blobs.get("tick_batch:5:1000")).thenReturn(new byte[]{1, 2, 3});
+        when(blobs.get("tick_batch:5:2000")).thenReturn(new byte[]{4, 5, 6});
+        when(zset.rangeByScore("ticks:chunks:byStock:5", 1000, 1000 + TickChunkStore.V1_COUNTERPART_WINDOW_MS))
+                .thenReturn(Set.of("v1-chunk"));
+        when(zset.rangeByScore("ticks:chunks:byStock:5", 2000, 2000 + TickChunkStore.V1_COUNTERPART_WINDOW_MS))
+                .thenReturn(Set.of("v1-chunk"));
+        when(blobs.get("ticks:chunk:v1-chunk:blob")).thenReturn(new byte[]{1, 2, 3});
+
+        TickChunkStore store = new TickChunkStore(binary, redis);
+        assertEquals(1, store.migrateLegacyBatches(false));
+
+        // 새 청크 커밋은 짝 없는 배치 1건만, 레거시 키는 둘 다 삭제
+        verify(binary, times(1)).execute(any(RedisScript.class), any(), any(), anyList(), any(Object[].class));
+        verify(binary).delete("tick_batch:5:1000");
+        verify(binary).delete("tick_batch:5:2000");
+        verify(hash).delete("tick_meta:5", "tick_batch:5:1000");
+        verify(hash).delete("tick_meta:5", "tick_batch:5:2000");
+    }
+}
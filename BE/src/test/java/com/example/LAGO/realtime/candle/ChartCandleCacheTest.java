@@ -0,0 +1,183 @@
+package com.example.LAGO.realtime.candle;
+
+import com.example.LAGO.dto.StockChartDto;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.TickChunkStore;
+import com.example.LAGO.realtime.TickColumns;
+import com.example.LAGO.realtime.ingest.ChunkIngestLedger;
+import com.example.LAGO.service.TickChunkReaderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * CandleRing 롤링/늦은 틱 + ChartCandleCache 간격별 롤업/구간 조회 + 시딩 꼬리(미적재 청크) 검증
+ */
+@SuppressWarnings("unchecked")
+public class ChartCandleCacheTest {
+
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+
+    @Test
+    public void ringKeepsLatestContiguousWindow() {
+        CandleRing ring = new CandleRing(3);
+        ring.addTick(10, 100, 1);
+        ring.addTick(10, 105, 2);
+        ring.addTick(11, 99, 1);
+        ring.addTick(10, 90, 4);   // 늦은 틱: low/volume 만 반영, close 유지
+        ring.addTick(12, 101, 1);
+        assertEquals(10, ring.oldestBucket());
+
+        List<long[]> rows = new ArrayList<>();
+        ring.forEachInRange(Integer.MIN_VALUE, Integer.MAX_VALUE,
+                (b, o, h, l, c, v) -> rows.add(new long[]{b, o, h, l, c, v}));
+        assertArrayEquals(new long[]{10, 100, 105, 90, 105, 7}, rows.get(0));
+        assertEquals(3, rows.size());
+
+        ring.addTick(13, 102, 1);  // 가장 오래된 버킷이 밀려남
+        assertEquals(11, ring.oldestBucket());
+        ring.addTick(10, 1, 1);    // 링 밖의 늦은 틱은 무시
+        List<Integer> latest = new ArrayList<>();
+        ring.forEachLatest(10, (b, o, h, l, c, v) -> latest.add(b));
+        assertEquals(List.of(13, 12, 11), latest);
+    }
+
+    @Test
+    public void rollsTicksIntoEveryIntervalAndAnswersRanges() {
+        StockRegistry registry = mock(StockRegistry.class);
+        when(registry.indexOf("005930")).thenReturn(0);
+        when(registry.indexOf("000000")).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.stockIdAt(0)).thenReturn(1);
+        when(registry.size()).thenReturn(1);
+        ChartCandleCache cache = new ChartCandleCache(registry, null,
+                mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(cache, "ready", true);
+
+        LocalDateTime nine = LocalDateTime.of(2025, 8, 14, 9, 0);
+        long nineUtcMinute = nine.atZone(KST).toEpochSecond() / 60;
+        for (int m = 0; m < 7; m++) {
+            cache.onTick(0, nineUtcMinute + m, 1000 + m, 10);
+            cache.onTick(0, nineUtcMinute + m, 990 + m, 5);
+        }
+
+        List<StockChartDto> oneMinute = cache.range("005930", "1m", nine, nine.plusMinutes(7));
+        assertEquals(7, oneMinute.size());
+        assertEquals(nine, oneMinute.get(0).getBucket());
+        assertEquals(15L, oneMinute.get(0).getVolume());
+
+        List<StockChartDto> threeMinute = cache.range("005930", "3m", nine, nine.plusMinutes(9));
+        assertEquals(3, threeMinute.size());
+        StockChartDto first = threeMinute.get(0);
+        assertEquals(1000, first.getOpenPrice());
+        assertEquals(1002, first.getHighPrice());
+        assertEquals(990, first.getLowPrice());
+        assertEquals(992, first.getClosePrice());
+        assertEquals(45L, first.getVolume());
+
+        // 1D 버킷은 time_bucket 과 같이 UTC 자정 = KST 09:00
+        assertEquals(nine, cache.coverageStart("005930", "1D"));
+        assertEquals(105L, cache.latest("005930", "1D", 5).get(0).getVolume());
+
+        // 캐시 대상이 아닌 간격/종목
+        assertNull(cache.coverageStart("005930", "1W"));
+        assertNull(cache.latest("000000", "1m", 5));
+    }
+
+    @Test
+    public void seedAddsPendingChunksNotYetInTheLedger() throws Exception {
+        StockRegistry registry = mock(StockRegistry.class);
+        when(registry.indexOf("005930")).thenReturn(0);
+        when(registry.indexOfStockId(1)).thenReturn(0);
+        when(registry.stockIdAt(0)).thenReturn(1);
+        when(registry.size()).thenReturn(1);
+
+        LocalDateTime nine = LocalDateTime.of(2025, 8, 14, 9, 0);
+        long nineUtcMinute = nine.atZone(KST).toEpochSecond() / 60;
+        long kstMidnightMs = nine.toLocalDate().atStartOfDay(KST).toInstant().toEpochMilli();
+
+        // "TICKS" 에는 09:00 한 봉, 대기열 청크 2개 중 "done" 은 조회 스냅샷에서 이미 원장에 있음
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        doAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            RowCallbackHandler handler = inv.getArgument(2);
+            if (!sql.contains("\"TICKS\"")) return null; // CAGG 구간은 비어 있음
+            assertTrue(sql.contains("TICKS_INGEST_LEDGER"));
+            handler.processRow(rawRow(1, nineUtcMinute, 1000, 1010, 990, 1005, 30));
+            handler.processRow(ledgerRow("done"));
+            return null;
+        }).when(jdbc).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+
+        TickChunkStore store = mock(TickChunkStore.class);
+        when(store.pendingChunkIds(anyInt())).thenReturn(List.of("done", "pending"));
+        TickChunkReaderService reader = mock(TickChunkReaderService.class);
+        doAnswer(inv -> {
+            TickColumns.TickVisitor visitor = inv.getArgument(1);
+            visitor.onChunk(1, kstMidnightMs, 1);
+            visitor.onTick(1, 9 * 3_600_000 + 10_000, 1005, 30); // 09:00 - "TICKS" 에 이미 반영된 청크
+            return 1;
+        }).when(reader).forEachTick(eq("done"), any());
+        doAnswer(inv -> {
+            TickColumns.TickVisitor visitor = inv.getArgument(1);
+            visitor.onChunk(1, kstMidnightMs, 3);
+            visitor.onTick(1, 9 * 3_600_000 + 50_000, 1020, 5);  // 09:00
+            visitor.onTick(1, 9 * 3_600_000 + 65_000, 1030, 7);  // 09:01
+            visitor.onTick(1, 9 * 3_600_000 + 70_000, 1025, 1);
+            return 3;
+        }).when(reader).forEachTick(eq("pending"), any());
+
+        ChartCandleCache cache = new ChartCandleCache(registry, jdbc,
+                provider(store), provider(reader), provider(mock(ChunkIngestLedger.class)));
+        cache.seed(nineUtcMinute + 2);
+        ReflectionTestUtils.setField(cache, "ready", true);
+
+        List<StockChartDto> oneMinute = cache.range("005930", "1m", nine, nine.plusMinutes(2));
+        assertEquals(2, oneMinute.size());
+        assertEquals(35L, oneMinute.get(0).getVolume());   // "done" 은 다시 더하지 않음
+        assertEquals(1020, oneMinute.get(0).getClosePrice());
+        assertEquals(1030, oneMinute.get(1).getOpenPrice());
+        assertEquals(1025, oneMinute.get(1).getClosePrice());
+        assertEquals(8L, oneMinute.get(1).getVolume());
+        assertEquals(1, cache.getStats().get("seedTailChunks"));
+    }
+
+    private static <T> ObjectProvider<T> provider(T bean) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(bean);
+        return provider;
+    }
+
+    private static ResultSet rawRow(int stockId, long utcMinute, int o, int h, int l, int c, long v) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt(1)).thenReturn(stockId);
+        when(rs.getTimestamp(2)).thenReturn(Timestamp.from(Instant.ofEpochSecond(utcMinute * 60)));
+        when(rs.getInt(3)).thenReturn(o);
+        when(rs.getInt(4)).thenReturn(h);
+        when(rs.getInt(5)).thenReturn(l);
+        when(rs.getInt(6)).thenReturn(c);
+        when(rs.getLong(7)).thenReturn(v);
+        return rs;
+    }
+
+    private static ResultSet ledgerRow(String chunkId) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(8)).thenReturn(chunkId);
+        return rs;
+    }
+}
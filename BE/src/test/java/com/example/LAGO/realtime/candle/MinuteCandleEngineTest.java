@@ -0,0 +1,85 @@
+package com.example.LAGO.realtime.candle;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MinuteCandleEngine 누적/워터마크 마감/늦은 틱 정정 검증 (Spring 없이 엔진만)
+ */
+public class MinuteCandleEngineTest {
+
+    private static final long DAY = LocalDate.of(2025, 8, 14).toEpochDay() * 86_400_000L;
+    private static final long NINE = DAY + 9 * 3_600_000L;
+
+    private final List<MinuteCandle> emitted = new ArrayList<>();
+    private MinuteCandleEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        emitted.clear();
+        engine = new MinuteCandleEngine(null, emitted::add);
+    }
+
+    @Test
+    public void closesOnLaterTickAndAccumulatesOhlcv() {
+        engine.onTick(0, 7, NINE + 1_000, 100, 5);
+        engine.onTick(0, 7, NINE + 20_000, 120, 1);
+        engine.onTick(0, 7, NINE + 10_000, 90, 2);   // 순서 뒤바뀐 틱: close 는 그대로
+        engine.onTick(0, 7, NINE + 59_999, 110, 3);
+        assertTrue(emitted.isEmpty());
+
+        engine.onTick(0, 7, NINE + 61_000, 111, 1);  // 다음 분 → 직전 분 마감
+        assertEquals(1, emitted.size());
+        MinuteCandle c = emitted.get(0);
+        assertFalse(c.correction());
+        assertEquals(7, c.stockId());
+        assertEquals(LocalDateTime.of(2025, 8, 14, 9, 0), c.minute());
+        assertArrayEquals(new long[]{100, 120, 90, 110, 11, 4},
+                new long[]{c.open(), c.high(), c.low(), c.close(), c.volume(), c.trades()});
+
+        // 다른 종목은 독립
+        engine.onTick(3, 8, NINE + 5_000, 500, 1);
+        assertEquals(1, emitted.size());
+    }
+
+    @Test
+    public void closesAfterGraceAndEmitsCorrectionForLateTick() {
+        engine.onTick(0, 7, NINE + 30_000, 100, 1);
+
+        assertEquals(0, engine.closeExpired(NINE + 60_000));          // grace 이전
+        assertEquals(1, engine.closeExpired(NINE + 63_000));          // 분 종료 + 3초
+        assertEquals(0, engine.closeExpired(NINE + 70_000));          // 중복 마감 없음
+        assertFalse(emitted.get(0).correction());
+
+        // 같은 분의 늦은 틱 → 정정 (전체 상태)
+        engine.onTick(0, 7, NINE + 5_000, 95, 2);
+        MinuteCandle fix = emitted.get(1);
+        assertTrue(fix.correction());
+        assertArrayEquals(new long[]{95, 100, 95, 100, 3, 2},
+                new long[]{fix.open(), fix.high(), fix.low(), fix.close(), fix.volume(), fix.trades()});
+
+        // 새 분 시작 시 이미 마감된 분은 다시 내보내지 않음
+        engine.onTick(0, 7, NINE + 125_000, 101, 1);
+        assertEquals(2, emitted.size());
+
+        // 늦은 틱이 window 안이면 ring 에서 찾아 정정
+        engine.onTick(0, 7, NINE + 59_000, 130, 1);
+        assertEquals(3, emitted.size());
+        assertEquals(130, emitted.get(2).high());
+
+        // window(5분) 밖이거나 체결이 없던 분의 늦은 틱은 버림
+        engine.onTick(0, 7, NINE + 61_000, 100, 1);   // 9:01 은 체결 없던 분
+        engine.onTick(0, 7, NINE + 600_000, 100, 1);  // 9:10 → 9:02 마감
+        engine.onTick(0, 7, NINE + 1_000, 100, 1);    // 9:00 은 window 밖
+        assertEquals(4, emitted.size());
+        assertFalse(emitted.get(3).correction());
+        assertEquals(2L, engine.getStats().get("droppedLateTicks"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.dto.TickData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 구독 없는 종목 건너뜀 / 종목별 conflation / 전송률 제한 / 전체 시세 묶음 프레임 검증
+ */
+public class QuoteFanoutTest {
+
+    private SimpMessagingTemplate template;
+    private StompSubscriptionRegistry subscriptions;
+    private MarketSnapshotPublisher snapshot;
+    private QuoteFanout fanout;
+    private long seq;
+
+    @BeforeEach
+    void setUp() {
+        StockRegistry registry = mock(StockRegistry.class);
+        when(registry.indexOf(anyString())).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.indexOf("005930")).thenReturn(0);
+        when(registry.indexOf("000660")).thenReturn(1);
+        when(registry.codeAt(0)).thenReturn("005930");
+        when(registry.codeAt(1)).thenReturn("000660");
+        when(registry.size()).thenReturn(2);
+        when(registry.stockIdAt(0)).thenReturn(1);
+        when(registry.stockIdAt(1)).thenReturn(2);
+
+        template = mock(SimpMessagingTemplate.class);
+        subscriptions = new StompSubscriptionRegistry(registry);
+        snapshot = new MarketSnapshotPublisher(template, subscriptions, registry, new ObjectMapper());
+        fanout = new QuoteFanout(template, subscriptions, registry, new ObjectMapper().findAndRegisterModules(), snapshot);
+        ReflectionTestUtils.setField(fanout, "minIntervalNanos", TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void conflatesWatchedSymbolsOnly() {
+        subscriptions.subscribe("s1", "sub-0", "/topic/stocks/005930");
+
+        fanout.onTick(0, ++seq, tick("005930", 70_000));
+        fanout.onTick(0, ++seq, tick("005930", 70_100));
+        fanout.onTick(1, ++seq, tick("000660", 120_000));   // 구독자 없음
+        assertEquals(1, fanout.flush(TimeUnit.SECONDS.toNanos(10)));
+
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(template, times(1)).send(eq("/topic/stocks/005930"), captor.capture());
+        String json = new String(captor.getValue().getPayload(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"closePrice\":70100"), json);
+        assertTrue(json.contains("\"seq\":2"), json);
+        verify(template, never()).send(eq("/topic/stocks/all"), any(Message.class));
+
+        // 전송 간격(100ms) 안의 틱은 다음 주기로 미룸
+        fanout.onTick(0, ++seq, tick("005930", 70_200));
+        assertEquals(0, fanout.flush(TimeUnit.SECONDS.toNanos(10) + TimeUnit.MILLISECONDS.toNanos(50)));
+        assertEquals(1, fanout.flush(TimeUnit.SECONDS.toNanos(10) + TimeUnit.MILLISECONDS.toNanos(100)));
+
+        // 세션 종료 후에는 건너뜀
+        subscriptions.disconnect("s1");
+        fanout.onTick(0, ++seq, tick("005930", 70_300));
+        assertEquals(0, fanout.flush(TimeUnit.SECONDS.toNanos(20)));
+        assertFalse(subscriptions.isSymbolWatched(0));
+    }
+
+    @Test
+    public void allTopicGetsBatchedDeltaAndKeyFrames() {
+        subscriptions.subscribe("s1", "sub-0", "/topic/stocks/all");
+
+        fanout.onTick(0, ++seq, tick("005930", 70_000));
+        fanout.onTick(1, ++seq, tick("000660", 120_000));
+        fanout.onTick(1, ++seq, tick("000660", 121_000));
+        // 개별 종목 토픽은 구독자가 없으므로 종목별 전송 없음
+        assertEquals(0, fanout.flush(TimeUnit.SECONDS.toNanos(10)));
+
+        // 첫 프레임은 key (전 종목)
+        MarketSnapshotPublisher.Frame key = snapshot.publish(10_000);
+        assertEquals("key", key.type());
+        assertEquals(MarketSnapshotPublisher.FIELDS, key.fields());
+        assertEquals(2, key.rows().size());
+        assertEquals(121_000, key.rows().get(1)[1]);
+        assertEquals(90001, key.rows().get(1)[5]);
+
+        // 바뀐 종목이 없으면 delta 프레임도 없음, 바뀐 종목만 delta 로
+        assertNull(snapshot.publish(10_200));
+        fanout.onTick(0, ++seq, tick("005930", 70_500));
+        MarketSnapshotPublisher.Frame delta = snapshot.publish(10_400);
+        assertEquals("delta", delta.type());
+        assertNull(delta.fields());
+        assertEquals(1, delta.rows().size());
+        assertEquals(70_500, delta.rows().get(0)[1]);
+        assertTrue(delta.seq() > key.seq());
+
+        // 주기가 되면 다시 key
+        assertEquals("key", snapshot.publish(15_000).type());
+        verify(template, times(3)).send(eq("/topic/stocks/all"), any(Message.class));
+
+        subscriptions.unsubscribe("s1", "sub-0");
+        assertEquals(0, subscriptions.subscriberCount("/topic/stocks/all"));
+        assertNull(snapshot.publish(20_000));
+    }
+
+    private static TickData tick(String code, int price) {
+        return TickData.builder().code(code).date("090001").closePrice(price).volume(10).build();
+    }
+}
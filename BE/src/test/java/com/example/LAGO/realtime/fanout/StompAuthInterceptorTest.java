@@ -0,0 +1,53 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.service.JwtTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * CONNECT 토큰 → 세션 Principal / 잘못된 토큰 거절 / 토큰 없으면 익명
+ */
+public class StompAuthInterceptorTest {
+
+    private final JwtTokenService jwt = mock(JwtTokenService.class);
+    private final StompAuthInterceptor interceptor = new StompAuthInterceptor(jwt);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    public void validTokenBecomesSessionPrincipal() {
+        when(jwt.isTokenValid("good")).thenReturn(true);
+        when(jwt.isAccessToken("good")).thenReturn(true);
+        when(jwt.getUserIdFromToken("good")).thenReturn(42L);
+
+        Message<?> message = interceptor.preSend(connect("Bearer good"), channel);
+        assertEquals("42", StompHeaderAccessor.wrap(message).getUser().getName());
+        assertEquals(1L, interceptor.getStats().get("authenticated"));
+    }
+
+    @Test
+    public void rejectsInvalidTokenAndAllowsAnonymous() {
+        when(jwt.isTokenValid("bad")).thenReturn(false);
+        assertThrows(MessageDeliveryException.class, () -> interceptor.preSend(connect("Bearer bad"), channel));
+
+        Message<?> anonymous = interceptor.preSend(connect(null), channel);
+        assertNull(StompHeaderAccessor.wrap(anonymous).getUser());
+        assertEquals(1L, interceptor.getStats().get("rejected"));
+        assertEquals(1L, interceptor.getStats().get("anonymous"));
+    }
+
+    private static Message<byte[]> connect(String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId("s1");
+        if (authorization != null) accessor.addNativeHeader(StompAuthInterceptor.AUTHORIZATION_HEADER, authorization);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.candle.MinuteCandle;
+import com.example.LAGO.realtime.candle.MinuteCandleEngine;
+import com.example.LAGO.realtime.dto.TickData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 구독 직후 스냅샷: 브로커 처리 후 해당 구독에만, seq 포함, 값 없으면 생략
+ */
+public class SubscribeSnapshotInterceptorTest {
+
+    private final QuoteBook quoteBook = new QuoteBook();
+    private final List<MinuteCandle> closed = new ArrayList<>();
+    private MinuteCandleEngine engine;
+    private MessageChannel outbound;
+    private SubscribeSnapshotInterceptor interceptor;
+    private final MessageHandler broker = mock(SimpleBrokerMessageHandler.class);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        StockRegistry registry = mock(StockRegistry.class);
+        when(registry.indexOf(anyString())).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.indexOf("005930")).thenReturn(0);
+        when(registry.indexOfStockId(anyInt())).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.indexOfStockId(11)).thenReturn(0);
+
+        engine = new MinuteCandleEngine(registry, closed::add);
+        ObjectProvider<MinuteCandleEngine> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(engine);
+
+        outbound = mock(MessageChannel.class);
+        when(outbound.send(any())).thenReturn(true);
+        interceptor = new SubscribeSnapshotInterceptor(registry, quoteBook, provider,
+                new ObjectMapper().findAndRegisterModules(), outbound);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sendsCurrentQuoteWithSequenceToSubscriberOnly() {
+        Message<?> subscribe = subscribe("/topic/stocks/005930");
+
+        // 시세가 아직 없으면 보내지 않음
+        interceptor.afterMessageHandled(subscribe, null, broker, null);
+        verifyNoInteractions(outbound);
+
+        long seq = quoteBook.update(0, TickData.builder().code("005930").date("090105")
+                .closePrice(71_000).openPrice(70_000).highPrice(71_500).lowPrice(69_900)
+                .fluctuationRate(new BigDecimal("1.43")).previousDay(1_000).build());
+
+        // 브로커가 아닌 핸들러(어노테이션 핸들러 등)의 처리 완료에는 반응하지 않음
+        interceptor.afterMessageHandled(subscribe, null, mock(MessageHandler.class), null);
+        verifyNoInteractions(outbound);
+
+        interceptor.afterMessageHandled(subscribe, null, broker, null);
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(outbound).send(captor.capture());
+        Message<byte[]> sent = captor.getValue();
+        assertEquals(SimpMessageType.MESSAGE, SimpMessageHeaderAccessor.getMessageType(sent.getHeaders()));
+        assertEquals("sess-1", SimpMessageHeaderAccessor.getSessionId(sent.getHeaders()));
+        assertEquals("sub-7", SimpMessageHeaderAccessor.getSubscriptionId(sent.getHeaders()));
+        String json = new String(sent.getPayload(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"closePrice\":71000"), json);
+        assertTrue(json.contains("\"date\":\"090105\""), json);
+        assertTrue(json.contains("\"seq\":" + seq), json);
+        assertTrue(json.contains("\"snapshot\":true"), json);
+
+        // 미등록 종목 / 전체 시세 토픽은 생략
+        assertNull(interceptor.snapshotFor("/topic/stocks/999999"));
+        assertNull(interceptor.snapshotFor("/topic/stocks/all"));
+    }
+
+    @Test
+    public void candleSnapshotCarriesEngineSequence() throws Exception {
+        assertNull(interceptor.snapshotFor("/topic/realtime-1m/11"));
+
+        long base = 20_000L * 86_400_000L + 9 * 3_600_000L;
+        engine.onTick(0, 11, base + 1_000, 100, 5);
+        engine.onTick(0, 11, base + 2_000, 104, 3);
+
+        String json = new ObjectMapper().findAndRegisterModules()
+                .writeValueAsString(interceptor.snapshotFor("/topic/realtime-1m/11"));
+        assertTrue(json.contains("\"closePrice\":104"), json);
+        assertTrue(json.contains("\"volume\":8"), json);
+        assertTrue(json.contains("\"seq\":2"), json);
+        assertTrue(json.contains("\"snapshot\":true"), json);
+
+        // 다음 분 틱 → 새 분봉이 먼저 순번을 받고, 직전 분 마감은 그보다 큰 seq
+        // (새 분 스냅샷을 받은 클라이언트도 직전 분 마감을 버리지 않음)
+        engine.onTick(0, 11, base + 61_000, 105, 1);
+        assertEquals(3, engine.currentCandle(0).seq());
+        assertEquals(4, closed.get(0).seq());
+
+        // grace 마감도 마감 시점의 새 순번
+        engine.closeExpired(base + 180_000);
+        assertEquals(5, closed.get(1).seq());
+        assertEquals(5, engine.currentCandle(0).seq());
+
+        assertNull(interceptor.snapshotFor("/topic/realtime-1m/99"));
+        assertNull(interceptor.snapshotFor("/topic/realtime-1m/abc"));
+    }
+
+    private static Message<?> subscribe(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId("sess-1");
+        accessor.setSubscriptionId("sub-7");
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.LAGO.realtime.fanout;
+
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.dto.TickData;
+import com.example.LAGO.service.InterestService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 관심 종목 스트림: 구독 시 목록 복원(key) / 역색인 기반 delta / 관심 종목 변경 반영 / 세션별 전송
+ */
+public class WatchlistStreamTest {
+
+    private final QuoteBook quoteBook = new QuoteBook();
+    private SimpMessagingTemplate template;
+    private WatchlistStream stream;
+
+    @BeforeEach
+    void setUp() {
+        StockRegistry registry = mock(StockRegistry.class);
+        when(registry.indexOf(anyString())).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.indexOf("005930")).thenReturn(0);
+        when(registry.indexOf("035720")).thenReturn(2);
+        when(registry.indexOfStockId(anyInt())).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.indexOfStockId(1)).thenReturn(0);
+        when(registry.indexOfStockId(2)).thenReturn(1);
+        when(registry.stockIdAt(0)).thenReturn(1);
+        when(registry.stockIdAt(1)).thenReturn(2);
+        when(registry.stockIdAt(2)).thenReturn(3);
+        when(registry.size()).thenReturn(3);
+
+        InterestService interests = mock(InterestService.class);
+        when(interests.stockInfoIds(7L)).thenReturn(List.of(1, 2, 99));
+
+        template = mock(SimpMessagingTemplate.class);
+        stream = new WatchlistStream(template, interests, registry, quoteBook, new ObjectMapper());
+    }
+
+    @Test
+    public void restoresWatchlistAndSendsConflatedDeltas() {
+        stream.attach("s1", "sub-1", 7L);
+        assertEquals(1, stream.flush(1_000));
+        String key = lastFrame("s1");
+        assertTrue(key.contains("\"type\":\"key\""), key);
+        assertTrue(key.contains("[1,null,null,null,null,null]"), key);
+        assertTrue(key.contains("[2,null,null,null,null,null]"), key);
+        assertFalse(key.contains("[3,"), key);
+
+        quoteBook.update(0, tick(70_000));
+        stream.onTick(0);
+        quoteBook.update(0, tick(71_000));
+        stream.onTick(0);
+        stream.onTick(2); // 관심 종목 아님
+        assertEquals(1, stream.flush(1_200));
+        String delta = lastFrame("s1");
+        assertTrue(delta.contains("\"type\":\"delta\""), delta);
+        assertTrue(delta.contains("\"seq\":2"), delta);
+        assertTrue(delta.contains("\"rows\":[[1,71000,143,1000,null,90105]]"), delta);
+        assertEquals(0, stream.flush(1_400));
+
+        // 관심 종목 추가 → key 프레임에 포함, 이후 그 종목 틱도 전달
+        stream.interestChanged(7L, "035720", true);
+        assertEquals(1, stream.flush(1_600));
+        assertTrue(lastFrame("s1").contains("[3,null,null,null,null,null]"));
+        quoteBook.update(2, tick(50_000));
+        stream.onTick(2);
+        assertEquals(1, stream.flush(1_800));
+        assertTrue(lastFrame("s1").contains("[3,50000,"));
+
+        // 관심 종목 삭제 → 더 이상 전달 안 됨
+        stream.interestChanged(7L, "005930", false);
+        stream.flush(2_000);
+        stream.onTick(0);
+        assertEquals(0, stream.flush(2_200));
+    }
+
+    @Test
+    public void routesOnlyToSessionsWatchingTheSymbol() {
+        stream.attach("s1", "sub-1", 7L);
+        stream.attach("s2", "sub-9", 7L);
+        stream.flush(1_000);
+
+        quoteBook.update(1, tick(120_000));
+        stream.onTick(1);
+        assertEquals(2, stream.flush(1_200));
+
+        stream.unsubscribe("s1", "other-sub"); // 다른 구독 ID 는 무시
+        stream.unsubscribe("s1", "sub-1");
+        stream.onTick(1);
+        assertEquals(1, stream.flush(1_400));
+        assertTrue(lastFrame("s2").contains("[2,120000,"));
+
+        stream.detach("s2");
+        stream.onTick(1);
+        assertEquals(0, stream.flush(1_600));
+        assertEquals(0, stream.getStats().get("watchedSymbols"));
+
+        // 유저는 인증된 Principal 로만 결정, 헤더는 Principal 과 같을 때만 허용
+        assertNull(WatchlistStream.userIdOf(" 7 ", null));
+        assertEquals(8L, WatchlistStream.userIdOf(null, () -> "8"));
+        assertEquals(8L, WatchlistStream.userIdOf(" 8 ", () -> "8"));
+        assertNull(WatchlistStream.userIdOf("7", () -> "8"));
+        assertNull(WatchlistStream.userIdOf("abc", () -> "8"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private String lastFrame(String sessionId) {
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(template, atLeastOnce()).send(eq("/user/" + sessionId + "/queue/watchlist"), captor.capture());
+        Message<byte[]> message = captor.getValue();
+        assertEquals(sessionId, SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        return new String(message.getPayload(), StandardCharsets.UTF_8);
+    }
+
+    private static TickData tick(int price) {
+        return TickData.builder().code("005930").date("090105")
+                .closePrice(price).fluctuationRate(new BigDecimal("1.43")).previousDay(1_000).build();
+    }
+}
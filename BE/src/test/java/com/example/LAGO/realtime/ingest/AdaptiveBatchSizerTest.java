@@ -0,0 +1,28 @@
+package com.example.LAGO.realtime.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveBatchSizerTest {
+
+    @Test
+    public void growsWhenFastShrinksWhenSlowResetsOnFailure() {
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1, 32, 8, 1_000);
+
+        sizer.onSuccess(8, 100);
+        assertEquals(10, sizer.current());
+        sizer.onSuccess(3, 100); // 부분 배치는 확대 근거 아님
+        assertEquals(10, sizer.current());
+        sizer.onSuccess(10, 700); // 목표 이내 - 유지
+        assertEquals(10, sizer.current());
+        sizer.onSuccess(10, 2_000);
+        assertEquals(5, sizer.current());
+
+        for (int i = 0; i < 50; i++) sizer.onSuccess(sizer.current(), 10);
+        assertEquals(32, sizer.current());
+
+        sizer.onFailure();
+        assertEquals(1, sizer.current());
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.LAGO.realtime.ingest;
+
+import com.example.LAGO.realtime.StockLastPriceStore;
+import com.example.LAGO.realtime.TickChunk;
+import com.example.LAGO.realtime.TickChunkCodec;
+import com.example.LAGO.realtime.TickColumns;
+import com.example.LAGO.realtime.TimescaleOhlcIngestService;
+import com.example.LAGO.service.TickChunkReaderService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * COPY 기반 적재 결과가 기존 batchUpdate UPSERT 경로와 동일한지 TimescaleDB에서 검증
+ * (Docker가 없으면 건너뜀)
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class CopyOhlcIngestServiceTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> TIMESCALE = new PostgreSQLContainer<>(
+            DockerImageName.parse("timescale/timescaledb:latest-pg16").asCompatibleSubstituteFor("postgres"));
+
+    private static JdbcTemplate jdbc;
+
+    private final Map<String, TickColumns> chunks = new LinkedHashMap<>();
+    private TimescaleOhlcIngestService upsertPath;
+    private CopyOhlcIngestService copyPath;
+
+    @BeforeAll
+    static void createSchema() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                TIMESCALE.getJdbcUrl(), TIMESCALE.getUsername(), TIMESCALE.getPassword()));
+        jdbc.execute("CREATE EXTENSION IF NOT EXISTS timescaledb");
+        jdbc.execute("""
+                CREATE TABLE "TICKS" (
+                    stock_info_id INTEGER     NOT NULL,
+                    ts            TIMESTAMPTZ NOT NULL,
+                    open_price    INTEGER,
+                    high_price    INTEGER,
+                    low_price     INTEGER,
+                    close_price   INTEGER,
+                    volume        BIGINT,
+                    PRIMARY KEY (stock_info_id, ts)
+                )
+                """);
+        jdbc.execute("SELECT create_hypertable('\"TICKS\"', 'ts')");
+        // realtime_schema.sql 의 해당 부분
+        jdbc.execute("""
+                CREATE UNLOGGED TABLE "TICKS_STAGE" (
+                    batch_id      BIGINT      NOT NULL,
+                    stock_info_id INTEGER     NOT NULL,
+                    ts            TIMESTAMPTZ NOT NULL,
+                    open_price    INTEGER,
+                    high_price    INTEGER,
+                    low_price     INTEGER,
+                    close_price   INTEGER,
+                    volume        BIGINT
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE stock_last_price (
+                    stock_info_id INTEGER     PRIMARY KEY,
+                    close_price   INTEGER     NOT NULL,
+                    ts            TIMESTAMPTZ NOT NULL,
+                    updated_at    TIMESTAMPTZ NOT NULL DEFAULT now()
+                )
+                """);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("TRUNCATE \"TICKS\"");
+        jdbc.execute("TRUNCATE stock_last_price");
+        chunks.clear();
+
+        TickChunkReaderService reader = mock(TickChunkReaderService.class);
+        when(reader.forEachTick(anyString(), any())).thenAnswer(inv -> {
+            TickColumns cols = chunks.get(inv.<String>getArgument(0));
+            cols.forEach(inv.getArgument(1));
+            return cols.count();
+        });
+        upsertPath = new TimescaleOhlcIngestService(reader, jdbc, new StockLastPriceStore(jdbc));
+        copyPath = new CopyOhlcIngestService(reader, jdbc, new StockLastPriceStore(jdbc));
+    }
+
+    @Test
+    public void copyPathMatchesUpsertPath() {
+        // 같은 초가 청크 경계에 걸치는 경우 + 여러 종목
+        Random random = new Random(7);
+        LocalDate day = LocalDate.of(2025, 8, 14);
+        int ms = 9 * 3_600_000;
+        for (int c = 0; c < 6; c++) {
+            int stockId = 1 + (c % 3);
+            TickChunk chunk = new TickChunk(500);
+            int price = 70_000 + stockId * 1000;
+            for (int i = 0; i < 500; i++) {
+                ms += random.nextInt(3) * 300;
+                price += (random.nextInt(5) - 2) * 50;
+                chunk.add16B(stockId, ms, price, 1 + random.nextInt(200));
+            }
+            register("chunk-" + c, chunk, day);
+            ms -= 20_000; // 다음 청크가 일부 초를 다시 덮도록
+        }
+        List<String> ids = new ArrayList<>(chunks.keySet());
+
+        // 1) 기존 경로: 청크마다 UPSERT
+        for (String id : ids) {
+            upsertPath.ingestChunkAs1sOHLC(id);
+        }
+        List<Map<String, Object>> expected = snapshot();
+        assertFalse(expected.isEmpty());
+
+        // 2) COPY 경로: 절반씩 묶어서 적재 (배치 경계도 결과에 영향 없어야 함)
+        jdbc.execute("TRUNCATE \"TICKS\"");
+        copyPath.ingestChunks(ids.subList(0, 3));
+        copyPath.ingestChunks(ids.subList(3, ids.size()));
+        List<Map<String, Object>> actual = snapshot();
+
+        assertEquals(expected, actual);
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM \"TICKS_STAGE\"", Integer.class));
+
+        // stock_last_price = 종목별 가장 늦은 초의 종가 (뒤 청크가 시간을 되돌아가도 유지)
+        assertEquals(jdbc.queryForList("""
+                        SELECT DISTINCT ON (stock_info_id) stock_info_id, close_price, ts
+                        FROM "TICKS" ORDER BY stock_info_id, ts DESC
+                        """),
+                jdbc.queryForList("SELECT stock_info_id, close_price, ts FROM stock_last_price ORDER BY stock_info_id"));
+    }
+
+    @Test
+    public void copyPathMergesIntoExistingRowsLikeUpsert() {
+        LocalDate day = LocalDate.of(2025, 8, 14);
+        TickChunk first = new TickChunk(8);
+        first.add16B(9, 32_400_000, 100, 5);
+        first.add16B(9, 32_400_500, 120, 1);
+        TickChunk second = new TickChunk(8);
+        second.add16B(9, 32_400_900, 90, 2);
+        second.add16B(9, 32_401_000, 95, 3);
+        register("a", first, day);
+        register("b", second, day);
+
+        upsertPath.ingestChunkAs1sOHLC("a");
+        upsertPath.ingestChunkAs1sOHLC("b");
+        List<Map<String, Object>> expected = snapshot();
+
+        jdbc.execute("TRUNCATE \"TICKS\"");
+        copyPath.ingestChunkAs1sOHLC("a");
+        copyPath.ingestChunkAs1sOHLC("b");
+
+        assertEquals(expected, snapshot());
+    }
+
+    private void register(String id, TickChunk chunk, LocalDate day) {
+        TickColumns cols = new TickColumns(0);
+        TickChunkCodec.decodeV2(chunk.toRawV2(), cols);
+        cols.setBaseDate(day);
+        chunks.put(id, cols);
+    }
+
+    private static List<Map<String, Object>> snapshot() {
+        return jdbc.queryForList("""
+                SELECT stock_info_id, ts, open_price, high_price, low_price, close_price, volume
+                FROM "TICKS" ORDER BY stock_info_id, ts
+                """);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.LAGO.realtime.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LongOhlcMap 집계 결과를 단순 HashMap 집계와 비교 (확장/충돌 포함)
+ */
+public class LongOhlcMapTest {
+
+    @Test
+    public void aggregatesLikeReferenceMap() throws Exception {
+        LongOhlcMap map = new LongOhlcMap(4);
+        Map<Long, long[]> reference = new HashMap<>();
+        Random random = new Random(1);
+
+        for (int i = 0; i < 50_000; i++) {
+            int stockId = random.nextInt(40);
+            long sec = 1_755_129_600L + random.nextInt(2_000);
+            int price = 1_000 + random.nextInt(500);
+            int vol = 1 + random.nextInt(100);
+            map.accept(stockId, sec, price, vol);
+
+            long[] agg = reference.computeIfAbsent(LongOhlcMap.key(stockId, sec),
+                    k -> new long[]{price, price, price, price, 0});
+            agg[1] = Math.max(agg[1], price);
+            agg[2] = Math.min(agg[2], price);
+            agg[3] = price;
+            agg[4] += vol;
+        }
+
+        assertEquals(reference.size(), map.size());
+        int[] visited = {0};
+        map.forEach((stockId, epochSecond, open, high, low, close, volume) -> {
+            long[] agg = reference.get(LongOhlcMap.key(stockId, epochSecond));
+            assertNotNull(agg);
+            assertArrayEquals(agg, new long[]{open, high, low, close, volume});
+            visited[0]++;
+        });
+        assertEquals(reference.size(), visited[0]);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+}
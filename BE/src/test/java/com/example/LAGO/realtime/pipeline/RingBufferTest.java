@@ -0,0 +1,65 @@
+package com.example.LAGO.realtime.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 링버퍼: 한 바퀴 돈 뒤 가장 느린 소비자를 추월하지 않는지(next 대기 / tryNext -1), 슬롯 재사용
+ */
+public class RingBufferTest {
+
+    @Test
+    public void nextWaitsForSlowestConsumerBeforeWrapping() throws Exception {
+        RingBuffer<long[]> ring = new RingBuffer<>(4, () -> new long[1], WaitStrategy.YIELDING);
+        AtomicLong fast = new AtomicLong(-1);
+        AtomicLong slow = new AtomicLong(-1);
+        ring.addGatingSequence(fast);
+        ring.addGatingSequence(slow);
+
+        for (int i = 0; i < 4; i++) {
+            long seq = ring.next();
+            ring.get(seq)[0] = seq;
+            ring.publish(seq);
+        }
+        fast.set(3);
+        assertEquals(0, ring.remainingCapacity()); // slow 가 아직 0번 슬롯도 읽지 않음
+
+        CompletableFuture<Long> fifth = CompletableFuture.supplyAsync(ring::next);
+        assertThrows(TimeoutException.class, () -> fifth.get(100, TimeUnit.MILLISECONDS));
+
+        slow.set(0); // 0번 슬롯 해제 → 한 바퀴 돌아 같은 슬롯 사용
+        long seq = fifth.get(5, TimeUnit.SECONDS);
+        assertEquals(4, seq);
+        assertSame(ring.get(0), ring.get(seq));
+        assertEquals(0, ring.get(seq)[0]); // publish 전까지는 이전 값 그대로
+    }
+
+    @Test
+    public void tryNextReturnsMinusOneWhenFullAndResumesAfterConsumerMoves() {
+        RingBuffer<Object> ring = new RingBuffer<>(2, Object::new, WaitStrategy.BUSY_SPIN);
+        AtomicLong consumer = new AtomicLong(-1);
+        ring.addGatingSequence(consumer);
+
+        assertEquals(0, ring.tryNext());
+        ring.publish(0);
+        assertEquals(1, ring.tryNext());
+        ring.publish(1);
+        assertEquals(-1, ring.tryNext());
+        assertEquals(-1, ring.tryNext()); // 실패해도 시퀀스를 소모하지 않음
+
+        consumer.set(0);
+        assertEquals(2, ring.tryNext());
+        assertEquals(-1, ring.tryNext());
+    }
+
+    @Test
+    public void rejectsNonPowerOfTwoSize() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(6, Object::new, WaitStrategy.SLEEPING));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.LAGO.realtime.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 스테이지: 링이 여러 바퀴 돌아도 순서대로 처리, stop 시 publish된 이벤트까지 drain, 예외는 해당 이벤트만 건너뜀
+ */
+public class StageConsumerTest {
+
+    @Test
+    public void processesInOrderAcrossWrapsAndDrainsOnStop() {
+        RingBuffer<long[]> ring = new RingBuffer<>(8, () -> new long[1], WaitStrategy.YIELDING);
+        List<Long> seen = new ArrayList<>();
+        StageConsumer<long[]> stage = new StageConsumer<>("test-stage", ring, (e, seq, end) -> {
+            if (seq % 3 == 0) Thread.sleep(1); // 느린 소비자 → 생산자가 gating 에 걸림
+            seen.add(e[0]);
+        });
+        stage.start();
+
+        for (long i = 0; i < 200; i++) {
+            long seq = ring.next();
+            ring.get(seq)[0] = i;
+            ring.publish(seq);
+        }
+        stage.stop(5_000); // 남은 이벤트를 모두 처리한 뒤 종료
+
+        assertEquals(200, seen.size());
+        for (int i = 0; i < seen.size(); i++) assertEquals(i, seen.get(i));
+        assertEquals(200L, stage.getStats().get("processed"));
+        assertEquals(0L, stage.getLag());
+    }
+
+    @Test
+    public void failingEventIsCountedAndSkipped() {
+        RingBuffer<long[]> ring = new RingBuffer<>(4, () -> new long[1], WaitStrategy.YIELDING);
+        List<Long> seen = new ArrayList<>();
+        StageConsumer<long[]> stage = new StageConsumer<>("test-stage", ring, (e, seq, end) -> {
+            if (e[0] == 1) throw new IllegalStateException("boom");
+            seen.add(e[0]);
+        });
+        stage.start();
+        for (long i = 0; i < 3; i++) {
+            long seq = ring.next();
+            ring.get(seq)[0] = i;
+            ring.publish(seq);
+        }
+        stage.stop(5_000);
+
+        assertEquals(List.of(0L, 2L), seen);
+        assertEquals(1L, stage.getStats().get("errors"));
+        assertEquals(3L, stage.getStats().get("processed"));
+    }
+}
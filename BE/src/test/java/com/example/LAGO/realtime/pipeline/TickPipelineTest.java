@@ -0,0 +1,147 @@
+package com.example.LAGO.realtime.pipeline;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.RealTimeDataBroadcaster;
+import com.example.LAGO.realtime.RealtimeDataService;
+import com.example.LAGO.realtime.candle.ChartCandleCache;
+import com.example.LAGO.realtime.candle.MinuteCandleEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 틱 파이프라인: 종목별 순서/전담 스레드 유지(파티션 여러 개), DROP 정책의 버림 카운트, stop 시 입력 링부터 drain
+ */
+public class TickPipelineTest {
+
+    private static final String[] CODES = {"005930", "000660", "035420", "051910", "006400", "207940", "068270"};
+
+    private final RealtimeDataService realtimeDataService = mock(RealtimeDataService.class);
+    private final RealTimeDataBroadcaster broadcaster = mock(RealTimeDataBroadcaster.class);
+    // 종목 → (처리 스레드, 체결 시각) - persist 스테이지가 받은 순서
+    private final Map<String, List<String>> threads = new ConcurrentHashMap<>();
+    private final Map<String, List<Integer>> times = new ConcurrentHashMap<>();
+    private TickPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) pipeline.stop();
+    }
+
+    @Test
+    public void keepsPerStockOrderAcrossPartitions() {
+        recordPersistStage();
+        pipeline = start(4, BackpressurePolicy.BLOCK, 16, 8);
+
+        for (int i = 0; i < 300; i++) {
+            // 여러 종목이 한 프레임에 섞여 들어오는 경우 포함
+            pipeline.publishFrame("0|H0STCNT0|002|" + record(CODES[i % CODES.length], i)
+                    + "^" + record(CODES[(i + 3) % CODES.length], i));
+        }
+        pipeline.stop();
+
+        Set<String> allThreads = new HashSet<>();
+        for (String code : CODES) {
+            List<Integer> seen = times.get(code);
+            assertNotNull(seen, code);
+            for (int i = 1; i < seen.size(); i++) {
+                assertTrue(seen.get(i - 1) <= seen.get(i), code + " out of order: " + seen);
+            }
+            Set<String> stockThreads = new HashSet<>(threads.get(code));
+            assertEquals(1, stockThreads.size(), code + " handled by " + stockThreads);
+            allThreads.addAll(stockThreads);
+        }
+        assertEquals(600, times.values().stream().mapToInt(List::size).sum());
+        assertTrue(allThreads.size() > 1, "종목이 파티션에 나뉘어야 함: " + allThreads);
+        verify(broadcaster, times(600)).sendRealTimeData(any(KisTickRecord.class));
+    }
+
+    @Test
+    public void dropPolicyCountsFramesRejectedWhileDownstreamIsStuck() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger persisted = new AtomicInteger();
+        doAnswer(inv -> {
+            release.await(10, TimeUnit.SECONDS); // persist 가 막히면 파티션 링 → parse → 입력 링 순으로 가득 참
+            persisted.incrementAndGet();
+            return null;
+        }).when(realtimeDataService).appendTick(any());
+        pipeline = start(1, BackpressurePolicy.DROP, 4, 2);
+
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (pipeline.publishFrame(frame("005930", i))) accepted++;
+            else if (accepted > 0 && i > 20) break;
+            Thread.sleep(1);
+        }
+        long dropped = (long) pipeline.getStats().get("droppedFrames");
+        assertTrue(dropped > 0, "입력 링이 가득 찬 뒤에는 버려야 함");
+        assertTrue(accepted <= 4 + 2 + 2, "입력 링 + 파티션 링 + 처리 중 슬롯을 넘게 받을 수 없음: " + accepted);
+
+        release.countDown();
+        pipeline.stop();
+        assertEquals(accepted, persisted.get()); // 받은 프레임은 stop 전에 모두 처리
+    }
+
+    @Test
+    public void stopDrainsFramesStillInTheIngressRing() {
+        recordPersistStage();
+        pipeline = start(2, BackpressurePolicy.BLOCK, 1024, 1024);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(pipeline.publishFrame(frame(CODES[i % CODES.length], i)));
+        }
+        pipeline.stop();
+
+        assertEquals(500, times.values().stream().mapToInt(List::size).sum());
+        verify(realtimeDataService, times(500)).saveLatestQuote(any());
+        verify(broadcaster, times(500)).sendRealTimeData(any(KisTickRecord.class));
+    }
+
+    private void recordPersistStage() {
+        doAnswer(inv -> {
+            KisTickRecord tick = inv.getArgument(0); // 재사용 슬롯 → 바로 복사
+            threads.computeIfAbsent(tick.code(), k -> new ArrayList<>()).add(Thread.currentThread().getName());
+            times.computeIfAbsent(tick.code(), k -> new ArrayList<>()).add(tick.msOfDay());
+            return null;
+        }).when(realtimeDataService).appendTick(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private TickPipeline start(int partitions, BackpressurePolicy policy, int ingressSize, int partitionSize) {
+        ObjectProvider<MinuteCandleEngine> candle = mock(ObjectProvider.class);
+        ObjectProvider<ChartCandleCache> chart = mock(ObjectProvider.class);
+        TickPipeline p = new TickPipeline(realtimeDataService, broadcaster, candle, chart);
+        ReflectionTestUtils.setField(p, "ingressSize", ingressSize);
+        ReflectionTestUtils.setField(p, "partitionSize", partitionSize);
+        ReflectionTestUtils.setField(p, "partitionCount", partitions);
+        ReflectionTestUtils.setField(p, "waitStrategy", WaitStrategy.YIELDING);
+        ReflectionTestUtils.setField(p, "backpressure", policy);
+        ReflectionTestUtils.setField(p, "shutdownTimeoutMs", 5_000L);
+        p.start();
+        return p;
+    }
+
+    private static String frame(String code, int i) {
+        return "0|H0STCNT0|001|" + record(code, i);
+    }
+
+    // H0STCNT0 최소 13필드, 체결 시각이 i 에 따라 증가
+    private static String record(String code, int i) {
+        String hhmmss = String.format("09%02d%02d", i / 60 % 60, i % 60);
+        return code + "^" + hhmmss + "^71900^5^-100^-0.14^72023.83^72100^72400^71700^71900^71800^" + (i + 1);
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.LAGO.realtime.relay;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.RealTimeDataBroadcaster;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.dto.TickData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * 수집 노드/API 노드 두 Spring 컨텍스트를 실제 Redis 로 연결해 릴레이 검증
+ * (Docker가 없으면 건너뜀)
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class RealtimeRelayRedisTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    @Configuration
+    static class RedisBeans {
+        @Bean
+        LettuceConnectionFactory redisConnectionFactory() {
+            return new LettuceConnectionFactory(REDIS.getHost(), REDIS.getFirstMappedPort());
+        }
+
+        @Bean
+        StringRedisTemplate redisTemplate(RedisConnectionFactory connectionFactory) {
+            return new StringRedisTemplate(connectionFactory);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+
+    @Test
+    public void apiNodeReceivesQuotesPublishedByIngestNode() {
+        StockRegistry registry = registry();
+        QuoteBook ingestBook = new QuoteBook();
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        RealTimeDataBroadcaster apiBroadcaster = mock(RealTimeDataBroadcaster.class);
+        doAnswer(inv -> {
+            KisTickRecord tick = inv.getArgument(0);
+            delivered.add(tick.code() + "@" + tick.closePrice());
+            return null;
+        }).when(apiBroadcaster).sendRealTimeData(any(KisTickRecord.class));
+
+        ApplicationContextRunner ingestNode = new ApplicationContextRunner()
+                .withPropertyValues("realtime.relay.mode=publish", "realtime.relay.publish-interval-ms=20",
+                        "realtime.relay.snapshot-interval-ms=200")
+                .withUserConfiguration(RedisBeans.class, RealtimeRelayPublisher.class)
+                .withBean(StockRegistry.class, () -> registry)
+                .withBean(QuoteBook.class, () -> ingestBook);
+        ApplicationContextRunner apiNode = new ApplicationContextRunner()
+                .withPropertyValues("realtime.relay.mode=subscribe")
+                .withUserConfiguration(RedisBeans.class, RealtimeRelaySubscriber.class, RealtimeRelayPublisher.class)
+                .withBean(StockRegistry.class, () -> registry)
+                .withBean(RealTimeDataBroadcaster.class, () -> apiBroadcaster);
+
+        ingestNode.run(ingest -> {
+            assertNotNull(ingest.getBean(RealtimeRelayPublisher.class));
+
+            // API 노드가 뜨기 전 시세 → 스냅샷으로 받음
+            ingestBook.update(0, tick("005930", 71_000));
+            Thread.sleep(400);
+
+            apiNode.run(api -> {
+                assertFalse(api.containsBean("realtimeRelayPublisher")); // subscribe 모드에서는 발행 안 함
+                Thread.sleep(200); // SUBSCRIBE 완료 대기
+
+                ingestBook.update(1, tick("000660", 120_000));
+                awaitUntil(() -> delivered.contains("000660@120000"));
+                assertTrue(delivered.contains("005930@71000"), delivered.toString());
+
+                ingestBook.update(0, tick("005930", 71_100));
+                awaitUntil(() -> delivered.contains("005930@71100"));
+                assertEquals(1, delivered.stream().filter("005930@71100"::equals).count());
+
+                RealtimeRelaySubscriber subscriber = api.getBean(RealtimeRelaySubscriber.class);
+                assertEquals(0L, subscriber.getStats().get("errors"));
+            });
+        });
+    }
+
+    private static void awaitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    private static StockRegistry registry() {
+        StockRegistry registry = mock(StockRegistry.class);
+        when(registry.size()).thenReturn(2);
+        when(registry.indexOfStockId(anyInt())).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.indexOfStockId(1)).thenReturn(0);
+        when(registry.indexOfStockId(2)).thenReturn(1);
+        when(registry.stockIdAt(0)).thenReturn(1);
+        when(registry.stockIdAt(1)).thenReturn(2);
+        when(registry.codeAt(0)).thenReturn("005930");
+        when(registry.codeAt(1)).thenReturn("000660");
+        return registry;
+    }
+
+    private static TickData tick(String code, int price) {
+        return TickData.builder().code(code).date("090000").closePrice(price).openPrice(price)
+                .highPrice(price).lowPrice(price).previousDay(0).build();
+    }
+}
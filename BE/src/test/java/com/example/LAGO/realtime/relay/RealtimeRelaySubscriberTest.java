@@ -0,0 +1,158 @@
+package com.example.LAGO.realtime.relay;
+
+import com.example.LAGO.realtime.KisTickRecord;
+import com.example.LAGO.realtime.MinuteCandleWebsocketController;
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.RealTimeDataBroadcaster;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.candle.MinuteCandle;
+import com.example.LAGO.realtime.dto.TickData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 릴레이 수신: 중복 배치 무시 / gap 은 log 재전송 / log 가 잘렸으면 스냅샷 / 발행자 재기동(epoch) 시 재동기화
+ */
+public class RealtimeRelaySubscriberTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private final List<String> relayLog = new ArrayList<>();
+    private final String[] snapshot = new String[1];
+    private final List<String> delivered = new ArrayList<>();
+
+    private StockRegistry registry;
+    private MinuteCandleWebsocketController websocket;
+    private RealtimeRelaySubscriber subscriber;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        registry = mock(StockRegistry.class);
+        when(registry.size()).thenReturn(2);
+        when(registry.indexOfStockId(anyInt())).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.indexOfStockId(1)).thenReturn(0);
+        when(registry.indexOfStockId(2)).thenReturn(1);
+        when(registry.stockIdAt(0)).thenReturn(1);
+        when(registry.stockIdAt(1)).thenReturn(2);
+        when(registry.codeAt(0)).thenReturn("005930");
+        when(registry.codeAt(1)).thenReturn("000660");
+
+        RedisTemplate<String, String> redis = mock(RedisTemplate.class);
+        ListOperations<String, String> list = mock(ListOperations.class);
+        ValueOperations<String, String> value = mock(ValueOperations.class);
+        when(redis.opsForList()).thenReturn(list);
+        when(redis.opsForValue()).thenReturn(value);
+        when(list.range(anyString(), anyLong(), anyLong())).thenAnswer(inv -> new ArrayList<>(relayLog));
+        when(value.get(anyString())).thenAnswer(inv -> snapshot[0]);
+
+        RealTimeDataBroadcaster broadcaster = mock(RealTimeDataBroadcaster.class);
+        doAnswer(inv -> {
+            KisTickRecord tick = inv.getArgument(0);
+            delivered.add(tick.code() + "@" + tick.closePrice());
+            return null;
+        }).when(broadcaster).sendRealTimeData(any(KisTickRecord.class));
+
+        websocket = mock(MinuteCandleWebsocketController.class);
+        ObjectProvider<MinuteCandleWebsocketController> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(websocket);
+
+        subscriber = new RealtimeRelaySubscriber(mock(RedisConnectionFactory.class), redis, mapper,
+                registry, broadcaster, provider);
+    }
+
+    @Test
+    public void dedupesAndFillsGapsFromLogThenSnapshot() throws Exception {
+        QuoteBook book = new QuoteBook();
+        RealtimeRelayPublisher publisher = new RealtimeRelayPublisher(null, book, registry, mapper);
+
+        // 첫 메시지: 스냅샷부터 (b1 은 스냅샷에 이미 포함 → 중복 처리)
+        book.update(0, tick("005930", 100));
+        RelayBatch b1 = logged(publisher.buildBatch(1));
+        snapshot[0] = mapper.writeValueAsString(publisher.buildSnapshot(1));
+        subscriber.accept(roundTrip(b1));
+        assertEquals(List.of("005930@100"), delivered);
+
+        book.update(1, tick("000660", 200));
+        RelayBatch b2 = logged(publisher.buildBatch(2));
+        subscriber.accept(roundTrip(b2));
+        subscriber.accept(roundTrip(b2)); // 중복
+        assertEquals(List.of("005930@100", "000660@200"), delivered);
+
+        // b3 유실 → b4 도착 시 log 에서 b3 재전송 후 b4
+        book.update(0, tick("005930", 101));
+        logged(publisher.buildBatch(3));
+        book.update(0, tick("005930", 102));
+        publisher.onCandle(new MinuteCandle(1, 29_000_000L, 100, 102, 99, 102, 10, 3, false, 7));
+        RelayBatch b4 = logged(publisher.buildBatch(4));
+        subscriber.accept(roundTrip(b4));
+        assertEquals(List.of("005930@100", "000660@200", "005930@101", "005930@102"), delivered);
+        verify(websocket, times(1)).sendMinuteCandle(any());
+
+        // b5, b6 유실 + log 가 b6 부터만 남음 → 스냅샷(seq 6) 적용 후 b7
+        book.update(1, tick("000660", 210));
+        logged(publisher.buildBatch(5));
+        book.update(0, tick("005930", 103));
+        RelayBatch b6 = publisher.buildBatch(6);
+        relayLog.clear();
+        logged(b6);
+        snapshot[0] = mapper.writeValueAsString(publisher.buildSnapshot(6));
+        book.update(1, tick("000660", 220));
+        subscriber.accept(roundTrip(logged(publisher.buildBatch(7))));
+        assertEquals(List.of("005930@100", "000660@200", "005930@101", "005930@102",
+                "005930@103", "000660@210", "000660@220"), delivered);
+        assertEquals(7L, subscriber.getStats().get("lastSeq"));
+        assertEquals(2L, subscriber.getStats().get("gaps"));
+    }
+
+    @Test
+    public void resyncsFromSnapshotWhenPublisherRestarts() throws Exception {
+        QuoteBook book = new QuoteBook();
+        RealtimeRelayPublisher first = new RealtimeRelayPublisher(null, book, registry, mapper);
+        book.update(0, tick("005930", 100));
+        subscriber.accept(roundTrip(logged(first.buildBatch(1))));
+        book.update(0, tick("005930", 101));
+        subscriber.accept(roundTrip(logged(first.buildBatch(2))));
+
+        // 재기동한 발행자: seq/version 이 다시 1부터 - 이전 version 보다 작아도 반영되어야 함
+        Thread.sleep(5);
+        QuoteBook restarted = new QuoteBook();
+        RealtimeRelayPublisher second = new RealtimeRelayPublisher(null, restarted, registry, mapper);
+        restarted.update(0, tick("005930", 90));
+        relayLog.clear();
+        snapshot[0] = mapper.writeValueAsString(second.buildSnapshot(3));
+        subscriber.accept(roundTrip(logged(second.buildBatch(3))));
+
+        assertEquals("005930@90", delivered.get(delivered.size() - 1));
+        assertEquals(1L, subscriber.getStats().get("lastSeq"));
+    }
+
+    private RelayBatch logged(RelayBatch batch) throws Exception {
+        relayLog.add(mapper.writeValueAsString(batch));
+        return batch;
+    }
+
+    private RelayBatch roundTrip(RelayBatch batch) throws Exception {
+        return mapper.readValue(mapper.writeValueAsString(batch), RelayBatch.class);
+    }
+
+    private static TickData tick(String code, int price) {
+        return TickData.builder().code(code).date("090000").closePrice(price).openPrice(price)
+                .highPrice(price).lowPrice(price).previousDay(0).build();
+    }
+}
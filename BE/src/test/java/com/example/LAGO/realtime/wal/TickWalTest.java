@@ -0,0 +1,154 @@
+package com.example.LAGO.realtime.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WAL 재생: 커밋된 구간 건너뛰기, 세그먼트 롤링, 찢긴 꼬리(CRC 불일치) 처리,
+ * PREPARE만 남은 구간의 경계/청크 ID 유지, 구간 다시 읽기, COMMIT 구간 조회(순서 뒤바뀜/겹침)
+ */
+public class TickWalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void replaysOnlyUncommittedTicksAcrossSegments() throws Exception {
+        TickWal wal = open(1024); // 작은 세그먼트 → 여러 번 롤링
+        long first = -1, last = -1;
+        for (int i = 0; i < 100; i++) {
+            long lsn = wal.appendTick(1, 32_400_000 + i, 1000 + i, 10, 1, i);
+            if (i == 0) first = lsn;
+            if (i == 59) last = lsn;
+            wal.appendTick(2, 32_400_000 + i, 500, 1, 0, 0);
+        }
+        wal.appendCommit(1, first, last); // 종목 1의 앞 60틱만 커밋됨
+        assertTrue(TickWal.segmentOf(last) > TickWal.segmentOf(first));
+        wal.close(); // 크래시 후 재기동 가정
+
+        TickWal restarted = open(1024);
+        List<int[]> ticks = new ArrayList<>();
+        long replayed = restarted.replay((day, lsn, stockId, ms, price, vol, side, cum) ->
+                ticks.add(new int[]{stockId, ms, price, cum}));
+
+        assertEquals(140, replayed);
+        assertEquals(40, ticks.stream().filter(t -> t[0] == 1).count());
+        assertEquals(100, ticks.stream().filter(t -> t[0] == 2).count());
+        int[] firstOfStock1 = ticks.stream().filter(t -> t[0] == 1).findFirst().orElseThrow();
+        assertArrayEquals(new int[]{1, 32_400_060, 1060, 60}, firstOfStock1);
+
+        // 재생한 틱이 모두 커밋되면 이전 세그먼트 전부 삭제 가능
+        long before = countSegments();
+        int released = restarted.releaseBefore(restarted.activeSegment());
+        assertEquals(before - 1, released);
+        assertEquals(0, open(1024).replay((day, lsn, stockId, ms, price, vol, side, cum) -> fail()));
+    }
+
+    @Test
+    public void committedRangesFindLsnRegardlessOfCommitOrder() {
+        TickWal.CommittedRanges ranges = new TickWal.CommittedRanges();
+        ranges.add(300, 400); // 재시도 커밋이 늦게 기록된 경우
+        ranges.add(100, 200);
+        ranges.add(150, 250); // 겹침
+        ranges.add(500, 500);
+        ranges.seal();
+
+        for (long lsn : new long[]{100, 199, 250, 300, 400, 500}) assertTrue(ranges.contains(lsn), "lsn " + lsn);
+        for (long lsn : new long[]{99, 251, 299, 401, 499, 501}) assertFalse(ranges.contains(lsn), "lsn " + lsn);
+
+        TickWal.CommittedRanges empty = new TickWal.CommittedRanges();
+        empty.seal();
+        assertFalse(empty.contains(0));
+    }
+
+    @Test
+    public void stopsAtTornTail() throws Exception {
+        TickWal wal = open(64 * 1024);
+        wal.appendTick(7, 1, 100, 1, 0, 0);
+        long second = wal.appendTick(7, 2, 101, 1, 0, 0);
+        wal.appendTick(7, 3, 102, 1, 0, 0);
+        wal.close();
+
+        // 두 번째 레코드 payload 1바이트 훼손 → 두 번째부터 버림
+        Path segment = WalSegment.pathOf(dir, TickWal.segmentOf(second));
+        try (RandomAccessFile raf = new RandomAccessFile(segment.toFile(), "rw")) {
+            long pos = (second & 0xFFFFFFFFL) + 8 + 5;
+            raf.seek(pos);
+            raf.write(raf.read() ^ 0xFF);
+        }
+
+        List<Integer> prices = new ArrayList<>();
+        open(64 * 1024).replay((day, lsn, stockId, ms, price, vol, side, cum) -> prices.add(price));
+        assertEquals(List.of(100), prices);
+    }
+
+    @Test
+    public void preparedRangeReplaysWithSameBoundariesAndChunkId() throws Exception {
+        TickWal wal = open(64 * 1024);
+        long[] lsn = new long[5];
+        for (int i = 0; i < 5; i++) {
+            lsn[i] = wal.appendTick(3, i, 100 + i, 1, 0, i);
+        }
+        // 0~2 청크를 Redis에 커밋했지만 COMMIT 기록 전에 죽음, 3~4는 메모리 청크에만 있었음
+        wal.appendPrepare(3, lsn[0], lsn[2]);
+        String chunkId = wal.chunkIdOf(3, lsn[0], lsn[2]);
+        wal.close();
+
+        TickWal restarted = open(64 * 1024);
+        assertEquals(chunkId, restarted.chunkIdOf(3, lsn[0], lsn[2])); // 같은 디렉터리 → 같은 WAL ID
+        List<long[]> chunks = new ArrayList<>();
+        long[] current = {-1, -1};
+        restarted.replay(new TickWal.ReplayHandler() {
+            @Override
+            public void onTick(LocalDate day, long l, int stockId, int ms, int price, int vol, int side, int cum) {
+                if (current[0] < 0) current[0] = l;
+                current[1] = l;
+            }
+
+            @Override
+            public void onPreparedBoundary(LocalDate day, int stockId) {
+                if (current[0] < 0) return;
+                chunks.add(current.clone());
+                current[0] = current[1] = -1;
+            }
+        });
+        chunks.add(current.clone());
+
+        assertEquals(2, chunks.size());
+        assertArrayEquals(new long[]{lsn[0], lsn[2]}, chunks.get(0)); // 원래 청크 구간 그대로
+        assertArrayEquals(new long[]{lsn[3], lsn[4]}, chunks.get(1));
+
+        // 실행 중 구간 다시 읽기 (재시도 큐 상한 초과분 복구)
+        List<Integer> prices = new ArrayList<>();
+        int read = restarted.readRange(3, lsn[1], lsn[3],
+                (day, l, stockId, ms, price, vol, side, cum) -> prices.add(price));
+        assertEquals(3, read);
+        assertEquals(List.of(101, 102, 103), prices);
+    }
+
+    private TickWal open(int segmentBytes) throws Exception {
+        TickWal wal = new TickWal();
+        ReflectionTestUtils.setField(wal, "enabled", true);
+        ReflectionTestUtils.setField(wal, "dir", dir.toString());
+        ReflectionTestUtils.setField(wal, "segmentBytes", segmentBytes);
+        ReflectionTestUtils.setField(wal, "forceIntervalMs", 0L);
+        wal.init();
+        return wal;
+    }
+
+    private long countSegments() throws Exception {
+        try (var files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".wal")).count();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.LAGO.realtime.wire;
+
+import com.example.LAGO.realtime.QuoteBook;
+import com.example.LAGO.realtime.StockRegistry;
+import com.example.LAGO.realtime.dto.TickData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 서버 인코더(WireSession/BinaryQuoteHandler) ↔ 참조 디코더(QuoteWireDecoder) 왕복 검증
+ */
+public class QuoteWireRoundTripTest {
+
+    private final QuoteBook book = new QuoteBook();
+    private StockRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(StockRegistry.class);
+        when(registry.indexOf(anyString())).thenReturn(StockRegistry.NOT_FOUND);
+        when(registry.indexOf("005930")).thenReturn(0);
+        when(registry.indexOf("000660")).thenReturn(1);
+    }
+
+    @Test
+    public void varintAndZigzagRoundTrip() {
+        long[] samples = {0, 1, -1, 63, -64, 127, 128, 300, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                (long) Integer.MAX_VALUE - Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        QuoteWire.Writer w = new QuoteWire.Writer(4);
+        for (long v : samples) w.writeSigned(v);
+        QuoteWire.Reader r = new QuoteWire.Reader(ByteBuffer.wrap(w.toByteArray()));
+        for (long v : samples) assertEquals(v, r.readSigned());
+        assertFalse(r.hasRemaining());
+        assertThrows(IllegalArgumentException.class,
+                () -> new QuoteWire.Reader(ByteBuffer.wrap(new byte[]{(byte) 0x80})).readVarint());
+    }
+
+    @Test
+    public void deltasReconstructBookValues() {
+        WireSession server = new WireSession(new byte[QuoteWire.TOKEN_BYTES]);
+        QuoteWireDecoder client = new QuoteWireDecoder();
+        client.decode(ByteBuffer.wrap(server.hello(false, false)), new QuoteWireDecoder.Listener() {});
+
+        byte[] symbols = server.subscribe(List.of("005930", "999999", "000660"), registry::indexOf, 10);
+        client.decode(ByteBuffer.wrap(symbols), new QuoteWireDecoder.Listener() {});
+        assertEquals("005930", client.codeOf(0));
+        assertEquals("000660", client.codeOf(1));
+        assertNull(server.subscribe(List.of("005930"), registry::indexOf, 10)); // 중복 구독
+
+        QuoteWire.Writer body = new QuoteWire.Writer(64), out = new QuoteWire.Writer(64);
+        int[] scratch = new int[QuoteBook.FIELD_COUNT];
+        Random random = new Random(3);
+        int price = 70_000;
+        for (int round = 0; round < 200; round++) {
+            price += (random.nextInt(5) - 2) * 100;
+            int index = random.nextInt(2);
+            book.update(index, tick(index == 0 ? "005930" : "000660", price, round));
+
+            byte[] msg = server.encodeQuotes(book, body, out, scratch);
+            assertNotNull(msg);
+            client.decode(ByteBuffer.wrap(msg), new QuoteWireDecoder.Listener() {});
+            for (int id = 0; id < 2; id++) {
+                int[] expected = new int[QuoteBook.FIELD_COUNT];
+                if (book.read(id, expected) == 0) continue;
+                for (int f = 0; f < QuoteBook.FIELD_COUNT; f++) {
+                    if (expected[f] != Integer.MIN_VALUE) assertEquals(expected[f], client.valuesOf(id)[f]);
+                }
+            }
+        }
+        assertEquals(server.lastSeq(), client.lastSeq());
+        assertNull(server.encodeQuotes(book, body, out, scratch)); // 변경 없음
+
+        // 시각/고저가 그대로고 가격만 바뀌면 가격·등락 필드만 전송
+        book.update(0, tick("005930", 71_000, 5));
+        client.decode(ByteBuffer.wrap(server.encodeQuotes(book, body, out, scratch)), new QuoteWireDecoder.Listener() {});
+        book.update(0, tick("005930", 71_100, 5));
+        int[] mask = {0};
+        client.decode(ByteBuffer.wrap(server.encodeQuotes(book, body, out, scratch)), new QuoteWireDecoder.Listener() {
+            @Override
+            public void onQuote(int id, String code, int[] values, int changedMask) {
+                mask[0] = changedMask;
+            }
+        });
+        assertEquals((1 << QuoteBook.PRICE) | (1 << QuoteBook.RATE) | (1 << QuoteBook.CHANGE), mask[0]);
+    }
+
+    @Test
+    public void handlerResumesSymbolTableAcrossReconnect() throws Exception {
+        BinaryQuoteHandler handler = new BinaryQuoteHandler(book, registry);
+        QuoteWireDecoder client = new QuoteWireDecoder();
+
+        List<byte[]> first = new ArrayList<>();
+        WebSocketSession s1 = session("s1", first);
+        handler.afterConnectionEstablished(s1);
+        handler.handleMessage(s1, new BinaryMessage(QuoteWireDecoder.subscribe("005930", "000660")));
+        book.update(0, tick("005930", 71_000, 1));
+        book.update(1, tick("000660", 120_000, 1));
+        ReflectionTestUtils.invokeMethod(handler, "flushSafely");
+        first.forEach(m -> client.decode(ByteBuffer.wrap(m), new QuoteWireDecoder.Listener() {}));
+        assertEquals(71_000, client.valuesOf(0)[QuoteBook.PRICE]);
+        handler.afterConnectionClosed(s1, CloseStatus.GOING_AWAY);
+
+        // 끊긴 사이의 변경도 재접속 후 델타로 이어짐
+        book.update(0, tick("005930", 71_500, 2));
+
+        List<byte[]> second = new ArrayList<>();
+        WebSocketSession s2 = session("s2", second);
+        handler.afterConnectionEstablished(s2);
+        handler.handleMessage(s2, new BinaryMessage(client.resume()));
+        ReflectionTestUtils.invokeMethod(handler, "flushSafely");
+
+        boolean[] resumed = {false};
+        // 첫 메시지는 새 연결의 HELLO (resumed=0) 이므로 건너뜀
+        second.subList(1, second.size()).forEach(m -> client.decode(ByteBuffer.wrap(m), new QuoteWireDecoder.Listener() {
+            @Override
+            public void onHello(byte[] token, boolean wasResumed, boolean deflate, long lastSeq) {
+                resumed[0] = wasResumed;
+            }
+        }));
+        assertTrue(resumed[0]);
+        assertEquals("005930", client.codeOf(0));
+        assertEquals(71_500, client.valuesOf(0)[QuoteBook.PRICE]);
+        assertEquals(120_000, client.valuesOf(1)[QuoteBook.PRICE]);
+
+        // 모르는 토큰 → 새 세션
+        List<byte[]> third = new ArrayList<>();
+        WebSocketSession s3 = session("s3", third);
+        handler.afterConnectionEstablished(s3);
+        QuoteWireDecoder stranger = new QuoteWireDecoder();
+        stranger.decode(ByteBuffer.wrap(third.get(0)), new QuoteWireDecoder.Listener() {});
+        handler.handleMessage(s3, new BinaryMessage(stranger.resume()));
+        stranger.decode(ByteBuffer.wrap(third.get(1)), new QuoteWireDecoder.Listener() {
+            @Override
+            public void onHello(byte[] token, boolean wasResumed, boolean deflate, long lastSeq) {
+                assertFalse(wasResumed);
+            }
+        });
+    }
+
+    private static WebSocketSession session(String id, List<byte[]> sink) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(inv -> {
+            WebSocketMessage<?> m = inv.getArgument(0);
+            ByteBuffer buf = ((BinaryMessage) m).getPayload();
+            byte[] bytes = new byte[buf.remaining()];
+            buf.get(bytes);
+            sink.add(bytes);
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+
+    private static TickData tick(String code, int price, int second) {
+        return TickData.builder()
+                .code(code)
+                .date(String.format("0900%02d", second % 60))
+                .closePrice(price)
+                .openPrice(70_000)
+                .highPrice(Math.max(price, 72_000))
+                .lowPrice(Math.min(price, 69_000))
+                .fluctuationRate(BigDecimal.valueOf(price - 70_000, 2))
+                .previousDay(price - 70_000)
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.LAGO.service;
+
+import com.example.LAGO.constants.Interval;
+import com.example.LAGO.domain.HistoryChallenge;
+import com.example.LAGO.domain.HistoryChallengeData;
+import com.example.LAGO.dto.response.HistoryChallengeDataResponse;
+import com.example.LAGO.repository.HistoryChallengeDataRepository;
+import com.example.LAGO.repository.HistoryChallengeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 메모리 타임라인: time_bucket 집계 규칙 / 커서 / 진행 중 챌린지 캐시 / TTL 재적재 / 대체 조회 캐시
+ */
+public class HistoryChallengeTimelineTest {
+
+    private static final LocalDateTime EVENT_START = LocalDateTime.of(2025, 8, 9, 15, 0);
+    private static final LocalDateTime ORIGIN_START = LocalDateTime.of(2020, 7, 8, 9, 0);
+
+    @Test
+    public void aggregatesLikeTimeBucketQuery() {
+        // 1분 간격 10개: 챌린지 일시 15:00~15:09 ↔ 과거 일시 09:00~09:09
+        HistoryChallengeTimeline.Series series = new HistoryChallengeTimeline.Series(challenge(), rows(10));
+
+        List<HistoryChallengeDataResponse> bars = series.aggregate(Interval.MINUTE5,
+                EVENT_START.plusMinutes(2), EVENT_START.plusMinutes(7));
+        assertEquals(2, bars.size());
+
+        HistoryChallengeDataResponse first = bars.get(0); // 과거 09:00 버킷, 범위 안은 09:02~09:04
+        assertEquals(1L, first.getRowId());
+        assertEquals(ORIGIN_START, first.getOriginDateTime());
+        assertEquals(EVENT_START.plusMinutes(2), first.getEventDateTime());
+        assertEquals(1020, first.getOpenPrice());
+        assertEquals(1045, first.getHighPrice());
+        assertEquals(1015, first.getLowPrice());
+        assertEquals(1040, first.getClosePrice());
+        assertEquals(2L + 3 + 4, first.getVolume());
+
+        HistoryChallengeDataResponse second = bars.get(1); // 09:05 버킷, BETWEEN 이라 09:07 포함
+        assertEquals(ORIGIN_START.plusMinutes(5), second.getOriginDateTime());
+        assertEquals(1050, second.getOpenPrice());
+        assertEquals(1070, second.getClosePrice());
+        assertEquals(5L + 6 + 7, second.getVolume());
+        assertEquals(20, second.getFluctuationPrice());
+
+        // 2020-07-08 은 수요일 → 주 버킷은 월요일 2020-07-06, 월 버킷은 2020-07-01
+        HistoryChallengeDataResponse week = series.aggregate(Interval.WEEK, EVENT_START, EVENT_START.plusHours(1)).get(0);
+        assertEquals(LocalDateTime.of(2020, 7, 6, 0, 0), week.getOriginDateTime());
+        assertEquals(45L, week.getVolume());
+        assertEquals(LocalDateTime.of(2020, 7, 1, 0, 0),
+                series.aggregate(Interval.MONTH, EVENT_START, EVENT_START.plusHours(1)).get(0).getOriginDateTime());
+        assertTrue(series.aggregate(Interval.DAY, EVENT_START.minusDays(1), EVENT_START.minusSeconds(1)).isEmpty());
+    }
+
+    @Test
+    public void cursorFollowsClockAndActiveChallengeIsCached() {
+        HistoryChallengeRepository challenges = mock(HistoryChallengeRepository.class);
+        HistoryChallengeDataRepository data = mock(HistoryChallengeDataRepository.class);
+        HistoryChallenge challenge = challenge();
+        when(challenges.findByDate(any())).thenReturn(challenge);
+        when(challenges.findById(1)).thenReturn(Optional.of(challenge));
+        when(data.findAllByChallengeIdOrderByEventDateTime(1)).thenReturn(rows(200));
+
+        HistoryChallengeTimeline timeline = new HistoryChallengeTimeline(challenges, data);
+        HistoryChallengeTimeline.Series series = timeline.active(EVENT_START.plusSeconds(30));
+        assertNotNull(series);
+        assertSame(series, timeline.series(1));
+
+        assertEquals(-1, series.indexAt(EVENT_START.minusSeconds(1)));
+        assertEquals(0, series.indexAt(EVENT_START.plusSeconds(59)));
+        assertEquals(3, series.indexAt(EVENT_START.plusMinutes(3)));
+        assertEquals(150, series.indexAt(EVENT_START.plusMinutes(150).plusSeconds(10))); // 크게 건너뜀
+        assertEquals(2, series.indexAt(EVENT_START.plusMinutes(2)));                      // 시계가 뒤로
+        assertEquals(199, series.indexAt(EVENT_START.plusDays(1)));
+        HistoryChallengeData latest = series.dataAt(3);
+        assertEquals(ORIGIN_START.plusMinutes(3), latest.getOriginDateTime());
+        assertEquals(1030, latest.getClosePrice());
+
+        for (int i = 0; i < 100; i++) timeline.active(EVENT_START.plusSeconds(31 + i));
+        verify(challenges, times(1)).findByDate(any());
+        verify(data, times(1)).findAllByChallengeIdOrderByEventDateTime(1);
+
+        // 챌린지가 끝난 뒤에는 active-check-ms 안에 다시 조회하지 않음
+        when(challenges.findByDate(any())).thenReturn(null);
+        assertNull(timeline.active(EVENT_START.plusDays(1).plusSeconds(1)));
+        assertNull(timeline.active(EVENT_START.plusDays(1).plusSeconds(2)));
+        assertEquals(1L, timeline.getStats().get("activeChecks"));
+    }
+
+    @Test
+    public void expiredSeriesIsReloadedAndEvicted() {
+        HistoryChallengeRepository challenges = mock(HistoryChallengeRepository.class);
+        HistoryChallengeDataRepository data = mock(HistoryChallengeDataRepository.class);
+        HistoryChallenge challenge = challenge();
+        when(challenges.findByDate(any())).thenReturn(challenge);
+        when(challenges.findById(1)).thenReturn(Optional.of(challenge));
+        when(data.findAllByChallengeIdOrderByEventDateTime(1)).thenReturn(rows(10), rows(20));
+
+        HistoryChallengeTimeline timeline = new HistoryChallengeTimeline(challenges, data);
+        HistoryChallengeTimeline.Series first = timeline.active(EVENT_START);
+        assertEquals(10, first.size());
+        assertSame(first, timeline.series(1));
+
+        // TTL 이 지나면 진행 중 챌린지도 다음 조회 때 다시 읽음 (보정된 데이터 반영)
+        ReflectionTestUtils.setField(timeline, "seriesTtlMs", 0L);
+        HistoryChallengeTimeline.Series reloaded = timeline.active(EVENT_START);
+        assertEquals(20, reloaded.size());
+        verify(challenges, times(1)).findByDate(any());
+
+        timeline.evictExpired();
+        assertEquals(0, timeline.getStats().get("loadedChallenges"));
+        assertEquals(1L, timeline.getStats().get("evictions"));
+    }
+
+    @Test
+    public void fallbackLatestIsCachedForActiveCheckPeriod() {
+        HistoryChallengeDataRepository data = mock(HistoryChallengeDataRepository.class);
+        HistoryChallengeData last = rows(1).get(0);
+        when(data.findLatestChallengeData(any())).thenReturn(last);
+
+        HistoryChallengeTimeline timeline = new HistoryChallengeTimeline(mock(HistoryChallengeRepository.class), data);
+        for (int i = 0; i < 100; i++) assertSame(last, timeline.latestFallback(EVENT_START.plusDays(2).plusSeconds(i)));
+        verify(data, times(1)).findLatestChallengeData(any());
+        assertEquals(1L, timeline.getStats().get("fallbackQueries"));
+    }
+
+    private static HistoryChallenge challenge() {
+        return HistoryChallenge.builder().challengeId(1).stockCode("068270").stockName("셀트리온")
+                .startDate(EVENT_START).endDate(EVENT_START.plusDays(1)).originDate(ORIGIN_START).build();
+    }
+
+    private static List<HistoryChallengeData> rows(int count) {
+        List<HistoryChallengeData> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(HistoryChallengeData.builder().challengeId(1)
+                    .eventDateTime(EVENT_START.plusMinutes(i)).originDateTime(ORIGIN_START.plusMinutes(i))
+                    .openPrice(1000 + i * 10).highPrice(1005 + i * 10).lowPrice(995 + i * 10).closePrice(1000 + i * 10)
+                    .volume(i).build());
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.LAGO.service;
+
+import com.example.LAGO.domain.TradeType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 같은 계좌에 매수/매도를 동시에 몰아넣어도 잔액 음수, 초과 매도, 금액 불일치가 없는지 PostgreSQL에서 검증
+ * (주문별 트랜잭션 / 그룹 커밋 저널 두 경로 모두)
+ * (Docker가 없으면 건너뜀)
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrderExecutionEngine.class, OrderJournal.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OrderExecutionEngineStressTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+            DockerImageName.parse("timescale/timescaledb:latest-pg16").asCompatibleSubstituteFor("postgres"));
+
+    private static final int ACCOUNTS = 4;
+    private static final int STOCK = 1;
+    private static final int PRICE = 1_000;
+    private static final int INITIAL_BALANCE = 50_000;
+
+    private static JdbcTemplate jdbc;
+
+    @Autowired
+    private OrderExecutionEngine engine;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("trading.order.lanes", () -> 2); // 계좌 4개가 lane 2개를 나눠 쓰도록
+    }
+
+    @BeforeAll
+    static void createSchema() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbc.execute("""
+                CREATE TABLE accounts (
+                    account_id  BIGSERIAL PRIMARY KEY,
+                    user_id     BIGINT  NOT NULL,
+                    balance     INTEGER NOT NULL,
+                    total_asset INTEGER NOT NULL,
+                    profit      INTEGER NOT NULL,
+                    profit_rate DOUBLE PRECISION NOT NULL,
+                    type        INTEGER NOT NULL
+                )
+                """);
+        jdbc.execute("""
+                CREATE TABLE stock_holding (
+                    holding_id    BIGSERIAL PRIMARY KEY,
+                    account_id    BIGINT  NOT NULL,
+                    stock_info_id INTEGER NOT NULL,
+                    quantity      INTEGER NOT NULL,
+                    total_price   INTEGER NOT NULL
+                )
+                """);
+        jdbc.execute("CREATE SEQUENCE mock_trade_trade_id_seq");
+        jdbc.execute("""
+                CREATE TABLE mock_trade (
+                    trade_id   BIGINT PRIMARY KEY,
+                    account_id BIGINT,
+                    stock_id   INTEGER,
+                    buy_sell   VARCHAR(10) NOT NULL,
+                    quantity   INTEGER NOT NULL,
+                    price      INTEGER NOT NULL,
+                    trade_at   TIMESTAMP NOT NULL,
+                    is_quiz    BOOLEAN
+                )
+                """);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("TRUNCATE accounts, stock_holding, mock_trade RESTART IDENTITY");
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            jdbc.update("INSERT INTO accounts (user_id, balance, total_asset, profit, profit_rate, type) VALUES (?, ?, ?, 0, 0, 0)",
+                    i, INITIAL_BALANCE, INITIAL_BALANCE);
+        }
+    }
+
+    @ParameterizedTest(name = "groupCommit={0}")
+    @ValueSource(booleans = {true, false})
+    public void concurrentOrdersNeverOverdrawOrOversell(boolean groupCommit) throws Exception {
+        ReflectionTestUtils.setField(engine, "groupCommit", groupCommit);
+
+        // 계좌당 잔액으로 50주까지만 살 수 있는데 매수 200건(1~3주) + 매도 200건(1~3주)을 동시에 제출
+        Random random = new Random(24);
+        List<Callable<Boolean>> orders = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            long accountId = 1 + random.nextInt(ACCOUNTS);
+            int quantity = 1 + random.nextInt(3);
+            TradeType type = i % 2 == 0 ? TradeType.BUY : TradeType.SELL;
+            orders.add(() -> {
+                try {
+                    engine.execute(new OrderExecutionEngine.OrderCommand(
+                            accountId, STOCK, type, quantity, PRICE, quantity * PRICE, true));
+                    return true;
+                } catch (OrderExecutionEngine.OrderRejectedException e) {
+                    assertNotEquals("ORDER_TIMEOUT", e.getErrorCode());
+                    return false;
+                }
+            });
+        }
+
+        int filled = 0;
+        try (ExecutorService clients = Executors.newFixedThreadPool(32)) {
+            for (Future<Boolean> result : clients.invokeAll(orders)) {
+                if (result.get()) filled++;
+            }
+        }
+        assertTrue(filled > 0);
+        assertEquals(filled, jdbc.queryForObject("SELECT count(*) FROM mock_trade", Integer.class));
+
+        for (long accountId = 1; accountId <= ACCOUNTS; accountId++) {
+            int balance = jdbc.queryForObject("SELECT balance FROM accounts WHERE account_id = ?", Integer.class, accountId);
+            int totalAsset = jdbc.queryForObject("SELECT total_asset FROM accounts WHERE account_id = ?", Integer.class, accountId);
+            int holding = jdbc.queryForObject(
+                    "SELECT COALESCE(SUM(quantity), 0) FROM stock_holding WHERE account_id = ?", Integer.class, accountId);
+            int holdingRows = jdbc.queryForObject(
+                    "SELECT count(*) FROM stock_holding WHERE account_id = ?", Integer.class, accountId);
+            int bought = jdbc.queryForObject(
+                    "SELECT COALESCE(SUM(quantity), 0) FROM mock_trade WHERE account_id = ? AND buy_sell = 'BUY'", Integer.class, accountId);
+            int sold = jdbc.queryForObject(
+                    "SELECT COALESCE(SUM(quantity), 0) FROM mock_trade WHERE account_id = ? AND buy_sell = 'SELL'", Integer.class, accountId);
+
+            assertTrue(balance >= 0, "balance must not go negative");
+            assertTrue(holding >= 0, "position must not go negative");
+            assertTrue(holdingRows <= 1, "one holding row per account/stock");
+            assertEquals(bought - sold, holding);
+            // 단가 고정 → 현금 + 보유 수량 * 단가 는 항상 초기 잔액
+            assertEquals(INITIAL_BALANCE, balance + holding * PRICE);
+            assertEquals(balance, totalAsset - jdbc.queryForObject(
+                    "SELECT COALESCE(SUM(total_price), 0) FROM stock_holding WHERE account_id = ?", Integer.class, accountId));
+        }
+    }
+}
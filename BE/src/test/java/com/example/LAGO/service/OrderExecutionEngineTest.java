@@ -0,0 +1,118 @@
+package com.example.LAGO.service;
+
+import com.example.LAGO.domain.MockTrade;
+import com.example.LAGO.domain.TradeType;
+import com.example.LAGO.repository.AccountRepository;
+import com.example.LAGO.repository.MockTradeRepository;
+import com.example.LAGO.repository.StockHoldingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 같은 계좌 주문은 겹치지 않고 한 번에 하나씩 / 거절 사유 집계 / lane 안 재호출
+ */
+public class OrderExecutionEngineTest {
+
+    private AccountRepository accounts;
+    private StockHoldingRepository holdings;
+    private MockTradeRepository trades;
+    private OrderExecutionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        accounts = mock(AccountRepository.class);
+        holdings = mock(StockHoldingRepository.class);
+        trades = mock(MockTradeRepository.class);
+        when(trades.save(any(MockTrade.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(accounts.findBalanceByAccountId(anyLong())).thenReturn(Optional.of(0));
+
+        engine = new OrderExecutionEngine(accounts, holdings, trades, mock(OrderJournal.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(engine, "laneCount", 4);
+        ReflectionTestUtils.setField(engine, "groupCommit", false);
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    public void ordersOfOneAccountNeverOverlap() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(accounts.debitIfSufficient(eq(7L), anyInt())).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(1);
+            inFlight.decrementAndGet();
+            return 1;
+        });
+        when(holdings.addToHolding(anyLong(), any(), anyInt(), anyInt())).thenReturn(1);
+
+        List<Future<OrderExecutionEngine.Fill>> results = new ArrayList<>();
+        try (ExecutorService clients = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 64; i++) {
+                results.add(clients.submit(() -> engine.execute(buy(7L, 1_000))));
+            }
+            for (Future<OrderExecutionEngine.Fill> result : results) {
+                assertNotNull(result.get());
+            }
+        }
+        assertEquals(1, maxInFlight.get());
+        assertEquals(64L, engine.getStats().get("filled"));
+    }
+
+    @Test
+    public void rejectsWithoutTouchingHoldingsOrJournal() {
+        when(accounts.debitIfSufficient(1L, 5_000)).thenReturn(0);
+        when(accounts.findBalanceByAccountId(1L)).thenReturn(Optional.of(3_000));
+
+        OrderExecutionEngine.OrderRejectedException e = assertThrows(
+                OrderExecutionEngine.OrderRejectedException.class, () -> engine.execute(buy(1L, 5_000)));
+        assertEquals("INSUFFICIENT_BALANCE", e.getErrorCode());
+        verifyNoInteractions(holdings, trades);
+        assertEquals(Map.of("INSUFFICIENT_BALANCE", 1L), engine.getStats().get("rejected"));
+
+        when(holdings.reduceIfSufficient(1L, 3, 2)).thenReturn(0);
+        e = assertThrows(OrderExecutionEngine.OrderRejectedException.class, () -> engine.execute(
+                new OrderExecutionEngine.OrderCommand(1L, 3, TradeType.SELL, 2, 1_000, 2_000, false)));
+        assertEquals("INSUFFICIENT_STOCK", e.getErrorCode());
+        verify(accounts, never()).credit(anyLong(), anyInt());
+    }
+
+    @Test
+    public void nestedOrderOnSameLaneRunsInline() {
+        when(accounts.debitIfSufficient(anyLong(), anyInt())).thenReturn(1);
+        when(holdings.addToHolding(anyLong(), any(), anyInt(), anyInt())).thenAnswer(inv -> {
+            // 같은 lane(2 ↔ 6) 안에서 다시 체결 요청 → 대기하면 교착
+            if (inv.<Long>getArgument(0) == 2L) engine.execute(buy(6L, 100));
+            return 1;
+        });
+        assertNotNull(engine.execute(buy(2L, 100)));
+        assertEquals(2L, engine.getStats().get("filled"));
+    }
+
+    private static OrderExecutionEngine.OrderCommand buy(long accountId, int amount) {
+        return new OrderExecutionEngine.OrderCommand(accountId, 3, TradeType.BUY, 1, amount, amount, false);
+    }
+}
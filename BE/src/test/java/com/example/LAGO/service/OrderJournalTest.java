@@ -0,0 +1,218 @@
+package com.example.LAGO.service;
+
+import com.example.LAGO.domain.TradeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 동시에 들어온 주문이 배치 1개로 묶여 커밋된 뒤 응답 / 배치 실패 시 묶인 주문 모두 실패 / 대기 상한
+ * + apply: 같은 배치 안에서 도착 순서대로 잔액/수량이 이어지는지 (Connection 은 가짜)
+ */
+public class OrderJournalTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private OrderJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        journal.stop();
+    }
+
+    @Test
+    public void groupsConcurrentOrdersIntoOneBatch() throws Exception {
+        // 배치 크기만큼 체결 결과를 돌려주는 가짜 트랜잭션 본문
+        when(jdbc.execute(any(ConnectionCallback.class))).thenAnswer(inv -> {
+            List<OrderExecutionEngine.Fill> fills = new ArrayList<>();
+            for (OrderJournal.Entry entry : lastBatch()) {
+                fills.add(new OrderExecutionEngine.Fill(entry.command.accountId(), 0, entry.command.quantity()));
+            }
+            return fills;
+        });
+        start(60_000, 8);
+
+        List<Future<OrderExecutionEngine.Fill>> results = new ArrayList<>();
+        try (ExecutorService clients = Executors.newFixedThreadPool(8)) {
+            for (long accountId = 1; accountId <= 8; accountId++) {
+                long id = accountId;
+                results.add(clients.submit(() -> journal.commit(buy(id))));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i + 1L, results.get(i).get().tradeId()); // 각자 자기 주문 결과
+            }
+        }
+        // 8건이 찼으므로 flush-interval 을 기다리지 않고 한 번에 커밋
+        assertEquals(1L, journal.getStats().get("batches"));
+        assertEquals(8L, journal.getStats().get("committedOrders"));
+        verify(jdbc, times(1)).execute(any(ConnectionCallback.class));
+    }
+
+    @Test
+    public void failedBatchFailsEveryOrderInIt() {
+        when(jdbc.execute(any(ConnectionCallback.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+        start(0, 16);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> journal.commit(buy(1L)));
+        assertEquals(1L, journal.getStats().get("failedBatches"));
+        assertEquals(0L, journal.getStats().get("committedOrders"));
+    }
+
+    @Test
+    public void ordersNotPickedUpInTimeAreRejectedAndDequeued() {
+        journal = new OrderJournal(jdbc, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(journal, "commitTimeoutMs", 50L);
+        ReflectionTestUtils.setField(journal, "running", true); // 커미터 없음 → 대기열에서 꺼내지지 않음
+
+        OrderExecutionEngine.OrderRejectedException e =
+                assertThrows(OrderExecutionEngine.OrderRejectedException.class, () -> journal.commit(buy(1L)));
+        assertEquals("ORDER_TIMEOUT", e.getErrorCode());
+        assertEquals(0, journal.getStats().get("queued"));
+        assertEquals(1L, journal.getStats().get("timeouts"));
+    }
+
+    @Test
+    public void buyThenSellInOneBatchChainsBalanceAndHolding() throws Exception {
+        journal = new OrderJournal(jdbc, mock(PlatformTransactionManager.class));
+        FakeConnection db = new FakeConnection();
+        db.accounts.add(new Object[]{1L, 10_000});
+
+        List<OrderJournal.Entry> batch = List.of(
+                entry(1L, TradeType.BUY, 5, 5_000),
+                entry(1L, TradeType.SELL, 2, 2_400));
+        List<OrderExecutionEngine.Fill> fills = journal.apply(db.connection, batch);
+
+        // 매수 후 잔액 5,000 / 5주 → 같은 배치의 매도는 그 보유분에서 2주
+        assertEquals(new OrderExecutionEngine.Fill(101L, 5_000, 5), fills.get(0));
+        assertEquals(new OrderExecutionEngine.Fill(102L, 7_400, 3), fills.get(1));
+        assertNull(batch.get(1).rejection);
+        assertTrue(db.executed("INSERT INTO stock_holding"));
+        assertTrue(db.executed("INSERT INTO mock_trade"));
+    }
+
+    @Test
+    public void oversellIsRejectedMidBatchWithoutAffectingOthers() throws Exception {
+        journal = new OrderJournal(jdbc, mock(PlatformTransactionManager.class));
+        FakeConnection db = new FakeConnection();
+        db.accounts.add(new Object[]{1L, 1_000});
+        db.holdings.add(new Object[]{77L, 1L, 3, 3, 3_000});
+
+        List<OrderJournal.Entry> batch = List.of(
+                entry(1L, TradeType.SELL, 2, 2_000),
+                entry(1L, TradeType.SELL, 2, 2_000),   // 남은 1주 → 거절
+                entry(1L, TradeType.SELL, 1, 1_000));
+        List<OrderExecutionEngine.Fill> fills = journal.apply(db.connection, batch);
+
+        assertEquals(new OrderExecutionEngine.Fill(101L, 3_000, 1), fills.get(0));
+        assertNull(fills.get(1));
+        assertEquals("INSUFFICIENT_STOCK", batch.get(1).rejection.getErrorCode());
+        assertEquals(new OrderExecutionEngine.Fill(102L, 4_000, 0), fills.get(2)); // 거절 건은 trade_id 를 소비하지 않음
+        assertTrue(db.executed("DELETE FROM stock_holding"));                   // 전량 매도 → 행 삭제
+    }
+
+    @Test
+    public void buyThenSellAllInOneBatchInsertsNoHolding() throws Exception {
+        journal = new OrderJournal(jdbc, mock(PlatformTransactionManager.class));
+        FakeConnection db = new FakeConnection();
+        db.accounts.add(new Object[]{1L, 10_000});
+
+        List<OrderJournal.Entry> batch = List.of(
+                entry(1L, TradeType.BUY, 4, 4_000),
+                entry(1L, TradeType.SELL, 4, 4_400));
+        List<OrderExecutionEngine.Fill> fills = journal.apply(db.connection, batch);
+
+        assertEquals(10_400, fills.get(1).balance());
+        assertEquals(0, fills.get(1).holdingQuantity());
+        assertFalse(db.executed("INSERT INTO stock_holding"));
+        assertFalse(db.executed("DELETE FROM stock_holding"));
+        assertTrue(db.executed("UPDATE accounts a SET balance"));
+    }
+
+    private static OrderJournal.Entry entry(long accountId, TradeType side, int quantity, int amount) {
+        return new OrderJournal.Entry(new OrderExecutionEngine.OrderCommand(
+                accountId, 3, side, quantity, amount / quantity, amount, false), LocalDateTime.now());
+    }
+
+    /**
+     * 잠금 조회는 준비한 행을 돌려주고, 나머지 문장은 실행된 SQL 만 기록하는 가짜 Connection
+     */
+    private static final class FakeConnection {
+        final Connection connection = mock(Connection.class);
+        final List<Object[]> accounts = new ArrayList<>();  // account_id, balance
+        final List<Object[]> holdings = new ArrayList<>();  // holding_id, account_id, stock_info_id, quantity, total_price
+        final List<String> sql = new ArrayList<>();
+
+        FakeConnection() throws SQLException {
+            when(connection.createArrayOf(anyString(), any())).thenAnswer(inv -> mock(Array.class));
+            when(connection.prepareStatement(anyString())).thenAnswer(inv -> statement(inv.getArgument(0)));
+        }
+
+        boolean executed(String prefix) {
+            return sql.stream().anyMatch(s -> s.strip().startsWith(prefix));
+        }
+
+        private PreparedStatement statement(String text) throws SQLException {
+            sql.add(text);
+            PreparedStatement ps = mock(PreparedStatement.class);
+            List<Object[]> rows = text.contains("FROM accounts") ? accounts
+                    : text.contains("FROM stock_holding") && text.contains("FOR UPDATE") ? holdings
+                    : text.contains("nextval") ? List.of(new Object[]{101L}, new Object[]{102L}, new Object[]{103L})
+                    : List.of();
+            when(ps.executeQuery()).thenAnswer(inv -> resultSet(rows));
+            return ps;
+        }
+
+        private static ResultSet resultSet(List<Object[]> rows) throws SQLException {
+            ResultSet rs = mock(ResultSet.class);
+            int[] cursor = {-1};
+            when(rs.next()).thenAnswer(inv -> ++cursor[0] < rows.size());
+            when(rs.getLong(anyInt())).thenAnswer(inv ->
+                    ((Number) rows.get(cursor[0])[inv.<Integer>getArgument(0) - 1]).longValue());
+            when(rs.getInt(anyInt())).thenAnswer(inv ->
+                    ((Number) rows.get(cursor[0])[inv.<Integer>getArgument(0) - 1]).intValue());
+            return rs;
+        }
+    }
+
+    private void start(long flushIntervalMs, int maxBatch) {
+        journal = spy(new OrderJournal(jdbc, mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(journal, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(journal, "maxBatch", maxBatch);
+        journal.start();
+    }
+
+    private List<OrderJournal.Entry> lastBatch() {
+        List<OrderJournal.Entry> batch = new ArrayList<>();
+        mockingDetails(journal).getInvocations().stream()
+                .filter(inv -> inv.getMethod().getName().equals("flush"))
+                .reduce((a, b) -> b)
+                .ifPresent(inv -> batch.addAll(inv.getArgument(0)));
+        return batch;
+    }
+
+    private static OrderExecutionEngine.OrderCommand buy(long accountId) {
+        return new OrderExecutionEngine.OrderCommand(accountId, 3, TradeType.BUY, 1, 1_000, 1_000, false);
+    }
+}
@@ -0,0 +1,102 @@
+-- 실시간 시세 파이프라인이 쓰는 테이블/인덱스/트리거
+-- 앱은 DDL 을 실행하지 않고 존재만 확인한다 (RealtimeSchema) - 배포 전에 이 스크립트를 한 번 적용
+-- 모든 문장은 다시 실행해도 안전 (IF NOT EXISTS / OR REPLACE)
+-- CREATE INDEX CONCURRENTLY 는 트랜잭션 밖에서만 실행되므로 psql 로 그대로 실행 (-1 / --single-transaction 금지)
+
+
+-- =====================================================================
+-- 1) stock_minute (stock_info_id, date) 유니크 키 - StockMinuteBatchWriter 의 ON CONFLICT 대상
+-- =====================================================================
+
+-- 1-1) 먼저 중복 행 확인 (같은 종목/분에 여러 행)
+SELECT stock_info_id, date, count(*) AS rows
+FROM stock_minute
+GROUP BY stock_info_id, date
+HAVING count(*) > 1
+ORDER BY rows DESC
+LIMIT 20;
+
+-- 1-2) 중복은 가장 최근 행(stock_min_id 최대)만 남기고 삭제 - 되돌릴 수 없으므로 위 결과를 검토한 뒤 실행
+DELETE FROM stock_minute a USING stock_minute b
+WHERE a.stock_info_id = b.stock_info_id AND a.date = b.date AND a.stock_min_id < b.stock_min_id;
+
+-- 1-3) 쓰기를 막지 않도록 CONCURRENTLY (실패하면 INVALID 인덱스가 남으므로 DROP 후 다시 실행)
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS stock_minute_stock_date_uk ON stock_minute (stock_info_id, date);
+
+
+-- =====================================================================
+-- 2) "TICKS_STAGE" - CopyOhlcIngestService 의 COPY 스테이징 (UNLOGGED, batch_id 로 구분 후 같은 트랜잭션에서 삭제)
+-- =====================================================================
+
+CREATE UNLOGGED TABLE IF NOT EXISTS "TICKS_STAGE" (
+    batch_id      BIGINT      NOT NULL,
+    stock_info_id INTEGER     NOT NULL,
+    ts            TIMESTAMPTZ NOT NULL,
+    open_price    INTEGER,
+    high_price    INTEGER,
+    low_price     INTEGER,
+    close_price   INTEGER,
+    volume        BIGINT
+);
+
+
+-- =====================================================================
+-- 3) "TICKS_INGEST_LEDGER" - ChunkIngestLedger 청크 적재 원장 (chunk_id 키, 보관 기간 지나면 앱이 삭제)
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS "TICKS_INGEST_LEDGER" (
+    chunk_id    TEXT        PRIMARY KEY,
+    chunk_seq   BIGINT      NOT NULL,
+    ingested_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- chunk_seq 가 PK 였던 기존 원장을 chunk_id PK 로 전환
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+        WHERE c.conrelid = '"TICKS_INGEST_LEDGER"'::regclass AND c.contype = 'p' AND a.attname = 'chunk_seq'
+    ) THEN
+        ALTER TABLE "TICKS_INGEST_LEDGER" DROP CONSTRAINT "TICKS_INGEST_LEDGER_pkey";
+        ALTER TABLE "TICKS_INGEST_LEDGER" ADD PRIMARY KEY (chunk_id);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS "TICKS_INGEST_LEDGER_ingested_at_idx" ON "TICKS_INGEST_LEDGER" (ingested_at);
+
+
+-- =====================================================================
+-- 4) stock_last_price - StockLastPriceStore 종목별 마지막 체결가
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS stock_last_price (
+    stock_info_id INTEGER     PRIMARY KEY,
+    close_price   INTEGER     NOT NULL,
+    ts            TIMESTAMPTZ NOT NULL,
+    updated_at    TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+-- 처음 만들었으면 최근 7일 "TICKS" 에서 채움 (이미 있는 종목은 건드리지 않음)
+INSERT INTO stock_last_price (stock_info_id, close_price, ts)
+SELECT DISTINCT ON (stock_info_id) stock_info_id, close_price, ts
+FROM "TICKS"
+WHERE ts > now() - interval '7 days' AND close_price > 0
+ORDER BY stock_info_id, ts DESC
+ON CONFLICT (stock_info_id) DO NOTHING;
+
+
+-- =====================================================================
+-- 5) stock_info 변경 알림 트리거 - StockInfoChangeListener 가 LISTEN (없으면 10분 주기 갱신만)
+-- =====================================================================
+
+CREATE OR REPLACE FUNCTION notify_stock_info_changed() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('stock_info_changed', TG_OP);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER stock_info_changed_notify
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON stock_info
+    FOR EACH STATEMENT EXECUTE FUNCTION notify_stock_info_changed();